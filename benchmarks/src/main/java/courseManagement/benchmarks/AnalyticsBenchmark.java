@@ -0,0 +1,60 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.GradeReport;
+import courseManagement.ReportSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Parallel grade analytics: time for one full {@link ReportSnapshot#analyze(ForkJoinPool)} pass over
+ * {@code bookings} bookings with {@code parallelism} worker threads.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class AnalyticsBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int bookings;
+
+    @Param({"1", "4", "16", "64"})
+    public int parallelism;
+
+    private ReportSnapshot snapshot;
+    private ForkJoinPool pool;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CourseManager manager = Fixtures.populate(bookings);
+        snapshot = manager.snapshot();
+        pool = new ForkJoinPool(parallelism);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public GradeReport analyze() {
+        return snapshot.analyze(pool);
+    }
+}
@@ -0,0 +1,126 @@
+package courseManagement.benchmarks;
+
+import courseManagement.BulkLoader;
+import courseManagement.CourseManager;
+import courseManagement.LoadReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a whole term from a file. The file has COURSES courses with EXAMS_PER_COURSE exams each, then
+ * one student row per student followed by a booking for each of the course's exams: two graded, one confirmed
+ * and one pending. So {@code rows} rows make about rows / 5 students and 1.2 status changes per row.
+ * {@code csv} and {@code binary} load the file with BulkLoader; {@code calls} makes the same changes with
+ * the try* methods, as a baseline without parsing.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g", "-Xmn1500m"})
+@State(Scope.Benchmark)
+public class BulkLoadBenchmark {
+    private static final int COURSES = 1000;
+    private static final int EXAMS_PER_COURSE = 4;
+
+    @Param({"1000000", "10000000"})
+    public int rows;
+
+    private Path directory;
+    private Path csv;
+    private Path binary;
+    private int students;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("bulk-load");
+        csv = directory.resolve("term.csv");
+        binary = directory.resolve("term.bin");
+        students = (rows - COURSES * (1 + EXAMS_PER_COURSE)) / (1 + EXAMS_PER_COURSE);
+        try (Writer out = new BufferedWriter(Files.newBufferedWriter(csv), 1 << 20)) {
+            for (int c = 0; c < COURSES; c++) {
+                out.write("course,C" + c + ",1000000\n");
+            }
+            for (int c = 0; c < COURSES; c++) {
+                for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                    out.write("exam,C" + c + ",E" + c + "-" + e + ",Room " + c % 50 + "\n");
+                }
+            }
+            for (int s = 0; s < students; s++) {
+                int c = s % COURSES;
+                out.write("student,S" + s + ",C" + c + "\n");
+                for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                    out.write("booking,S" + s + ",E" + c + "-" + e + status(e, s) + "\n");
+                }
+            }
+        }
+        BulkLoader.convert(csv, binary);
+    }
+
+    private static String status(int exam, int student) {
+        return exam < 2 ? ",COMPLETED," + student % 101 : exam == 2 ? ",CONFIRMED" : "";
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(csv);
+        Files.deleteIfExists(binary);
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    public LoadReport csv() throws IOException {
+        return BulkLoader.load(new CourseManager(), csv);
+    }
+
+    @Benchmark
+    public LoadReport binary() throws IOException {
+        return BulkLoader.load(new CourseManager(), binary);
+    }
+
+    @Benchmark
+    public CourseManager calls() {
+        CourseManager manager = new CourseManager();
+        for (int c = 0; c < COURSES; c++) {
+            manager.tryAddCourse("C" + c, 1000000);
+        }
+        for (int c = 0; c < COURSES; c++) {
+            for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                manager.tryAddExam("C" + c, "E" + c + "-" + e, "Room " + c % 50);
+            }
+        }
+        for (int s = 0; s < students; s++) {
+            int c = s % COURSES;
+            String studentId = "S" + s;
+            manager.tryEnrollStudent(studentId, "C" + c);
+            for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                int bookingNumber = manager.tryBookExam(studentId, "E" + c + "-" + e);
+                if (e < 3) {
+                    manager.tryConfirmBooking(bookingNumber);
+                }
+                if (e < 2) {
+                    manager.trySetGrade(bookingNumber, s % 101);
+                }
+            }
+        }
+        return manager;
+    }
+}
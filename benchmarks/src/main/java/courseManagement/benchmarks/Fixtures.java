@@ -0,0 +1,125 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.ResultCode;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Builds CourseManager instances pre-populated with a given number of bookings.
+ * Layout: every course has STUDENTS_PER_COURSE students and EXAMS_PER_COURSE exams, and every
+ * student books every exam of their course. Half of the bookings are CONFIRMED, a quarter COMPLETED.
+ */
+final class Fixtures {
+    static final int STUDENTS_PER_COURSE = 1000;
+    static final int EXAMS_PER_COURSE = 4;
+
+    private Fixtures() {
+    }
+
+    static String courseId(int course) {
+        return "C" + course;
+    }
+
+    static String studentId(int course, int student) {
+        return "S" + course + "-" + student;
+    }
+
+    static String examId(int course, int exam) {
+        return "E" + course + "-" + exam;
+    }
+
+    /**
+     * @return The number of courses needed to hold the given number of bookings.
+     */
+    static int coursesFor(int bookings) {
+        return Math.max(1, bookings / (STUDENTS_PER_COURSE * EXAMS_PER_COURSE));
+    }
+
+    /**
+     * Creates a manager holding roughly the given number of bookings, loaded through the batch API.
+     * @param bookings The target number of bookings.
+     * @return The populated manager.
+     */
+    static CourseManager populate(int bookings) {
+        return populate(new CourseManager(), bookings);
+    }
+
+    /**
+     * Loads roughly the given number of bookings into an empty manager.
+     * @param manager The manager to fill, for example one created with {@link CourseManager#withColumnarBookings()}.
+     * @param bookings The target number of bookings.
+     * @return The populated manager.
+     */
+    static CourseManager populate(CourseManager manager, int bookings) {
+        int courses = coursesFor(bookings);
+        int studentsPerCourse = Math.min(STUDENTS_PER_COURSE, Math.max(1, bookings / EXAMS_PER_COURSE));
+
+        Map<String, Integer> newCourses = new LinkedHashMap<>();
+        for (int c = 0; c < courses; c++) {
+            newCourses.put(courseId(c), CourseManager.MAX_COURSE_CAPACITY);
+        }
+        check(manager.addCourses(newCourses).values());
+
+        for (int c = 0; c < courses; c++) {
+            Map<String, List<String>> enrollments = new LinkedHashMap<>();
+            for (int s = 0; s < studentsPerCourse; s++) {
+                enrollments.put(studentId(c, s), List.of(courseId(c)));
+            }
+            check(manager.enrollStudents(enrollments).values());
+
+            for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                check(List.of(manager.tryAddExam(courseId(c), examId(c, e), "Room " + e)));
+            }
+
+            int perCourse = studentsPerCourse * EXAMS_PER_COURSE;
+            String[] studentIds = new String[perCourse];
+            String[] examIds = new String[perCourse];
+            String[] courseExamIds = new String[EXAMS_PER_COURSE];
+            for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                courseExamIds[e] = examId(c, e);
+            }
+            int i = 0;
+            for (int s = 0; s < studentsPerCourse; s++) {
+                String studentId = studentId(c, s); // shared by all of the student's bookings
+                for (int e = 0; e < EXAMS_PER_COURSE; e++) {
+                    studentIds[i] = studentId;
+                    examIds[i] = courseExamIds[e];
+                    i++;
+                }
+            }
+            int[] bookingNumbers = new int[perCourse];
+            check(List.of(manager.bookExams(studentIds, examIds, bookingNumbers)));
+
+            // Confirm every other booking and grade every other confirmed one
+            List<Integer> toGrade = new ArrayList<>();
+            int[] toConfirm = new int[perCourse / 2];
+            for (int k = 0; k < toConfirm.length; k++) {
+                toConfirm[k] = bookingNumbers[2 * k];
+                if (k % 2 == 0) {
+                    toGrade.add(toConfirm[k]);
+                }
+            }
+            check(List.of(manager.confirmBookings(toConfirm)));
+            int[] gradeNumbers = new int[toGrade.size()];
+            int[] grades = new int[toGrade.size()];
+            for (int k = 0; k < gradeNumbers.length; k++) {
+                gradeNumbers[k] = toGrade.get(k);
+                grades[k] = (gradeNumbers[k] * 31) % 101;
+            }
+            check(List.of(manager.setGrades(gradeNumbers, grades)));
+        }
+        return manager;
+    }
+
+    static void check(Iterable<ResultCode> results) {
+        for (ResultCode result : results) {
+            if (!result.isOk()) {
+                throw new IllegalStateException("Fixture setup rejected: " + result);
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.Metrics;
+import courseManagement.OperationMetrics;
+import courseManagement.ResultCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Overhead of operation metrics: the same hot paths with metrics off and with {@link OperationMetrics} installed,
+ * plus the cost of recording one sample on its own.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MetricsBenchmark {
+
+    @Param({"off", "on"})
+    public String metrics;
+
+    private CourseManager manager;
+    private OperationMetrics operationMetrics;
+    private String studentId;
+    private String examId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Fixtures.populate(1000);
+        operationMetrics = new OperationMetrics();
+        if (metrics.equals("on")) {
+            manager.setMetrics(operationMetrics);
+        }
+        studentId = Fixtures.studentId(0, 0);
+        examId = Fixtures.examId(0, 0); // already booked by the fixture
+    }
+
+    @Benchmark
+    public ResultCode duplicateBooking() {
+        return ResultCode.decode(manager.tryBookExam(studentId, examId));
+    }
+
+    @Benchmark
+    public Map<String, Integer> getStudentGrades() {
+        return manager.getStudentGrades(studentId);
+    }
+
+    @Benchmark
+    public void record() {
+        operationMetrics.record(Metrics.Operation.BOOK_EXAM, ResultCode.ALREADY_BOOKED, 100);
+    }
+}
@@ -0,0 +1,215 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.ResultCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Write-path benchmarks. Mutations are not repeatable, so each measurement applies a batch of
+ * {@link #BATCH} fresh operations prepared in the iteration setup; divide the reported time by
+ * BATCH for the cost of one call. Comparing the results across {@code bookings} shows whether a
+ * write gets slower as the system fills up, and the *Batch variants compare the batch APIs
+ * against the same work done one call at a time. The *Seated variants book and confirm an exam
+ * with a room capacity of BATCH seats, so they include the seat reservation and assignment.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, batchSize = MutationBenchmark.BATCH)
+@Measurement(iterations = 10, batchSize = MutationBenchmark.BATCH)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Thread)
+public class MutationBenchmark {
+
+    static final int BATCH = 10_000;
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int bookings;
+
+    private CourseManager manager;
+    private int iteration;
+    private int next;
+
+    // Inputs for the current iteration
+    private String[] newCourseIds;
+    private String[] newStudentIds;
+    private String[] newExamIds;
+    private String iterationCourseId;
+    private String[] bookingStudentIds;
+    private String[] bookingExamIds;
+    private String[] seatedExamIds;
+    private int[] pendingBookings;
+    private int[] pendingSeatedBookings;
+    private int[] confirmedBookings;
+    private int[] grades;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Fixtures.populate(bookings);
+    }
+
+    /**
+     * Prepares BATCH fresh inputs for every operation, so each benchmark call has valid work to do.
+     */
+    @Setup(Level.Iteration)
+    public void prepareBatch() {
+        iteration++;
+        next = 0;
+        iterationCourseId = "IC" + iteration;
+        String bookExamId = "IE" + iteration + "-book";
+        String pendingExamId = "IE" + iteration + "-pending";
+        String confirmedExamId = "IE" + iteration + "-confirmed";
+        String seatedExamId = "IE" + iteration + "-seated";
+        String pendingSeatedExamId = "IE" + iteration + "-pendingSeated";
+        Fixtures.check(List.of(manager.tryAddCourse(iterationCourseId, CourseManager.MAX_COURSE_CAPACITY)));
+        for (String examId : new String[] {bookExamId, pendingExamId, confirmedExamId}) {
+            Fixtures.check(List.of(manager.tryAddExam(iterationCourseId, examId, "Hall")));
+        }
+        for (String examId : new String[] {seatedExamId, pendingSeatedExamId}) {
+            Fixtures.check(List.of(manager.tryAddExam(iterationCourseId, examId, "Hall", BATCH)));
+        }
+
+        newCourseIds = new String[BATCH];
+        newStudentIds = new String[BATCH];
+        newExamIds = new String[BATCH];
+        bookingStudentIds = new String[BATCH];
+        bookingExamIds = new String[BATCH];
+        seatedExamIds = new String[BATCH];
+        pendingBookings = new int[BATCH];
+        pendingSeatedBookings = new int[BATCH];
+        confirmedBookings = new int[BATCH];
+        grades = new int[BATCH];
+        for (int i = 0; i < BATCH; i++) {
+            newCourseIds[i] = "NC" + iteration + "-" + i;
+            newStudentIds[i] = "NS" + iteration + "-" + i;
+            newExamIds[i] = "NE" + iteration + "-" + i;
+            bookingStudentIds[i] = "IS" + iteration + "-" + i;
+            bookingExamIds[i] = bookExamId;
+            seatedExamIds[i] = seatedExamId;
+            grades[i] = i % 101;
+            Fixtures.check(List.of(manager.tryEnrollStudent(bookingStudentIds[i], iterationCourseId)));
+            pendingBookings[i] = manager.tryBookExam(bookingStudentIds[i], pendingExamId);
+            pendingSeatedBookings[i] = manager.tryBookExam(bookingStudentIds[i], pendingSeatedExamId);
+            confirmedBookings[i] = manager.tryBookExam(bookingStudentIds[i], confirmedExamId);
+            Fixtures.check(List.of(manager.tryConfirmBooking(confirmedBookings[i])));
+        }
+    }
+
+    private int nextIndex() {
+        return next++ % BATCH;
+    }
+
+    @Benchmark
+    public void addCourse() throws Exception {
+        manager.addCourse(newCourseIds[nextIndex()], 100);
+    }
+
+    @Benchmark
+    public void enrollStudent() throws Exception {
+        manager.enrollStudent(newStudentIds[nextIndex()], iterationCourseId);
+    }
+
+    @Benchmark
+    public void addExam() throws Exception {
+        manager.addExam(iterationCourseId, newExamIds[nextIndex()], "Hall");
+    }
+
+    @Benchmark
+    public int bookExam() throws Exception {
+        int i = nextIndex();
+        return manager.bookExam(bookingStudentIds[i], bookingExamIds[i]);
+    }
+
+    @Benchmark
+    public int bookSeatedExam() throws Exception {
+        int i = nextIndex();
+        return manager.bookExam(bookingStudentIds[i], seatedExamIds[i]);
+    }
+
+    @Benchmark
+    public void confirmBooking() throws Exception {
+        manager.confirmBooking(pendingBookings[nextIndex()]);
+    }
+
+    @Benchmark
+    public void confirmSeatedBooking() throws Exception {
+        manager.confirmBooking(pendingSeatedBookings[nextIndex()]);
+    }
+
+    @Benchmark
+    public void setGrade() throws Exception {
+        int i = nextIndex();
+        manager.setGrade(confirmedBookings[i], grades[i]);
+    }
+
+    // Batch API comparisons: one invocation applies the whole batch, so use batchSize = 1
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void addCoursesBatch(Blackhole bh) {
+        Map<String, Integer> newCourses = new LinkedHashMap<>();
+        for (String courseId : newCourseIds) {
+            newCourses.put(courseId, 100);
+        }
+        bh.consume(manager.addCourses(newCourses));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void enrollStudentsBatch(Blackhole bh) {
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        List<String> courseIds = List.of(iterationCourseId);
+        for (String studentId : newStudentIds) {
+            enrollments.put(studentId, courseIds);
+        }
+        bh.consume(manager.enrollStudents(enrollments));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public void bookExamsBatch(Blackhole bh) {
+        int[] bookingNumbers = new int[BATCH];
+        bh.consume(manager.bookExams(bookingStudentIds, bookingExamIds, bookingNumbers));
+        bh.consume(bookingNumbers);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public ResultCode[] confirmBookingsBatch() {
+        return manager.confirmBookings(pendingBookings);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public ResultCode[] confirmSeatedBookingsBatch() {
+        return manager.confirmBookings(pendingSeatedBookings);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 5, batchSize = 1)
+    @Measurement(iterations = 10, batchSize = 1)
+    public ResultCode[] setGradesBatch() {
+        return manager.setGrades(confirmedBookings, grades);
+    }
+}
@@ -0,0 +1,106 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.GradeStatistics;
+import courseManagement.ReportSnapshot;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read-path benchmarks: average time per query against a manager holding {@code bookings} bookings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class QueryBenchmark {
+
+    @Param({"1000", "100000", "1000000", "10000000"})
+    public int bookings;
+
+    /**
+     * "heap" keeps one Booking object per booking, "columnar" keeps bookings in off-heap columns.
+     */
+    @Param({"heap", "columnar"})
+    public String storage;
+
+    private CourseManager manager;
+    private int courses;
+    private int lookup;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Fixtures.populate(
+                "columnar".equals(storage) ? CourseManager.withColumnarBookings() : new CourseManager(), bookings);
+        courses = Fixtures.coursesFor(bookings);
+    }
+
+    /**
+     * Cycles through courses so lookups do not always hit the same entry.
+     */
+    private int nextCourse() {
+        lookup = (lookup + 1) % courses;
+        return lookup;
+    }
+
+    @Benchmark
+    public List<String> getEnrolledStudents() {
+        return manager.getEnrolledStudents(Fixtures.courseId(nextCourse()));
+    }
+
+    @Benchmark
+    public Map<String, List<String>> getExamsByCourse() {
+        return manager.getExamsByCourse();
+    }
+
+    @Benchmark
+    public List<Integer> getConfirmedBookings() {
+        return manager.getConfirmedBookings();
+    }
+
+    @Benchmark
+    public List<Integer> getCompletedBookings() {
+        return manager.getCompletedBookings();
+    }
+
+    @Benchmark
+    public Map<String, Integer> getStudentGrades() {
+        return manager.getStudentGrades(Fixtures.studentId(nextCourse(), 0));
+    }
+
+    @Benchmark
+    public Map<String, Double> getCourseAverage() {
+        return manager.getCourseAverage();
+    }
+
+    @Benchmark
+    public GradeStatistics getCourseStatistics() {
+        return manager.getCourseStatistics(Fixtures.courseId(nextCourse()));
+    }
+
+    @Benchmark
+    public ReportSnapshot snapshot() {
+        return manager.snapshot();
+    }
+
+    @Benchmark
+    public Map<String, Double> snapshotCourseAverage() {
+        return manager.snapshot().getCourseAverage();
+    }
+}
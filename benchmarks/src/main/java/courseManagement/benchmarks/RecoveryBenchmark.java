@@ -0,0 +1,81 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.Journal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * Startup time of a durable manager holding {@code bookings} bookings: one CourseManager.open on a directory
+ * written by {@link Fixtures#populate}. {@code snapshot} recovers from a checkpoint, {@code journal} replays
+ * every record from the first one.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RecoveryBenchmark {
+
+    @Param({"1000000", "10000000"})
+    public int bookings;
+
+    @Param({"snapshot", "journal"})
+    public String source;
+
+    private Path directory;
+    private CourseManager recovered;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("recovery");
+        CourseManager manager = CourseManager.open(directory, Journal.Durability.BATCHED);
+        Fixtures.populate(manager, bookings);
+        if ("snapshot".equals(source)) {
+            manager.checkpoint();
+        }
+        manager.close();
+    }
+
+    @TearDown(Level.Iteration)
+    public void closeRecovered() throws IOException {
+        if (recovered != null) {
+            recovered.close();
+            recovered = null;
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    @Benchmark
+    public CourseManager open() throws IOException {
+        recovered = CourseManager.open(directory, Journal.Durability.BATCHED);
+        return recovered;
+    }
+}
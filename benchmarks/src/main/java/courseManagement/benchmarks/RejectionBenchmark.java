@@ -0,0 +1,72 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.ResultCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of a rejected request through the throwing API versus the result-code API.
+ * Rejections do not change state, so these run as plain average-time benchmarks.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RejectionBenchmark {
+
+    private CourseManager manager;
+    private String studentId;
+    private String examId;
+    private int confirmedBooking;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = Fixtures.populate(1000);
+        studentId = Fixtures.studentId(0, 0);
+        examId = Fixtures.examId(0, 0); // already booked by the fixture
+        confirmedBooking = manager.getConfirmedBookings().get(0);
+    }
+
+    @Benchmark
+    public Object duplicateBookingThrowing() {
+        try {
+            return manager.bookExam(studentId, examId);
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ResultCode duplicateBookingResultCode() {
+        return ResultCode.decode(manager.tryBookExam(studentId, examId));
+    }
+
+    @Benchmark
+    public Object wrongStatusThrowing() {
+        try {
+            manager.confirmBooking(confirmedBooking);
+            return null;
+        } catch (Exception e) {
+            return e;
+        }
+    }
+
+    @Benchmark
+    public ResultCode wrongStatusResultCode() {
+        return manager.tryConfirmBooking(confirmedBooking);
+    }
+}
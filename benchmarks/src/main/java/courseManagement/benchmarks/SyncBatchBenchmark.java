@@ -0,0 +1,196 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.Journal;
+import courseManagement.ResultCode;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+/**
+ * The batch APIs against one call per item on a durable manager in SYNC mode, where every successful call
+ * waits for the journal to reach the disk. A batch waits once. Each measurement applies {@link #BATCH} fresh
+ * operations prepared in the iteration setup; divide the reported time by BATCH for the cost of one item.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, batchSize = SyncBatchBenchmark.BATCH)
+@Measurement(iterations = 5, batchSize = SyncBatchBenchmark.BATCH)
+@Fork(1)
+@State(Scope.Thread)
+public class SyncBatchBenchmark {
+
+    static final int BATCH = 1_000;
+
+    private Path directory;
+    private CourseManager manager;
+    private int iteration;
+    private int next;
+
+    // Inputs for the current iteration
+    private String[] newCourseIds;
+    private String[] newStudentIds;
+    private String iterationCourseId;
+    private String[] bookingStudentIds;
+    private String[] bookingExamIds;
+    private int[] pendingBookings;
+    private int[] confirmedBookings;
+    private int[] grades;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("syncbatch");
+        manager = CourseManager.open(directory, Journal.Durability.SYNC);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        manager.close();
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(file);
+            }
+        }
+    }
+
+    /**
+     * Prepares BATCH fresh inputs for every operation, loaded through the batch APIs to keep the setup short.
+     */
+    @Setup(Level.Iteration)
+    public void prepareBatch() {
+        iteration++;
+        next = 0;
+        iterationCourseId = "IC" + iteration;
+        String bookExamId = "IE" + iteration + "-book";
+        String pendingExamId = "IE" + iteration + "-pending";
+        String confirmedExamId = "IE" + iteration + "-confirmed";
+        Fixtures.check(List.of(manager.tryAddCourse(iterationCourseId, CourseManager.MAX_COURSE_CAPACITY)));
+        for (String examId : new String[] {bookExamId, pendingExamId, confirmedExamId}) {
+            Fixtures.check(List.of(manager.tryAddExam(iterationCourseId, examId, "Hall")));
+        }
+
+        newCourseIds = new String[BATCH];
+        newStudentIds = new String[BATCH];
+        bookingStudentIds = new String[BATCH];
+        bookingExamIds = new String[BATCH];
+        String[] pendingExamIds = new String[BATCH];
+        String[] confirmedExamIds = new String[BATCH];
+        grades = new int[BATCH];
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        for (int i = 0; i < BATCH; i++) {
+            newCourseIds[i] = "NC" + iteration + "-" + i;
+            newStudentIds[i] = "NS" + iteration + "-" + i;
+            bookingStudentIds[i] = "IS" + iteration + "-" + i;
+            bookingExamIds[i] = bookExamId;
+            pendingExamIds[i] = pendingExamId;
+            confirmedExamIds[i] = confirmedExamId;
+            grades[i] = i % 101;
+            enrollments.put(bookingStudentIds[i], List.of(iterationCourseId));
+        }
+        Fixtures.check(manager.enrollStudents(enrollments).values());
+        pendingBookings = new int[BATCH];
+        confirmedBookings = new int[BATCH];
+        Fixtures.check(List.of(manager.bookExams(bookingStudentIds, pendingExamIds, pendingBookings)));
+        Fixtures.check(List.of(manager.bookExams(bookingStudentIds, confirmedExamIds, confirmedBookings)));
+        Fixtures.check(List.of(manager.confirmBookings(confirmedBookings)));
+    }
+
+    private int nextIndex() {
+        return next++ % BATCH;
+    }
+
+    @Benchmark
+    public ResultCode addCourse() {
+        return manager.tryAddCourse(newCourseIds[nextIndex()], 100);
+    }
+
+    @Benchmark
+    public ResultCode enrollStudent() {
+        return manager.tryEnrollStudent(newStudentIds[nextIndex()], iterationCourseId);
+    }
+
+    @Benchmark
+    public int bookExam() {
+        int i = nextIndex();
+        return manager.tryBookExam(bookingStudentIds[i], bookingExamIds[i]);
+    }
+
+    @Benchmark
+    public ResultCode confirmBooking() {
+        return manager.tryConfirmBooking(pendingBookings[nextIndex()]);
+    }
+
+    @Benchmark
+    public ResultCode setGrade() {
+        int i = nextIndex();
+        return manager.trySetGrade(confirmedBookings[i], grades[i]);
+    }
+
+    // Batch API comparisons: one invocation applies the whole batch, so use batchSize = 1
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public void addCoursesBatch(Blackhole bh) {
+        Map<String, Integer> newCourses = new LinkedHashMap<>();
+        for (String courseId : newCourseIds) {
+            newCourses.put(courseId, 100);
+        }
+        bh.consume(manager.addCourses(newCourses));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public void enrollStudentsBatch(Blackhole bh) {
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        List<String> courseIds = List.of(iterationCourseId);
+        for (String studentId : newStudentIds) {
+            enrollments.put(studentId, courseIds);
+        }
+        bh.consume(manager.enrollStudents(enrollments));
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public void bookExamsBatch(Blackhole bh) {
+        int[] bookingNumbers = new int[BATCH];
+        bh.consume(manager.bookExams(bookingStudentIds, bookingExamIds, bookingNumbers));
+        bh.consume(bookingNumbers);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public ResultCode[] confirmBookingsBatch() {
+        return manager.confirmBookings(pendingBookings);
+    }
+
+    @Benchmark
+    @Warmup(iterations = 3, batchSize = 1)
+    @Measurement(iterations = 5, batchSize = 1)
+    public ResultCode[] setGradesBatch() {
+        return manager.setGrades(confirmedBookings, grades);
+    }
+}
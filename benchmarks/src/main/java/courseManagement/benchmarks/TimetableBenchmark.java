@@ -0,0 +1,94 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.ResultCode;
+import courseManagement.TimeSlot;
+import courseManagement.TimetableConflict;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Exam timetables. A term of {@code exams} exams, two per course, spread over SLOTS two-hour slots with
+ * each room used once per slot; every student takes COURSES_PER_STUDENT courses, so the term has clashes
+ * for students but none for rooms. {@code checkTimetable} checks the whole term. {@code clashingBooking}
+ * is a booking rejected with TIME_CONFLICT for a student who already holds 1,000 timed bookings.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class TimetableBenchmark {
+    private static final long HOUR = 3_600_000;
+    private static final int SLOTS = 80; // 20 days of 4 slots
+    private static final int COURSES_PER_STUDENT = 4;
+    private static final int BUSY_BOOKINGS = 1000;
+
+    @Param({"1000", "100000"})
+    public int exams;
+
+    private CourseManager manager;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        manager = new CourseManager();
+        int courses = exams / 2;
+        List<ResultCode> results = new ArrayList<>();
+        for (int c = 0; c < courses; c++) {
+            results.add(manager.tryAddCourse("C" + c, 1000));
+        }
+        for (int e = 0; e < exams; e++) {
+            results.add(manager.tryAddExam("C" + e / 2, "E" + e, "R" + e / SLOTS, 0, slot(e % SLOTS)));
+        }
+        // Each course gets 8 students on average; neighbouring students share courses
+        for (int s = 0; s < courses * 2; s++) {
+            String[] courseIds = new String[COURSES_PER_STUDENT];
+            for (int k = 0; k < COURSES_PER_STUDENT; k++) {
+                courseIds[k] = "C" + (s / 2 + k * 7919) % courses;
+            }
+            results.add(manager.tryEnrollStudent("S" + s, courseIds));
+        }
+
+        results.add(manager.tryAddCourse("BUSY", 10));
+        results.add(manager.tryEnrollStudent("B", "BUSY"));
+        for (int i = 0; i < BUSY_BOOKINGS; i++) {
+            results.add(manager.tryAddExam("BUSY", "B" + i, "Busy room", 0, slot(i)));
+            if (manager.tryBookExam("B", "B" + i) < 0) {
+                throw new IllegalStateException("Booking B" + i + " failed.");
+            }
+        }
+        results.add(manager.tryAddExam("BUSY", "CLASH", "Other room", 0, slot(BUSY_BOOKINGS / 2)));
+        Fixtures.check(results);
+    }
+
+    private static TimeSlot slot(int index) {
+        long day = index / 4;
+        return new TimeSlot(day * 24 * HOUR + (8 + 2 * (index % 4)) * HOUR,
+                day * 24 * HOUR + (10 + 2 * (index % 4)) * HOUR);
+    }
+
+    @Benchmark
+    public List<TimetableConflict> checkTimetable() {
+        return manager.checkTimetable();
+    }
+
+    @Benchmark
+    public int clashingBooking() {
+        return manager.tryBookExam("B", "CLASH");
+    }
+}
@@ -0,0 +1,118 @@
+package courseManagement.benchmarks;
+
+import courseManagement.CourseManager;
+import courseManagement.ResultCode;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A registration rush on one full course: CONTENDERS new students want a seat while a dropper frees
+ * CONTENDERS seats one at a time. With {@code retry} each student calls tryEnrollStudent in a hot loop
+ * until it gets a seat; with {@code waitlist} each registers and joins the waitlist once, and is promoted
+ * when a seat frees up. Each invocation is one whole rush; the {@code requests} counter is the number of
+ * enrollment requests the clients sent.
+ */
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WaitlistBenchmark {
+    private static final int SEATS = 100;
+    private static final int CONTENDERS = 2000;
+    private static final int CLIENTS = 4;
+
+    private CourseManager manager;
+
+    /**
+     * Requests sent during a rush.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Requests {
+        public long requests;
+    }
+
+    @Setup(Level.Invocation)
+    public void setUp() {
+        manager = new CourseManager();
+        manager.tryAddCourse("C", SEATS);
+        for (int i = 0; i < SEATS; i++) {
+            manager.tryEnrollStudent("H" + i, "C");
+        }
+    }
+
+    @Benchmark
+    public void retry(Requests requests) throws InterruptedException {
+        requests.requests += rush(studentId -> {
+            long sent = 1;
+            while (manager.tryEnrollStudent(studentId, "C") != ResultCode.OK) {
+                sent++;
+                Thread.onSpinWait();
+            }
+            return sent;
+        });
+    }
+
+    @Benchmark
+    public void waitlist(Requests requests) throws InterruptedException {
+        requests.requests += rush(studentId -> {
+            manager.tryEnrollStudent(studentId);
+            manager.tryJoinWaitlist(studentId, "C");
+            return 2;
+        });
+    }
+
+    private interface Client {
+        long seat(String studentId);
+    }
+
+    /**
+     * Runs the clients and the dropper until every contender has been seated.
+     * @return The number of requests the clients sent.
+     */
+    private long rush(Client client) throws InterruptedException {
+        AtomicLong sent = new AtomicLong();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < CLIENTS; c++) {
+            int first = c;
+            threads.add(new Thread(() -> {
+                for (int i = first; i < CONTENDERS; i += CLIENTS) {
+                    sent.addAndGet(client.seat("W" + i));
+                }
+            }));
+        }
+        threads.add(new Thread(() -> {
+            // Drops the first student on the roster, so the seated contenders are dropped after the holders
+            for (int dropped = 0; dropped < CONTENDERS; ) {
+                List<String> first = manager.getEnrolledStudents("C", null, 1);
+                if (!first.isEmpty() && manager.tryDropCourse(first.get(0), "C") == ResultCode.OK) {
+                    dropped++;
+                }
+            }
+        }));
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return sent.get();
+    }
+}
@@ -14,8 +14,8 @@ public class Booking {
     private int bookingNumber;
     private String studentId;
     private String examId;
-    private BookingStatus status;
-    private int grade = -1; // -1 indicates no grade has been set
+    private volatile BookingStatus status; // volatile: read by queries without holding the exam lock
+    private volatile int grade = -1; // -1 indicates no grade has been set
 
     /**
      * Constructor for the Booking class.
@@ -0,0 +1,75 @@
+package courseManagement;
+
+import java.io.IOException;
+
+/**
+ * Storage for bookings, indexed by booking number.
+ * Bookings are added under the booking student's lock and updated under the booking exam's lock;
+ * reads may come from any thread.
+ */
+interface BookingStore {
+
+    /**
+     * Adds a PENDING booking.
+     * @param bookingNumber The number of the new booking.
+     * @param studentOrdinal The interned student ID.
+     * @param examOrdinal The interned exam ID.
+     */
+    void add(int bookingNumber, int studentOrdinal, int examOrdinal);
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return true if the booking exists. Its other fields can be read once this returns true.
+     */
+    boolean contains(int bookingNumber);
+
+    String getStudentId(int bookingNumber);
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return The interned ID of the booking student.
+     */
+    int getStudentOrdinal(int bookingNumber);
+
+    String getExamId(int bookingNumber);
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return The interned ID of the booked exam.
+     */
+    int getExamOrdinal(int bookingNumber);
+
+    Booking.BookingStatus getStatus(int bookingNumber);
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return The grade, or -1 if the booking is not COMPLETED.
+     */
+    int getGrade(int bookingNumber);
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return The assigned seat number, or 0 if the booking has no seat.
+     */
+    int getSeat(int bookingNumber);
+
+    /**
+     * Marks the booking CONFIRMED with its seat. A reader that sees CONFIRMED also sees the seat.
+     * @param bookingNumber The booking number.
+     * @param seat The seat number (1-65,535), or 0 for an exam without seats.
+     */
+    void confirm(int bookingNumber, int seat);
+
+    /**
+     * Sets the grade and marks the booking COMPLETED. A reader that sees COMPLETED also sees the grade.
+     * @param bookingNumber The booking number.
+     * @param grade The grade (0-100).
+     */
+    void complete(int bookingNumber, int grade);
+
+    /**
+     * Releases any file held by the store.
+     * @throws IOException if the file cannot be closed.
+     */
+    void close() throws IOException;
+}
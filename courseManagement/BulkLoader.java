@@ -0,0 +1,581 @@
+package courseManagement;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/**
+ * Loads courses, students, exams and bookings into a CourseManager from a CSV or binary file.
+ * <p>
+ * A CSV file has one row per line, with no quoting and no spaces around the commas. Blank lines and lines
+ * starting with # are skipped. The first column says what the row adds:
+ * <pre>
+ * course,courseId,maxStudents
+ * student,studentId[,courseId...]
+ * exam,courseId,examId,location[,seats[,start,end]]
+ * booking,studentId,examId[,PENDING|CONFIRMED|COMPLETED[,grade]]
+ * </pre>
+ * Times are in epoch milliseconds. A booking row without a status is PENDING, and a COMPLETED row has a grade.
+ * {@link #convert} turns a CSV file into the binary format, which holds the same rows in length-prefixed
+ * blocks and skips the text parsing.
+ * <p>
+ * The file is memory-mapped in chunks of a few megabytes, split at line or block boundaries, and the chunks
+ * are parsed in parallel a few at a time. The rows are applied on the calling thread in file order, through
+ * the same checks as tryAddCourse, tryEnrollStudent, tryAddExam, tryBookExam, tryConfirmBooking and
+ * trySetGrade, so a file gives the same result as making those calls one by one. A row the API would
+ * reject is skipped and reported in the {@link LoadReport}. A durable manager journals every row and syncs
+ * once at the end. Events are published as usual, but no operation metrics are recorded.
+ */
+public final class BulkLoader {
+    private static final int BINARY_MAGIC = 0x434D4231; // "CMB1"
+    private static final int CHUNK_SIZE = 4 << 20;
+
+    // Row types, also the record tags of the binary format
+    private static final byte COURSE = 1;
+    private static final byte STUDENT = 2;
+    private static final byte EXAM = 3;
+    private static final byte BOOKING = 4;
+
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    private BulkLoader() {
+    }
+
+    /**
+     * A parsed row. Which fields are set depends on the type.
+     */
+    private static final class Row {
+        final byte type;
+        final int line; // within its chunk, from 0
+        String id; // the course, student, exam's course or booking's student
+        String examId;
+        String location;
+        String[] courseIds;
+        int number; // the course capacity, exam seats or booking status
+        int grade;
+        TimeSlot timeSlot;
+
+        Row(byte type, int line) {
+            this.type = type;
+            this.line = line;
+        }
+    }
+
+    /**
+     * The rows parsed from one chunk of a file.
+     */
+    private static final class Chunk {
+        final List<Row> rows = new ArrayList<>();
+        int lines; // the lines or records the chunk covers, up to the malformed one if there is one
+        String error; // why a row could not be parsed; the rows after it are not parsed
+
+        void fail(int line, String message) {
+            lines = line;
+            error = message;
+        }
+    }
+
+    /**
+     * Receives the chunks of a file in order.
+     */
+    private interface ChunkHandler {
+        /**
+         * @param chunk The parsed chunk.
+         * @param firstLine The number of lines or records before the chunk.
+         */
+        void handle(Chunk chunk, long firstLine) throws IOException;
+    }
+
+    /**
+     * Loads a CSV or binary file, parsing it on the common pool.
+     * @param manager The manager to load into.
+     * @param file The file; the format is recognized from its first bytes.
+     * @return How many rows were loaded and which were rejected.
+     * @throws IOException if the file cannot be read or a row is malformed. The rows before it are loaded.
+     */
+    public static LoadReport load(CourseManager manager, Path file) throws IOException {
+        return load(manager, file, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Loads a CSV or binary file.
+     * @param manager The manager to load into.
+     * @param file The file; the format is recognized from its first bytes.
+     * @param pool The pool to parse in; its parallelism decides how many chunks are parsed at once.
+     * @return How many rows were loaded and which were rejected.
+     * @throws IOException if the file cannot be read or a row is malformed. The rows before it are loaded.
+     */
+    public static LoadReport load(CourseManager manager, Path file, ForkJoinPool pool) throws IOException {
+        LoadReport report = new LoadReport();
+        try {
+            parse(file, pool, (chunk, firstLine) -> {
+                for (Row row : chunk.rows) {
+                    ResultCode result = apply(manager, row);
+                    if (result == ResultCode.OK) {
+                        report.loaded();
+                    } else {
+                        report.rejected(firstLine + row.line + 1, result);
+                    }
+                }
+                checkError(chunk, firstLine);
+            });
+        } finally {
+            manager.loadFinished();
+        }
+        return report;
+    }
+
+    /**
+     * Converts a CSV file to the binary format. Blank and comment lines are dropped.
+     * @param csv The CSV file.
+     * @param binary The binary file to write.
+     * @throws IOException if a file cannot be read or written, or a row is malformed.
+     */
+    public static void convert(Path csv, Path binary) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(
+                new BufferedOutputStream(new FileOutputStream(binary.toFile()), 1 << 16))) {
+            out.writeInt(BINARY_MAGIC);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(CHUNK_SIZE);
+            DataOutputStream blockOut = new DataOutputStream(block);
+            parse(csv, ForkJoinPool.commonPool(), (chunk, firstLine) -> {
+                checkError(chunk, firstLine);
+                block.reset();
+                for (Row row : chunk.rows) {
+                    write(blockOut, row);
+                }
+                out.writeInt(block.size());
+                out.writeInt(chunk.rows.size());
+                block.writeTo(out);
+            });
+        }
+    }
+
+    /**
+     * Applies one row through the manager's per-call checks.
+     * @return OK, or the reason the row was rejected.
+     */
+    private static ResultCode apply(CourseManager manager, Row row) {
+        switch (row.type) {
+            case COURSE:
+                return manager.loadCourse(row.id, row.number);
+            case STUDENT:
+                return manager.loadStudent(row.id, row.courseIds);
+            case EXAM:
+                return manager.loadExam(row.id, row.examId, row.location, row.number, row.timeSlot);
+            default:
+                Booking.BookingStatus status = STATUSES[row.number];
+                // Checked first, so a bad grade does not leave a booking behind
+                if (status == Booking.BookingStatus.COMPLETED && (row.grade < 0 || row.grade > 100)) {
+                    return ResultCode.INVALID_GRADE;
+                }
+                int bookingNumber = manager.loadBooking(row.id, row.examId);
+                if (bookingNumber < 0) {
+                    return ResultCode.decode(bookingNumber);
+                }
+                if (status != Booking.BookingStatus.PENDING) {
+                    manager.loadConfirm(bookingNumber);
+                }
+                if (status == Booking.BookingStatus.COMPLETED) {
+                    manager.loadGrade(bookingNumber, row.grade);
+                }
+                return ResultCode.OK;
+        }
+    }
+
+    private static void checkError(Chunk chunk, long firstLine) throws IOException {
+        if (chunk.error != null) {
+            throw new IOException("Line " + (firstLine + chunk.lines + 1) + ": " + chunk.error);
+        }
+    }
+
+    /**
+     * Splits a file into chunks, parses them in parallel and hands them to the handler in file order.
+     * At most two chunks per thread are parsed ahead of the handler, so memory use does not grow with the file.
+     */
+    private static void parse(Path file, ForkJoinPool pool, ChunkHandler handler) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer magic = ByteBuffer.allocate(4);
+            boolean binary = channel.size() >= 4 && channel.read(magic, 0) == 4 && magic.getInt(0) == BINARY_MAGIC;
+            List<Callable<Chunk>> tasks = new ArrayList<>();
+            for (long[] range : binary ? blocks(channel) : lineChunks(channel)) {
+                tasks.add(binary ? () -> parseBlock(channel, range[0], range[1], (int) range[2])
+                        : () -> parseLines(channel, range[0], range[1]));
+            }
+
+            int window = 2 * pool.getParallelism();
+            Deque<Future<Chunk>> parsing = new ArrayDeque<>();
+            int next = 0;
+            long firstLine = 0;
+            try {
+                while (next < tasks.size() || !parsing.isEmpty()) {
+                    while (next < tasks.size() && parsing.size() < window) {
+                        parsing.add(pool.submit(tasks.get(next++)));
+                    }
+                    Chunk chunk = join(parsing.remove());
+                    handler.handle(chunk, firstLine);
+                    firstLine += chunk.lines;
+                }
+            } finally {
+                for (Future<Chunk> future : parsing) {
+                    future.cancel(true);
+                }
+            }
+        }
+    }
+
+    private static Chunk join(Future<Chunk> future) throws IOException {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while loading.");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException) {
+                throw (IOException) cause;
+            }
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) cause).getCause();
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    /**
+     * Maps a range of the file and copies it to the heap, so strings can be built straight from it.
+     */
+    private static byte[] read(FileChannel channel, long start, long end) throws IOException {
+        if (end - start > Integer.MAX_VALUE - 8) {
+            throw new IOException("A line or block at byte " + start + " is too long.");
+        }
+        byte[] bytes = new byte[(int) (end - start)];
+        channel.map(FileChannel.MapMode.READ_ONLY, start, end - start).get(bytes);
+        return bytes;
+    }
+
+    // CSV
+
+    /**
+     * Splits a CSV file into chunks of about CHUNK_SIZE bytes that end after a newline.
+     * @return The start and end of each chunk.
+     */
+    private static List<long[]> lineChunks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> chunks = new ArrayList<>();
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        for (long start = 0; start < size; ) {
+            long end = Math.min(size, start + CHUNK_SIZE);
+            // Move the end past the next newline, reading a page at a time
+            while (end < size) {
+                probe.clear();
+                int read = channel.read(probe, end - 1);
+                int newline = indexOf(probe.array(), (byte) '\n', 0, Math.max(read, 0));
+                if (newline >= 0) {
+                    end += newline;
+                    break;
+                }
+                end = read > 0 ? Math.min(size, end + read) : size;
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static Chunk parseLines(FileChannel channel, long start, long end) throws IOException {
+        byte[] bytes = read(channel, start, end);
+        Chunk chunk = new Chunk();
+        int line = 0;
+        for (int from = 0; from < bytes.length; line++) {
+            int newline = indexOf(bytes, (byte) '\n', from, bytes.length);
+            int to = newline >= 0 ? newline : bytes.length;
+            int stop = to > from && bytes[to - 1] == '\r' ? to - 1 : to;
+            if (stop > from && bytes[from] != '#') {
+                try {
+                    chunk.rows.add(parseLine(bytes, from, stop, line));
+                } catch (IllegalArgumentException e) {
+                    chunk.fail(line, e.getMessage());
+                    return chunk;
+                }
+            }
+            from = to + 1;
+        }
+        chunk.lines = line;
+        return chunk;
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static Row parseLine(byte[] bytes, int from, int to, int line) {
+        // starts[f] is where field f begins; it ends just before starts[f + 1]
+        int fields = 1;
+        for (int i = from; i < to; i++) {
+            if (bytes[i] == ',') {
+                fields++;
+            }
+        }
+        int[] starts = new int[fields + 1];
+        starts[0] = from;
+        for (int i = from, f = 1; i < to; i++) {
+            if (bytes[i] == ',') {
+                starts[f++] = i + 1;
+            }
+        }
+        starts[fields] = to + 1;
+
+        String type = text(bytes, starts, 0);
+        Row row;
+        switch (type) {
+            case "course":
+                expect(fields == 3, "A course row has a course ID and a maximum number of students.");
+                row = new Row(COURSE, line);
+                row.id = id(bytes, starts, 1);
+                row.number = number(bytes, starts, 2);
+                return row;
+            case "student":
+                expect(fields >= 2, "A student row has a student ID.");
+                row = new Row(STUDENT, line);
+                row.id = id(bytes, starts, 1);
+                row.courseIds = new String[fields - 2];
+                for (int f = 2; f < fields; f++) {
+                    row.courseIds[f - 2] = id(bytes, starts, f);
+                }
+                return row;
+            case "exam":
+                expect(fields == 4 || fields == 5 || fields == 7,
+                        "An exam row has a course ID, an exam ID, a location, and optionally seats, start and end.");
+                row = new Row(EXAM, line);
+                row.id = id(bytes, starts, 1);
+                row.examId = id(bytes, starts, 2);
+                row.location = id(bytes, starts, 3);
+                row.number = fields > 4 ? number(bytes, starts, 4) : 0;
+                if (fields == 7) {
+                    row.timeSlot = new TimeSlot(longNumber(bytes, starts, 5), longNumber(bytes, starts, 6));
+                }
+                return row;
+            case "booking":
+                expect(fields >= 3 && fields <= 5, "A booking row has a student ID, an exam ID, and optionally "
+                        + "a status and grade.");
+                row = new Row(BOOKING, line);
+                row.id = id(bytes, starts, 1);
+                row.examId = id(bytes, starts, 2);
+                Booking.BookingStatus status = fields > 3 ? status(text(bytes, starts, 3))
+                        : Booking.BookingStatus.PENDING;
+                row.number = status.ordinal();
+                expect((fields == 5) == (status == Booking.BookingStatus.COMPLETED),
+                        "A booking row has a grade if, and only if, it is COMPLETED.");
+                row.grade = fields == 5 ? number(bytes, starts, 4) : 0;
+                return row;
+            default:
+                throw new IllegalArgumentException("Unknown row type " + type + ".");
+        }
+    }
+
+    private static Booking.BookingStatus status(String name) {
+        for (Booking.BookingStatus status : STATUSES) {
+            if (status.name().equals(name)) {
+                return status;
+            }
+        }
+        throw new IllegalArgumentException("Unknown booking status " + name + ".");
+    }
+
+    private static void expect(boolean condition, String message) {
+        if (!condition) {
+            throw new IllegalArgumentException(message);
+        }
+    }
+
+    private static String text(byte[] bytes, int[] starts, int field) {
+        return new String(bytes, starts[field], starts[field + 1] - 1 - starts[field], StandardCharsets.UTF_8);
+    }
+
+    private static String id(byte[] bytes, int[] starts, int field) {
+        expect(starts[field + 1] - 1 > starts[field], "Field " + (field + 1) + " is empty.");
+        return text(bytes, starts, field);
+    }
+
+    private static int number(byte[] bytes, int[] starts, int field) {
+        long value = longNumber(bytes, starts, field);
+        expect(value == (int) value, "Field " + (field + 1) + " is out of range.");
+        return (int) value;
+    }
+
+    /**
+     * Parses a decimal field without building a string.
+     */
+    private static long longNumber(byte[] bytes, int[] starts, int field) {
+        int from = starts[field];
+        int to = starts[field + 1] - 1;
+        boolean negative = to > from && bytes[from] == '-';
+        int first = negative ? from + 1 : from;
+        expect(to > first && to - first <= 18, "Field " + (field + 1) + " is not a number.");
+        long value = 0;
+        for (int i = first; i < to; i++) {
+            int digit = bytes[i] - '0';
+            expect(digit >= 0 && digit <= 9, "Field " + (field + 1) + " is not a number.");
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    // Binary: the magic number, then blocks of (byte length, record count, records). A record is its
+    // type followed by its fields; IDs are an unsigned short length and UTF-8 bytes.
+
+    /**
+     * Walks the block headers of a binary file.
+     * @return The start and end of each block's records, and their count.
+     */
+    private static List<long[]> blocks(FileChannel channel) throws IOException {
+        long size = channel.size();
+        List<long[]> blocks = new ArrayList<>();
+        ByteBuffer header = ByteBuffer.allocate(8);
+        for (long position = 4; position < size; ) {
+            header.clear();
+            if (channel.read(header, position) != 8) {
+                throw new IOException("Truncated block header at byte " + position + ".");
+            }
+            long start = position + 8;
+            long end = start + header.getInt(0);
+            int records = header.getInt(4);
+            if (end < start || end > size || records < 0) {
+                throw new IOException("Truncated block at byte " + position + ".");
+            }
+            blocks.add(new long[] {start, end, records});
+            position = end;
+        }
+        return blocks;
+    }
+
+    private static Chunk parseBlock(FileChannel channel, long start, long end, int records) throws IOException {
+        byte[] bytes = read(channel, start, end);
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        Chunk chunk = new Chunk();
+        for (int record = 0; record < records; record++) {
+            try {
+                chunk.rows.add(readRecord(in, bytes, record));
+            } catch (IllegalArgumentException | BufferUnderflowException e) {
+                chunk.fail(record, e.getMessage() != null ? e.getMessage() : "Truncated record.");
+                return chunk;
+            }
+        }
+        chunk.lines = records;
+        return chunk;
+    }
+
+    private static Row readRecord(ByteBuffer in, byte[] bytes, int record) {
+        Row row = new Row(in.get(), record);
+        switch (row.type) {
+            case COURSE:
+                row.id = readId(in, bytes);
+                row.number = in.getInt();
+                return row;
+            case STUDENT:
+                row.id = readId(in, bytes);
+                row.courseIds = new String[in.getShort() & 0xFFFF];
+                for (int i = 0; i < row.courseIds.length; i++) {
+                    row.courseIds[i] = readId(in, bytes);
+                }
+                return row;
+            case EXAM:
+                row.id = readId(in, bytes);
+                row.examId = readId(in, bytes);
+                row.location = readId(in, bytes);
+                row.number = in.getInt();
+                if (in.get() != 0) {
+                    row.timeSlot = new TimeSlot(in.getLong(), in.getLong());
+                }
+                return row;
+            case BOOKING:
+                row.id = readId(in, bytes);
+                row.examId = readId(in, bytes);
+                row.number = in.get();
+                expect(row.number >= 0 && row.number < STATUSES.length, "Unknown booking status " + row.number + ".");
+                row.grade = in.getInt();
+                return row;
+            default:
+                throw new IllegalArgumentException("Unknown record type " + row.type + ".");
+        }
+    }
+
+    private static String readId(ByteBuffer in, byte[] bytes) {
+        int length = in.getShort() & 0xFFFF;
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String id = new String(bytes, in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return id;
+    }
+
+    private static void write(DataOutputStream out, Row row) throws IOException {
+        out.writeByte(row.type);
+        switch (row.type) {
+            case COURSE:
+                writeId(out, row.id);
+                out.writeInt(row.number);
+                break;
+            case STUDENT:
+                writeId(out, row.id);
+                if (row.courseIds.length > 0xFFFF) {
+                    throw new IOException("Student " + row.id + " has too many courses for one record.");
+                }
+                out.writeShort(row.courseIds.length);
+                for (String courseId : row.courseIds) {
+                    writeId(out, courseId);
+                }
+                break;
+            case EXAM:
+                writeId(out, row.id);
+                writeId(out, row.examId);
+                writeId(out, row.location);
+                out.writeInt(row.number);
+                out.writeBoolean(row.timeSlot != null);
+                if (row.timeSlot != null) {
+                    out.writeLong(row.timeSlot.getStart());
+                    out.writeLong(row.timeSlot.getEnd());
+                }
+                break;
+            default:
+                writeId(out, row.id);
+                writeId(out, row.examId);
+                out.writeByte(row.number);
+                out.writeInt(row.grade);
+                break;
+        }
+    }
+
+    private static void writeId(DataOutputStream out, String id) throws IOException {
+        byte[] bytes = id.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("ID " + id.substring(0, 16) + "... is too long.");
+        }
+        out.writeShort(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,183 @@
+package courseManagement;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Tests that bulk loading a file gives the same result as making the matching calls one by one.
+ */
+public class BulkLoaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static final List<String> ROWS = Arrays.asList(
+            "# courses, students, exams and bookings",
+            "course,CS101,30",
+            "course,CS102,10",
+            "course,CS103,5",                                   // INVALID_CAPACITY
+            "course,CS101,40",                                  // COURSE_EXISTS
+            "",
+            "student,S001,CS101,CS102",
+            "student,S002,CS101",
+            "student,S003",
+            "student,S002,CS102",                               // STUDENT_EXISTS
+            "student,S004,CS101,CS999",                         // UNKNOWN_COURSE
+            "exam,CS101,E1,Room 1,1,1000,2000",
+            "exam,CS102,E2,Room 2,0,1500,2500",
+            "exam,CS101,E3,Room 1,0,1500,1600",                 // ROOM_CONFLICT
+            "exam,CS102,E4,Room 3",
+            "booking,S001,E1,COMPLETED,85",
+            "booking,S002,E1",                                  // EXAM_FULL
+            "booking,S001,E2",                                  // TIME_CONFLICT
+            "booking,S001,E4,CONFIRMED",
+            "booking,S002,E4",                                  // NOT_ENROLLED
+            "booking,S001,E4",                                  // ALREADY_BOOKED
+            "booking,S003,E1,COMPLETED,101");                   // INVALID_GRADE
+
+    private Path write(String name, List<String> rows) throws IOException {
+        Path file = folder.getRoot().toPath().resolve(name);
+        Files.write(file, rows);
+        return file;
+    }
+
+    /**
+     * Applies ROWS through the per-call API.
+     */
+    private CourseManager callOneByOne() {
+        CourseManager manager = new CourseManager();
+        manager.tryAddCourse("CS101", 30);
+        manager.tryAddCourse("CS102", 10);
+        manager.tryEnrollStudent("S001", "CS101", "CS102");
+        manager.tryEnrollStudent("S002", "CS101");
+        manager.tryEnrollStudent("S003");
+        manager.tryAddExam("CS101", "E1", "Room 1", 1, new TimeSlot(1000, 2000));
+        manager.tryAddExam("CS102", "E2", "Room 2", 0, new TimeSlot(1500, 2500));
+        manager.tryAddExam("CS102", "E4", "Room 3");
+        manager.tryBookExam("S001", "E1");
+        manager.tryConfirmBooking(1);
+        manager.trySetGrade(1, 85);
+        manager.tryBookExam("S001", "E4");
+        manager.tryConfirmBooking(2);
+        return manager;
+    }
+
+    private void assertSameState(CourseManager expected, CourseManager actual) {
+        for (String courseId : Arrays.asList("CS101", "CS102", "CS103")) {
+            assertEquals(expected.getEnrolledStudents(courseId), actual.getEnrolledStudents(courseId));
+        }
+        assertEquals(expected.getExamsByCourse(), actual.getExamsByCourse());
+        assertEquals(expected.getConfirmedBookings(), actual.getConfirmedBookings());
+        assertEquals(expected.getCompletedBookings(), actual.getCompletedBookings());
+        assertEquals(expected.getStudentGrades("S001"), actual.getStudentGrades("S001"));
+        assertEquals(expected.getSeatMap("E1"), actual.getSeatMap("E1"));
+        assertEquals(expected.getExamTimeSlot("E2"), actual.getExamTimeSlot("E2"));
+        assertEquals(expected.getNextBookingNumber(), actual.getNextBookingNumber());
+    }
+
+    /**
+     * Every row is checked like the matching try* call, and rejected rows are reported by line.
+     */
+    @Test
+    public void testLoadMatchesPerCallApi() throws Exception {
+        CourseManager manager = new CourseManager();
+        LoadReport report = BulkLoader.load(manager, write("rows.csv", ROWS));
+
+        assertSameState(callOneByOne(), manager);
+        assertEquals(10, report.getLoaded());
+        assertEquals(10, report.getRejected());
+        List<String> rejections = report.getRejections().stream().map(LoadReport.Rejection::toString)
+                .collect(Collectors.toList());
+        assertEquals(Arrays.asList("Line 4: INVALID_CAPACITY", "Line 5: COURSE_EXISTS", "Line 10: STUDENT_EXISTS",
+                "Line 11: UNKNOWN_COURSE", "Line 14: ROOM_CONFLICT", "Line 17: EXAM_FULL",
+                "Line 18: TIME_CONFLICT", "Line 20: NOT_ENROLLED", "Line 21: ALREADY_BOOKED",
+                "Line 22: INVALID_GRADE"), rejections);
+        assertEquals(Long.valueOf(1), report.getRejectedBy().get(ResultCode.EXAM_FULL));
+    }
+
+    /**
+     * A file larger than one chunk loads the same from CSV and from its binary conversion, with rejected
+     * rows numbered across chunk boundaries.
+     */
+    @Test
+    public void testBinaryMatchesCsv() throws Exception {
+        Path csv = folder.getRoot().toPath().resolve("large.csv");
+        int students = 100_000;
+        try (BufferedWriter out = Files.newBufferedWriter(csv)) {
+            out.write("course,C0,1000000\ncourse,C1,1000000\n");
+            out.write("exam,C0,E0,Hall\nexam,C1,E1,Hall,50000\n");
+            for (int i = 0; i < students; i++) {
+                out.write("student,S" + i + ",C" + (i % 2) + "\n");
+                out.write("booking,S" + i + ",E" + (i % 2) + (i % 3 == 0 ? ",COMPLETED," + i % 101 : "") + "\n");
+                out.write("booking,S" + i + ",E" + (i % 2) + "\n");    // ALREADY_BOOKED
+            }
+        }
+        assertTrue(Files.size(csv) > (4 << 20));
+        Path binary = folder.getRoot().toPath().resolve("large.bin");
+        BulkLoader.convert(csv, binary);
+        assertTrue(Files.size(binary) < Files.size(csv));
+
+        CourseManager fromCsv = new CourseManager();
+        CourseManager fromBinary = new CourseManager();
+        LoadReport csvReport = BulkLoader.load(fromCsv, csv);
+        LoadReport binaryReport = BulkLoader.load(fromBinary, binary);
+
+        assertEquals(4 + 2 * students, csvReport.getLoaded());
+        assertEquals(students, csvReport.getRejected());
+        assertEquals(csvReport.toString(), binaryReport.toString());
+        assertEquals(10, csvReport.getRejections().get(1).getLine());
+        assertEquals(3 * LoadReport.MAX_REJECTIONS + 4, csvReport.getRejections().get(999).getLine());
+        assertEquals(fromCsv.getCompletedBookings(), fromBinary.getCompletedBookings());
+        assertEquals(students / 3 + 1, fromCsv.getCompletedBookings().size());
+        assertEquals(fromCsv.getCourseAverage(), fromBinary.getCourseAverage());
+        assertEquals(fromCsv.getEnrolledStudents("C1"), fromBinary.getEnrolledStudents("C1"));
+        assertEquals(0, fromBinary.getFreeSeats("E1"));
+    }
+
+    /**
+     * A malformed row stops the load with its line number, after the rows before it are loaded.
+     */
+    @Test
+    public void testMalformedRowStopsLoad() throws Exception {
+        CourseManager manager = new CourseManager();
+        Path file = write("bad.csv", Arrays.asList("course,CS101,30", "student,S001,CS101",
+                "booking,S001,E1,DONE", "course,CS102,30"));
+        try {
+            BulkLoader.load(manager, file);
+            fail("Expected the malformed row to be rejected.");
+        } catch (IOException e) {
+            assertEquals("Line 3: Unknown booking status DONE.", e.getMessage());
+        }
+        assertEquals(Arrays.asList("S001"), manager.getEnrolledStudents("CS101"));
+        assertTrue(manager.getEnrolledStudents("CS102").isEmpty());
+    }
+
+    /**
+     * A durable manager journals the loaded rows, so they survive a reopen.
+     */
+    @Test
+    public void testLoadIsDurable() throws Exception {
+        Path dir = folder.newFolder("data").toPath();
+        Path file = write("rows.csv", ROWS);
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.BATCHED);
+        BulkLoader.load(manager, file);
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.BATCHED);
+        assertSameState(callOneByOne(), reopened);
+        Map<Integer, Integer> seats = reopened.getSeatMap("E1");
+        assertEquals(Map.of(1, 1), seats);
+        reopened.close();
+    }
+}
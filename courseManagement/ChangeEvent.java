@@ -0,0 +1,125 @@
+package courseManagement;
+
+import java.util.List;
+
+/**
+ * A change made by a CourseManager, as delivered to an {@link EventSubscription}.
+ * Events carry a sequence number; a change that depends on another (such as confirming a booking)
+ * always has a higher sequence number than the change it depends on.
+ */
+public class ChangeEvent {
+    public enum Type {
+        STUDENT_ENROLLED,
+        EXAM_ADDED,
+        EXAM_BOOKED,
+        BOOKING_CONFIRMED,
+        GRADE_SET,
+        COURSE_ENROLLED,
+        COURSE_DROPPED,
+        STUDENT_UNREGISTERED
+    }
+
+    private final long sequence;
+    private final Type type;
+    private final String studentId;
+    private final List<String> courseIds;
+    private final String examId;
+    private final int bookingNumber;
+    private final int grade;
+
+    private ChangeEvent(long sequence, Type type, String studentId, List<String> courseIds, String examId,
+                        int bookingNumber, int grade) {
+        this.sequence = sequence;
+        this.type = type;
+        this.studentId = studentId;
+        this.courseIds = courseIds;
+        this.examId = examId;
+        this.bookingNumber = bookingNumber;
+        this.grade = grade;
+    }
+
+    static ChangeEvent studentEnrolled(long sequence, String studentId, List<String> courseIds) {
+        return new ChangeEvent(sequence, Type.STUDENT_ENROLLED, studentId, courseIds, null, 0, -1);
+    }
+
+    static ChangeEvent courseEnrolled(long sequence, String studentId, String courseId) {
+        return new ChangeEvent(sequence, Type.COURSE_ENROLLED, studentId, List.of(courseId), null, 0, -1);
+    }
+
+    static ChangeEvent courseDropped(long sequence, String studentId, String courseId) {
+        return new ChangeEvent(sequence, Type.COURSE_DROPPED, studentId, List.of(courseId), null, 0, -1);
+    }
+
+    static ChangeEvent studentUnregistered(long sequence, String studentId) {
+        return new ChangeEvent(sequence, Type.STUDENT_UNREGISTERED, studentId, List.of(), null, 0, -1);
+    }
+
+    static ChangeEvent examAdded(long sequence, String courseId, String examId) {
+        return new ChangeEvent(sequence, Type.EXAM_ADDED, null, List.of(courseId), examId, 0, -1);
+    }
+
+    static ChangeEvent examBooked(long sequence, int bookingNumber, String studentId, String examId) {
+        return new ChangeEvent(sequence, Type.EXAM_BOOKED, studentId, List.of(), examId, bookingNumber, -1);
+    }
+
+    static ChangeEvent bookingConfirmed(long sequence, int bookingNumber, String studentId, String examId) {
+        return new ChangeEvent(sequence, Type.BOOKING_CONFIRMED, studentId, List.of(), examId, bookingNumber, -1);
+    }
+
+    static ChangeEvent gradeSet(long sequence, int bookingNumber, String studentId, String examId, int grade) {
+        return new ChangeEvent(sequence, Type.GRADE_SET, studentId, List.of(), examId, bookingNumber, grade);
+    }
+
+    public long getSequence() {
+        return sequence;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The student concerned, or null for EXAM_ADDED.
+     */
+    public String getStudentId() {
+        return studentId;
+    }
+
+    /**
+     * @return The courses the student enrolled in (STUDENT_ENROLLED), the course a registered student enrolled
+     *         in or dropped (COURSE_ENROLLED, COURSE_DROPPED), the exam's course (EXAM_ADDED), or an empty list.
+     */
+    public List<String> getCourseIds() {
+        return courseIds;
+    }
+
+    /**
+     * @return The exam concerned, or null for STUDENT_ENROLLED, COURSE_ENROLLED and COURSE_DROPPED.
+     */
+    public String getExamId() {
+        return examId;
+    }
+
+    /**
+     * @return The booking concerned, or 0 for enrollment, drop and EXAM_ADDED events.
+     */
+    public int getBookingNumber() {
+        return bookingNumber;
+    }
+
+    /**
+     * @return The grade for GRADE_SET, otherwise -1.
+     */
+    public int getGrade() {
+        return grade;
+    }
+
+    @Override
+    public String toString() {
+        return "#" + sequence + " " + type + (studentId != null ? " student=" + studentId : "")
+                + (courseIds.isEmpty() ? "" : " courses=" + courseIds)
+                + (examId != null ? " exam=" + examId : "")
+                + (bookingNumber > 0 ? " booking=" + bookingNumber : "")
+                + (grade >= 0 ? " grade=" + grade : "");
+    }
+}
@@ -0,0 +1,190 @@
+package courseManagement;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Keeps bookings off the Java heap in fixed-width int columns indexed by booking number:
+ * student ordinal, exam ordinal, and a state word packing the status, grade and seat.
+ * The columns are split into chunks of direct or memory-mapped buffers, so millions of bookings
+ * add no objects for the garbage collector to trace.
+ * A mapped file is scratch space only; durability comes from the {@link Journal}.
+ */
+class ColumnarBookingStore implements BookingStore {
+    private static final int CHUNK_SHIFT = 16;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+    private static final int CHUNK_BYTES = (1 << CHUNK_SHIFT) * Integer.BYTES;
+    private static final int COLUMNS = 3;
+
+    // Aligned int access with acquire/release semantics on the state column
+    private static final VarHandle INT = MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.nativeOrder());
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    private final IdDictionary studentOrdinals;
+    private final IdDictionary examOrdinals;
+    private final FileChannel channel; // null when the columns are direct buffers
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    private static final class Chunk {
+        final ByteBuffer students;
+        final ByteBuffer exams;
+        final ByteBuffer states; // 0 = no booking, else (status ordinal + 1) | (grade + 1) << 8 | seat << 16
+
+        Chunk(ByteBuffer students, ByteBuffer exams, ByteBuffer states) {
+            this.students = students;
+            this.exams = exams;
+            this.states = states;
+        }
+    }
+
+    /**
+     * Constructor for the ColumnarBookingStore class.
+     * @param file The file to map the columns from, or null to use direct buffers. Existing content is discarded.
+     * @param studentOrdinals Resolves student ordinals.
+     * @param examOrdinals Resolves exam ordinals.
+     * @throws IOException if the file cannot be opened.
+     */
+    ColumnarBookingStore(Path file, IdDictionary studentOrdinals, IdDictionary examOrdinals) throws IOException {
+        this.studentOrdinals = studentOrdinals;
+        this.examOrdinals = examOrdinals;
+        this.channel = file == null ? null : FileChannel.open(file, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    @Override
+    public void add(int bookingNumber, int studentOrdinal, int examOrdinal) {
+        Chunk chunk = chunkFor(bookingNumber);
+        int offset = offset(bookingNumber);
+        chunk.students.putInt(offset, studentOrdinal);
+        chunk.exams.putInt(offset, examOrdinal);
+        // Released after the other columns, so a reader that sees the state also sees them
+        INT.setRelease(chunk.states, offset, state(Booking.BookingStatus.PENDING, -1));
+    }
+
+    @Override
+    public boolean contains(int bookingNumber) {
+        return bookingNumber > 0 && state(bookingNumber) != 0;
+    }
+
+    @Override
+    public String getStudentId(int bookingNumber) {
+        return studentOrdinals.idOf(getStudentOrdinal(bookingNumber));
+    }
+
+    @Override
+    public int getStudentOrdinal(int bookingNumber) {
+        return chunks[bookingNumber >>> CHUNK_SHIFT].students.getInt(offset(bookingNumber));
+    }
+
+    @Override
+    public String getExamId(int bookingNumber) {
+        return examOrdinals.idOf(getExamOrdinal(bookingNumber));
+    }
+
+    @Override
+    public int getExamOrdinal(int bookingNumber) {
+        return chunks[bookingNumber >>> CHUNK_SHIFT].exams.getInt(offset(bookingNumber));
+    }
+
+    @Override
+    public Booking.BookingStatus getStatus(int bookingNumber) {
+        return STATUSES[(state(bookingNumber) & 0xFF) - 1];
+    }
+
+    @Override
+    public int getGrade(int bookingNumber) {
+        return (state(bookingNumber) >>> 8 & 0xFF) - 1;
+    }
+
+    @Override
+    public int getSeat(int bookingNumber) {
+        return state(bookingNumber) >>> 16;
+    }
+
+    @Override
+    public void confirm(int bookingNumber, int seat) {
+        INT.setRelease(chunkFor(bookingNumber).states, offset(bookingNumber),
+                state(Booking.BookingStatus.CONFIRMED, -1, seat));
+    }
+
+    @Override
+    public void complete(int bookingNumber, int grade) {
+        // Status, grade and seat share one word, so they change together
+        INT.setRelease(chunkFor(bookingNumber).states, offset(bookingNumber),
+                state(Booking.BookingStatus.COMPLETED, grade, getSeat(bookingNumber)));
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private static int offset(int bookingNumber) {
+        return (bookingNumber & CHUNK_MASK) * Integer.BYTES;
+    }
+
+    private static int state(Booking.BookingStatus status, int grade) {
+        return state(status, grade, 0);
+    }
+
+    private static int state(Booking.BookingStatus status, int grade, int seat) {
+        return (status.ordinal() + 1) | (grade + 1) << 8 | seat << 16;
+    }
+
+    private int state(int bookingNumber) {
+        Chunk[] current = chunks;
+        int index = bookingNumber >>> CHUNK_SHIFT;
+        if (index >= current.length || current[index] == null) {
+            return 0;
+        }
+        return (int) INT.getAcquire(current[index].states, offset(bookingNumber));
+    }
+
+    /**
+     * Returns the chunk holding a booking number, allocating it and any chunk before it if needed.
+     */
+    private Chunk chunkFor(int bookingNumber) {
+        int index = bookingNumber >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            }
+            for (int i = 0; i <= index; i++) {
+                if (current[i] == null) {
+                    current[i] = new Chunk(column(i, 0), column(i, 1), column(i, 2));
+                }
+            }
+            chunks = current;
+            return current[index];
+        }
+    }
+
+    private ByteBuffer column(int chunk, int column) {
+        ByteBuffer buffer;
+        if (channel == null) {
+            buffer = ByteBuffer.allocateDirect(CHUNK_BYTES);
+        } else {
+            try {
+                buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                        ((long) chunk * COLUMNS + column) * CHUNK_BYTES, CHUNK_BYTES);
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot map booking columns.", e);
+            }
+        }
+        return buffer.order(ByteOrder.nativeOrder());
+    }
+}
@@ -0,0 +1,367 @@
+package courseManagement;
+
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+
+/**
+ * Multi-threaded stress tests that check CourseManager invariants under concurrent callers.
+ */
+public class ConcurrentCourseManagerTest {
+
+    private static final int THREADS = 8;
+    private static final int COURSES = 4;
+    private static final int CAPACITY = 50;
+
+    private CourseManager manager;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new CourseManager();
+        for (int c = 0; c < COURSES; c++) {
+            manager.addCourse("C" + c, CAPACITY);
+            manager.addExam("C" + c, "E" + c, "Room " + c);
+        }
+        pool = Executors.newFixedThreadPool(THREADS);
+    }
+
+    /**
+     * Runs the same task on every thread at once and waits for all of them.
+     */
+    private void runConcurrently(ThrowingTask task) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            final int thread = t;
+            futures.add(pool.submit(() -> {
+                start.await();
+                task.run(thread);
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> f : futures) {
+            f.get(30, TimeUnit.SECONDS);
+        }
+        pool.shutdown();
+    }
+
+    private interface ThrowingTask {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Concurrent enrollments must never push a course over capacity, and each student ID registers only once.
+     */
+    @Test
+    public void testEnrollmentRespectsCapacityAndUniqueness() throws Exception {
+        AtomicInteger registered = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < 2 * COURSES * CAPACITY; i++) {
+                // Every thread tries the same student IDs, so each ID is contended THREADS times
+                try {
+                    manager.enrollStudent("S" + i, "C" + (i % COURSES));
+                    registered.incrementAndGet();
+                } catch (Exception expected) {
+                    // already registered or course full
+                }
+            }
+        });
+
+        int enrolled = 0;
+        for (int c = 0; c < COURSES; c++) {
+            List<String> roster = manager.getEnrolledStudents("C" + c);
+            assertTrue(roster.size() <= CAPACITY);
+            assertEquals(roster.size(), new HashSet<>(roster).size());
+            enrolled += roster.size();
+        }
+        assertEquals(COURSES * CAPACITY, enrolled);
+        assertEquals(enrolled, registered.get());
+    }
+
+    /**
+     * Concurrent booking, confirmation and grading must produce a gap-free booking sequence,
+     * no duplicate (student, exam) bookings and status lists that account for every booking.
+     */
+    @Test
+    public void testBookingLifecycleInvariants() throws Exception {
+        int studentsPerCourse = CAPACITY;
+        for (int c = 0; c < COURSES; c++) {
+            for (int i = 0; i < studentsPerCourse; i++) {
+                manager.enrollStudent("S" + c + "-" + i, "C" + c);
+            }
+        }
+
+        Map<Integer, Integer> gradeByBooking = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int c = 0; c < COURSES; c++) {
+                for (int i = 0; i < studentsPerCourse; i++) {
+                    int booking;
+                    try {
+                        booking = manager.bookExam("S" + c + "-" + i, "E" + c);
+                    } catch (Exception e) {
+                        duplicates.incrementAndGet();
+                        continue;
+                    }
+                    manager.confirmBooking(booking);
+                    if (booking % 2 == 0) {
+                        int grade = booking % 101;
+                        manager.setGrade(booking, grade);
+                        gradeByBooking.put(booking, grade);
+                    }
+                }
+            }
+        });
+
+        int total = COURSES * studentsPerCourse;
+        assertEquals(total * (THREADS - 1), duplicates.get());
+
+        List<Integer> confirmed = manager.getConfirmedBookings();
+        List<Integer> completed = manager.getCompletedBookings();
+        assertEquals(total, confirmed.size() + completed.size());
+        Set<Integer> all = new HashSet<>(confirmed);
+        all.addAll(completed);
+        for (int n = 1; n <= total; n++) {
+            assertTrue("missing booking " + n, all.contains(n));
+        }
+        assertEquals(new HashSet<>(completed), gradeByBooking.keySet());
+
+        long gradeSum = 0;
+        for (int grade : gradeByBooking.values()) {
+            gradeSum += grade;
+        }
+        long statsSum = 0;
+        for (int c = 0; c < COURSES; c++) {
+            statsSum += manager.getCourseStatistics("C" + c).getSum();
+        }
+        assertEquals(gradeSum, statsSum);
+    }
+
+    /**
+     * Concurrent multi-course enrollments against nearly full courses must never leave a student
+     * in only some of the courses they asked for.
+     */
+    @Test
+    public void testMultiCourseEnrollmentIsAtomic() throws Exception {
+        AtomicInteger registered = new AtomicInteger();
+        runConcurrently(thread -> {
+            for (int i = 0; i < CAPACITY; i++) {
+                // Each thread asks for a different pair of courses, in a different order
+                String first = "C" + ((thread + i) % COURSES);
+                String second = "C" + ((thread + i + 1) % COURSES);
+                try {
+                    manager.enrollStudent("T" + thread + "-" + i, first, second);
+                    registered.incrementAndGet();
+                } catch (Exception expected) {
+                    // a course was full
+                }
+            }
+        });
+
+        int seats = 0;
+        for (int c = 0; c < COURSES; c++) {
+            List<String> roster = manager.getEnrolledStudents("C" + c);
+            assertTrue(roster.size() <= CAPACITY);
+            seats += roster.size();
+        }
+        // Every registered student holds exactly two seats and no seat belongs to a rejected student
+        assertEquals(2 * registered.get(), seats);
+    }
+
+    /**
+     * A listener receives every change made by concurrent callers, with gap-free sequence numbers,
+     * and each booking's events in lifecycle order.
+     */
+    @Test
+    public void testChangeEventsArriveInDependencyOrder() throws Exception {
+        List<ChangeEvent> received = Collections.synchronizedList(new ArrayList<>());
+        EventSubscription subscription = manager.subscribe(received::addAll);
+        runConcurrently(thread -> {
+            for (int i = 0; i < CAPACITY / THREADS; i++) {
+                String studentId = "S" + thread + "-" + i;
+                String courseId = "C" + (i % COURSES);
+                manager.enrollStudent(studentId, courseId);
+                int booking = manager.bookExam(studentId, "E" + (i % COURSES));
+                manager.confirmBooking(booking);
+                manager.setGrade(booking, i);
+            }
+        });
+        int expected = THREADS * (CAPACITY / THREADS) * 4;
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (received.size() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        subscription.close();
+
+        assertEquals(expected, received.size());
+        assertEquals(0, subscription.getMissedEvents());
+        Map<Integer, ChangeEvent.Type> lastTypeByBooking = new HashMap<>();
+        Set<String> enrolled = new HashSet<>();
+        for (int i = 0; i < received.size(); i++) {
+            ChangeEvent event = received.get(i);
+            assertEquals(received.get(0).getSequence() + i, event.getSequence());
+            switch (event.getType()) {
+                case STUDENT_ENROLLED:
+                    enrolled.add(event.getStudentId());
+                    break;
+                case EXAM_BOOKED:
+                    assertTrue(enrolled.contains(event.getStudentId()));
+                    assertNull(lastTypeByBooking.put(event.getBookingNumber(), event.getType()));
+                    break;
+                case BOOKING_CONFIRMED:
+                    assertEquals(ChangeEvent.Type.EXAM_BOOKED,
+                            lastTypeByBooking.put(event.getBookingNumber(), event.getType()));
+                    break;
+                case GRADE_SET:
+                    assertEquals(ChangeEvent.Type.BOOKING_CONFIRMED,
+                            lastTypeByBooking.put(event.getBookingNumber(), event.getType()));
+                    break;
+                default:
+                    fail("Unexpected event " + event);
+            }
+        }
+    }
+
+    /**
+     * Snapshots taken while other threads book, confirm and grade must be internally consistent
+     * and must not change as the manager moves on.
+     */
+    @Test
+    public void testSnapshotsAreConsistentUnderConcurrentWrites() throws Exception {
+        for (int c = 0; c < COURSES; c++) {
+            for (int i = 0; i < CAPACITY; i++) {
+                manager.enrollStudent("S" + c + "-" + i, "C" + c);
+            }
+        }
+        AtomicInteger snapshots = new AtomicInteger();
+        runConcurrently(thread -> {
+            if (thread == 0) {
+                for (int round = 0; round < 200; round++) {
+                    ReportSnapshot snapshot = manager.snapshot();
+                    List<Integer> completed = snapshot.getCompletedBookings();
+                    long graded = 0;
+                    for (int c = 0; c < COURSES; c++) {
+                        graded += snapshot.getCourseStatistics("C" + c).getCount();
+                    }
+                    assertEquals(completed.size(), graded);
+                    List<Integer> confirmed = snapshot.getConfirmedBookings();
+                    assertTrue(snapshot.getBookingCount() >= completed.size() + confirmed.size());
+                    for (int n : confirmed) {
+                        assertEquals(Booking.BookingStatus.CONFIRMED, snapshot.getStatus(n));
+                    }
+                    Thread.yield();
+                    assertEquals(completed, snapshot.getCompletedBookings());
+                    snapshots.incrementAndGet();
+                }
+                return;
+            }
+            for (int c = 0; c < COURSES; c++) {
+                for (int i = thread - 1; i < CAPACITY; i += THREADS - 1) {
+                    int booking = manager.bookExam("S" + c + "-" + i, "E" + c);
+                    manager.confirmBooking(booking);
+                    manager.setGrade(booking, booking % 101);
+                }
+            }
+        });
+        assertEquals(200, snapshots.get());
+
+        ReportSnapshot last = manager.snapshot();
+        assertEquals(COURSES * CAPACITY, last.getCompletedBookings().size());
+        for (int c = 0; c < COURSES; c++) {
+            assertEquals(manager.getCourseStatistics("C" + c).getSum(), last.getCourseStatistics("C" + c).getSum());
+        }
+        assertEquals(manager.getStudentGrades("S0-0"), last.getStudentGrades("S0-0"));
+    }
+
+    /**
+     * Concurrent joins and drops on one full course must keep it exactly full, hand every freed seat
+     * to a waiting student, and keep each student's courses in line with the roster.
+     */
+    @Test
+    public void testWaitlistPromotionUnderConcurrentDrops() throws Exception {
+        for (int i = 0; i < CAPACITY; i++) {
+            manager.enrollStudent("H" + i, "C0");
+        }
+        int perThread = 200;
+        runConcurrently(thread -> {
+            for (int i = 0; i < perThread; i++) {
+                String studentId = "W" + thread + "-" + i;
+                manager.enrollStudent(studentId);
+                assertEquals(ResultCode.WAITLISTED, manager.tryJoinWaitlist(studentId, "C0"));
+                // Free a seat by dropping the first student on the roster; another thread may get there first
+                List<String> first = manager.getEnrolledStudents("C0", null, 1);
+                if (!first.isEmpty()) {
+                    manager.tryDropCourse(first.get(0), "C0");
+                }
+            }
+        });
+
+        List<String> roster = manager.getEnrolledStudents("C0");
+        List<String> waitlist = manager.getWaitlist("C0");
+        assertEquals(CAPACITY, roster.size());
+        Set<String> seen = new HashSet<>(roster);
+        for (String studentId : waitlist) {
+            assertTrue(seen.add(studentId));
+        }
+        for (String studentId : roster) {
+            assertTrue(studentId, manager.tryBookExam(studentId, "E0") > 0);
+        }
+        for (String studentId : waitlist) {
+            assertEquals(ResultCode.NOT_ENROLLED, ResultCode.decode(manager.tryBookExam(studentId, "E0")));
+        }
+    }
+
+    /**
+     * More students than seats race for one exam: exactly the room's capacity of them must get in, and
+     * concurrent confirmations, single or batched, must give each of them a different seat.
+     */
+    @Test
+    public void testSeatsAreNeverOverbooked() throws Exception {
+        int seats = 20;
+        manager.addExam("C0", "POPULAR", "Small room", seats);
+        for (int i = 0; i < CAPACITY; i++) {
+            manager.enrollStudent("S" + i, "C0");
+        }
+        AtomicInteger admitted = new AtomicInteger();
+        Set<Integer> seatsTaken = ConcurrentHashMap.newKeySet();
+        runConcurrently(thread -> {
+            for (int i = thread; i < CAPACITY; i += THREADS) {
+                int result = manager.tryBookExam("S" + i, "POPULAR");
+                if (result > 0) {
+                    admitted.incrementAndGet();
+                    if (result % 2 == 0) {
+                        manager.confirmBooking(result);
+                    } else {
+                        assertEquals(ResultCode.OK, manager.confirmBookings(new int[]{result})[0]);
+                    }
+                    assertTrue(seatsTaken.add(manager.getSeat(result)));
+                } else {
+                    assertEquals(ResultCode.EXAM_FULL, ResultCode.decode(result));
+                }
+            }
+        });
+        assertEquals(seats, admitted.get());
+        assertEquals(seats, seatsTaken.size());
+        assertEquals(0, manager.getFreeSeats("POPULAR"));
+        assertEquals(seats, manager.getSeatMap("POPULAR").size());
+        assertTrue(seatsTaken.stream().allMatch(seat -> seat >= 1 && seat <= seats));
+    }
+}
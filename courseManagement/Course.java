@@ -1,17 +1,34 @@
 package courseManagement;
 
-import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.concurrent.locks.ReentrantLock;
 
 /**
  * Represents a course in the system.
- * It stores course details and a list of enrolled students.
+ * It stores course details, a sorted roster of enrolled students, a first-come first-served waitlist
+ * and the course's sorted exam IDs.
+ * Changes are guarded by a per-course lock, so enrollments in different courses do not contend;
+ * roster reads need no lock.
  */
 public class Course {
     private String courseId;
     private int maxStudents;
-    private List<String> enrolledStudents = new ArrayList<>();
+    private final int ordinal;
+    // Sorted and immutable: each change swaps in a new version sharing all but O(log n) nodes, so readers
+    // are handed the current version as is
+    private volatile PersistentSortedList<String> enrolledStudents = PersistentSortedList.empty();
+    private NavigableSet<String> examIds = new TreeSet<>();
+    private volatile List<String> examSnapshot = List.of();
+    // Students waiting for a seat, in arrival order: O(1) to join, leave, check and promote the first
+    private LinkedHashSet<String> waitlist = new LinkedHashSet<>();
+    // LSN of the last journal record that changed the roster or waitlist; 0 when there is none
+    private long rosterLsn;
+    private final ReentrantLock lock = new ReentrantLock();
 
     /**
      * Constructor for the Course class.
@@ -19,40 +36,233 @@ public class Course {
      * @param maxStudents The maximum number of students that can enroll.
      */
     public Course(String courseId, int maxStudents) {
+        this(courseId, maxStudents, 0);
+    }
+
+    /**
+     * Constructor for a course registered with a CourseManager.
+     * @param courseId The unique identifier for the course.
+     * @param maxStudents The maximum number of students that can enroll.
+     * @param ordinal The interned course ID.
+     */
+    Course(String courseId, int maxStudents, int ordinal) {
         this.courseId = courseId;
         this.maxStudents = maxStudents;
+        this.ordinal = ordinal;
     }
 
     public String getCourseId() {
         return courseId;
     }
 
+    int getOrdinal() {
+        return ordinal;
+    }
+
     public int getMaxStudents() {
         return maxStudents;
     }
 
     /**
-     * Returns a sorted list of enrolled student IDs.
+     * Returns a sorted, immutable list of enrolled student IDs.
+     * The list is the roster as of the call; later changes do not show in it, and nothing is copied.
      * @return A sorted list of strings.
      */
     public List<String> getEnrolledStudents() {
-        Collections.sort(enrolledStudents);
         return enrolledStudents;
     }
 
+    /**
+     * Returns one page of the roster: the enrolled student IDs that sort after a given ID.
+     * @param afterStudentId The last ID of the previous page, or null to start at the beginning.
+     * @param limit The maximum number of IDs to return.
+     * @return A sorted list of at most limit student IDs; empty when there are no more.
+     */
+    public List<String> getEnrolledStudents(String afterStudentId, int limit) {
+        PersistentSortedList<String> roster = enrolledStudents;
+        int from = afterStudentId == null ? 0 : roster.indexAfter(afterStudentId);
+        int to = (int) Math.min(roster.size(), (long) from + limit);
+        return List.copyOf(roster.subList(from, to));
+    }
+
+    /**
+     * @return The number of enrolled students.
+     */
+    public int getEnrolledCount() {
+        return enrolledStudents.size();
+    }
+
+    /**
+     * Returns the students waiting for a seat, first in line first.
+     * @return A read-only copy of the waitlist.
+     */
+    public List<String> getWaitlist() {
+        lock.lock();
+        try {
+            return List.copyOf(waitlist);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * @return The number of students waiting for a seat.
+     */
+    public int getWaitlistLength() {
+        lock.lock();
+        try {
+            return waitlist.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Adds a student to the course if not already full or enrolled.
      * @param studentId The ID of the student to enroll.
      * @throws Exception if the course is full or the student is already enrolled.
      */
     public void addStudent(String studentId) throws Exception {
-        if (enrolledStudents.size() >= maxStudents) {
+        ResultCode result;
+        lock.lock();
+        try {
+            result = checkCanEnroll(studentId);
+            if (result.isOk()) {
+                enroll(studentId);
+            }
+        } finally {
+            lock.unlock();
+        }
+        if (result == ResultCode.COURSE_FULL) {
             throw new Exception("Course " + courseId + " is already at maximum capacity.");
         }
-        if (enrolledStudents.contains(studentId)) {
+        if (result == ResultCode.ALREADY_ENROLLED) {
             throw new Exception("Student " + studentId + " is already enrolled in course " + courseId + ".");
         }
-        enrolledStudents.add(studentId);
+    }
+
+    /**
+     * Acquires the course lock. Used to enroll a student into several courses as one step.
+     */
+    void lock() {
+        lock.lock();
+    }
+
+    void unlock() {
+        lock.unlock();
+    }
+
+    /**
+     * Checks that a student could be enrolled right now. The caller must hold the course lock.
+     * @param studentId The ID of the student to check.
+     * @return OK, COURSE_FULL or ALREADY_ENROLLED.
+     */
+    ResultCode checkCanEnroll(String studentId) {
+        if (enrolledStudents.size() >= maxStudents) {
+            return ResultCode.COURSE_FULL;
+        }
+        if (enrolledStudents.contains(studentId)) {
+            return ResultCode.ALREADY_ENROLLED;
+        }
+        return ResultCode.OK;
+    }
+
+    /**
+     * Enrolls a student that has passed {@link #checkCanEnroll}. The caller must hold the course lock.
+     * @param studentId The ID of the student to enroll.
+     */
+    void enroll(String studentId) {
+        enrolledStudents = enrolledStudents.with(studentId);
+    }
+
+    /**
+     * Enrolls students that have passed the checks of a batch, in one step. The caller must hold the course lock.
+     * @param studentIds The IDs of the students to enroll.
+     */
+    void enrollAll(Collection<String> studentIds) {
+        enrolledStudents = enrolledStudents.withAll(studentIds);
+    }
+
+    /**
+     * Removes a student from the roster. The caller must hold the course lock.
+     * @param studentId The ID of the student to remove.
+     * @return true if the student was enrolled.
+     */
+    boolean withdraw(String studentId) {
+        PersistentSortedList<String> roster = enrolledStudents.without(studentId);
+        if (roster == enrolledStudents) {
+            return false;
+        }
+        enrolledStudents = roster;
+        return true;
+    }
+
+    /**
+     * @return true if every seat is taken. The caller must hold the course lock.
+     */
+    boolean isFull() {
+        return enrolledStudents.size() >= maxStudents;
+    }
+
+    /**
+     * @return true if the student is enrolled. The caller must hold the course lock.
+     */
+    boolean hasStudent(String studentId) {
+        return enrolledStudents.contains(studentId);
+    }
+
+    /**
+     * @return true if the student is on the waitlist. The caller must hold the course lock.
+     */
+    boolean isWaitlisted(String studentId) {
+        return waitlist.contains(studentId);
+    }
+
+    /**
+     * Puts a student at the end of the waitlist. The caller must hold the course lock.
+     * @param studentId The ID of the student.
+     */
+    void addToWaitlist(String studentId) {
+        waitlist.add(studentId);
+    }
+
+    /**
+     * Takes a student off the waitlist. The caller must hold the course lock.
+     * @param studentId The ID of the student.
+     * @return true if the student was waiting.
+     */
+    boolean removeFromWaitlist(String studentId) {
+        return waitlist.remove(studentId);
+    }
+
+    /**
+     * Takes the first student off the waitlist. The caller must hold the course lock.
+     * @return The student's ID, or null if nobody is waiting.
+     */
+    String pollWaitlist() {
+        Iterator<String> first = waitlist.iterator();
+        if (!first.hasNext()) {
+            return null;
+        }
+        String studentId = first.next();
+        first.remove();
+        return studentId;
+    }
+
+    /**
+     * @return The LSN of the last journal record that changed the roster or waitlist. The caller must hold
+     *         the course lock.
+     */
+    long getRosterLsn() {
+        return rosterLsn;
+    }
+
+    /**
+     * Records the LSN of a journal record that changed the roster or waitlist. The caller must hold the course lock.
+     * @param lsn The record's LSN.
+     */
+    void setRosterLsn(long lsn) {
+        rosterLsn = lsn;
     }
 
     /**
@@ -63,4 +273,40 @@ public class Course {
     public boolean isStudentEnrolled(String studentId) {
         return enrolledStudents.contains(studentId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the course's exam IDs in alphabetical order.
+     * The same immutable snapshot is shared between calls until an exam is added.
+     * @return A sorted list of exam IDs.
+     */
+    public List<String> getExams() {
+        List<String> snapshot = examSnapshot;
+        if (snapshot != null) {
+            return snapshot;
+        }
+        lock.lock();
+        try {
+            if (examSnapshot == null) {
+                examSnapshot = List.copyOf(examIds);
+            }
+            return examSnapshot;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records an exam held for this course.
+     * @param examId The ID of the exam.
+     */
+    void addExam(String examId) {
+        lock.lock();
+        try {
+            if (examIds.add(examId)) {
+                examSnapshot = null;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -1,221 +1,2180 @@
 package courseManagement;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.function.UnaryOperator;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * This class handles all the main logic of the system.
+ * It is safe for concurrent use: lookups go through concurrent maps, each course guards its own roster,
+ * and student and exam level checks are serialized on striped locks so unrelated requests run in parallel.
+ * A manager created with {@link #open} is durable: every mutation is written to a {@link Journal}
+ * and {@link #checkpoint()} compacts the journal into a snapshot.
+ * A manager is also the in-process {@link Shard} of a {@link ShardedCourseManager}.
  */
-public class CourseManager {
+public class CourseManager implements Shard {
 
-    private Map<String, Course> courses = new HashMap<>();
-    private Map<String, Student> students = new HashMap<>();
-    private Map<String, Exam> exams = new HashMap<>();
-    private Map<Integer, Booking> bookings = new HashMap<>();
-    private int nextBookingNumber = 1;
+    public static final int MIN_COURSE_CAPACITY = 10;
+    public static final int MAX_COURSE_CAPACITY = 1_000_000;
+    public static final int MAX_EXAM_SEATS = 65_535; // seat numbers share a booking's state word
+
+    private static final int LOCK_STRIPES = 256;
+    private static final String SNAPSHOT_FILE = "snapshot.bin";
+    private static final String COLUMNS_FILE = "bookings.columns";
+    private static final int PAGE_SIZE = 1024; // page size used by the stream* queries
+    private static final int EVENT_RING_CAPACITY = 1 << 16;
+
+    private Map<String, Course> courses = new ConcurrentHashMap<>();
+    // Course IDs in sorted order, for paging through courses without sorting them on every call
+    private NavigableSet<String> sortedCourseIds = new ConcurrentSkipListSet<>();
+    private Map<String, Student> students = new ConcurrentHashMap<>();
+    private Map<String, Exam> exams = new ConcurrentHashMap<>();
+    // Timed exams per location, so two exams cannot take the same room at the same time. Each timetable
+    // is guarded by its own monitor
+    private Map<String, Timetable> roomTimetables = new ConcurrentHashMap<>();
+    // IDs are interned to dense ordinals at registration; students and bookings refer to courses
+    // and exams by ordinal. See withColumnarBookings for the off-heap booking store
+    private IdDictionary courseOrdinals = new IdDictionary();
+    private IdDictionary studentOrdinals = new IdDictionary();
+    private IdDictionary examOrdinals = new IdDictionary();
+    private BookingStore bookings = new HeapBookingStore(studentOrdinals, examOrdinals);
+    // Booking numbers grouped by status; numbers are sequential so a bitmap keeps them sorted.
+    // Its copy-on-write segments are what makes snapshot() cheap
+    private StatusIndex bookingsByStatus = new StatusIndex();
+    // Running grade aggregates, updated when a booking becomes COMPLETED
+    private Map<String, GradeStatistics> gradesByCourse = new ConcurrentHashMap<>();
+    private Map<String, GradeStatistics> gradesByExam = new ConcurrentHashMap<>();
+    private AtomicInteger nextBookingNumber = new AtomicInteger(1);
+    // Cached result of getExamsByCourse, valid while examsVersion is unchanged
+    private AtomicInteger examsVersion = new AtomicInteger();
+    private volatile ExamsByCourseView examsByCourseView;
+
+    // Serialize course creation per course, registration and booking per student, and exam changes per exam
+    private LockStripes courseLocks = new LockStripes(LOCK_STRIPES);
+    private LockStripes studentLocks = new LockStripes(LOCK_STRIPES);
+    private LockStripes examLocks = new LockStripes(LOCK_STRIPES);
+
+    // Set only for durable managers; records are appended while the stripe lock is held, before the
+    // change becomes visible, so the log order respects every dependency between mutations
+    private Journal journal;
+    private Path directory;
+
+    // Change events for subscribers. A sequence number is claimed under the same lock as the journal record
+    // and the event is published once the change is visible, so events arrive in dependency order
+    private EventRing events = new EventRing(EVENT_RING_CAPACITY);
+
+    // Receives operation timings and gauges; null when metrics are off, which costs one volatile read per call
+    private volatile Metrics metrics;
+
+    public CourseManager() {
+    }
+
+    /**
+     * Creates an in-memory manager that keeps bookings in off-heap columns instead of one object per booking.
+     * Suited to tens of millions of bookings, where per-booking objects drive up garbage collection pauses.
+     * @return The new manager.
+     */
+    public static CourseManager withColumnarBookings() {
+        try {
+            return withColumnarBookings(null);
+        } catch (IOException e) {
+            throw new IllegalStateException(e); // no file is opened
+        }
+    }
+
+    /**
+     * Creates an in-memory manager that keeps bookings in columns memory-mapped from a file,
+     * so the operating system can page them out. The file is scratch space and is overwritten.
+     * @param file The file to map, or null for direct buffers.
+     * @return The new manager. Call {@link #close()} to release the file.
+     * @throws IOException if the file cannot be opened.
+     */
+    public static CourseManager withColumnarBookings(Path file) throws IOException {
+        CourseManager manager = new CourseManager();
+        manager.bookings = new ColumnarBookingStore(file, manager.studentOrdinals, manager.examOrdinals);
+        return manager;
+    }
 
     /**
      * R1: Registers a new course.
      * @param courseId The unique ID for the course.
-     * @param maxStudents Maximum number of students (10-200).
+     * @param maxStudents Maximum number of students (10-1,000,000).
      * @throws Exception if courseId exists or maxStudents is out of range.
      */
     public void addCourse(String courseId, int maxStudents) throws Exception {
-        if (courses.containsKey(courseId)) {
+        ResultCode result = tryAddCourse(courseId, maxStudents);
+        if (result == ResultCode.COURSE_EXISTS) {
             throw new Exception("Course ID " + courseId + " already exists.");
         }
-        if (maxStudents < 10 || maxStudents > 200) {
-            throw new Exception("Maximum number of students must be between 10 and 200.");
+        if (result == ResultCode.INVALID_CAPACITY) {
+            throw new Exception("Maximum number of students must be between " + MIN_COURSE_CAPACITY
+                    + " and " + MAX_COURSE_CAPACITY + ".");
+        }
+    }
+
+    /**
+     * R1: Registers a new course without throwing.
+     * @param courseId The unique ID for the course.
+     * @param maxStudents Maximum number of students (10-1,000,000).
+     * @return OK, COURSE_EXISTS or INVALID_CAPACITY.
+     */
+    public ResultCode tryAddCourse(String courseId, int maxStudents) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.ADD_COURSE, commit(applyAddCourse(courseId, maxStudents)), start);
+    }
+
+    private ResultCode applyAddCourse(String courseId, int maxStudents) {
+        ResultCode check = checkNewCourse(courseId, maxStudents);
+        if (!check.isOk()) {
+            return check;
+        }
+        ReentrantLock lock = courseLocks.lockFor(courseId);
+        lock.lock();
+        try {
+            if (courses.containsKey(courseId)) {
+                return ResultCode.COURSE_EXISTS;
+            }
+            addCourseLocked(courseId, maxStudents);
+            return ResultCode.OK;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Registers a course that has passed the checks. The caller must hold the course ID's stripe.
+     */
+    private void addCourseLocked(String courseId, int maxStudents) {
+        if (journal != null) {
+            journal.logAddCourse(courseId, maxStudents);
+        }
+        Course course = new Course(courseId, maxStudents, courseOrdinals.intern(courseId));
+        courses.put(courseId, course);
+        sortedCourseIds.add(courseId);
+        registerCourseGauges(course);
+    }
+
+    private ResultCode checkNewCourse(String courseId, int maxStudents) {
+        if (courses.containsKey(courseId)) {
+            return ResultCode.COURSE_EXISTS;
+        }
+        if (maxStudents < MIN_COURSE_CAPACITY || maxStudents > MAX_COURSE_CAPACITY) {
+            return ResultCode.INVALID_CAPACITY;
         }
-        courses.put(courseId, new Course(courseId, maxStudents));
+        return ResultCode.OK;
     }
 
     /**
      * R1: Enrolls a student into one or more courses.
+     * Enrollment is all-or-nothing: if any course is unknown, full or already has the student,
+     * no course is changed and the student is not registered.
      * @param studentId The unique ID for the student.
      * @param courseIds A variable number of course IDs to enroll in.
      * @throws Exception if studentId exists, courseId is invalid, course is full, or student is already enrolled.
      */
     public void enrollStudent(String studentId, String... courseIds) throws Exception {
-        if (students.containsKey(studentId)) {
-            throw new Exception("Student ID " + studentId + " is already registered.");
+        int[] failedIndex = new int[1];
+        long start = startTimer();
+        ResultCode result = stopTimer(Metrics.Operation.ENROLL_STUDENT,
+                commit(applyEnrollStudent(studentId, courseIds, failedIndex)), start);
+        switch (result) {
+            case STUDENT_EXISTS:
+                throw new Exception("Student ID " + studentId + " is already registered.");
+            case UNKNOWN_COURSE:
+                throw new Exception("Course ID " + courseIds[failedIndex[0]] + " does not exist.");
+            case COURSE_FULL:
+                throw new Exception("Course " + courseIds[failedIndex[0]] + " is already at maximum capacity.");
+            case ALREADY_ENROLLED:
+                throw new Exception("Student " + studentId + " is already enrolled in course "
+                        + courseIds[failedIndex[0]] + ".");
+            default:
+                break;
         }
+    }
 
-        Student student = new Student(studentId);
-        for (String courseId : courseIds) {
-            Course course = courses.get(courseId);
+    /**
+     * R1: Enrolls a student into one or more courses without throwing. Enrollment is all-or-nothing.
+     * @param studentId The unique ID for the student.
+     * @param courseIds A variable number of course IDs to enroll in.
+     * @return OK, STUDENT_EXISTS, UNKNOWN_COURSE, COURSE_FULL or ALREADY_ENROLLED.
+     */
+    public ResultCode tryEnrollStudent(String studentId, String... courseIds) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.ENROLL_STUDENT, commit(applyEnrollStudent(studentId, courseIds, null)),
+                start);
+    }
+
+    /**
+     * Enrolls a student without throwing.
+     * @param failedIndex If not null, receives the index in courseIds of the course that caused a rejection.
+     */
+    private ResultCode applyEnrollStudent(String studentId, String[] courseIds, int[] failedIndex) {
+        ReentrantLock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            if (students.containsKey(studentId)) {
+                return ResultCode.STUDENT_EXISTS;
+            }
+
+            // Resolve every course before touching any of them
+            Course[] requested = new Course[courseIds.length];
+            Set<Course> known = new LinkedHashSet<>();
+            for (int i = 0; i < courseIds.length; i++) {
+                requested[i] = courses.get(courseIds[i]);
+                if (requested[i] != null) {
+                    known.add(requested[i]);
+                }
+            }
+
+            // Lock the courses in a fixed order so concurrent multi-course enrollments cannot deadlock
+            List<Course> lockOrder = new ArrayList<>(known);
+            lockOrder.sort(Comparator.comparing(Course::getCourseId));
+            for (Course course : lockOrder) {
+                course.lock();
+            }
+            try {
+                ResultCode check = checkCourses(requested, null, failedIndex);
+                if (!check.isOk()) {
+                    return check;
+                }
+                List<String> enrolledCourseIds = journal != null ? courseIdsOf(lockOrder) : null;
+                long lsn = journal != null ? journal.logEnrollStudent(studentId, enrolledCourseIds) : 0;
+                long sequence = events.claim();
+                if (sequence >= 0 && enrolledCourseIds == null) {
+                    enrolledCourseIds = courseIdsOf(lockOrder);
+                }
+                Student student = newStudent(studentId);
+                for (Course course : lockOrder) {
+                    course.enroll(studentId);
+                    course.setRosterLsn(lsn);
+                    student.addCourse(course.getOrdinal());
+                }
+                students.put(studentId, student);
+                if (sequence >= 0) {
+                    events.publish(ChangeEvent.studentEnrolled(sequence, studentId, List.copyOf(enrolledCourseIds)));
+                }
+                return ResultCode.OK;
+            } finally {
+                for (Course course : lockOrder) {
+                    course.unlock();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Checks the courses of a new student's enrollment in argument order and reports the first that fails,
+     * as enrolling them one by one would. The caller must hold the course locks.
+     * The student is not registered yet, so no roster can hold them: only a course listed twice is
+     * ALREADY_ENROLLED, or COURSE_FULL if its first listing would take the last seat.
+     * @param pending Students a batch has accepted for each course but not yet added to its roster, or null.
+     * @param failedIndex If not null, receives the index in requested of the course that caused a rejection.
+     * @return OK, UNKNOWN_COURSE, COURSE_FULL or ALREADY_ENROLLED.
+     */
+    private static ResultCode checkCourses(Course[] requested, Map<Course, List<String>> pending, int[] failedIndex) {
+        for (int i = 0; i < requested.length; i++) {
+            Course course = requested[i];
             if (course == null) {
-                throw new Exception("Course ID " + courseId + " does not exist.");
+                return fail(ResultCode.UNKNOWN_COURSE, failedIndex, i);
+            }
+            boolean repeated = lastIndexOf(requested, course, i) >= 0;
+            int taken = course.getEnrolledCount()
+                    + (pending != null ? pending.getOrDefault(course, List.of()).size() : 0);
+            if (taken >= course.getMaxStudents() || repeated && taken + 1 >= course.getMaxStudents()) {
+                return fail(ResultCode.COURSE_FULL, failedIndex, i);
+            }
+            if (repeated) {
+                return fail(ResultCode.ALREADY_ENROLLED, failedIndex, i);
             }
-            course.addStudent(studentId); // This method throws exceptions for capacity and duplicate enrollment
-            student.addCourse(courseId);
         }
-        students.put(studentId, student);
+        return ResultCode.OK;
     }
 
     /**
-     * R1: Gets a sorted list of student IDs for a course.
+     * Puts a registered student on a course's waitlist, or enrolls them right away if a seat is free.
+     * Waitlisted students are enrolled first come, first served as seats free up (see {@link #dropCourse}),
+     * so a client whose course is full joins once instead of retrying. Joining again while waiting changes nothing.
+     * @param studentId The ID of a registered student.
      * @param courseId The ID of the course.
-     * @return A sorted list of student IDs.
+     * @return true if the student was enrolled, false if they are waiting for a seat.
+     * @throws Exception if the student or course does not exist, or the student is already enrolled.
      */
-    public List<String> getEnrolledStudents(String courseId) {
-        Course course = courses.get(courseId);
-        return course != null ? course.getEnrolledStudents() : new ArrayList<>();
+    public boolean joinWaitlist(String studentId, String courseId) throws Exception {
+        ResultCode result = tryJoinWaitlist(studentId, courseId);
+        switch (result) {
+            case UNKNOWN_STUDENT:
+                throw new Exception("Student ID " + studentId + " is not valid.");
+            case UNKNOWN_COURSE:
+                throw new Exception("Course ID " + courseId + " does not exist.");
+            case ALREADY_ENROLLED:
+                throw new Exception("Student " + studentId + " is already enrolled in course " + courseId + ".");
+            default:
+                return result.isOk();
+        }
     }
 
     /**
-     * R2: Adds an exam for a specific course.
+     * Puts a registered student on a course's waitlist without throwing, or enrolls them right away if a seat
+     * is free. Joining and promotion are O(1) under the course lock.
+     * @param studentId The ID of a registered student.
      * @param courseId The ID of the course.
-     * @param examId The unique ID for the exam.
-     * @param location The location of the exam.
-     * @throws Exception if courseId does not exist or examId is already used.
+     * @return OK (enrolled), WAITLISTED, UNKNOWN_STUDENT, UNKNOWN_COURSE or ALREADY_ENROLLED.
      */
-    public void addExam(String courseId, String examId, String location) throws Exception {
-        if (!courses.containsKey(courseId)) {
-            throw new Exception("Course ID " + courseId + " does not exist.");
+    public ResultCode tryJoinWaitlist(String studentId, String courseId) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.JOIN_WAITLIST, commit(applyJoinWaitlist(studentId, courseId, 0)), start);
+    }
+
+    /**
+     * Joins a waitlist without throwing.
+     * @param replayLsn The LSN of the journal record being replayed, or 0 for a new request.
+     */
+    private ResultCode applyJoinWaitlist(String studentId, String courseId, long replayLsn) {
+        Student student = students.get(studentId);
+        Course course = courses.get(courseId);
+        if (student == null) {
+            return ResultCode.UNKNOWN_STUDENT;
         }
-        if (exams.containsKey(examId)) {
-            throw new Exception("Exam ID " + examId + " has already been used.");
+        if (course == null) {
+            return ResultCode.UNKNOWN_COURSE;
+        }
+        // The student stripe keeps the change inside the checkpoint fence, like every other mutation
+        ReentrantLock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        course.lock();
+        try {
+            if (replayLsn != 0 && replayLsn <= course.getRosterLsn()) {
+                return ResultCode.OK; // Already contained in the snapshot
+            }
+            if (students.get(studentId) != student) {
+                return ResultCode.UNKNOWN_STUDENT; // Unregistered since the lookup
+            }
+            if (course.hasStudent(studentId)) {
+                return ResultCode.ALREADY_ENROLLED;
+            }
+            if (course.isWaitlisted(studentId)) {
+                return ResultCode.WAITLISTED;
+            }
+            boolean full = course.isFull();
+            long lsn = journal != null ? journal.logJoinWaitlist(studentId, courseId) : replayLsn;
+            long sequence = full ? -1 : events.claim();
+            course.setRosterLsn(lsn);
+            if (full) {
+                course.addToWaitlist(studentId);
+                student.joinedWaitlist();
+                return ResultCode.WAITLISTED;
+            }
+            course.enroll(studentId);
+            student.addCourse(course.getOrdinal());
+            if (sequence >= 0) {
+                events.publish(ChangeEvent.courseEnrolled(sequence, studentId, courseId));
+            }
+            return ResultCode.OK;
+        } finally {
+            course.unlock();
+            lock.unlock();
         }
-        exams.put(examId, new Exam(examId, courseId, location));
     }
 
     /**
-     * R2: Gets a map of courses and their exams.
-     * @return A map with courseId as key and a sorted list of examIds as value.
+     * Drops a student from a course, or takes them off its waitlist. A freed seat goes straight to the first
+     * student on the waitlist.
+     * @param studentId The ID of the student.
+     * @param courseId The ID of the course.
+     * @throws Exception if the student or course does not exist, the student is neither enrolled nor waiting,
+     *                   or the student has booked an exam of the course.
      */
-    public Map<String, List<String>> getExamsByCourse() {
-        Map<String, List<String>> examsByCourse = new TreeMap<>(); // TreeMap to sort by courseId
-        for (Exam exam : exams.values()) {
-            examsByCourse.computeIfAbsent(exam.getCourseId(), k -> new ArrayList<>()).add(exam.getExamId());
+    public void dropCourse(String studentId, String courseId) throws Exception {
+        ResultCode result = tryDropCourse(studentId, courseId);
+        switch (result) {
+            case UNKNOWN_STUDENT:
+                throw new Exception("Student ID " + studentId + " is not valid.");
+            case UNKNOWN_COURSE:
+                throw new Exception("Course ID " + courseId + " does not exist.");
+            case NOT_ENROLLED:
+                throw new Exception("Student " + studentId + " is not enrolled in or waiting for course "
+                        + courseId + ".");
+            case ALREADY_BOOKED:
+                throw new Exception("Student " + studentId + " has booked an exam of course " + courseId + ".");
+            default:
+                break;
         }
-        // Sort the list of examIds for each course alphabetically
-        examsByCourse.values().forEach(Collections::sort);
-        return examsByCourse;
     }
 
     /**
-     * R3: Books a student for an exam.
+     * Drops a student from a course, or takes them off its waitlist, without throwing.
+     * A freed seat goes straight to the first student on the waitlist.
      * @param studentId The ID of the student.
-     * @param examId The ID of the exam.
-     * @return A unique, sequential booking number.
-     * @throws Exception if student or exam is invalid, or if the student cannot book the exam.
+     * @param courseId The ID of the course.
+     * @return OK, UNKNOWN_STUDENT, UNKNOWN_COURSE, NOT_ENROLLED or ALREADY_BOOKED (the student has booked
+     *         an exam of the course).
      */
-    public int bookExam(String studentId, String examId) throws Exception {
-        Student student = students.get(studentId);
-        Exam exam = exams.get(examId);
+    public ResultCode tryDropCourse(String studentId, String courseId) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.DROP_COURSE, commit(applyDropCourse(studentId, courseId, 0)), start);
+    }
 
+    /**
+     * Drops a course without throwing.
+     * @param replayLsn The LSN of the journal record being replayed, or 0 for a new request.
+     */
+    private ResultCode applyDropCourse(String studentId, String courseId, long replayLsn) {
+        Student student = students.get(studentId);
+        Course course = courses.get(courseId);
         if (student == null) {
-            throw new Exception("Student ID " + studentId + " is not valid.");
+            return ResultCode.UNKNOWN_STUDENT;
         }
-        if (exam == null) {
-            throw new Exception("Exam ID " + examId + " is not valid.");
+        if (course == null) {
+            return ResultCode.UNKNOWN_COURSE;
+        }
+        ReentrantLock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        course.lock();
+        try {
+            if (replayLsn != 0 && replayLsn <= course.getRosterLsn()) {
+                return ResultCode.OK; // Already contained in the snapshot
+            }
+            boolean enrolled = course.hasStudent(studentId);
+            if (!enrolled && !course.isWaitlisted(studentId)) {
+                return ResultCode.NOT_ENROLLED;
+            }
+            // Bookings are checked when the drop is made, not on replay: a snapshot may hold later bookings
+            if (enrolled && replayLsn == 0 && hasBookedCourse(student, course)) {
+                return ResultCode.ALREADY_BOOKED;
+            }
+            long lsn = journal != null ? journal.logDropCourse(studentId, courseId) : replayLsn;
+            long dropSequence = enrolled ? events.claim() : -1;
+            course.setRosterLsn(lsn);
+            if (!enrolled) {
+                course.removeFromWaitlist(studentId);
+                student.leftWaitlist();
+                return ResultCode.OK;
+            }
+            course.withdraw(studentId);
+            student.removeCourse(course.getOrdinal());
+            if (dropSequence >= 0) {
+                events.publish(ChangeEvent.courseDropped(dropSequence, studentId, courseId));
+            }
+            // Promotion is part of the drop, so it needs no journal record of its own
+            String promotedId = course.pollWaitlist();
+            if (promotedId != null) {
+                long sequence = events.claim();
+                course.enroll(promotedId);
+                Student promoted = students.get(promotedId);
+                promoted.addCourse(course.getOrdinal());
+                promoted.leftWaitlist();
+                if (sequence >= 0) {
+                    events.publish(ChangeEvent.courseEnrolled(sequence, promotedId, courseId));
+                }
+            }
+            return ResultCode.OK;
+        } finally {
+            course.unlock();
+            lock.unlock();
         }
-        if (!student.isEnrolledIn(exam.getCourseId())) {
-            throw new Exception("Student " + studentId + " is not enrolled in the course for this exam.");
+    }
+
+    /**
+     * Removes a registered student who holds nothing: no course, no waitlist place and no booking.
+     * Undoes a registration whose enrollment could not be completed, such as one that spans several shards.
+     * @param studentId The ID of the student.
+     * @throws Exception if the student does not exist or is still enrolled, waiting or booked.
+     */
+    public void unregisterStudent(String studentId) throws Exception {
+        ResultCode result = tryUnregisterStudent(studentId);
+        switch (result) {
+            case UNKNOWN_STUDENT:
+                throw new Exception("Student ID " + studentId + " is not valid.");
+            case ALREADY_ENROLLED:
+                throw new Exception("Student " + studentId + " is still enrolled in or waiting for a course.");
+            case ALREADY_BOOKED:
+                throw new Exception("Student " + studentId + " has booked an exam.");
+            default:
+                break;
         }
-        // Check if student already booked this exam
-        for (Booking b : bookings.values()) {
-            if (b.getStudentId().equals(studentId) && b.getExamId().equals(examId)) {
-                throw new Exception("Student " + studentId + " has already booked exam " + examId + ".");
+    }
+
+    /**
+     * Removes a registered student who holds nothing, without throwing. The student ID can be registered again.
+     * @param studentId The ID of the student.
+     * @return OK, UNKNOWN_STUDENT, ALREADY_ENROLLED (enrolled in or waiting for a course) or ALREADY_BOOKED.
+     */
+    public ResultCode tryUnregisterStudent(String studentId) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.UNREGISTER_STUDENT, commit(applyUnregisterStudent(studentId)), start);
+    }
+
+    private ResultCode applyUnregisterStudent(String studentId) {
+        ReentrantLock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            Student student = students.get(studentId);
+            if (student == null) {
+                return ResultCode.UNKNOWN_STUDENT;
+            }
+            // Joining a waitlist takes the student lock, but a promotion does not. It adds the course before it
+            // takes the student off the waitlist, so the waitlist marker is read first
+            if (student.isWaitlisted() || student.getCourseOrdinals().length > 0) {
+                return ResultCode.ALREADY_ENROLLED;
+            }
+            if (student.getBookingEntries().length > 0) {
+                return ResultCode.ALREADY_BOOKED;
             }
+            if (journal != null) {
+                journal.logUnregisterStudent(studentId);
+            }
+            long sequence = events.claim();
+            students.remove(studentId);
+            if (sequence >= 0) {
+                events.publish(ChangeEvent.studentUnregistered(sequence, studentId));
+            }
+            return ResultCode.OK;
+        } finally {
+            lock.unlock();
         }
+    }
 
-        int bookingNumber = nextBookingNumber++;
-        bookings.put(bookingNumber, new Booking(bookingNumber, studentId, examId));
-        return bookingNumber;
+    /**
+     * @return true if the student has booked any exam of the course.
+     */
+    private boolean hasBookedCourse(Student student, Course course) {
+        for (long entry : student.getBookingEntries()) {
+            Exam exam = exams.get(examOrdinals.idOf((int) (entry >>> 32)));
+            if (exam.getCourseOrdinal() == course.getOrdinal()) {
+                return true;
+            }
+        }
+        return false;
     }
 
     /**
-     * R3: Confirms a PENDING booking.
-     * @param bookingNumber The booking number to confirm.
-     * @throws Exception if the booking number is invalid or not PENDING.
+     * Returns the students waiting for a seat in a course.
+     * @param courseId The ID of the course.
+     * @return A read-only list of student IDs, first in line first; empty if the course does not exist.
      */
-    public void confirmBooking(int bookingNumber) throws Exception {
-        Booking booking = bookings.get(bookingNumber);
-        if (booking == null) {
-            throw new Exception("Booking number " + bookingNumber + " does not exist.");
+    public List<String> getWaitlist(String courseId) {
+        Course course = courses.get(courseId);
+        return course != null ? course.getWaitlist() : List.of();
+    }
+
+    /**
+     * Checks if a student is registered.
+     * @param studentId The ID of the student.
+     * @return true if the student is registered, with or without courses.
+     */
+    public boolean isRegistered(String studentId) {
+        return students.containsKey(studentId);
+    }
+
+    /**
+     * Creates a student with a newly interned ordinal. Called once per registered student.
+     */
+    private Student newStudent(String studentId) {
+        return new Student(studentId, studentOrdinals.intern(studentId), courseOrdinals, examOrdinals);
+    }
+
+    /**
+     * Creates an exam with a newly interned ordinal. Called once per registered exam.
+     */
+    private Exam newExam(Course course, String examId, String location, int seats, TimeSlot timeSlot) {
+        return new Exam(examId, course.getCourseId(), location, examOrdinals.intern(examId), course.getOrdinal(),
+                seats, timeSlot);
+    }
+
+    private static ResultCode fail(ResultCode code, int[] failedIndex, int index) {
+        if (failedIndex != null) {
+            failedIndex[0] = index;
         }
-        if (booking.getStatus() != Booking.BookingStatus.PENDING) {
-            throw new Exception("Booking " + bookingNumber + " is not in PENDING state.");
+        return code;
+    }
+
+    /**
+     * @return The IDs of the courses, in list order.
+     */
+    private static List<String> courseIdsOf(List<Course> courses) {
+        List<String> courseIds = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            courseIds.add(course.getCourseId());
         }
-        booking.setStatus(Booking.BookingStatus.CONFIRMED);
+        return courseIds;
     }
 
     /**
-     * R3: Retrieves a sorted list of all CONFIRMED booking numbers.
-     * @return A sorted list of integers.
+     * @return The last index before {@code end} holding {@code course}, or -1 if there is none.
      */
-    public List<Integer> getConfirmedBookings() {
-        return bookings.values().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.CONFIRMED)
-                .map(Booking::getBookingNumber)
-                .sorted()
-                .collect(Collectors.toList());
+    private static int lastIndexOf(Course[] requested, Course course, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (requested[i] == course) {
+                return i;
+            }
+        }
+        return -1;
     }
 
     /**
-     * R4: Sets a grade for a CONFIRMED booking.
-     * @param bookingNumber The booking number.
-     * @param grade The grade (0-100).
-     * @throws Exception if booking is invalid, not CONFIRMED, or grade is out of range.
+     * R1: Gets a sorted list of student IDs for a course.
+     * @param courseId The ID of the course.
+     * @return A sorted list of student IDs.
      */
-    public void setGrade(int bookingNumber, int grade) throws Exception {
-        Booking booking = bookings.get(bookingNumber);
-        if (booking == null) {
-            throw new Exception("Booking number " + bookingNumber + " is not valid.");
+    public List<String> getEnrolledStudents(String courseId) {
+        long start = startTimer();
+        Course course = courses.get(courseId);
+        List<String> result = course != null ? course.getEnrolledStudents() : List.of();
+        stopTimer(Metrics.Operation.GET_ENROLLED_STUDENTS, ResultCode.OK, start);
+        return result;
+    }
+
+    /**
+     * R1: Gets one page of the sorted student IDs of a course.
+     * Pages are keyed by the last ID returned, so they stay consistent while students enroll.
+     * @param courseId The ID of the course.
+     * @param afterStudentId The last student ID of the previous page, or null for the first page.
+     * @param limit The maximum number of IDs to return.
+     * @return Up to limit sorted student IDs; empty when there are no more.
+     */
+    public List<String> getEnrolledStudents(String courseId, String afterStudentId, int limit) {
+        checkLimit(limit);
+        long start = startTimer();
+        Course course = courses.get(courseId);
+        List<String> page = course != null ? course.getEnrolledStudents(afterStudentId, limit) : List.of();
+        stopTimer(Metrics.Operation.GET_ENROLLED_STUDENTS, ResultCode.OK, start);
+        return page;
+    }
+
+    /**
+     * R1: Streams the sorted student IDs of a course. The roster is read lazily, one page at a time,
+     * so memory use does not depend on the size of the course.
+     * @param courseId The ID of the course.
+     * @return A lazy, sorted stream of student IDs.
+     */
+    public Stream<String> streamEnrolledStudents(String courseId) {
+        return pages(getEnrolledStudents(courseId, null, PAGE_SIZE),
+                page -> getEnrolledStudents(courseId, page.get(page.size() - 1), PAGE_SIZE));
+    }
+
+    /**
+     * R2: Adds an exam for a specific course.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @throws Exception if courseId does not exist or examId is already used.
+     */
+    public void addExam(String courseId, String examId, String location) throws Exception {
+        addExam(courseId, examId, location, 0);
+    }
+
+    /**
+     * R2: Adds an exam held in a room with a fixed number of seats. Each booking reserves a seat, so the
+     * exam cannot be overbooked, and each confirmed booking is given a seat number.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @param seats The number of seats in the room (1-65,535), or 0 for no limit.
+     * @throws Exception if courseId does not exist, examId is already used or seats is out of range.
+     */
+    public void addExam(String courseId, String examId, String location, int seats) throws Exception {
+        addExam(courseId, examId, location, seats, null);
+    }
+
+    /**
+     * R2: Adds an exam held at a fixed time. A student cannot book two exams at overlapping times, and
+     * two exams at overlapping times cannot share a location.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @param seats The number of seats in the room (1-65,535), or 0 for no limit.
+     * @param timeSlot When the exam takes place, or null if it is not scheduled.
+     * @throws Exception if courseId does not exist, examId is already used, seats is out of range or the
+     *         location is taken at that time.
+     */
+    public void addExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot)
+            throws Exception {
+        ResultCode result = tryAddExam(courseId, examId, location, seats, timeSlot);
+        if (result == ResultCode.UNKNOWN_COURSE) {
+            throw new Exception("Course ID " + courseId + " does not exist.");
         }
-        if (booking.getStatus() != Booking.BookingStatus.CONFIRMED) {
-            throw new Exception("Booking " + bookingNumber + " is not in CONFIRMED state.");
+        if (result == ResultCode.EXAM_EXISTS) {
+            throw new Exception("Exam ID " + examId + " has already been used.");
         }
-        if (grade < 0 || grade > 100) {
-            throw new Exception("Grade must be between 0 and 100.");
+        if (result == ResultCode.INVALID_CAPACITY) {
+            throw new Exception("Number of seats must be between 1 and " + MAX_EXAM_SEATS + ", or 0 for no limit.");
+        }
+        if (result == ResultCode.ROOM_CONFLICT) {
+            throw new Exception("Location " + location + " is already taken at " + timeSlot + ".");
         }
-        booking.setGrade(grade);
-        booking.setStatus(Booking.BookingStatus.COMPLETED);
     }
 
     /**
-     * R4: Retrieves a sorted list of all COMPLETED booking numbers.
-     * @return A sorted list of integers.
+     * R2: Adds an exam for a specific course without throwing.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @return OK, UNKNOWN_COURSE or EXAM_EXISTS.
      */
-    public List<Integer> getCompletedBookings() {
-        return bookings.values().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.COMPLETED)
-                .map(Booking::getBookingNumber)
-                .sorted()
-                .collect(Collectors.toList());
+    public ResultCode tryAddExam(String courseId, String examId, String location) {
+        return tryAddExam(courseId, examId, location, 0);
     }
 
     /**
-     * R5: Gets all grades for a specific student.
-     * @param studentId The ID of the student.
-     * @return A map with examId as key and grade as value.
+     * R2: Adds an exam with a fixed number of seats without throwing.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @param seats The number of seats in the room (1-65,535), or 0 for no limit.
+     * @return OK, UNKNOWN_COURSE, EXAM_EXISTS or INVALID_CAPACITY.
      */
-    public Map<String, Integer> getStudentGrades(String studentId) {
-        return bookings.values().stream()
-                .filter(b -> b.getStudentId().equals(studentId) && b.getStatus() == Booking.BookingStatus.COMPLETED)
-                .collect(Collectors.toMap(Booking::getExamId, Booking::getGrade));
+    public ResultCode tryAddExam(String courseId, String examId, String location, int seats) {
+        return tryAddExam(courseId, examId, location, seats, null);
     }
 
     /**
-     * R5: Calculates the average grade for each course.
-     * @return A map with courseId as key and the average grade as value.
+     * R2: Adds an exam held at a fixed time without throwing.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @param seats The number of seats in the room (1-65,535), or 0 for no limit.
+     * @param timeSlot When the exam takes place, or null if it is not scheduled.
+     * @return OK, UNKNOWN_COURSE, EXAM_EXISTS, INVALID_CAPACITY or ROOM_CONFLICT.
      */
-    public Map<String, Double> getCourseAverage() {
-        // Group completed bookings by courseId
-        Map<String, List<Integer>> gradesByCourse = bookings.values().stream()
-                .filter(b -> b.getStatus() == Booking.BookingStatus.COMPLETED)
-                .collect(Collectors.groupingBy(
-                        b -> exams.get(b.getExamId()).getCourseId(),
-                        Collectors.mapping(Booking::getGrade, Collectors.toList())
-                ));
-
-        // Calculate the average for each course
-        return gradesByCourse.entrySet().stream()
-                .collect(Collectors.toMap(
-                        Map.Entry::getKey,
-                        e -> e.getValue().stream().mapToInt(Integer::intValue).average().orElse(0.0)
-                ));
-    }
-}
\ No newline at end of file
+    public ResultCode tryAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.ADD_EXAM,
+                commit(applyAddExam(courseId, examId, location, seats, timeSlot)), start);
+    }
+
+    private ResultCode applyAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        Course course = courses.get(courseId);
+        if (course == null) {
+            return ResultCode.UNKNOWN_COURSE;
+        }
+        if (seats < 0 || seats > MAX_EXAM_SEATS) {
+            return ResultCode.INVALID_CAPACITY;
+        }
+        if (exams.containsKey(examId)) {
+            return ResultCode.EXAM_EXISTS;
+        }
+        ReentrantLock lock = examLocks.lockFor(examId);
+        lock.lock();
+        try {
+            if (exams.containsKey(examId)) {
+                return ResultCode.EXAM_EXISTS;
+            }
+            if (timeSlot == null) {
+                addExamLocked(course, examId, location, seats, null);
+                return ResultCode.OK;
+            }
+            // Checked and added under the room's monitor, so two exams cannot take the same room at once
+            Timetable room = roomTimetables.computeIfAbsent(location, key -> new Timetable());
+            synchronized (room) {
+                if (room.conflictWith(timeSlot) != null) {
+                    return ResultCode.ROOM_CONFLICT;
+                }
+                room.add(addExamLocked(course, examId, location, seats, timeSlot));
+            }
+            return ResultCode.OK;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Logs, registers and publishes a new exam. The caller must hold the exam lock.
+     */
+    private Exam addExamLocked(Course course, String examId, String location, int seats, TimeSlot timeSlot) {
+        if (journal != null) {
+            journal.logAddExam(course.getCourseId(), examId, location, seats, timeSlot);
+        }
+        long sequence = events.claim();
+        Exam exam = newExam(course, examId, location, seats, timeSlot);
+        exams.put(examId, exam);
+        course.addExam(examId);
+        registerExamGauges(exam);
+        examsVersion.incrementAndGet();
+        if (sequence >= 0) {
+            events.publish(ChangeEvent.examAdded(sequence, course.getCourseId(), examId));
+        }
+        return exam;
+    }
+
+    /**
+     * R2: Gets a map of courses and their exams.
+     * The map is an immutable view that is shared between calls until another exam is added.
+     * @return A map with courseId as key and a sorted list of examIds as value.
+     */
+    public Map<String, List<String>> getExamsByCourse() {
+        long start = startTimer();
+        ExamsByCourseView view = examsByCourseView;
+        int version = examsVersion.get();
+        if (view == null || view.version != version) {
+            view = buildExamsByCourseView(version);
+        }
+        stopTimer(Metrics.Operation.GET_EXAMS_BY_COURSE, ResultCode.OK, start);
+        return view.examsByCourse;
+    }
+
+    private ExamsByCourseView buildExamsByCourseView(int version) {
+        Map<String, List<String>> examsByCourse = new TreeMap<>(); // TreeMap to sort by courseId
+        for (Course course : courses.values()) {
+            List<String> courseExams = course.getExams(); // already sorted alphabetically
+            if (!courseExams.isEmpty()) {
+                examsByCourse.put(course.getCourseId(), courseExams);
+            }
+        }
+        ExamsByCourseView view = new ExamsByCourseView(version, Collections.unmodifiableMap(examsByCourse));
+        examsByCourseView = view;
+        return view;
+    }
+
+    /**
+     * R2: Gets the exams of a page of courses, in course ID order. Courses without exams are skipped.
+     * @param afterCourseId The last course ID of the previous page, or null for the first page.
+     * @param limit The maximum number of courses to return.
+     * @return A map with courseId as key and a sorted list of examIds as value, iterating in courseId order.
+     */
+    public Map<String, List<String>> getExamsByCourse(String afterCourseId, int limit) {
+        checkLimit(limit);
+        long start = startTimer();
+        Map<String, List<String>> page = new LinkedHashMap<>(capacityFor(Math.min(limit, PAGE_SIZE)));
+        NavigableSet<String> tail = afterCourseId == null
+                ? sortedCourseIds : sortedCourseIds.tailSet(afterCourseId, false);
+        for (String courseId : tail) {
+            if (page.size() == limit) {
+                break;
+            }
+            List<String> courseExams = courses.get(courseId).getExams();
+            if (!courseExams.isEmpty()) {
+                page.put(courseId, courseExams);
+            }
+        }
+        stopTimer(Metrics.Operation.GET_EXAMS_BY_COURSE, ResultCode.OK, start);
+        return page;
+    }
+
+    /**
+     * R2: Streams the courses that have exams, in course ID order, with their sorted exam IDs.
+     * The courses are read lazily, so memory use does not depend on the number of courses.
+     * @return A lazy stream of (courseId, examIds) entries.
+     */
+    public Stream<Map.Entry<String, List<String>>> streamExamsByCourse() {
+        // Skip-list iteration is lazy and weakly consistent, so no paging is needed
+        return sortedCourseIds.stream()
+                .map(courseId -> Map.entry(courseId, courses.get(courseId).getExams()))
+                .filter(e -> !e.getValue().isEmpty());
+    }
+
+    /**
+     * R2: Gets the exams of a single course.
+     * @param courseId The ID of the course.
+     * @return A sorted, read-only list of examIds, empty if the course does not exist.
+     */
+    public List<String> getExams(String courseId) {
+        Course course = courses.get(courseId);
+        return course != null ? course.getExams() : List.of();
+    }
+
+    /**
+     * R3: Books a student for an exam.
+     * @param studentId The ID of the student.
+     * @param examId The ID of the exam.
+     * @return A unique, sequential booking number.
+     * @throws Exception if student or exam is invalid, if the student cannot book the exam, or if every seat
+     *                   of the exam room is taken.
+     */
+    public int bookExam(String studentId, String examId) throws Exception {
+        int result = tryBookExam(studentId, examId);
+        switch (ResultCode.decode(result)) {
+            case UNKNOWN_STUDENT:
+                throw new Exception("Student ID " + studentId + " is not valid.");
+            case UNKNOWN_EXAM:
+                throw new Exception("Exam ID " + examId + " is not valid.");
+            case NOT_ENROLLED:
+                throw new Exception("Student " + studentId + " is not enrolled in the course for this exam.");
+            case ALREADY_BOOKED:
+                throw new Exception("Student " + studentId + " has already booked exam " + examId + ".");
+            case EXAM_FULL:
+                throw new Exception("Exam " + examId + " has no free seats.");
+            case TIME_CONFLICT:
+                throw new Exception("Student " + studentId + " has another exam at the time of exam " + examId + ".");
+            default:
+                return result;
+        }
+    }
+
+    /**
+     * R3: Books a student for an exam without throwing or allocating on rejection.
+     * @param studentId The ID of the student.
+     * @param examId The ID of the exam.
+     * @return The booking number (positive) or a negative failure code;
+     *         {@link ResultCode#decode(int)} turns either into a ResultCode
+     *         (UNKNOWN_STUDENT, UNKNOWN_EXAM, NOT_ENROLLED, ALREADY_BOOKED, TIME_CONFLICT or EXAM_FULL).
+     */
+    public int tryBookExam(String studentId, String examId) {
+        long start = startTimer();
+        int result = applyBookExam(studentId, examId);
+        if (result > 0) {
+            commit(ResultCode.OK);
+        }
+        if (start != 0) {
+            stopTimer(Metrics.Operation.BOOK_EXAM, ResultCode.decode(result), start);
+        }
+        return result;
+    }
+
+    private int applyBookExam(String studentId, String examId) {
+        Student student = students.get(studentId);
+        Exam exam = exams.get(examId);
+
+        if (student == null) {
+            return ResultCode.UNKNOWN_STUDENT.encode();
+        }
+        if (exam == null) {
+            return ResultCode.UNKNOWN_EXAM.encode();
+        }
+        ReentrantLock lock = studentLocks.lockFor(studentId);
+        lock.lock();
+        try {
+            return bookLocked(student, exam, null);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Books an exam. The caller must hold the student's lock.
+     * @param published If not null, collects the event instead of publishing it, and the caller marks the
+     *                  booking PENDING before it publishes; if null, both are done here.
+     * @return The booking number, or an encoded rejection.
+     */
+    private int bookLocked(Student student, Exam exam, List<ChangeEvent> published) {
+        // Checked under the student lock, so a concurrent drop cannot remove the course before the booking
+        if (!student.isEnrolledIn(exam.getCourseOrdinal())) {
+            return ResultCode.NOT_ENROLLED.encode();
+        }
+        // Check if student already booked this exam (indexed per student, no scan over all bookings)
+        if (student.hasBooked(exam.getOrdinal())) {
+            return ResultCode.ALREADY_BOOKED.encode();
+        }
+        // One floor lookup in the student's timetable. Checked before the seat, since reservations are kept
+        TimeSlot timeSlot = exam.getTimeSlot();
+        if (timeSlot != null && student.getClash(timeSlot) != null) {
+            return ResultCode.TIME_CONFLICT.encode();
+        }
+        // The reservation is lock-free and spread over counters by student, so popular exams do not contend
+        SeatMap seats = exam.getSeats();
+        if (seats != null && !seats.reserve(student.getOrdinal())) {
+            return ResultCode.EXAM_FULL.encode();
+        }
+
+        int bookingNumber;
+        try {
+            // The journal takes the number once the record is written, so a failed write leaves no gap
+            bookingNumber = journal != null
+                    ? journal.logBookExam(nextBookingNumber, student.getStudentId(), exam.getExamId())
+                    : nextBookingNumber.getAndIncrement();
+        } catch (RuntimeException e) {
+            if (seats != null) {
+                seats.release(student.getOrdinal());
+            }
+            throw e;
+        }
+        long sequence = events.claim();
+        bookings.add(bookingNumber, student.getOrdinal(), exam.getOrdinal());
+        if (published == null) {
+            markStatus(Booking.BookingStatus.PENDING, bookingNumber);
+        }
+        student.addBooking(exam.getOrdinal(), bookingNumber);
+        if (timeSlot != null) {
+            student.addToTimetable(exam);
+        }
+        if (sequence >= 0) {
+            ChangeEvent event = ChangeEvent.examBooked(sequence, bookingNumber, student.getStudentId(),
+                    exam.getExamId());
+            if (published != null) {
+                published.add(event);
+            } else {
+                events.publish(event);
+            }
+        }
+        return bookingNumber;
+    }
+
+    /**
+     * R3: Confirms a PENDING booking.
+     * @param bookingNumber The booking number to confirm.
+     * @throws Exception if the booking number is invalid or not PENDING.
+     */
+    public void confirmBooking(int bookingNumber) throws Exception {
+        ResultCode result = tryConfirmBooking(bookingNumber);
+        if (result == ResultCode.UNKNOWN_BOOKING) {
+            throw new Exception("Booking number " + bookingNumber + " does not exist.");
+        }
+        if (result == ResultCode.NOT_PENDING) {
+            throw new Exception("Booking " + bookingNumber + " is not in PENDING state.");
+        }
+    }
+
+    /**
+     * R3: Confirms a PENDING booking without throwing.
+     * @param bookingNumber The booking number to confirm.
+     * @return OK, UNKNOWN_BOOKING or NOT_PENDING.
+     */
+    public ResultCode tryConfirmBooking(int bookingNumber) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.CONFIRM_BOOKING, commit(applyConfirmBooking(bookingNumber)), start);
+    }
+
+    private ResultCode applyConfirmBooking(int bookingNumber) {
+        if (!bookings.contains(bookingNumber)) {
+            return ResultCode.UNKNOWN_BOOKING;
+        }
+        ReentrantLock lock = examLocks.lockFor(bookings.getExamId(bookingNumber));
+        lock.lock();
+        try {
+            return confirmLocked(bookingNumber);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Confirms a booking and assigns its seat. The caller must hold the booking exam's lock.
+     */
+    private ResultCode confirmLocked(int bookingNumber) {
+        if (bookings.getStatus(bookingNumber) != Booking.BookingStatus.PENDING) {
+            return ResultCode.NOT_PENDING;
+        }
+        // The booking reserved a seat, so the seat map always has a free one
+        SeatMap seats = exams.get(bookings.getExamId(bookingNumber)).getSeats();
+        int seat = seats != null ? seats.assign(bookingNumber) : 0;
+        if (journal != null) {
+            journal.logConfirmBooking(bookingNumber, seat);
+        }
+        long sequence = events.claim();
+        bookings.confirm(bookingNumber, seat);
+        changeStatus(bookingNumber, Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+        if (sequence >= 0) {
+            events.publish(ChangeEvent.bookingConfirmed(sequence, bookingNumber,
+                    bookings.getStudentId(bookingNumber), bookings.getExamId(bookingNumber)));
+        }
+        return ResultCode.OK;
+    }
+
+    /**
+     * Gets the seat of a confirmed booking.
+     * @param bookingNumber The booking number.
+     * @return The seat number (from 1), or 0 if the booking does not exist, is PENDING or its exam has no seats.
+     */
+    public int getSeat(int bookingNumber) {
+        return bookings.contains(bookingNumber) ? bookings.getSeat(bookingNumber) : 0;
+    }
+
+    /**
+     * Gets the seat map of an exam.
+     * @param examId The ID of the exam.
+     * @return A read-only map with the seat number as key and the booking number as value, in seat order;
+     *         empty if the exam does not exist or has no seats.
+     */
+    public Map<Integer, Integer> getSeatMap(String examId) {
+        Exam exam = exams.get(examId);
+        if (exam == null || exam.getSeats() == null) {
+            return Map.of();
+        }
+        ReentrantLock lock = examLocks.lockFor(examId);
+        lock.lock();
+        try {
+            return Collections.unmodifiableMap(exam.getSeats().getAssignments());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the number of seats of an exam that no booking has reserved yet.
+     * @param examId The ID of the exam.
+     * @return The number of free seats, or -1 if the exam does not exist or has no seat limit.
+     */
+    public int getFreeSeats(String examId) {
+        Exam exam = exams.get(examId);
+        return exam != null && exam.getSeats() != null ? exam.getSeats().getUnreserved() : -1;
+    }
+
+    /**
+     * Gets the time slot of an exam.
+     * @param examId The ID of the exam.
+     * @return When the exam takes place, or null if the exam does not exist or is not scheduled.
+     */
+    public TimeSlot getExamTimeSlot(String examId) {
+        Exam exam = exams.get(examId);
+        return exam != null ? exam.getTimeSlot() : null;
+    }
+
+    /**
+     * Checks the current timetable for clashes. See {@link #checkTimetable(Map)}.
+     * @return The conflicts, room conflicts first.
+     */
+    public List<TimetableConflict> checkTimetable() {
+        return checkTimetable(Map.of());
+    }
+
+    /**
+     * Checks a term timetable for clashes: exams at overlapping times in the same location, and exams at
+     * overlapping times whose courses share enrolled students. Proposed slots can be tried without changing
+     * any exam, so a timetable solver can check a whole schedule in one call. The check runs in
+     * O(n log n) for n exams and enrollments and takes no locks: changes made while it runs may or may
+     * not be seen.
+     * @param changes Proposed time slots by exam ID; other exams keep their own. Unknown IDs are ignored.
+     * @return The conflicts, room conflicts first, each sorted by exam IDs.
+     */
+    public List<TimetableConflict> checkTimetable(Map<String, TimeSlot> changes) {
+        TimetableCheck check = new TimetableCheck(exams.values(), changes);
+        List<TimetableConflict> conflicts = check.findRoomConflicts();
+        conflicts.addAll(check.findStudentConflicts(students.values()));
+        conflicts.sort(Comparator.comparing(TimetableConflict::getType)
+                .thenComparing(TimetableConflict::getFirstExamId)
+                .thenComparing(TimetableConflict::getSecondExamId));
+        return conflicts;
+    }
+
+    /**
+     * R3: Retrieves a sorted list of all CONFIRMED booking numbers.
+     * @return A sorted list of integers.
+     */
+    public List<Integer> getConfirmedBookings() {
+        long start = startTimer();
+        List<Integer> result = bookingNumbersWithStatus(Booking.BookingStatus.CONFIRMED);
+        stopTimer(Metrics.Operation.GET_CONFIRMED_BOOKINGS, ResultCode.OK, start);
+        return result;
+    }
+
+    /**
+     * R3: Gets one page of the CONFIRMED booking numbers, e.g. "confirmed bookings after #N, limit K".
+     * @param afterBookingNumber The last booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit booking numbers in ascending order; empty when there are no more.
+     */
+    public List<Integer> getConfirmedBookings(int afterBookingNumber, int limit) {
+        checkLimit(limit);
+        long start = startTimer();
+        List<Integer> page = boxed(bookingNumbersWithStatus(Booking.BookingStatus.CONFIRMED, afterBookingNumber,
+                limit));
+        stopTimer(Metrics.Operation.GET_CONFIRMED_BOOKINGS, ResultCode.OK, start);
+        return page;
+    }
+
+    /**
+     * R3: Streams the CONFIRMED booking numbers in ascending order, reading the status index a page at a time.
+     * @return A lazy, sorted stream of booking numbers.
+     */
+    public IntStream streamConfirmedBookings() {
+        return streamBookingNumbersWithStatus(Booking.BookingStatus.CONFIRMED);
+    }
+
+    /**
+     * R4: Sets a grade for a CONFIRMED booking.
+     * @param bookingNumber The booking number.
+     * @param grade The grade (0-100).
+     * @throws Exception if booking is invalid, not CONFIRMED, or grade is out of range.
+     */
+    public void setGrade(int bookingNumber, int grade) throws Exception {
+        ResultCode result = trySetGrade(bookingNumber, grade);
+        switch (result) {
+            case UNKNOWN_BOOKING:
+                throw new Exception("Booking number " + bookingNumber + " is not valid.");
+            case NOT_CONFIRMED:
+                throw new Exception("Booking " + bookingNumber + " is not in CONFIRMED state.");
+            case INVALID_GRADE:
+                throw new Exception("Grade must be between 0 and 100.");
+            default:
+                break;
+        }
+    }
+
+    /**
+     * R4: Sets a grade for a CONFIRMED booking without throwing.
+     * @param bookingNumber The booking number.
+     * @param grade The grade (0-100).
+     * @return OK, UNKNOWN_BOOKING, NOT_CONFIRMED or INVALID_GRADE.
+     */
+    public ResultCode trySetGrade(int bookingNumber, int grade) {
+        long start = startTimer();
+        return stopTimer(Metrics.Operation.SET_GRADE, commit(applySetGrade(bookingNumber, grade)), start);
+    }
+
+    private ResultCode applySetGrade(int bookingNumber, int grade) {
+        if (!bookings.contains(bookingNumber)) {
+            return ResultCode.UNKNOWN_BOOKING;
+        }
+        String examId = bookings.getExamId(bookingNumber);
+        long sequence;
+        ReentrantLock lock = examLocks.lockFor(examId);
+        lock.lock();
+        try {
+            ResultCode check = checkGrade(bookingNumber, grade);
+            if (!check.isOk()) {
+                return check;
+            }
+            if (journal != null) {
+                journal.logSetGrade(bookingNumber, grade);
+            }
+            sequence = events.claim();
+            bookings.complete(bookingNumber, grade);
+            changeStatus(bookingNumber, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED);
+        } finally {
+            lock.unlock();
+        }
+        recordGrade(examId, grade);
+        if (sequence >= 0) {
+            // Published after the statistics are updated, so listeners that query them see the grade
+            events.publish(ChangeEvent.gradeSet(sequence, bookingNumber, bookings.getStudentId(bookingNumber),
+                    examId, grade));
+        }
+        return ResultCode.OK;
+    }
+
+    /**
+     * Checks that a grade can be set on a known booking. The caller must hold the booking exam's lock.
+     */
+    private ResultCode checkGrade(int bookingNumber, int grade) {
+        if (bookings.getStatus(bookingNumber) != Booking.BookingStatus.CONFIRMED) {
+            return ResultCode.NOT_CONFIRMED;
+        }
+        if (grade < 0 || grade > 100) {
+            return ResultCode.INVALID_GRADE;
+        }
+        return ResultCode.OK;
+    }
+
+    private void recordGrade(String examId, int grade) {
+        Exam exam = exams.get(examId);
+        gradesByCourse.computeIfAbsent(exam.getCourseId(), k -> new GradeStatistics()).record(grade);
+        gradesByExam.computeIfAbsent(exam.getExamId(), k -> new GradeStatistics()).record(grade);
+    }
+
+    /**
+     * Adds a batch's grades for one exam to the statistics.
+     * @param histogram The number of bookings given each grade.
+     */
+    private void recordGrades(Exam exam, long[] histogram) {
+        GradeStatistics courseStats = gradesByCourse.computeIfAbsent(exam.getCourseId(), k -> new GradeStatistics());
+        GradeStatistics examStats = gradesByExam.computeIfAbsent(exam.getExamId(), k -> new GradeStatistics());
+        for (int grade = 0; grade < histogram.length; grade++) {
+            courseStats.record(grade, histogram[grade]);
+            examStats.record(grade, histogram[grade]);
+        }
+    }
+
+    /**
+     * R4: Retrieves a sorted list of all COMPLETED booking numbers.
+     * @return A sorted list of integers.
+     */
+    public List<Integer> getCompletedBookings() {
+        long start = startTimer();
+        List<Integer> result = bookingNumbersWithStatus(Booking.BookingStatus.COMPLETED);
+        stopTimer(Metrics.Operation.GET_COMPLETED_BOOKINGS, ResultCode.OK, start);
+        return result;
+    }
+
+    /**
+     * R4: Gets one page of the COMPLETED booking numbers.
+     * @param afterBookingNumber The last booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit booking numbers in ascending order; empty when there are no more.
+     */
+    public List<Integer> getCompletedBookings(int afterBookingNumber, int limit) {
+        checkLimit(limit);
+        long start = startTimer();
+        List<Integer> page = boxed(bookingNumbersWithStatus(Booking.BookingStatus.COMPLETED, afterBookingNumber,
+                limit));
+        stopTimer(Metrics.Operation.GET_COMPLETED_BOOKINGS, ResultCode.OK, start);
+        return page;
+    }
+
+    /**
+     * R4: Streams the COMPLETED booking numbers in ascending order, reading the status index a page at a time.
+     * @return A lazy, sorted stream of booking numbers.
+     */
+    public IntStream streamCompletedBookings() {
+        return streamBookingNumbersWithStatus(Booking.BookingStatus.COMPLETED);
+    }
+
+    /**
+     * Moves a booking between status indexes. The caller updates the booking itself, first,
+     * so a snapshot that sees the new status also sees the new grade.
+     * @param bookingNumber The booking to move.
+     * @param from The current status.
+     * @param to The new status.
+     */
+    private void changeStatus(int bookingNumber, Booking.BookingStatus from, Booking.BookingStatus to) {
+        bookingsByStatus.move(bookingNumber, from, to);
+    }
+
+    private void markStatus(Booking.BookingStatus status, int bookingNumber) {
+        bookingsByStatus.add(status, bookingNumber);
+    }
+
+    /**
+     * Lists the booking numbers in a given status, in ascending order.
+     * The list is built from a snapshot of the index, so writers are not held up while it is built.
+     * @param status The status to look up.
+     * @return A sorted list of booking numbers.
+     */
+    private List<Integer> bookingNumbersWithStatus(Booking.BookingStatus status) {
+        return bookingsByStatus.snapshot().list(status);
+    }
+
+    /**
+     * Lists up to limit booking numbers in a given status that are greater than afterBookingNumber.
+     * @return The booking numbers in ascending order; the array is exactly as long as the result.
+     */
+    private int[] bookingNumbersWithStatus(Booking.BookingStatus status, int afterBookingNumber, int limit) {
+        return bookingsByStatus.page(status, afterBookingNumber, limit);
+    }
+
+    private IntStream streamBookingNumbersWithStatus(Booking.BookingStatus status) {
+        return Stream.iterate(bookingNumbersWithStatus(status, 0, PAGE_SIZE), page -> page.length > 0,
+                        page -> page.length < PAGE_SIZE ? new int[0]
+                                : bookingNumbersWithStatus(status, page[page.length - 1], PAGE_SIZE))
+                .flatMapToInt(Arrays::stream);
+    }
+
+    private static List<Integer> boxed(int[] numbers) {
+        List<Integer> result = new ArrayList<>(numbers.length);
+        for (int n : numbers) {
+            result.add(n);
+        }
+        return result;
+    }
+
+    /**
+     * Chains pages into one lazy stream. The next page is fetched only when the previous one is used up,
+     * and not at all after a short page.
+     * @param first The first page.
+     * @param next Fetches the page after a given, non-empty page.
+     */
+    private static <T> Stream<T> pages(List<T> first, UnaryOperator<List<T>> next) {
+        return Stream.iterate(first, page -> !page.isEmpty(),
+                        page -> page.size() < PAGE_SIZE ? List.of() : next.apply(page))
+                .flatMap(List::stream);
+    }
+
+    private static void checkLimit(int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive.");
+        }
+    }
+
+    /**
+     * R5: Gets all grades for a specific student.
+     * @param studentId The ID of the student.
+     * @return A map with examId as key and grade as value.
+     */
+    public Map<String, Integer> getStudentGrades(String studentId) {
+        long start = startTimer();
+        Map<String, Integer> grades = new HashMap<>();
+        Student student = students.get(studentId);
+        if (student != null) {
+            // Only the student's own bookings are visited
+            for (long entry : student.getBookingEntries()) {
+                int grade = bookings.getGrade((int) entry);
+                if (grade >= 0) {
+                    grades.put(examOrdinals.idOf((int) (entry >>> 32)), grade);
+                }
+            }
+        }
+        stopTimer(Metrics.Operation.GET_STUDENT_GRADES, ResultCode.OK, start);
+        return grades;
+    }
+
+    /**
+     * R5: Calculates the average grade for each course.
+     * @return A map with courseId as key and the average grade as value.
+     */
+    public Map<String, Double> getCourseAverage() {
+        long start = startTimer();
+        Map<String, Double> averages = new HashMap<>();
+        for (Map.Entry<String, GradeStatistics> e : gradesByCourse.entrySet()) {
+            averages.put(e.getKey(), e.getValue().getAverage());
+        }
+        stopTimer(Metrics.Operation.GET_COURSE_AVERAGE, ResultCode.OK, start);
+        return averages;
+    }
+
+    /**
+     * R5: Gets grade statistics (count, min, max, histogram, percentiles) for a course.
+     * @param courseId The ID of the course.
+     * @return A copy of the course's grade statistics, empty if no exam has been graded.
+     */
+    public GradeStatistics getCourseStatistics(String courseId) {
+        GradeStatistics stats = gradesByCourse.get(courseId);
+        return stats != null ? new GradeStatistics(stats) : new GradeStatistics();
+    }
+
+    /**
+     * R5: Gets grade statistics (count, min, max, histogram, percentiles) for an exam.
+     * @param examId The ID of the exam.
+     * @return A copy of the exam's grade statistics, empty if it has not been graded.
+     */
+    public GradeStatistics getExamStatistics(String examId) {
+        GradeStatistics stats = gradesByExam.get(examId);
+        return stats != null ? new GradeStatistics(stats) : new GradeStatistics();
+    }
+
+    /**
+     * Batch: Registers many courses. Items are applied in iteration order and never throw.
+     * Each course stripe is locked once for the whole batch, and a durable manager waits for the journal once.
+     * @param maxStudentsByCourse Course IDs mapped to their maximum number of students.
+     * @return A map with courseId as key and the outcome for that course as value.
+     */
+    public Map<String, ResultCode> addCourses(Map<String, Integer> maxStudentsByCourse) {
+        Map<String, ResultCode> results = new LinkedHashMap<>(capacityFor(maxStudentsByCourse.size()));
+        boolean[] held = courseLocks.lockAll(maxStudentsByCourse.keySet());
+        try {
+            for (Map.Entry<String, Integer> e : maxStudentsByCourse.entrySet()) {
+                String courseId = e.getKey();
+                long start = startTimer();
+                ResultCode result = checkNewCourse(courseId, e.getValue());
+                if (result.isOk()) {
+                    addCourseLocked(courseId, e.getValue());
+                }
+                results.put(courseId, stopTimer(Metrics.Operation.ADD_COURSE, result, start));
+            }
+        } finally {
+            courseLocks.unlockAll(held);
+        }
+        commit(ResultCode.OK);
+        return results;
+    }
+
+    /**
+     * Batch: Enrolls many students. Each student's enrollment is all-or-nothing, as in enrollStudent.
+     * Each student stripe and each course is locked once for the whole batch, so other registrations wait for it.
+     * The students a course gains are merged into its roster in one step at the end, which builds the roster
+     * once instead of copying part of it per student.
+     * @param courseIdsByStudent Student IDs mapped to the course IDs to enroll them in.
+     * @return A map with studentId as key and the outcome for that student as value.
+     */
+    public Map<String, ResultCode> enrollStudents(Map<String, List<String>> courseIdsByStudent) {
+        int size = courseIdsByStudent.size();
+        Map<String, ResultCode> results = new LinkedHashMap<>(capacityFor(size));
+        Map<String, Course> known = new HashMap<>();
+        for (List<String> courseIds : courseIdsByStudent.values()) {
+            for (String courseId : courseIds) {
+                Course course = courses.get(courseId);
+                if (course != null) {
+                    known.put(courseId, course);
+                }
+            }
+        }
+        List<Course> lockOrder = new ArrayList<>(known.values());
+        lockOrder.sort(Comparator.comparing(Course::getCourseId));
+
+        Map<Course, List<String>> enrolled = new HashMap<>();
+        Map<String, Student> registered = new LinkedHashMap<>(capacityFor(size));
+        List<ChangeEvent> published = new ArrayList<>();
+        boolean[] held = studentLocks.lockAll(courseIdsByStudent.keySet());
+        for (Course course : lockOrder) {
+            course.lock();
+        }
+        try {
+            for (Map.Entry<String, List<String>> e : courseIdsByStudent.entrySet()) {
+                long start = startTimer();
+                results.put(e.getKey(), stopTimer(Metrics.Operation.ENROLL_STUDENT,
+                        enrollLocked(e.getKey(), e.getValue(), known, enrolled, registered, published), start));
+            }
+        } finally {
+            // Enrollments already journaled are applied even if a later record fails
+            for (Map.Entry<Course, List<String>> e : enrolled.entrySet()) {
+                e.getKey().enrollAll(e.getValue());
+            }
+            students.putAll(registered);
+            for (ChangeEvent event : published) {
+                events.publish(event);
+            }
+            for (Course course : lockOrder) {
+                course.unlock();
+            }
+            studentLocks.unlockAll(held);
+        }
+        commit(ResultCode.OK);
+        return results;
+    }
+
+    /**
+     * Accepts one enrollment of a batch. The caller must hold the student's lock and the course locks, and
+     * applies the accepted enrollments afterwards.
+     * @param known The batch's courses by ID.
+     * @param enrolled Collects the students accepted for each course.
+     * @param registered Collects the accepted students.
+     * @param published Collects the events to publish once the enrollments are applied.
+     */
+    private ResultCode enrollLocked(String studentId, List<String> courseIds, Map<String, Course> known,
+            Map<Course, List<String>> enrolled, Map<String, Student> registered, List<ChangeEvent> published) {
+        if (students.containsKey(studentId)) {
+            return ResultCode.STUDENT_EXISTS;
+        }
+        Course[] requested = new Course[courseIds.size()];
+        for (int i = 0; i < requested.length; i++) {
+            requested[i] = known.get(courseIds.get(i));
+        }
+        ResultCode check = checkCourses(requested, enrolled, null);
+        if (!check.isOk()) {
+            return check;
+        }
+        // The checks leave no course listed twice
+        List<Course> targets = Arrays.asList(requested);
+        if (targets.size() > 1) {
+            targets.sort(Comparator.comparing(Course::getCourseId));
+        }
+        List<String> enrolledCourseIds = courseIdsOf(targets);
+        long lsn = journal != null ? journal.logEnrollStudent(studentId, enrolledCourseIds) : 0;
+        long sequence = events.claim();
+        Student student = newStudent(studentId);
+        for (Course course : targets) {
+            enrolled.computeIfAbsent(course, c -> new ArrayList<>()).add(studentId);
+            course.setRosterLsn(lsn);
+            student.addCourse(course.getOrdinal());
+        }
+        registered.put(studentId, student);
+        if (sequence >= 0) {
+            published.add(ChangeEvent.studentEnrolled(sequence, studentId, List.copyOf(enrolledCourseIds)));
+        }
+        return ResultCode.OK;
+    }
+
+    /**
+     * Batch: Books many exams. Item i books examIds[i] for studentIds[i].
+     * Each student stripe is locked once for the whole batch, and the new bookings are marked PENDING in one
+     * update of the status index.
+     * @param studentIds The IDs of the students.
+     * @param examIds The IDs of the exams, parallel to studentIds.
+     * @param bookingNumbers Receives the booking number of each successful item, or 0 for a rejected one.
+     * @return The outcome of each item.
+     */
+    public ResultCode[] bookExams(String[] studentIds, String[] examIds, int[] bookingNumbers) {
+        checkSameLength(studentIds.length, examIds.length);
+        checkSameLength(studentIds.length, bookingNumbers.length);
+        ResultCode[] results = new ResultCode[studentIds.length];
+        int[] booked = new int[studentIds.length];
+        int count = 0;
+        List<ChangeEvent> published = new ArrayList<>();
+        boolean[] held = studentLocks.lockAll(Arrays.asList(studentIds));
+        try {
+            for (int i = 0; i < studentIds.length; i++) {
+                long start = startTimer();
+                Student student = students.get(studentIds[i]);
+                Exam exam = exams.get(examIds[i]);
+                int result = student == null ? ResultCode.UNKNOWN_STUDENT.encode()
+                        : exam == null ? ResultCode.UNKNOWN_EXAM.encode()
+                        : bookLocked(student, exam, published);
+                results[i] = stopTimer(Metrics.Operation.BOOK_EXAM, ResultCode.decode(result), start);
+                bookingNumbers[i] = result > 0 ? result : 0;
+                if (result > 0) {
+                    booked[count++] = result;
+                }
+            }
+        } finally {
+            // Bookings already journaled are marked even if a later record fails
+            bookingsByStatus.addAll(Booking.BookingStatus.PENDING, booked, count);
+            for (ChangeEvent event : published) {
+                events.publish(event);
+            }
+            studentLocks.unlockAll(held);
+        }
+        commit(ResultCode.OK);
+        return results;
+    }
+
+    /**
+     * Batch: Confirms many PENDING bookings and allocates their seats.
+     * The bookings are grouped by exam and each exam's lock is taken once per group, so the seats of
+     * thousands of bookings are assigned in a single pass over the exam's seat map.
+     * @param bookingNumbers The booking numbers to confirm.
+     * @return The outcome of each item.
+     */
+    public ResultCode[] confirmBookings(int[] bookingNumbers) {
+        ResultCode[] results = new ResultCode[bookingNumbers.length];
+        long[] order = new long[bookingNumbers.length];
+        int known = orderByExam(bookingNumbers, order, results, Metrics.Operation.CONFIRM_BOOKING);
+        for (int from = 0; from < known; ) {
+            int examOrdinal = (int) (order[from] >>> 32);
+            int to = from;
+            while (to < known && (int) (order[to] >>> 32) == examOrdinal) {
+                to++;
+            }
+            ReentrantLock lock = examLocks.lockFor(examOrdinals.idOf(examOrdinal));
+            lock.lock();
+            try {
+                for (int k = from; k < to; k++) {
+                    int i = (int) order[k];
+                    long start = startTimer();
+                    results[i] = stopTimer(Metrics.Operation.CONFIRM_BOOKING, confirmLocked(bookingNumbers[i]), start);
+                }
+            } finally {
+                lock.unlock();
+            }
+            from = to;
+        }
+        commit(ResultCode.OK);
+        return results;
+    }
+
+    /**
+     * Batch: Sets grades for many CONFIRMED bookings. Item i sets grades[i] on bookingNumbers[i].
+     * The bookings are grouped by exam, as in confirmBookings. Each group takes the exam's lock once, moves its
+     * bookings to COMPLETED in one update of the status index, and adds its grades to the course and exam
+     * statistics once per distinct grade.
+     * @param bookingNumbers The booking numbers.
+     * @param grades The grades (0-100), parallel to bookingNumbers.
+     * @return The outcome of each item.
+     */
+    public ResultCode[] setGrades(int[] bookingNumbers, int[] grades) {
+        checkSameLength(bookingNumbers.length, grades.length);
+        ResultCode[] results = new ResultCode[bookingNumbers.length];
+        long[] order = new long[bookingNumbers.length];
+        int known = orderByExam(bookingNumbers, order, results, Metrics.Operation.SET_GRADE);
+        int[] graded = new int[known];
+        long[] histogram = new long[GradeStatistics.MAX_GRADE + 1];
+        List<ChangeEvent> published = new ArrayList<>();
+        for (int from = 0; from < known; ) {
+            int examOrdinal = (int) (order[from] >>> 32);
+            int to = from;
+            while (to < known && (int) (order[to] >>> 32) == examOrdinal) {
+                to++;
+            }
+            Exam exam = exams.get(examOrdinals.idOf(examOrdinal));
+            int count = 0;
+            Arrays.fill(histogram, 0);
+            published.clear();
+            ReentrantLock lock = examLocks.lockFor(exam.getExamId());
+            lock.lock();
+            try {
+                for (int k = from; k < to; k++) {
+                    int i = (int) order[k];
+                    long start = startTimer();
+                    ResultCode result = checkGrade(bookingNumbers[i], grades[i]);
+                    if (result.isOk()) {
+                        if (journal != null) {
+                            journal.logSetGrade(bookingNumbers[i], grades[i]);
+                        }
+                        long sequence = events.claim();
+                        bookings.complete(bookingNumbers[i], grades[i]);
+                        graded[count++] = bookingNumbers[i];
+                        histogram[grades[i]]++;
+                        if (sequence >= 0) {
+                            published.add(ChangeEvent.gradeSet(sequence, bookingNumbers[i],
+                                    bookings.getStudentId(bookingNumbers[i]), exam.getExamId(), grades[i]));
+                        }
+                    }
+                    results[i] = stopTimer(Metrics.Operation.SET_GRADE, result, start);
+                }
+            } finally {
+                // Grades already journaled are applied even if a later record fails
+                bookingsByStatus.moveAll(graded, count, Booking.BookingStatus.CONFIRMED,
+                        Booking.BookingStatus.COMPLETED);
+                lock.unlock();
+                if (count > 0) {
+                    recordGrades(exam, histogram);
+                }
+                // Published after the statistics are updated, as in setGrade
+                for (ChangeEvent event : published) {
+                    events.publish(event);
+                }
+            }
+            from = to;
+        }
+        commit(ResultCode.OK);
+        return results;
+    }
+
+    /**
+     * Orders the known bookings of a batch by exam, then by position in the batch, so each exam's lock can be
+     * taken once. Unknown bookings are rejected with UNKNOWN_BOOKING.
+     * @param order Receives the exam ordinal of each known booking in the upper half, its index in the lower.
+     * @return The number of known bookings.
+     */
+    private int orderByExam(int[] bookingNumbers, long[] order, ResultCode[] results, Metrics.Operation operation) {
+        int known = 0;
+        for (int i = 0; i < bookingNumbers.length; i++) {
+            if (bookings.contains(bookingNumbers[i])) {
+                order[known++] = (long) bookings.getExamOrdinal(bookingNumbers[i]) << 32 | i;
+            } else {
+                results[i] = stopTimer(operation, ResultCode.UNKNOWN_BOOKING, startTimer());
+            }
+        }
+        Arrays.sort(order, 0, known);
+        return known;
+    }
+
+    /**
+     * Makes successful mutations, and joins to a waitlist, durable before they are reported to the caller.
+     * Waits for the journal in SYNC mode; does nothing for in-memory managers.
+     * @param result The outcome of the mutation.
+     * @return The same outcome.
+     */
+    private ResultCode commit(ResultCode result) {
+        if (journal != null && (result == ResultCode.OK || result == ResultCode.WAITLISTED)) {
+            journal.sync();
+        }
+        return result;
+    }
+
+    /**
+     * @return The current time for {@link #stopTimer}, or 0 if metrics are off.
+     */
+    private long startTimer() {
+        return metrics != null ? System.nanoTime() : 0;
+    }
+
+    /**
+     * Records an operation that started at {@code start}, if metrics are on.
+     * @return The same outcome.
+     */
+    private ResultCode stopTimer(Metrics.Operation operation, ResultCode result, long start) {
+        Metrics current = metrics;
+        if (current != null && start != 0) {
+            current.record(operation, result, System.nanoTime() - start);
+        }
+        return result;
+    }
+
+    private static void checkSameLength(int expected, int actual) {
+        if (expected != actual) {
+            throw new IllegalArgumentException("Batch arrays must have the same length.");
+        }
+    }
+
+    /**
+     * @return A HashMap capacity that holds the given number of entries without rehashing.
+     */
+    private static int capacityFor(int entries) {
+        return (int) (entries / 0.75f) + 1;
+    }
+
+    /**
+     * Takes an immutable, consistent point-in-time view of the bookings and grades for reporting.
+     * Taking it costs time proportional to the number of status index segments (one per 65,536 booking
+     * numbers), not to the number of bookings; afterwards writers copy a segment the first time they change it.
+     * Long reports can then run on the snapshot without blocking bookExam or setGrade, and without
+     * seeing changes made while they run.
+     * @return The snapshot, valid until the manager is closed.
+     */
+    public ReportSnapshot snapshot() {
+        return new ReportSnapshot(bookingsByStatus.snapshot(), bookings, students, exams, examOrdinals,
+                studentOrdinals);
+    }
+
+    /**
+     * Starts sending operation timings to a metrics implementation, such as {@link OperationMetrics}.
+     * Every public mutation and R1-R5 query is timed and recorded with its outcome, so rejections are
+     * counted by reason. Gauges are registered for the number of courses, students, exams and bookings,
+     * the bookings in each status, and the fill ratio and waitlist length of every course ("course.ID.fillRatio",
+     * "course.ID.waitlist").
+     * @param metrics The metrics to record to, or null to stop recording.
+     */
+    public void setMetrics(Metrics metrics) {
+        this.metrics = metrics;
+        if (metrics == null) {
+            return;
+        }
+        metrics.registerGauge("courses", courses::size);
+        metrics.registerGauge("students", students::size);
+        metrics.registerGauge("exams", exams::size);
+        metrics.registerGauge("bookings", () -> nextBookingNumber.get() - 1);
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            metrics.registerGauge("bookings." + status, () -> bookingsByStatus.count(status));
+        }
+        for (Course course : courses.values()) {
+            registerCourseGauges(course);
+        }
+        for (Exam exam : exams.values()) {
+            registerExamGauges(exam);
+        }
+    }
+
+    private void registerCourseGauges(Course course) {
+        Metrics current = metrics;
+        if (current != null) {
+            current.registerGauge("course." + course.getCourseId() + ".fillRatio",
+                    () -> (double) course.getEnrolledCount() / course.getMaxStudents());
+            current.registerGauge("course." + course.getCourseId() + ".waitlist", course::getWaitlistLength);
+        }
+    }
+
+    private void registerExamGauges(Exam exam) {
+        Metrics current = metrics;
+        SeatMap seats = exam.getSeats();
+        if (current != null && seats != null) {
+            current.registerGauge("exam." + exam.getExamId() + ".freeSeats", seats::getUnreserved);
+        }
+    }
+
+    /**
+     * Subscribes to change events: enrollments and drops, new exams, bookings, confirmations and grades.
+     * The caller reads events with {@link EventSubscription#poll(List, int)}. Only changes made after
+     * subscribing are delivered, and no events are created while nobody is subscribed.
+     * @return The subscription; close it when done.
+     */
+    public EventSubscription subscribe() {
+        return new EventSubscription(events);
+    }
+
+    /**
+     * Subscribes a listener to change events. Batches of events are delivered on a dedicated thread,
+     * so a slow listener never delays the manager; if it falls too far behind it misses the oldest events
+     * (see {@link EventSubscription#getMissedEvents()}).
+     * @param listener Receives batches of events in sequence order.
+     * @return The subscription; close it to stop the listener thread.
+     */
+    public EventSubscription subscribe(Consumer<List<ChangeEvent>> listener) {
+        EventSubscription subscription = new EventSubscription(events);
+        subscription.start(listener);
+        return subscription;
+    }
+
+    /**
+     * Opens a durable manager stored in a directory, recovering any state saved there.
+     * Recovery loads the latest snapshot and replays the journal records written after it,
+     * restoring every booking under its original number.
+     * @param directory The directory holding the snapshot and journal files; created if missing.
+     * @param durability When journal records are forced to disk.
+     * @return The recovered manager, which journals every later mutation.
+     * @throws IOException if the files cannot be read or the journal cannot be opened.
+     */
+    public static CourseManager open(Path directory, Journal.Durability durability) throws IOException {
+        return open(directory, durability, false);
+    }
+
+    /**
+     * Opens a durable manager stored in a directory, optionally keeping its bookings in memory-mapped columns.
+     * @param directory The directory holding the snapshot and journal files; created if missing.
+     * @param durability When journal records are forced to disk.
+     * @param columnarBookings true to map the bookings from a scratch file in the directory, as with
+     *                         {@link #withColumnarBookings(Path)}.
+     * @return The recovered manager, which journals every later mutation.
+     * @throws IOException if the files cannot be read or the journal cannot be opened.
+     */
+    public static CourseManager open(Path directory, Journal.Durability durability, boolean columnarBookings)
+            throws IOException {
+        Files.createDirectories(directory);
+        CourseManager manager = columnarBookings
+                ? withColumnarBookings(directory.resolve(COLUMNS_FILE)) : new CourseManager();
+        long fromLsn = 1;
+        Path snapshot = directory.resolve(SNAPSHOT_FILE);
+        if (Files.exists(snapshot)) {
+            fromLsn = SnapshotFile.read(snapshot, manager);
+        }
+        long lastLsn = Journal.replay(directory, fromLsn, manager.new Recovery());
+        manager.directory = directory;
+        manager.journal = new Journal(directory, durability, lastLsn + 1);
+        return manager;
+    }
+
+    /**
+     * Writes a snapshot of the current state and deletes the journal segments it covers,
+     * so recovery only has to replay mutations made after the checkpoint.
+     * Mutations are paused only while the journal switches to a new segment, not while the snapshot is written.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public synchronized void checkpoint() throws IOException {
+        if (journal == null) {
+            throw new IllegalStateException("Only managers created with open() can be checkpointed.");
+        }
+        long fromLsn;
+        // Holding every stripe means no mutation is between logging and publishing its change,
+        // so all records before fromLsn are visible to the snapshot
+        courseLocks.lockAll();
+        studentLocks.lockAll();
+        examLocks.lockAll();
+        try {
+            fromLsn = journal.rollSegment();
+        } finally {
+            examLocks.unlockAll();
+            studentLocks.unlockAll();
+            courseLocks.unlockAll();
+        }
+        Path tmp = directory.resolve(SNAPSHOT_FILE + ".tmp");
+        SnapshotFile.write(tmp, fromLsn, this);
+        Files.move(tmp, directory.resolve(SNAPSHOT_FILE),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        journal.deleteSegmentsBefore(fromLsn);
+    }
+
+    /**
+     * Flushes outstanding journal records and releases the journal and any mapped booking file.
+     * Does nothing for in-memory managers with heap bookings.
+     * @throws IOException if the final flush fails.
+     */
+    public void close() throws IOException {
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } finally {
+            bookings.close();
+        }
+    }
+
+    // Bulk loading. Each row of a BulkLoader file goes through the same checks as the matching try* call,
+    // but without a timer or a journal sync per row: the loader syncs once when it is done.
+
+    ResultCode loadCourse(String courseId, int maxStudents) {
+        return applyAddCourse(courseId, maxStudents);
+    }
+
+    ResultCode loadStudent(String studentId, String[] courseIds) {
+        return applyEnrollStudent(studentId, courseIds, null);
+    }
+
+    ResultCode loadExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        return applyAddExam(courseId, examId, location, seats, timeSlot);
+    }
+
+    int loadBooking(String studentId, String examId) {
+        return applyBookExam(studentId, examId);
+    }
+
+    ResultCode loadConfirm(int bookingNumber) {
+        return applyConfirmBooking(bookingNumber);
+    }
+
+    ResultCode loadGrade(int bookingNumber, int grade) {
+        return applySetGrade(bookingNumber, grade);
+    }
+
+    /**
+     * Forces the rows loaded so far to the journal, if the manager is durable.
+     */
+    void loadFinished() {
+        commit(ResultCode.OK);
+    }
+
+    // Recovery and snapshot access. Restores are idempotent, because a snapshot is taken while
+    // mutations continue and may already contain changes that are replayed again from the journal.
+    // Drops and waitlists are not, so each course keeps the LSN of its last roster change and replay
+    // skips the roster records it already contains.
+
+    Collection<Course> courseValues() {
+        return courses.values();
+    }
+
+    Collection<Exam> examValues() {
+        return exams.values();
+    }
+
+    Collection<Student> studentValues() {
+        return students.values();
+    }
+
+    BookingStore bookingStore() {
+        return bookings;
+    }
+
+    int getNextBookingNumber() {
+        return nextBookingNumber.get();
+    }
+
+    void restoreNextBookingNumber(int bookingNumber) {
+        nextBookingNumber.accumulateAndGet(bookingNumber, Math::max);
+    }
+
+    void restoreCourse(String courseId, int maxStudents) {
+        if (!courses.containsKey(courseId)) {
+            Course course = new Course(courseId, maxStudents, courseOrdinals.intern(courseId));
+            courses.put(courseId, course);
+            sortedCourseIds.add(courseId);
+            registerCourseGauges(course);
+        }
+    }
+
+    void restoreExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        if (!exams.containsKey(examId)) {
+            Course course = courses.get(courseId);
+            Exam exam = newExam(course, examId, location, seats, timeSlot);
+            exams.put(examId, exam);
+            course.addExam(examId);
+            if (timeSlot != null) {
+                roomTimetables.computeIfAbsent(location, key -> new Timetable()).add(exam);
+            }
+            examsVersion.incrementAndGet();
+            registerExamGauges(exam);
+        }
+    }
+
+    void restoreStudent(String studentId) {
+        students.computeIfAbsent(studentId, this::newStudent);
+    }
+
+    /**
+     * Restores a course's roster and waitlist from a snapshot.
+     * @param rosterLsn The LSN of the last journal record the roster and waitlist contain.
+     */
+    void restoreRoster(String courseId, long rosterLsn, List<String> roster, List<String> waitlist) {
+        Course course = courses.get(courseId);
+        course.lock();
+        try {
+            for (String studentId : roster) {
+                course.enroll(studentId);
+                students.get(studentId).addCourse(course.getOrdinal());
+            }
+            for (String studentId : waitlist) {
+                course.addToWaitlist(studentId);
+                students.get(studentId).joinedWaitlist();
+            }
+            course.setRosterLsn(rosterLsn);
+        } finally {
+            course.unlock();
+        }
+    }
+
+    /**
+     * Replays a registration: registers the student if the snapshot does not have them, and enrolls them
+     * in each course whose roster predates the record.
+     */
+    void restoreEnrollment(long lsn, String studentId, String[] courseIds) {
+        restoreStudent(studentId);
+        Student student = students.get(studentId);
+        for (String courseId : courseIds) {
+            Course course = courses.get(courseId);
+            course.lock();
+            try {
+                if (lsn > course.getRosterLsn()) {
+                    course.enroll(studentId);
+                    course.setRosterLsn(lsn);
+                    student.addCourse(course.getOrdinal());
+                }
+            } finally {
+                course.unlock();
+            }
+        }
+    }
+
+    /**
+     * Replays an unregistration. A snapshot may already hold a later registration of the same ID with
+     * courses or bookings, which is kept.
+     */
+    void restoreUnregister(String studentId) {
+        Student student = students.get(studentId);
+        if (student != null && student.getCourseOrdinals().length == 0 && student.getBookingEntries().length == 0) {
+            students.remove(studentId);
+        }
+    }
+
+    void restoreBooking(int bookingNumber, String studentId, String examId, Booking.BookingStatus status, int grade,
+                        int seat) {
+        if (bookings.contains(bookingNumber)) {
+            return;
+        }
+        Student student = students.get(studentId);
+        Exam exam = exams.get(examId);
+        if (exam.getSeats() != null) {
+            exam.getSeats().restoreReservation();
+        }
+        bookings.add(bookingNumber, student.getOrdinal(), exam.getOrdinal());
+        markStatus(Booking.BookingStatus.PENDING, bookingNumber);
+        student.addBooking(exam.getOrdinal(), bookingNumber);
+        if (exam.getTimeSlot() != null) {
+            student.addToTimetable(exam);
+        }
+        restoreNextBookingNumber(bookingNumber + 1);
+        if (status != Booking.BookingStatus.PENDING) {
+            restoreConfirm(bookingNumber, seat);
+        }
+        if (status == Booking.BookingStatus.COMPLETED) {
+            restoreGrade(bookingNumber, grade);
+        }
+    }
+
+    void restoreConfirm(int bookingNumber, int seat) {
+        if (bookings.contains(bookingNumber) && bookings.getStatus(bookingNumber) == Booking.BookingStatus.PENDING) {
+            SeatMap seats = exams.get(bookings.getExamId(bookingNumber)).getSeats();
+            if (seats != null && seat > 0) {
+                seats.take(seat, bookingNumber); // recovery runs before the manager is shared, so no lock is needed
+            }
+            bookings.confirm(bookingNumber, seat);
+            changeStatus(bookingNumber, Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+        }
+    }
+
+    void restoreGrade(int bookingNumber, int grade) {
+        if (bookings.contains(bookingNumber) && bookings.getStatus(bookingNumber) == Booking.BookingStatus.CONFIRMED) {
+            bookings.complete(bookingNumber, grade);
+            changeStatus(bookingNumber, Booking.BookingStatus.CONFIRMED, Booking.BookingStatus.COMPLETED);
+            recordGrade(bookings.getExamId(bookingNumber), grade);
+        }
+    }
+
+    /**
+     * Applies replayed journal records.
+     */
+    private class Recovery implements Journal.Replayer {
+        @Override
+        public void addCourse(String courseId, int maxStudents) {
+            restoreCourse(courseId, maxStudents);
+        }
+
+        @Override
+        public void enrollStudent(long lsn, String studentId, String[] courseIds) {
+            restoreEnrollment(lsn, studentId, courseIds);
+        }
+
+        @Override
+        public void joinWaitlist(long lsn, String studentId, String courseId) {
+            applyJoinWaitlist(studentId, courseId, lsn);
+        }
+
+        @Override
+        public void dropCourse(long lsn, String studentId, String courseId) {
+            applyDropCourse(studentId, courseId, lsn);
+        }
+
+        @Override
+        public void unregisterStudent(String studentId) {
+            restoreUnregister(studentId);
+        }
+
+        @Override
+        public void addExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+            restoreExam(courseId, examId, location, seats, timeSlot);
+        }
+
+        @Override
+        public void bookExam(int bookingNumber, String studentId, String examId) {
+            restoreBooking(bookingNumber, studentId, examId, Booking.BookingStatus.PENDING, -1, 0);
+        }
+
+        @Override
+        public void confirmBooking(int bookingNumber, int seat) {
+            restoreConfirm(bookingNumber, seat);
+        }
+
+        @Override
+        public void setGrade(int bookingNumber, int grade) {
+            restoreGrade(bookingNumber, grade);
+        }
+    }
+
+    /**
+     * An immutable getExamsByCourse result together with the exam version it was built from.
+     */
+    private static class ExamsByCourseView {
+        final int version;
+        final Map<String, List<String>> examsByCourse;
+
+        ExamsByCourseView(int version, Map<String, List<String>> examsByCourse) {
+            this.version = version;
+            this.examsByCourse = examsByCourse;
+        }
+    }
+}
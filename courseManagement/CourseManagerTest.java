@@ -4,8 +4,21 @@ import org.junit.Before;
 import org.junit.Test;
 import static org.junit.Assert.*;
 
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 
 
 public class CourseManagerTest {
@@ -54,7 +67,7 @@ public class CourseManagerTest {
             manager.addCourse("CS102", 9);
             fail("Expected an Exception to be thrown for capacity < 10.");
         } catch (Exception e) {
-            assertEquals("Maximum number of students must be between 10 and 200.", e.getMessage());
+            assertEquals("Maximum number of students must be between 10 and 1000000.", e.getMessage());
         }
     }
 
@@ -64,10 +77,10 @@ public class CourseManagerTest {
     @Test
     public void testAddCourseInvalidCapacityHigh() {
         try {
-            manager.addCourse("CS103", 201);
-            fail("Expected an Exception to be thrown for capacity > 200.");
+            manager.addCourse("CS103", 1_000_001);
+            fail("Expected an Exception to be thrown for capacity > 1,000,000.");
         } catch (Exception e) {
-            assertEquals("Maximum number of students must be between 10 and 200.", e.getMessage());
+            assertEquals("Maximum number of students must be between 10 and 1000000.", e.getMessage());
         }
     }
 
@@ -87,6 +100,107 @@ public class CourseManagerTest {
         assertEquals("S002", students.get(1));
     }
 
+    /**
+     * R1 Test: Verifies large courses are accepted and the roster returned to callers is sorted and read-only.
+     */
+    @Test
+    public void testLargeCourseRoster() throws Exception {
+        manager.addCourse("MOOC1", 100_000);
+        for (int i = 999; i >= 0; i--) {
+            manager.enrollStudent(String.format("S%04d", i), "MOOC1");
+        }
+
+        List<String> students = manager.getEnrolledStudents("MOOC1");
+        assertEquals(1000, students.size());
+        assertEquals("S0000", students.get(0));
+        assertEquals("S0999", students.get(999));
+        try {
+            students.add("S9999");
+            fail("Expected the roster view to be read-only.");
+        } catch (UnsupportedOperationException expected) {
+            // roster is an immutable snapshot
+        }
+    }
+
+    /**
+     * R1 Test: Verifies a roster handed out earlier keeps its contents while enrollments and drops go on,
+     * and that the roster stays sorted through random changes.
+     */
+    @Test
+    public void testRosterSnapshotsSurviveChanges() {
+        Course course = new Course("C1", 10_000);
+        TreeSet<String> expected = new TreeSet<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 20_000; i++) {
+            String studentId = "S" + random.nextInt(3000);
+            List<String> before = course.getEnrolledStudents();
+            List<String> copy = new ArrayList<>(before);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(studentId), course.withdraw(studentId));
+            } else if (expected.add(studentId)) {
+                course.enroll(studentId);
+            }
+            assertEquals(copy, before);
+        }
+        List<String> roster = course.getEnrolledStudents();
+        assertEquals(new ArrayList<>(expected), roster);
+        assertEquals(expected.size(), course.getEnrolledCount());
+        String middle = roster.get(roster.size() / 2);
+        assertEquals(new ArrayList<>(expected.tailSet(middle, false)).subList(0, 5),
+                course.getEnrolledStudents(middle, 5));
+        assertEquals(roster.size() / 2, roster.indexOf(middle));
+    }
+
+    /**
+     * R1 Test: Ensures a failed multi-course enrollment leaves no partial state behind.
+     */
+    @Test
+    public void testEnrollStudentIsAllOrNothing() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.addCourse("C2", 10);
+        for (int i = 0; i < 10; i++) {
+            manager.enrollStudent("FULL" + i, "C2");
+        }
+
+        try {
+            manager.enrollStudent("S1", "C1", "C2");
+            fail("Expected an Exception for enrolling in a full course.");
+        } catch (Exception e) {
+            assertEquals("Course C2 is already at maximum capacity.", e.getMessage());
+        }
+        try {
+            manager.enrollStudent("S1", "C1", "NOSUCHCOURSE");
+            fail("Expected an Exception for enrolling in a non-existent course.");
+        } catch (Exception e) {
+            assertEquals("Course ID NOSUCHCOURSE does not exist.", e.getMessage());
+        }
+        assertTrue(manager.getEnrolledStudents("C1").isEmpty());
+
+        // The first course that fails, in argument order, is the one reported
+        try {
+            manager.enrollStudent("S1", "C2", "NOSUCHCOURSE");
+            fail("Expected an Exception for enrolling in a full course.");
+        } catch (Exception e) {
+            assertEquals("Course C2 is already at maximum capacity.", e.getMessage());
+        }
+        try {
+            manager.enrollStudent("S1", "NOSUCHCOURSE", "C2");
+            fail("Expected an Exception for enrolling in a non-existent course.");
+        } catch (Exception e) {
+            assertEquals("Course ID NOSUCHCOURSE does not exist.", e.getMessage());
+        }
+        try {
+            manager.enrollStudent("S1", "C1", "C1", "C2");
+            fail("Expected an Exception for listing a course twice.");
+        } catch (Exception e) {
+            assertEquals("Student S1 is already enrolled in course C1.", e.getMessage());
+        }
+
+        // The student was never registered, so a later valid enrollment succeeds
+        manager.enrollStudent("S1", "C1");
+        assertEquals(1, manager.getEnrolledStudents("C1").size());
+    }
+
     /**
      * R1 Test: Checks that enrolling a student with an already registered ID throws an exception.
      */
@@ -178,6 +292,25 @@ public class CourseManagerTest {
         assertEquals("E2", exams.get("C1").get(1));
     }
 
+    /**
+     * R2 Test: Verifies the per-course exam lookup and that the exam map reflects exams added later.
+     */
+    @Test
+    public void testGetExamsFollowsAddExam() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.addCourse("C2", 20);
+        manager.addExam("C1", "E2", "loc1");
+        Map<String, List<String>> before = manager.getExamsByCourse();
+        assertSame(before, manager.getExamsByCourse()); // unchanged, so the view is shared
+
+        manager.addExam("C1", "E1", "loc2");
+        assertEquals(Arrays.asList("E1", "E2"), manager.getExams("C1"));
+        assertTrue(manager.getExams("C2").isEmpty());
+        assertEquals(Arrays.asList("E1", "E2"), manager.getExamsByCourse().get("C1"));
+        assertFalse(manager.getExamsByCourse().containsKey("C2"));
+        assertEquals(Arrays.asList("E2"), before.get("C1")); // earlier views are not modified
+    }
+
     /**
      * R3 Test: Verifies the full booking and confirmation process.
      */
@@ -218,6 +351,30 @@ public class CourseManagerTest {
         }
     }
 
+    /**
+     * R3 Test: Ensures booking the same exam twice for a student throws an exception.
+     */
+    @Test
+    public void testBookExamDuplicate() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.enrollStudent("S1", "C1");
+        manager.enrollStudent("S2", "C1");
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C1", "E2", "loc2");
+        manager.bookExam("S1", "E1");
+
+        // Other exams for the same student and the same exam for other students are still allowed
+        assertEquals(2, manager.bookExam("S1", "E2"));
+        assertEquals(3, manager.bookExam("S2", "E1"));
+
+        try {
+            manager.bookExam("S1", "E1");
+            fail("Expected an Exception for booking the same exam twice.");
+        } catch (Exception e) {
+            assertEquals("Student S1 has already booked exam E1.", e.getMessage());
+        }
+    }
+
     /**
      * R3 Test: Checks that confirming a non-existent booking throws an exception.
      */
@@ -252,6 +409,30 @@ public class CourseManagerTest {
         assertEquals(Integer.valueOf(bookingNumber), completed.get(0));
     }
 
+    /**
+     * R3/R4 Test: Verifies confirmed and completed lists stay sorted and disjoint as bookings move between states.
+     */
+    @Test
+    public void testBookingStatusListsFollowTransitions() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.enrollStudent("S1", "C1");
+        manager.enrollStudent("S2", "C1");
+        manager.enrollStudent("S3", "C1");
+        manager.addExam("C1", "E1", "loc1");
+        int b1 = manager.bookExam("S1", "E1");
+        int b2 = manager.bookExam("S2", "E1");
+        int b3 = manager.bookExam("S3", "E1");
+
+        manager.confirmBooking(b3);
+        manager.confirmBooking(b1);
+        manager.confirmBooking(b2);
+        assertEquals(Arrays.asList(b1, b2, b3), manager.getConfirmedBookings());
+
+        manager.setGrade(b2, 70);
+        assertEquals(Arrays.asList(b1, b3), manager.getConfirmedBookings());
+        assertEquals(Arrays.asList(b2), manager.getCompletedBookings());
+    }
+
     /**
      * R4 Test: Ensures setting a grade for a booking that is not confirmed throws an exception.
      */
@@ -314,6 +495,31 @@ public class CourseManagerTest {
         assertEquals(Integer.valueOf(85), grades.get("E2"));
     }
 
+    /**
+     * R5 Test: Ensures only completed bookings of the given student are reported.
+     */
+    @Test
+    public void testGetStudentGradesIgnoresOpenBookings() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.enrollStudent("S1", "C1");
+        manager.enrollStudent("S2", "C1");
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C1", "E2", "loc2");
+
+        int b1 = manager.bookExam("S1", "E1");
+        manager.confirmBooking(b1);
+        manager.setGrade(b1, 70);
+        manager.confirmBooking(manager.bookExam("S1", "E2")); // CONFIRMED, not graded
+        int b3 = manager.bookExam("S2", "E2");
+        manager.confirmBooking(b3);
+        manager.setGrade(b3, 60);
+
+        Map<String, Integer> grades = manager.getStudentGrades("S1");
+        assertEquals(1, grades.size());
+        assertEquals(Integer.valueOf(70), grades.get("E1"));
+        assertTrue(manager.getStudentGrades("NOSUCHSTUDENT").isEmpty());
+    }
+
     /**
      * R5 Test: Calculates the average grade for courses.
      */
@@ -347,4 +553,695 @@ public class CourseManagerTest {
         assertEquals(85.0, averages.get("C1"), 0.001);
         assertEquals(75.0, averages.get("C2"), 0.001);
     }
+
+    /**
+     * R5 Test: Verifies per-course and per-exam grade statistics.
+     */
+    @Test
+    public void testGradeStatistics() throws Exception {
+        manager.addCourse("C1", 20);
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C1", "E2", "loc2");
+        int[] grades = {40, 60, 80, 100};
+        for (int i = 0; i < grades.length; i++) {
+            manager.enrollStudent("S" + i, "C1");
+            int b = manager.bookExam("S" + i, i % 2 == 0 ? "E1" : "E2");
+            manager.confirmBooking(b);
+            manager.setGrade(b, grades[i]);
+        }
+
+        GradeStatistics course = manager.getCourseStatistics("C1");
+        assertEquals(4, course.getCount());
+        assertEquals(70.0, course.getAverage(), 0.001);
+        assertEquals(40, course.getMin());
+        assertEquals(100, course.getMax());
+        assertEquals(60, course.getMedian());
+        assertEquals(100, course.getPercentile(99));
+        assertEquals(1, course.getFrequency(80));
+
+        GradeStatistics exam = manager.getExamStatistics("E1");
+        assertEquals(2, exam.getCount());
+        assertEquals(60.0, exam.getAverage(), 0.001);
+
+        assertEquals(0, manager.getExamStatistics("NOSUCHEXAM").getCount());
+    }
+
+    /**
+     * Batch Test: Verifies batch imports apply valid items and report a result code for rejected ones.
+     */
+    @Test
+    public void testBatchOperations() throws Exception {
+        Map<String, Integer> newCourses = new LinkedHashMap<>();
+        newCourses.put("C1", 20);
+        newCourses.put("C2", 5);
+        Map<String, ResultCode> courseResults = manager.addCourses(newCourses);
+        assertEquals(ResultCode.OK, courseResults.get("C1"));
+        assertEquals(ResultCode.INVALID_CAPACITY, courseResults.get("C2"));
+
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        enrollments.put("S1", Arrays.asList("C1"));
+        enrollments.put("S2", Arrays.asList("C1", "C2"));
+        Map<String, ResultCode> enrollResults = manager.enrollStudents(enrollments);
+        assertEquals(ResultCode.OK, enrollResults.get("S1"));
+        assertEquals(ResultCode.UNKNOWN_COURSE, enrollResults.get("S2"));
+        assertEquals(Arrays.asList("S1"), manager.getEnrolledStudents("C1"));
+
+        manager.addExam("C1", "E1", "loc1");
+        int[] bookingNumbers = new int[3];
+        ResultCode[] bookResults = manager.bookExams(
+                new String[] {"S1", "S1", "S2"}, new String[] {"E1", "E1", "E1"}, bookingNumbers);
+        assertArrayEquals(new ResultCode[] {ResultCode.OK, ResultCode.ALREADY_BOOKED, ResultCode.UNKNOWN_STUDENT},
+                bookResults);
+        assertArrayEquals(new int[] {1, 0, 0}, bookingNumbers);
+
+        assertArrayEquals(new ResultCode[] {ResultCode.OK, ResultCode.UNKNOWN_BOOKING},
+                manager.confirmBookings(new int[] {1, 99}));
+        assertArrayEquals(new ResultCode[] {ResultCode.INVALID_GRADE, ResultCode.OK},
+                manager.setGrades(new int[] {1, 1}, new int[] {101, 77}));
+        assertEquals(Integer.valueOf(77), manager.getStudentGrades("S1").get("E1"));
+    }
+
+    /**
+     * Batch Test: Verifies a batch enrollment merged into a course that already has students keeps the roster
+     * sorted, counts the seats the batch itself takes, and that batch grades reach the statistics.
+     */
+    @Test
+    public void testBatchMergesRosters() throws Exception {
+        manager.addCourse("C1", 30);
+        manager.addCourse("C2", 100);
+        List<String> expected = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            manager.enrollStudent("S" + (i * 3), "C1");
+            expected.add("S" + (i * 3));
+        }
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        enrollments.put("S0", Arrays.asList("C1"));
+        for (int i = 0; i < 21; i++) {
+            enrollments.put("T" + i, i == 0 ? Arrays.asList("C2", "C1") : Arrays.asList("C1"));
+        }
+        Map<String, ResultCode> results = manager.enrollStudents(enrollments);
+        assertEquals(ResultCode.STUDENT_EXISTS, results.get("S0"));
+        assertEquals(ResultCode.OK, results.get("T19"));
+        assertEquals(ResultCode.COURSE_FULL, results.get("T20"));
+        for (int i = 0; i < 20; i++) {
+            expected.add("T" + i);
+        }
+        Collections.sort(expected);
+        assertEquals(expected, manager.getEnrolledStudents("C1"));
+        assertEquals(expected.subList(11, 16), manager.getEnrolledStudents("C1", expected.get(10), 5));
+        assertEquals(Arrays.asList("T0"), manager.getEnrolledStudents("C2"));
+        assertEquals(ResultCode.COURSE_FULL, manager.tryEnrollStudent("T20", "C1"));
+
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C1", "E2", "loc1");
+        String[] studentIds = {"T1", "T2", "T1", "T3"};
+        String[] examIds = {"E1", "E1", "E2", "E2"};
+        int[] numbers = new int[4];
+        manager.bookExams(studentIds, examIds, numbers);
+        assertArrayEquals(new int[] {1, 2, 3, 4}, numbers);
+        manager.confirmBookings(numbers);
+        assertEquals(Arrays.asList(1, 2, 3, 4), manager.getConfirmedBookings());
+        assertArrayEquals(new ResultCode[] {ResultCode.OK, ResultCode.OK, ResultCode.OK, ResultCode.NOT_CONFIRMED},
+                manager.setGrades(new int[] {3, 1, 2, 1}, new int[] {90, 70, 70, 50}));
+        assertEquals(Arrays.asList(1, 2, 3), manager.getCompletedBookings());
+        GradeStatistics course = manager.getCourseStatistics("C1");
+        assertEquals(3, course.getCount());
+        assertEquals(230, course.getSum());
+        assertEquals(2, manager.getExamStatistics("E1").getFrequency(70));
+    }
+
+    /**
+     * Result Code Test: Verifies the non-throwing API reports each rejection as a code and leaves state unchanged.
+     */
+    @Test
+    public void testTryOperationsReturnResultCodes() {
+        assertEquals(ResultCode.OK, manager.tryAddCourse("C1", 10));
+        assertEquals(ResultCode.COURSE_EXISTS, manager.tryAddCourse("C1", 10));
+        assertEquals(ResultCode.OK, manager.tryAddExam("C1", "E1", "loc1"));
+        assertEquals(ResultCode.EXAM_EXISTS, manager.tryAddExam("C1", "E1", "loc1"));
+        assertEquals(ResultCode.OK, manager.tryEnrollStudent("S1", "C1"));
+        assertEquals(ResultCode.STUDENT_EXISTS, manager.tryEnrollStudent("S1", "C1"));
+
+        int booking = manager.tryBookExam("S1", "E1");
+        assertEquals(1, booking);
+        assertEquals(ResultCode.OK, ResultCode.decode(booking));
+        assertEquals(ResultCode.ALREADY_BOOKED, ResultCode.decode(manager.tryBookExam("S1", "E1")));
+        assertEquals(ResultCode.UNKNOWN_EXAM, ResultCode.decode(manager.tryBookExam("S1", "E9")));
+
+        assertEquals(ResultCode.NOT_CONFIRMED, manager.trySetGrade(booking, 50));
+        assertEquals(ResultCode.OK, manager.tryConfirmBooking(booking));
+        assertEquals(ResultCode.NOT_PENDING, manager.tryConfirmBooking(booking));
+        assertEquals(ResultCode.OK, manager.trySetGrade(booking, 50));
+        assertEquals(Arrays.asList(booking), manager.getCompletedBookings());
+    }
+
+    /**
+     * Columnar Store Test: Verifies a manager with off-heap booking columns behaves like the default one,
+     * including bookings stored past the first column chunk.
+     */
+    @Test
+    public void testColumnarBookings() throws Exception {
+        manager = CourseManager.withColumnarBookings();
+        int students = 70_000;
+        manager.addCourse("C1", students);
+        manager.addExam("C1", "E1", "loc1");
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        for (int i = 0; i < students; i++) {
+            enrollments.put("S" + i, Arrays.asList("C1"));
+        }
+        manager.enrollStudents(enrollments);
+        for (int i = 0; i < students; i++) {
+            assertEquals(i + 1, manager.bookExam("S" + i, "E1"));
+        }
+
+        manager.confirmBooking(students);
+        manager.setGrade(students, 90);
+        manager.confirmBooking(1);
+        assertEquals(Arrays.asList(1), manager.getConfirmedBookings());
+        assertEquals(Arrays.asList(students), manager.getCompletedBookings());
+        assertEquals(Integer.valueOf(90), manager.getStudentGrades("S" + (students - 1)).get("E1"));
+        assertTrue(manager.getStudentGrades("S0").isEmpty());
+        assertEquals(ResultCode.NOT_PENDING, manager.tryConfirmBooking(students));
+        assertEquals(ResultCode.UNKNOWN_BOOKING, manager.tryConfirmBooking(students + 1));
+        assertEquals(90.0, manager.getCourseAverage().get("C1"), 0.001);
+    }
+
+    /**
+     * Student Test: Verifies the per-student course and booking indexes, with exams booked out of order.
+     */
+    @Test
+    public void testStudentIndexes() {
+        Student student = new Student("S1");
+        student.addCourse("C2");
+        student.addCourse("C1");
+        assertTrue(student.isEnrolledIn("C1"));
+        assertFalse(student.isEnrolledIn("C3"));
+        assertEquals(new HashSet<>(Arrays.asList("C1", "C2")), student.getCourseIds());
+
+        student.addBooking("E3", 7);
+        student.addBooking("E1", 8);
+        student.addBooking("E2", 9);
+        assertTrue(student.hasBooked("E1"));
+        assertTrue(student.hasBooked("E3"));
+        assertFalse(student.hasBooked("E4"));
+        Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("E1", 8);
+        expected.put("E2", 9);
+        expected.put("E3", 7);
+        assertEquals(expected, student.getBookings());
+    }
+
+    /**
+     * Pagination Test: Verifies keyset pages and lazy streams return the same results as the full-list queries,
+     * across several stream pages.
+     */
+    @Test
+    public void testPaginatedAndStreamingQueries() throws Exception {
+        int students = 2500;
+        manager.addCourse("C1", students);
+        manager.addCourse("C2", 10);
+        manager.addCourse("C3", 10);
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C3", "E3", "loc3");
+        for (int i = 0; i < students; i++) {
+            manager.enrollStudent(String.format("S%04d", i), "C1");
+            int booking = manager.bookExam(String.format("S%04d", i), "E1");
+            if (booking % 3 != 0) {
+                manager.confirmBooking(booking);
+            }
+        }
+
+        assertEquals(Arrays.asList("S0000", "S0001"), manager.getEnrolledStudents("C1", null, 2));
+        assertEquals(Arrays.asList("S0002", "S0003", "S0004"), manager.getEnrolledStudents("C1", "S0001", 3));
+        assertEquals(Arrays.asList("S2499"), manager.getEnrolledStudents("C1", "S2498", 10));
+        assertTrue(manager.getEnrolledStudents("C1", "S2499", 10).isEmpty());
+        assertEquals(manager.getEnrolledStudents("C1"), manager.streamEnrolledStudents("C1").collect(Collectors.toList()));
+
+        assertEquals(Arrays.asList(1, 2, 4), manager.getConfirmedBookings(0, 3));
+        assertEquals(Arrays.asList(5, 7), manager.getConfirmedBookings(4, 2));
+        assertEquals(manager.getConfirmedBookings(),
+                manager.streamConfirmedBookings().boxed().collect(Collectors.toList()));
+        assertEquals(0, manager.streamCompletedBookings().count());
+        assertTrue(manager.getCompletedBookings(0, 10).isEmpty());
+
+        Map<String, List<String>> firstPage = manager.getExamsByCourse(null, 1);
+        assertEquals(Arrays.asList("C1"), new ArrayList<>(firstPage.keySet()));
+        assertEquals(Arrays.asList("C3"), new ArrayList<>(manager.getExamsByCourse("C1", 5).keySet()));
+        assertEquals(manager.getExamsByCourse(), manager.streamExamsByCourse()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+
+        try {
+            manager.getConfirmedBookings(0, 0);
+            fail("Expected an exception for a non-positive page limit.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("Page limit must be positive.", e.getMessage());
+        }
+    }
+
+    /**
+     * Change Event Test: Verifies each successful mutation publishes one typed event in order,
+     * and that rejected operations publish nothing.
+     */
+    @Test
+    public void testChangeEvents() throws Exception {
+        manager.addCourse("C1", 10);
+        EventSubscription subscription = manager.subscribe();
+        manager.enrollStudent("S1", "C1");
+        manager.addExam("C1", "E1", "loc1");
+        int booking = manager.bookExam("S1", "E1");
+        manager.tryBookExam("S1", "E1"); // rejected
+        manager.confirmBooking(booking);
+        manager.setGrade(booking, 70);
+
+        List<ChangeEvent> events = new ArrayList<>();
+        assertEquals(5, subscription.poll(events, 100));
+        assertEquals(ChangeEvent.Type.STUDENT_ENROLLED, events.get(0).getType());
+        assertEquals(Arrays.asList("C1"), events.get(0).getCourseIds());
+        assertEquals(ChangeEvent.Type.EXAM_ADDED, events.get(1).getType());
+        assertEquals(ChangeEvent.Type.EXAM_BOOKED, events.get(2).getType());
+        assertEquals(booking, events.get(2).getBookingNumber());
+        assertEquals(ChangeEvent.Type.BOOKING_CONFIRMED, events.get(3).getType());
+        assertEquals(ChangeEvent.Type.GRADE_SET, events.get(4).getType());
+        assertEquals(70, events.get(4).getGrade());
+        assertEquals("S1", events.get(4).getStudentId());
+        for (int i = 1; i < events.size(); i++) {
+            assertEquals(events.get(i - 1).getSequence() + 1, events.get(i).getSequence());
+        }
+        assertEquals(0, subscription.poll(events, 100));
+        assertEquals(0, subscription.getMissedEvents());
+        subscription.close();
+    }
+
+    /**
+     * Change Event Test: Verifies a subscriber that falls more than the ring capacity behind
+     * misses the oldest events instead of holding up the manager.
+     */
+    @Test
+    public void testSlowSubscriberMissesOldestEvents() throws Exception {
+        int students = 70_000;
+        manager.addCourse("C1", students);
+        EventSubscription subscription = manager.subscribe();
+        for (int i = 0; i < students; i++) {
+            manager.tryEnrollStudent("S" + i, "C1");
+        }
+        List<ChangeEvent> events = new ArrayList<>();
+        while (subscription.poll(events, 1000) > 0) {
+            // drain
+        }
+        assertEquals(students, subscription.getMissedEvents() + events.size());
+        assertTrue(subscription.getMissedEvents() > 0);
+        assertEquals("S" + (students - 1), events.get(events.size() - 1).getStudentId());
+        subscription.close();
+    }
+
+    /**
+     * Metrics Test: Verifies operations are counted by outcome, gauges track sizes and fill ratios,
+     * and the text report lists both.
+     */
+    @Test
+    public void testMetrics() throws Exception {
+        OperationMetrics metrics = new OperationMetrics();
+        manager.addCourse("C1", 10);
+        manager.setMetrics(metrics);
+        manager.addCourse("C2", 20);
+        manager.enrollStudent("S1", "C1", "C2");
+        manager.addExam("C1", "E1", "loc1");
+        int booking = manager.bookExam("S1", "E1");
+        manager.tryBookExam("S1", "E1");
+        manager.tryBookExam("S1", "E1");
+        manager.trySetGrade(booking, 50);
+        manager.getStudentGrades("S1");
+
+        Map<String, Long> counts = metrics.getCounts();
+        assertEquals(Long.valueOf(1), counts.get("BOOK_EXAM.OK"));
+        assertEquals(Long.valueOf(2), counts.get("BOOK_EXAM.ALREADY_BOOKED"));
+        assertEquals(Long.valueOf(1), counts.get("SET_GRADE.NOT_CONFIRMED"));
+        assertEquals(Long.valueOf(1), counts.get("GET_STUDENT_GRADES.OK"));
+        assertNull(counts.get("CONFIRM_BOOKING.OK"));
+        assertTrue(metrics.getLatencies().get("BOOK_EXAM.ALREADY_BOOKED.p99") > 0);
+
+        Map<String, Double> gauges = metrics.getGauges();
+        assertEquals(2.0, gauges.get("courses"), 0.0);
+        assertEquals(1.0, gauges.get("bookings.PENDING"), 0.0);
+        assertEquals(0.1, gauges.get("course.C1.fillRatio"), 1e-9);
+        assertEquals(0.05, gauges.get("course.C2.fillRatio"), 1e-9);
+        assertTrue(metrics.report().contains("BOOK_EXAM.ALREADY_BOOKED"));
+
+        metrics.registerMBean("testMetrics");
+        ObjectName name = new ObjectName("courseManagement:type=OperationMetrics,name=\"testMetrics\"");
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        assertTrue(((String) server.getAttribute(name, "Report")).contains("SET_GRADE.NOT_CONFIRMED"));
+        server.unregisterMBean(name);
+
+        manager.setMetrics(null);
+        manager.tryBookExam("S1", "E1");
+        assertEquals(Long.valueOf(2), metrics.getCounts().get("BOOK_EXAM.ALREADY_BOOKED"));
+    }
+
+    /**
+     * Metrics Test: Verifies histogram percentiles are exact for small values and within the bucket
+     * precision for large ones.
+     */
+    @Test
+    public void testLatencyHistogramPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 1; i <= 20; i++) {
+            histogram.record(i);
+        }
+        histogram.record(1_000_000);
+        assertEquals(21, histogram.getCount());
+        assertEquals(11, histogram.getPercentile(50));
+        assertEquals(20, histogram.getPercentile(95));
+        long max = histogram.getMax();
+        assertTrue(max >= 1_000_000 && max < 1_000_000 * 1.04);
+        assertEquals(max, histogram.getPercentile(100));
+    }
+
+    /**
+     * Snapshot Test: Verifies a snapshot keeps reporting the state it was taken at while the manager changes.
+     */
+    @Test
+    public void testReportSnapshot() throws Exception {
+        manager.addCourse("C1", 10);
+        manager.enrollStudent("S1", "C1");
+        manager.enrollStudent("S2", "C1");
+        manager.addExam("C1", "E1", "loc1");
+        manager.addExam("C1", "E2", "loc2");
+        int b1 = manager.bookExam("S1", "E1");
+        int b2 = manager.bookExam("S2", "E1");
+        manager.confirmBooking(b1);
+        manager.confirmBooking(b2);
+        manager.setGrade(b1, 80);
+
+        ReportSnapshot snapshot = manager.snapshot();
+        manager.setGrade(b2, 40);
+        int b3 = manager.bookExam("S1", "E2");
+        manager.confirmBooking(b3);
+        manager.setGrade(b3, 60);
+
+        assertEquals(3, manager.getCompletedBookings().size());
+        assertEquals(Arrays.asList(b1), snapshot.getCompletedBookings());
+        assertEquals(Arrays.asList(b2), snapshot.getConfirmedBookings(0, 10));
+        assertEquals(Booking.BookingStatus.CONFIRMED, snapshot.getStatus(b2));
+        assertNull(snapshot.getStatus(b3));
+        assertEquals(2, snapshot.getBookingCount());
+        assertEquals(Map.of("E1", 80), snapshot.getStudentGrades("S1"));
+        assertEquals(Map.of(), snapshot.getStudentGrades("S2"));
+        assertEquals(80.0, snapshot.getCourseAverage().get("C1"), 0.001);
+        assertEquals(1, snapshot.getExamStatistics("E1").getCount());
+        assertEquals(0, snapshot.getExamStatistics("E2").getCount());
+        assertEquals(60.0, manager.getCourseAverage().get("C1"), 0.001);
+    }
+
+    /**
+     * Snapshot Test: Verifies status index views stay unchanged across segment boundaries
+     * while the index is written to.
+     */
+    @Test
+    public void testStatusIndexCopyOnWrite() {
+        StatusIndex index = new StatusIndex();
+        int[] numbers = {1, 65_535, 65_536, 200_000};
+        for (int n : numbers) {
+            index.add(Booking.BookingStatus.PENDING, n);
+        }
+        StatusIndex.View view = index.snapshot();
+        index.move(65_536, Booking.BookingStatus.PENDING, Booking.BookingStatus.CONFIRMED);
+        index.add(Booking.BookingStatus.PENDING, 300_000);
+
+        assertArrayEquals(numbers, view.page(Booking.BookingStatus.PENDING, 0, 10));
+        assertEquals(0, view.count(Booking.BookingStatus.CONFIRMED));
+        assertArrayEquals(new int[] {65_535, 65_536}, view.page(Booking.BookingStatus.PENDING, 1, 2));
+        assertArrayEquals(new int[] {1, 65_535, 200_000, 300_000},
+                index.page(Booking.BookingStatus.PENDING, 0, 10));
+        assertArrayEquals(new int[] {65_536}, index.page(Booking.BookingStatus.CONFIRMED, 0, 10));
+        assertEquals(4, index.count(Booking.BookingStatus.PENDING));
+        assertEquals(Arrays.asList(1, 65_535, 200_000, 300_000),
+                index.snapshot().list(Booking.BookingStatus.PENDING));
+    }
+
+    /**
+     * Analytics Test: Verifies the parallel grade report over several status index segments
+     * matches the live statistics and does not depend on the pool's parallelism.
+     */
+    @Test
+    public void testGradeReportIsDeterministic() throws Exception {
+        int studentCount = 1000;
+        int examCount = 150; // 150,000 bookings span three status index segments
+        manager.addCourse("C1", studentCount);
+        manager.addCourse("C2", studentCount);
+        for (int s = 0; s < studentCount; s++) {
+            manager.enrollStudent("S" + s, "C1", "C2");
+        }
+        for (int e = 0; e < examCount; e++) {
+            manager.addExam(e % 2 == 0 ? "C1" : "C2", "E" + e, "loc");
+        }
+        String[] studentIds = new String[studentCount * examCount];
+        String[] examIds = new String[studentIds.length];
+        for (int i = 0; i < studentIds.length; i++) {
+            studentIds[i] = "S" + (i % studentCount);
+            examIds[i] = "E" + (i / studentCount);
+        }
+        int[] numbers = new int[studentIds.length];
+        manager.bookExams(studentIds, examIds, numbers);
+        manager.confirmBookings(numbers);
+        int[] graded = Arrays.copyOf(numbers, numbers.length - 7); // leave a few CONFIRMED
+        int[] grades = new int[graded.length];
+        for (int i = 0; i < grades.length; i++) {
+            grades[i] = (graded[i] * 31) % 101;
+        }
+        manager.setGrades(graded, grades);
+
+        ReportSnapshot snapshot = manager.snapshot();
+        GradeReport sequential = snapshot.analyze(new ForkJoinPool(1));
+        GradeReport parallel = snapshot.analyze(new ForkJoinPool(4));
+
+        assertEquals(sequential.getCourseAverages(), parallel.getCourseAverages());
+        assertEquals(sequential.getExamPassRates(50), parallel.getExamPassRates(50));
+        assertEquals(sequential.getStudentAverages(), parallel.getStudentAverages());
+        for (String courseId : Arrays.asList("C1", "C2")) {
+            GradeStatistics live = manager.getCourseStatistics(courseId);
+            GradeStatistics report = parallel.getCourseStatistics(courseId);
+            assertEquals(live.getCount(), report.getCount());
+            assertEquals(live.getSum(), report.getSum());
+            assertEquals(live.getFrequency(42), report.getFrequency(42));
+            assertEquals(live.getPassRate(50), parallel.getCoursePassRates(50).get(courseId), 0.0);
+        }
+        assertEquals(manager.getExamStatistics("E3").getAverage(), parallel.getExamAverages().get("E3"), 0.0);
+
+        Map<String, Integer> studentGrades = manager.getStudentGrades("S5");
+        double sum = 0;
+        for (int grade : studentGrades.values()) {
+            sum += grade;
+        }
+        assertEquals(studentGrades.size(), parallel.getStudentGradeCount("S5"));
+        assertEquals(sum / studentGrades.size(), parallel.getStudentAverage("S5"), 1e-9);
+        assertEquals(0, parallel.getStudentGradeCount("nobody"));
+    }
+
+    /**
+     * Waitlist Test: Verifies a full course queues students first come, first served, promotes the first one
+     * when a seat frees up, and publishes the drop and the promotion as events.
+     */
+    @Test
+    public void testWaitlistPromotesInArrivalOrder() throws Exception {
+        manager.addCourse("C1", 10);
+        manager.addExam("C1", "E1", "loc1");
+        for (int i = 0; i < 10; i++) {
+            manager.enrollStudent("S" + i, "C1");
+        }
+        manager.enrollStudent("W1");
+        manager.enrollStudent("W2");
+        manager.enrollStudent("W3");
+        assertEquals(ResultCode.COURSE_FULL, manager.tryEnrollStudent("W4", "C1"));
+        assertEquals(ResultCode.WAITLISTED, manager.tryJoinWaitlist("W1", "C1"));
+        assertEquals(ResultCode.WAITLISTED, manager.tryJoinWaitlist("W2", "C1"));
+        assertEquals(ResultCode.WAITLISTED, manager.tryJoinWaitlist("W3", "C1"));
+        assertEquals(ResultCode.WAITLISTED, manager.tryJoinWaitlist("W1", "C1")); // keeps its place
+        assertEquals(ResultCode.ALREADY_ENROLLED, manager.tryJoinWaitlist("S1", "C1"));
+        assertEquals(ResultCode.UNKNOWN_STUDENT, manager.tryJoinWaitlist("W9", "C1"));
+        assertEquals(Arrays.asList("W1", "W2", "W3"), manager.getWaitlist("C1"));
+
+        assertEquals(ResultCode.OK, manager.tryDropCourse("W2", "C1")); // leaves the waitlist
+        manager.bookExam("S1", "E1");
+        assertEquals(ResultCode.ALREADY_BOOKED, manager.tryDropCourse("S1", "C1"));
+        assertEquals(ResultCode.NOT_ENROLLED, manager.tryDropCourse("W2", "C1"));
+
+        EventSubscription subscription = manager.subscribe();
+        manager.dropCourse("S0", "C1");
+        assertEquals(10, manager.getEnrolledStudents("C1").size());
+        assertTrue(manager.getEnrolledStudents("C1").contains("W1"));
+        assertFalse(manager.getEnrolledStudents("C1").contains("S0"));
+        assertEquals(Arrays.asList("W3"), manager.getWaitlist("C1"));
+        assertEquals(ResultCode.NOT_ENROLLED, ResultCode.decode(manager.tryBookExam("S0", "E1")));
+        assertTrue(manager.bookExam("W1", "E1") > 0);
+
+        List<ChangeEvent> events = new ArrayList<>();
+        subscription.poll(events, 100);
+        assertEquals(ChangeEvent.Type.COURSE_DROPPED, events.get(0).getType());
+        assertEquals("S0", events.get(0).getStudentId());
+        assertEquals(ChangeEvent.Type.COURSE_ENROLLED, events.get(1).getType());
+        assertEquals("W1", events.get(1).getStudentId());
+        assertEquals(Arrays.asList("C1"), events.get(1).getCourseIds());
+        subscription.close();
+
+        manager.dropCourse("W3", "C1");
+        manager.dropCourse("S2", "C1");
+        assertTrue(manager.joinWaitlist("S0", "C1")); // a seat is free, so no waiting
+        assertEquals(Arrays.asList(), manager.getWaitlist("C1"));
+    }
+
+    /**
+     * Unregister Test: Verifies only a student who holds no course, waitlist place or booking can be removed,
+     * and that the ID can then be registered again.
+     */
+    @Test
+    public void testUnregisterStudent() throws Exception {
+        manager.addCourse("C1", 10);
+        manager.addExam("C1", "E1", "loc1");
+        for (int i = 0; i < 10; i++) {
+            manager.enrollStudent("S" + i, "C1");
+        }
+        manager.enrollStudent("W1");
+        manager.joinWaitlist("W1", "C1");
+        manager.bookExam("S1", "E1");
+
+        assertEquals(ResultCode.UNKNOWN_STUDENT, manager.tryUnregisterStudent("S99"));
+        assertEquals(ResultCode.ALREADY_ENROLLED, manager.tryUnregisterStudent("S0"));
+        assertEquals(ResultCode.ALREADY_ENROLLED, manager.tryUnregisterStudent("W1"));
+
+        manager.dropCourse("S0", "C1"); // promotes W1
+        assertEquals(ResultCode.ALREADY_ENROLLED, manager.tryUnregisterStudent("W1"));
+        assertEquals(ResultCode.OK, manager.tryUnregisterStudent("S0"));
+        assertFalse(manager.isRegistered("S0"));
+        assertEquals(ResultCode.UNKNOWN_STUDENT, manager.tryJoinWaitlist("S0", "C1"));
+        assertEquals(ResultCode.COURSE_FULL, manager.tryEnrollStudent("S0", "C1"));
+        assertEquals(ResultCode.OK, manager.tryEnrollStudent("S0"));
+
+        // Leaving the last waitlist makes the student removable again
+        manager.enrollStudent("W2");
+        manager.joinWaitlist("W2", "C1");
+        assertEquals(ResultCode.ALREADY_ENROLLED, manager.tryUnregisterStudent("W2"));
+        manager.dropCourse("W2", "C1");
+        assertEquals(ResultCode.OK, manager.tryUnregisterStudent("W2"));
+    }
+
+    /**
+     * Seats Test: Verifies an exam with a room capacity turns away bookings once every seat is reserved,
+     * and that confirmed bookings get the lowest free seat, one at a time or in a batch.
+     */
+    @Test
+    public void testExamSeats() throws Exception {
+        manager.addCourse("C1", 10);
+        manager.addExam("C1", "E1", "Small room", 3);
+        manager.addExam("C1", "E2", "Hall");
+        assertEquals(ResultCode.INVALID_CAPACITY, manager.tryAddExam("C1", "E3", "loc", -1));
+        assertEquals(ResultCode.INVALID_CAPACITY, manager.tryAddExam("C1", "E3", "loc", CourseManager.MAX_EXAM_SEATS + 1));
+        for (int i = 0; i < 5; i++) {
+            manager.enrollStudent("S" + i, "C1");
+        }
+        int b1 = manager.bookExam("S0", "E1");
+        int b2 = manager.bookExam("S1", "E1");
+        int b3 = manager.bookExam("S2", "E1");
+        assertEquals(0, manager.getFreeSeats("E1"));
+        assertEquals(-1, manager.getFreeSeats("E2"));
+        assertEquals(ResultCode.EXAM_FULL, ResultCode.decode(manager.tryBookExam("S3", "E1")));
+        assertEquals(ResultCode.ALREADY_BOOKED, ResultCode.decode(manager.tryBookExam("S0", "E1")));
+        try {
+            manager.bookExam("S3", "E1");
+            fail("Expected an exception for a full exam.");
+        } catch (Exception e) {
+            assertEquals("Exam E1 has no free seats.", e.getMessage());
+        }
+
+        assertEquals(0, manager.getSeat(b2));
+        manager.confirmBooking(b2);
+        ResultCode[] results = manager.confirmBookings(new int[]{b3, 999, b1, b3});
+        assertArrayEquals(new ResultCode[]{ResultCode.OK, ResultCode.UNKNOWN_BOOKING, ResultCode.OK,
+                ResultCode.NOT_PENDING}, results);
+        assertEquals(1, manager.getSeat(b2));
+        assertEquals(2, manager.getSeat(b3));
+        assertEquals(3, manager.getSeat(b1));
+        manager.setGrade(b1, 70);
+        assertEquals(3, manager.getSeat(b1)); // grading keeps the seat
+        assertEquals(70, (int) manager.getStudentGrades("S0").get("E1"));
+
+        Map<Integer, Integer> seatMap = new LinkedHashMap<>();
+        seatMap.put(1, b2);
+        seatMap.put(2, b3);
+        seatMap.put(3, b1);
+        assertEquals(seatMap, manager.getSeatMap("E1"));
+        int open = manager.bookExam("S3", "E2");
+        manager.confirmBooking(open);
+        assertEquals(0, manager.getSeat(open));
+        assertTrue(manager.getSeatMap("E2").isEmpty());
+    }
+
+    /**
+     * Timetable Test: Verifies a student cannot book two exams at overlapping times, two exams cannot share
+     * a location at overlapping times, and checkTimetable finds both kinds of clash in a proposed schedule.
+     */
+    @Test
+    public void testExamTimeSlots() throws Exception {
+        long hour = 3_600_000;
+        TimeSlot nineToEleven = new TimeSlot(9 * hour, 11 * hour);
+        TimeSlot tenToNoon = new TimeSlot(10 * hour, 12 * hour);
+        TimeSlot elevenToOne = new TimeSlot(11 * hour, 13 * hour);
+        manager.addCourse("C1", 10);
+        manager.addCourse("C2", 10);
+        manager.addExam("C1", "E1", "Hall", 0, nineToEleven);
+        manager.addExam("C2", "E2", "Lab", 0, tenToNoon);
+        manager.addExam("C2", "E3", "Hall", 0, elevenToOne); // starts as E1 ends
+        manager.addExam("C2", "E4", "Hall");                 // not scheduled
+        assertEquals(ResultCode.ROOM_CONFLICT, manager.tryAddExam("C1", "E5", "Lab", 0, nineToEleven));
+        try {
+            manager.addExam("C1", "E5", "Hall", 0, tenToNoon);
+            fail("Expected an exception for a taken room.");
+        } catch (Exception e) {
+            assertTrue(e.getMessage().startsWith("Location Hall is already taken"));
+        }
+        try {
+            new TimeSlot(10 * hour, 10 * hour);
+            fail("Expected an exception for an empty time slot.");
+        } catch (IllegalArgumentException e) {
+            assertEquals("A time slot must end after it starts.", e.getMessage());
+        }
+
+        manager.enrollStudent("S1", "C1", "C2");
+        manager.enrollStudent("S2", "C1", "C2");
+        manager.enrollStudent("S3", "C2");
+        manager.bookExam("S1", "E1");
+        assertEquals(ResultCode.TIME_CONFLICT, ResultCode.decode(manager.tryBookExam("S1", "E2")));
+        assertTrue(manager.bookExam("S1", "E3") > 0);
+        assertTrue(manager.bookExam("S1", "E4") > 0);
+        manager.bookExam("S2", "E2");
+        try {
+            manager.bookExam("S2", "E1");
+            fail("Expected an exception for a clash.");
+        } catch (Exception e) {
+            assertEquals("Student S2 has another exam at the time of exam E1.", e.getMessage());
+        }
+        assertTrue(manager.bookExam("S3", "E2") > 0);
+
+        // E1 and E2 overlap for the two students enrolled in both courses, E2 and E3 for all three
+        List<TimetableConflict> conflicts = manager.checkTimetable();
+        assertEquals(2, conflicts.size());
+        assertEquals(TimetableConflict.Type.STUDENT, conflicts.get(0).getType());
+        assertEquals("E1", conflicts.get(0).getFirstExamId());
+        assertEquals("E2", conflicts.get(0).getSecondExamId());
+        assertEquals(2, conflicts.get(0).getStudents());
+        assertEquals("E3", conflicts.get(1).getSecondExamId());
+        assertEquals(3, conflicts.get(1).getStudents());
+
+        // Moving E2 to the afternoon clears both; scheduling E4 over E3 clashes in the Hall and for all three
+        Map<String, TimeSlot> proposal = new LinkedHashMap<>();
+        proposal.put("E2", new TimeSlot(13 * hour, 15 * hour));
+        proposal.put("E4", new TimeSlot(12 * hour, 14 * hour));
+        conflicts = manager.checkTimetable(proposal);
+        assertEquals(Arrays.asList("ROOM E3 E4", "STUDENT E2 E4", "STUDENT E3 E4"), conflicts.stream()
+                .map(c -> c.getType() + " " + c.getFirstExamId() + " " + c.getSecondExamId())
+                .collect(Collectors.toList()));
+        assertEquals("Hall", conflicts.get(0).getLocation());
+        assertEquals(3, conflicts.get(1).getStudents());
+        assertEquals(nineToEleven, manager.getExamTimeSlot("E1"));
+    }
 }
@@ -0,0 +1,382 @@
+package courseManagement;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Method;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * A lightweight HTTP/JSON front-end for a CourseManager, built on the JDK's com.sun.net.httpserver.
+ * Parameters are passed in the query string or as a form-encoded POST body; every response is a JSON object.
+ * Each request runs on its own virtual thread on JDK 21 and later, and on a fixed pool of platform threads
+ * before that.
+ *
+ * <pre>
+ * POST /courses                  courseId, maxStudents          R1 addCourse
+ * POST /students                 studentId, courseId (repeated) R1 enrollStudent
+ * GET  /students/{id}                                           isRegistered
+ * POST /students/{id}/unregister                                unregisterStudent
+ * GET  /courses/{id}/students    [after, limit]                 R1 getEnrolledStudents
+ * POST /courses/{id}/waitlist    studentId                      joinWaitlist
+ * GET  /courses/{id}/waitlist                                   getWaitlist
+ * POST /courses/{id}/drop        studentId                      dropCourse
+ * POST /exams                    courseId, examId, location,    R2 addExam
+ *                                [seats], [start, end]
+ * GET  /exams                    [after, limit]                 R2 getExamsByCourse
+ * GET  /exams/{id}/seats                                        getSeatMap
+ * POST /bookings                 studentId, examId              R3 bookExam
+ * POST /bookings/{n}/confirm                                    R3 confirmBooking
+ * GET  /bookings                 status, [after, limit]         R3/R4 getConfirmedBookings, getCompletedBookings
+ * POST /bookings/{n}/grade       grade                          R4 setGrade
+ * GET  /students/{id}/grades                                    R5 getStudentGrades
+ * GET  /averages                                                R5 getCourseAverage
+ * </pre>
+ *
+ * A rejected operation returns its ResultCode, e.g. {"result":"ALREADY_BOOKED"}, with status 404 for an
+ * unknown ID, 400 for an invalid value and 409 for any other conflict. Joining the waitlist of a full course
+ * returns {"result":"WAITLISTED"} with status 202.
+ * <p>
+ * Run the JVM with {@code -Dsun.net.httpserver.nodelay=true}. Without TCP_NODELAY each small response waits
+ * for the client's delayed ACK, about 40 ms on Linux. {@link #main} and {@link LoadGenerator} set it for their
+ * own process; an application that embeds the server passes the flag itself.
+ */
+public class CourseServer implements AutoCloseable {
+    // Platform threads used when virtual threads are not available. Durable calls wait for the journal,
+    // so the pool is much larger than the number of cores
+    private static final int PLATFORM_THREADS = 64;
+
+    private final CourseManager manager;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Constructor for the CourseServer class. Call {@link #start()} to accept requests.
+     * @param manager The manager to serve.
+     * @param address The address to listen on; port 0 picks a free port.
+     * @throws IOException if the address cannot be bound.
+     */
+    public CourseServer(CourseManager manager, InetSocketAddress address) throws IOException {
+        this.manager = manager;
+        this.server = HttpServer.create(address, 0);
+        this.executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/", this::handle);
+    }
+
+    /**
+     * Starts accepting requests in the background.
+     */
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return The port the server listens on.
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops accepting requests, waits up to a second for running ones, and shuts down the request threads.
+     * The manager is left open.
+     */
+    @Override
+    public void close() {
+        server.stop(1);
+        executor.shutdown();
+    }
+
+    /**
+     * Runs a server until the process is stopped.
+     * @param args [port [directory]]: the port (default 8080), and a directory to open a durable manager in
+     *             (default in-memory).
+     * @throws IOException if the port cannot be bound or the directory cannot be opened.
+     */
+    public static void main(String[] args) throws IOException {
+        enableNoDelay();
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        CourseManager manager = args.length > 1
+                ? CourseManager.open(Path.of(args[1]), Journal.Durability.SYNC) : new CourseManager();
+        CourseServer server = new CourseServer(manager, new InetSocketAddress(port));
+        server.start();
+        System.out.println("Serving on port " + server.getPort());
+    }
+
+    /**
+     * Turns on TCP_NODELAY for servers this process creates, unless the sun.net.httpserver.nodelay flag was
+     * given. The JDK server reads the flag once, so this must run before the first server is created.
+     * Called only from main methods, which own their process.
+     */
+    static void enableNoDelay() {
+        if (System.getProperty("sun.net.httpserver.nodelay") == null) {
+            System.setProperty("sun.net.httpserver.nodelay", "true");
+        }
+    }
+
+    /**
+     * @return A virtual-thread-per-task executor on JDK 21 and later, otherwise a fixed pool of daemon threads.
+     */
+    static ExecutorService newRequestExecutor() {
+        try {
+            Method factory = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return Executors.newFixedThreadPool(PLATFORM_THREADS, task -> {
+                Thread thread = new Thread(task, "course-server");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        try {
+            Map<String, List<String>> params = parameters(exchange);
+            String[] path = exchange.getRequestURI().getPath().replaceAll("^/+|/+$", "").split("/+");
+            boolean post = "POST".equals(exchange.getRequestMethod());
+            if (!post && !"GET".equals(exchange.getRequestMethod())) {
+                respond(exchange, 405, Map.of("error", "Method not allowed."));
+                return;
+            }
+            route(exchange, post, path, params);
+        } catch (IllegalArgumentException e) {
+            respond(exchange, 400, Map.of("error", String.valueOf(e.getMessage())));
+        } catch (RuntimeException e) {
+            respond(exchange, 500, Map.of("error", String.valueOf(e)));
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void route(HttpExchange exchange, boolean post, String[] path,
+                       Map<String, List<String>> params) throws IOException {
+        String resource = path[0];
+        if (post && path.length == 1) {
+            switch (resource) {
+                case "courses":
+                    respond(exchange, manager.tryAddCourse(required(params, "courseId"),
+                            number(params, "maxStudents")));
+                    return;
+                case "students":
+                    List<String> courseIds = params.getOrDefault("courseId", List.of());
+                    respond(exchange, manager.tryEnrollStudent(required(params, "studentId"),
+                            courseIds.toArray(new String[0])));
+                    return;
+                case "exams":
+                    String seats = optional(params, "seats");
+                    respond(exchange, manager.tryAddExam(required(params, "courseId"), required(params, "examId"),
+                            required(params, "location"), seats != null ? number(seats, "seats") : 0,
+                            timeSlot(params)));
+                    return;
+                case "bookings":
+                    int result = manager.tryBookExam(required(params, "studentId"), required(params, "examId"));
+                    Map<String, Object> body = new LinkedHashMap<>();
+                    body.put("result", ResultCode.decode(result));
+                    if (result > 0) {
+                        body.put("bookingNumber", result);
+                    }
+                    respond(exchange, statusOf(ResultCode.decode(result)), body);
+                    return;
+                default:
+                    break;
+            }
+        } else if (post && path.length == 3 && resource.equals("courses")) {
+            if (path[2].equals("waitlist")) {
+                respond(exchange, manager.tryJoinWaitlist(required(params, "studentId"), path[1]));
+                return;
+            }
+            if (path[2].equals("drop")) {
+                respond(exchange, manager.tryDropCourse(required(params, "studentId"), path[1]));
+                return;
+            }
+        } else if (post && path.length == 3 && resource.equals("students") && path[2].equals("unregister")) {
+            respond(exchange, manager.tryUnregisterStudent(path[1]));
+            return;
+        } else if (post && path.length == 3 && resource.equals("bookings")) {
+            int bookingNumber = number(path[1], "booking number");
+            if (path[2].equals("confirm")) {
+                respond(exchange, manager.tryConfirmBooking(bookingNumber));
+                return;
+            }
+            if (path[2].equals("grade")) {
+                respond(exchange, manager.trySetGrade(bookingNumber, number(params, "grade")));
+                return;
+            }
+        } else if (!post && path.length == 1) {
+            switch (resource) {
+                case "exams":
+                    respond(exchange, 200, params.containsKey("limit")
+                            ? manager.getExamsByCourse(optional(params, "after"), number(params, "limit"))
+                            : manager.getExamsByCourse());
+                    return;
+                case "bookings":
+                    respond(exchange, 200, bookings(params));
+                    return;
+                case "averages":
+                    respond(exchange, 200, manager.getCourseAverage());
+                    return;
+                default:
+                    break;
+            }
+        } else if (!post && path.length == 2 && resource.equals("students")) {
+            if (manager.isRegistered(path[1])) {
+                respond(exchange, 200, Map.of("studentId", path[1]));
+            } else {
+                respond(exchange, ResultCode.UNKNOWN_STUDENT);
+            }
+            return;
+        } else if (!post && path.length == 3 && resource.equals("courses") && path[2].equals("students")) {
+            respond(exchange, 200, params.containsKey("limit")
+                    ? manager.getEnrolledStudents(path[1], optional(params, "after"), number(params, "limit"))
+                    : manager.getEnrolledStudents(path[1]));
+            return;
+        } else if (!post && path.length == 3 && resource.equals("courses") && path[2].equals("waitlist")) {
+            respond(exchange, 200, manager.getWaitlist(path[1]));
+            return;
+        } else if (!post && path.length == 3 && resource.equals("exams") && path[2].equals("seats")) {
+            respond(exchange, 200, manager.getSeatMap(path[1]));
+            return;
+        } else if (!post && path.length == 3 && resource.equals("students") && path[2].equals("grades")) {
+            respond(exchange, 200, manager.getStudentGrades(path[1]));
+            return;
+        }
+        respond(exchange, 404, Map.of("error", "No such resource."));
+    }
+
+    /**
+     * Reads an exam's optional time slot from ISO-8601 start and end times, e.g. 2026-06-01T09:00:00Z.
+     */
+    private static TimeSlot timeSlot(Map<String, List<String>> params) {
+        String start = optional(params, "start");
+        if (start == null) {
+            return null;
+        }
+        try {
+            return new TimeSlot(Instant.parse(start).toEpochMilli(),
+                    Instant.parse(required(params, "end")).toEpochMilli());
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Parameters start and end must be ISO-8601 instants.");
+        }
+    }
+
+    private List<Integer> bookings(Map<String, List<String>> params) {
+        String status = required(params, "status");
+        boolean confirmed = status.equals(Booking.BookingStatus.CONFIRMED.name());
+        if (!confirmed && !status.equals(Booking.BookingStatus.COMPLETED.name())) {
+            throw new IllegalArgumentException("Status must be CONFIRMED or COMPLETED.");
+        }
+        if (!params.containsKey("limit")) {
+            return confirmed ? manager.getConfirmedBookings() : manager.getCompletedBookings();
+        }
+        String after = optional(params, "after");
+        int afterBookingNumber = after != null ? number(after, "after") : 0;
+        int limit = number(params, "limit");
+        return confirmed ? manager.getConfirmedBookings(afterBookingNumber, limit)
+                : manager.getCompletedBookings(afterBookingNumber, limit);
+    }
+
+    /**
+     * Maps a ResultCode to an HTTP status: 200 for OK, 202 for WAITLISTED, 404 for an unknown ID,
+     * 400 for an invalid value and 409 for any other rejection.
+     */
+    static int statusOf(ResultCode result) {
+        switch (result) {
+            case OK:
+                return 200;
+            case WAITLISTED:
+                return 202;
+            case UNKNOWN_COURSE:
+            case UNKNOWN_STUDENT:
+            case UNKNOWN_EXAM:
+            case UNKNOWN_BOOKING:
+                return 404;
+            case INVALID_CAPACITY:
+            case INVALID_GRADE:
+                return 400;
+            default:
+                return 409;
+        }
+    }
+
+    private static void respond(HttpExchange exchange, ResultCode result) throws IOException {
+        respond(exchange, statusOf(result), Map.of("result", result));
+    }
+
+    private static void respond(HttpExchange exchange, int status, Object body) throws IOException {
+        byte[] bytes = Json.write(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    /**
+     * Collects the query string parameters and, for a form-encoded POST, the body parameters.
+     */
+    private static Map<String, List<String>> parameters(HttpExchange exchange) throws IOException {
+        Map<String, List<String>> params = new HashMap<>();
+        parse(exchange.getRequestURI().getRawQuery(), params);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (contentType != null && contentType.startsWith("application/x-www-form-urlencoded")) {
+            try (InputStream in = exchange.getRequestBody()) {
+                parse(new String(in.readAllBytes(), StandardCharsets.UTF_8), params);
+            }
+        }
+        return params;
+    }
+
+    private static void parse(String encoded, Map<String, List<String>> params) {
+        if (encoded == null || encoded.isEmpty()) {
+            return;
+        }
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = URLDecoder.decode(equals < 0 ? pair : pair.substring(0, equals), StandardCharsets.UTF_8);
+            String value = equals < 0 ? "" : URLDecoder.decode(pair.substring(equals + 1), StandardCharsets.UTF_8);
+            params.computeIfAbsent(name, k -> new ArrayList<>()).add(value);
+        }
+    }
+
+    private static String optional(Map<String, List<String>> params, String name) {
+        List<String> values = params.get(name);
+        return values != null && !values.isEmpty() ? values.get(0) : null;
+    }
+
+    private static String required(Map<String, List<String>> params, String name) {
+        String value = optional(params, name);
+        if (value == null || value.isEmpty()) {
+            throw new IllegalArgumentException("Missing parameter " + name + ".");
+        }
+        return value;
+    }
+
+    private static int number(Map<String, List<String>> params, String name) {
+        return number(required(params, name), name);
+    }
+
+    private static int number(String value, String name) {
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Parameter " + name + " must be an integer.");
+        }
+    }
+}
@@ -0,0 +1,113 @@
+package courseManagement;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+
+
+/**
+ * End-to-end tests of the HTTP front-end and the load generator against a local server.
+ */
+public class CourseServerTest {
+
+    private CourseManager manager;
+    private CourseServer server;
+    private HttpClient client;
+
+    @Before
+    public void setUp() throws Exception {
+        manager = new CourseManager();
+        server = new CourseServer(manager, new InetSocketAddress("127.0.0.1", 0));
+        server.start();
+        client = HttpClient.newHttpClient();
+    }
+
+    @After
+    public void tearDown() {
+        server.close();
+    }
+
+    private HttpResponse<String> post(String pathAndQuery) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(pathAndQuery)).POST(HttpRequest.BodyPublishers.noBody()).build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private HttpResponse<String> get(String pathAndQuery) throws Exception {
+        return client.send(HttpRequest.newBuilder(uri(pathAndQuery)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+    }
+
+    private URI uri(String pathAndQuery) {
+        return URI.create("http://127.0.0.1:" + server.getPort() + pathAndQuery);
+    }
+
+    /**
+     * Server Test: Verifies the R1-R5 operations round-trip through HTTP with JSON responses.
+     */
+    @Test
+    public void testOperationsOverHttp() throws Exception {
+        assertEquals(200, post("/courses?courseId=C1&maxStudents=10").statusCode());
+        assertEquals(200, post("/students?studentId=S1&courseId=C1").statusCode());
+        assertEquals(200, post("/exams?courseId=C1&examId=E1&location=Hall%201").statusCode());
+        HttpResponse<String> booked = post("/bookings?studentId=S1&examId=E1");
+        assertEquals(200, booked.statusCode());
+        assertEquals("{\"result\":\"OK\",\"bookingNumber\":1}", booked.body());
+        assertEquals(200, post("/bookings/1/confirm").statusCode());
+        assertEquals(200, post("/bookings/1/grade?grade=75").statusCode());
+
+        assertEquals("[\"S1\"]", get("/courses/C1/students").body());
+        assertEquals("{\"C1\":[\"E1\"]}", get("/exams").body());
+        assertEquals("[1]", get("/bookings?status=COMPLETED").body());
+        assertEquals("[]", get("/bookings?status=CONFIRMED&after=0&limit=10").body());
+        assertEquals("{\"E1\":75}", get("/students/S1/grades").body());
+        assertEquals("{\"C1\":75.0}", get("/averages").body());
+        assertEquals(75, manager.getStudentGrades("S1").get("E1").intValue());
+    }
+
+    /**
+     * Server Test: Verifies rejections map to HTTP statuses and carry their ResultCode.
+     */
+    @Test
+    public void testRejectionsOverHttp() throws Exception {
+        post("/courses?courseId=C1&maxStudents=10");
+        HttpResponse<String> duplicate = post("/courses?courseId=C1&maxStudents=10");
+        assertEquals(409, duplicate.statusCode());
+        assertEquals("{\"result\":\"COURSE_EXISTS\"}", duplicate.body());
+        assertEquals(400, post("/courses?courseId=C2&maxStudents=5").statusCode());
+        assertEquals(404, post("/bookings/42/confirm").statusCode());
+        assertEquals(400, post("/bookings/x/confirm").statusCode());
+        assertEquals(400, post("/courses?maxStudents=10").statusCode());
+        assertEquals(400, get("/bookings?status=PENDING").statusCode());
+        assertEquals(404, get("/nothing").statusCode());
+
+        post("/students?studentId=S1&courseId=C1");
+        post("/students?studentId=S2");
+        RemoteShard shard = new RemoteShard(uri("/"));
+        assertEquals(ResultCode.ALREADY_ENROLLED, shard.tryUnregisterStudent("S1"));
+        assertEquals(ResultCode.OK, shard.tryUnregisterStudent("S2"));
+        assertEquals(404, post("/students/S2/unregister").statusCode());
+    }
+
+    /**
+     * Load Generator Test: Verifies a short closed-loop run completes every step without errors.
+     */
+    @Test
+    public void testLoadGenerator() throws Exception {
+        LoadGenerator.Report report = new LoadGenerator(uri("/")).run(2, Duration.ofMillis(500));
+        assertEquals(0, report.getErrors());
+        assertTrue(report.getRequests() > 0);
+        long bookings = report.getLatencies(LoadGenerator.Operation.BOOK_EXAM).getCount();
+        assertTrue(bookings > 0);
+        assertEquals(bookings, manager.getCompletedBookings().size());
+        assertTrue(report.getLatencies(LoadGenerator.Operation.SET_GRADE).getPercentile(99) > 0);
+        assertTrue(report.toString().contains("requests/s"));
+    }
+}
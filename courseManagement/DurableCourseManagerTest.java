@@ -0,0 +1,570 @@
+package courseManagement;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.AbstractQueuedSynchronizer;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * Tests that a manager opened on a directory recovers its state from the snapshot and journal.
+ */
+public class DurableCourseManagerTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    /**
+     * Adds two courses with two students and an exam each, and moves three bookings through the lifecycle.
+     */
+    private void populate(CourseManager manager) throws Exception {
+        manager.addCourse("CS101", 30);
+        manager.addCourse("CS102", 30);
+        manager.enrollStudent("S001", "CS101", "CS102");
+        manager.enrollStudent("S002", "CS101");
+        manager.addExam("CS101", "E1", "Room 1");
+        manager.addExam("CS102", "E2", "Room 2");
+        manager.bookExam("S001", "E1");                    // 1: completed
+        manager.bookExam("S002", "E1");                    // 2: confirmed
+        manager.bookExam("S001", "E2");                    // 3: pending
+        manager.confirmBooking(1);
+        manager.confirmBooking(2);
+        manager.setGrade(1, 85);
+    }
+
+    private void assertPopulated(CourseManager manager) {
+        assertEquals(Arrays.asList("S001", "S002"), manager.getEnrolledStudents("CS101"));
+        assertEquals(Arrays.asList("S001"), manager.getEnrolledStudents("CS102"));
+        assertEquals(Arrays.asList("E1"), manager.getExams("CS101"));
+        assertEquals(Arrays.asList(2), manager.getConfirmedBookings());
+        assertEquals(Arrays.asList(1), manager.getCompletedBookings());
+        assertEquals(Integer.valueOf(85), manager.getStudentGrades("S001").get("E1"));
+        assertEquals(85.0, manager.getCourseStatistics("CS101").getAverage(), 0.001);
+    }
+
+    /**
+     * Reopening replays the journal, and the booking sequence continues where it stopped.
+     */
+    @Test
+    public void testReopenReplaysJournal() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        populate(manager);
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertPopulated(reopened);
+        reopened.enrollStudent("S003", "CS101");
+        assertEquals(4, reopened.bookExam("S003", "E1"));
+        reopened.close();
+    }
+
+    /**
+     * Every item a batch applies is journaled, so a restart recovers the batch item by item.
+     */
+    @Test
+    public void testBatchesReplay() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        Map<String, Integer> newCourses = new LinkedHashMap<>();
+        newCourses.put("C1", 10);
+        newCourses.put("C2", 5);
+        manager.addCourses(newCourses);
+        manager.enrollStudent("S0", "C1");
+        Map<String, List<String>> enrollments = new LinkedHashMap<>();
+        for (int i = 1; i <= 10; i++) {
+            enrollments.put("S" + i, Arrays.asList("C1"));
+        }
+        Map<String, ResultCode> enrolled = manager.enrollStudents(enrollments);
+        assertEquals(ResultCode.COURSE_FULL, enrolled.get("S10"));
+        manager.addExam("C1", "E1", "loc1");
+        int[] numbers = new int[2];
+        manager.bookExams(new String[] {"S1", "S2"}, new String[] {"E1", "E1"}, numbers);
+        manager.confirmBookings(numbers);
+        manager.setGrades(numbers, new int[] {60, 80});
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(Arrays.asList("S0", "S1", "S2", "S3", "S4", "S5", "S6", "S7", "S8", "S9"),
+                reopened.getEnrolledStudents("C1"));
+        assertFalse(reopened.isRegistered("S10"));
+        assertEquals(ResultCode.COURSE_EXISTS, reopened.tryAddCourse("C1", 10));
+        assertEquals(ResultCode.OK, reopened.tryAddCourse("C2", 10));
+        assertEquals(Arrays.asList(1, 2), reopened.getCompletedBookings());
+        assertEquals(70.0, reopened.getCourseStatistics("C1").getAverage(), 0.001);
+        assertEquals(3, reopened.bookExam("S3", "E1"));
+        reopened.close();
+    }
+
+    /**
+     * Mutations made after a checkpoint are recovered on top of the snapshot, and old segments are deleted.
+     */
+    @Test
+    public void testCheckpointThenReopen() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.BATCHED);
+        populate(manager);
+        manager.checkpoint();
+        manager.enrollStudent("S003", "CS101", "CS102");
+        manager.bookExam("S003", "E2");                    // 4
+        manager.confirmBooking(3);
+        manager.close();
+
+        assertTrue(Files.exists(dir.resolve("snapshot.bin")));
+        assertEquals(1, segments(dir).size());
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(Arrays.asList("S001", "S003"), reopened.getEnrolledStudents("CS102"));
+        assertEquals(Arrays.asList(2, 3), reopened.getConfirmedBookings());
+        assertEquals(5, reopened.bookExam("S003", "E1"));
+        reopened.close();
+    }
+
+    /**
+     * A partially written record at the end of the journal is discarded and the valid prefix is kept.
+     */
+    @Test
+    public void testTornTailIsIgnored() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        populate(manager);
+        manager.close();
+
+        List<Path> segments = segments(dir);
+        Files.write(segments.get(segments.size() - 1), new byte[] {0, 0, 0, 40, 1, 2, 3},
+                StandardOpenOption.APPEND);
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertPopulated(reopened);
+        reopened.enrollStudent("S003", "CS101");
+        reopened.close();
+
+        // The record written after recovery must not be hidden behind the torn bytes
+        CourseManager again = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(Arrays.asList("S001", "S002", "S003"), again.getEnrolledStudents("CS101"));
+        again.close();
+    }
+
+    /**
+     * An unregistered student stays unregistered after replay, and a later registration of the same ID is kept.
+     */
+    @Test
+    public void testUnregisterSurvivesRecovery() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        populate(manager);
+        manager.enrollStudent("S003", "CS101");
+        manager.enrollStudent("S004", "CS101");
+        manager.dropCourse("S003", "CS101");
+        manager.unregisterStudent("S003");
+        manager.dropCourse("S004", "CS101");
+        manager.unregisterStudent("S004");
+        manager.enrollStudent("S004");
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertPopulated(reopened);
+        assertFalse(reopened.isRegistered("S003"));
+        assertTrue(reopened.isRegistered("S004"));
+        reopened.checkpoint();
+        reopened.close();
+
+        CourseManager again = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertFalse(again.isRegistered("S003"));
+        assertTrue(again.isRegistered("S004"));
+        assertEquals(ResultCode.NOT_ENROLLED, ResultCode.decode(again.tryBookExam("S004", "E1")));
+        again.close();
+    }
+
+    /**
+     * A checkpoint that captures a roster before the student on it is rolled back, by a drop and an
+     * unregistration, still completes, and recovery ends with the rollback applied.
+     */
+    @Test
+    public void testCheckpointDuringEnrollmentRollback() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        for (int c = 0; c < 10; c++) {
+            manager.addCourse("C" + c, 10);
+        }
+        List<Course> courses = new ArrayList<>(manager.courseValues());
+        Course first = courses.get(0);
+        Course last = courses.get(courses.size() - 1);
+        manager.enrollStudent("S1", first.getCourseId());
+
+        // Holding the last course stops the checkpoint after it has captured the first roster
+        last.lock();
+        Thread checkpoint;
+        Exception[] failure = new Exception[1];
+        try {
+            checkpoint = new Thread(() -> {
+                try {
+                    manager.checkpoint();
+                } catch (Exception e) {
+                    failure[0] = e;
+                }
+            });
+            checkpoint.start();
+            while (!(LockSupport.getBlocker(checkpoint) instanceof AbstractQueuedSynchronizer)) {
+                Thread.sleep(1);
+            }
+            assertEquals(ResultCode.OK, manager.tryDropCourse("S1", first.getCourseId()));
+            assertEquals(ResultCode.OK, manager.tryUnregisterStudent("S1"));
+        } finally {
+            last.unlock();
+        }
+        checkpoint.join();
+        assertNull(failure[0]);
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertFalse(reopened.isRegistered("S1"));
+        assertTrue(reopened.getEnrolledStudents(first.getCourseId()).isEmpty());
+        reopened.enrollStudent("S1", first.getCourseId());
+        reopened.close();
+    }
+
+    /**
+     * A durable manager with memory-mapped booking columns recovers the same state.
+     */
+    @Test
+    public void testColumnarBookingsReopen() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC, true);
+        populate(manager);
+        manager.checkpoint();
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC, true);
+        assertPopulated(reopened);
+        reopened.close();
+    }
+
+    /**
+     * Waitlists and promotions are recovered from the journal, and replaying drops over a snapshot that
+     * already contains them changes nothing.
+     */
+    @Test
+    public void testWaitlistReplay() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        manager.addCourse("CS101", 10);
+        for (int i = 0; i < 10; i++) {
+            manager.enrollStudent("S" + i, "CS101");
+        }
+        manager.enrollStudent("W1");
+        manager.enrollStudent("W2");
+        assertFalse(manager.joinWaitlist("W1", "CS101"));
+        manager.dropCourse("S0", "CS101");                  // W1 takes the seat
+        assertFalse(manager.joinWaitlist("S0", "CS101"));
+        manager.dropCourse("W1", "CS101");                  // S0 gets it back
+        assertFalse(manager.joinWaitlist("W2", "CS101"));
+        List<String> roster = manager.getEnrolledStudents("CS101");
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(roster, reopened.getEnrolledStudents("CS101"));
+        assertEquals(Arrays.asList("W2"), reopened.getWaitlist("CS101"));
+        // A snapshot taken while mutations continue can contain records that are replayed again.
+        // Here it contains all of them, and the replay starts at the first record
+        SnapshotFile.write(dir.resolve("snapshot.bin"), 1, reopened);
+        reopened.close();
+
+        CourseManager again = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(roster, again.getEnrolledStudents("CS101"));
+        assertEquals(Arrays.asList("W2"), again.getWaitlist("CS101"));
+        again.addExam("CS101", "E1", "Room 1");
+        assertEquals(ResultCode.NOT_ENROLLED, ResultCode.decode(again.tryBookExam("W1", "E1")));
+        assertEquals(1, again.bookExam("S0", "E1"));
+        assertEquals(ResultCode.ALREADY_ENROLLED, again.tryUnregisterStudent("W2"));
+        again.close();
+    }
+
+    private static List<Path> segments(Path dir) throws Exception {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.filter(p -> p.getFileName().toString().startsWith("journal-"))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    /**
+     * Seat reservations and assignments must survive a journal replay and a checkpoint.
+     */
+    @Test
+    public void testExamSeatsSurviveRecovery() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        manager.addCourse("CS101", 10);
+        manager.addExam("CS101", "E1", "Room 1", 3);
+        for (int i = 0; i < 4; i++) {
+            manager.enrollStudent("S" + i, "CS101");
+        }
+        int b1 = manager.bookExam("S0", "E1");
+        int b2 = manager.bookExam("S1", "E1");
+        manager.confirmBooking(b2);
+        manager.confirmBooking(b1);
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(1, reopened.getSeat(b2));
+        assertEquals(2, reopened.getSeat(b1));
+        assertEquals(1, reopened.getFreeSeats("E1"));
+        int b3 = reopened.bookExam("S2", "E1");
+        reopened.checkpoint();
+        reopened.close();
+
+        CourseManager again = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(ResultCode.EXAM_FULL, ResultCode.decode(again.tryBookExam("S3", "E1")));
+        again.confirmBooking(b3);
+        assertEquals(3, again.getSeat(b3));
+        assertEquals(2, again.getSeat(b1));
+        again.close();
+    }
+
+    /**
+     * Exam time slots and the room and student timetables built from them must survive a journal replay
+     * and a checkpoint.
+     */
+    @Test
+    public void testTimeSlotsSurviveRecovery() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        TimeSlot morning = new TimeSlot(1_000_000, 2_000_000);
+        TimeSlot overlapping = new TimeSlot(1_500_000, 2_500_000);
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        manager.addCourse("CS101", 10);
+        manager.addExam("CS101", "E1", "Room 1", 0, morning);
+        manager.addExam("CS101", "E2", "Room 2", 0, overlapping);
+        manager.enrollStudent("S1", "CS101");
+        manager.bookExam("S1", "E1");
+        manager.close();
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(morning, reopened.getExamTimeSlot("E1"));
+        assertEquals(ResultCode.TIME_CONFLICT, ResultCode.decode(reopened.tryBookExam("S1", "E2")));
+        assertEquals(ResultCode.ROOM_CONFLICT, reopened.tryAddExam("CS101", "E3", "Room 1", 0, overlapping));
+        reopened.checkpoint();
+        reopened.close();
+
+        CourseManager again = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(overlapping, again.getExamTimeSlot("E2"));
+        assertEquals(ResultCode.TIME_CONFLICT, ResultCode.decode(again.tryBookExam("S1", "E2")));
+        assertEquals(ResultCode.ROOM_CONFLICT, again.tryAddExam("CS101", "E3", "Room 1", 0, overlapping));
+        assertEquals(1, again.checkTimetable().size());
+        again.close();
+    }
+
+    /**
+     * A FileChannel that can be made to fail part-way through a write, leaving a torn record behind.
+     */
+    private static class FailingChannel extends FileChannel {
+        private final FileChannel delegate;
+        volatile boolean failWrites;
+
+        FailingChannel(FileChannel delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int write(ByteBuffer src) throws IOException {
+            if (failWrites) {
+                ByteBuffer half = src.duplicate();
+                half.limit(src.position() + src.remaining() / 2);
+                delegate.write(half);
+                throw new IOException("Disk full");
+            }
+            return delegate.write(src);
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            return delegate.read(dst);
+        }
+
+        @Override
+        public long read(ByteBuffer[] dsts, int offset, int length) throws IOException {
+            return delegate.read(dsts, offset, length);
+        }
+
+        @Override
+        public long write(ByteBuffer[] srcs, int offset, int length) throws IOException {
+            return delegate.write(srcs, offset, length);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return delegate.position();
+        }
+
+        @Override
+        public FileChannel position(long newPosition) throws IOException {
+            delegate.position(newPosition);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return delegate.size();
+        }
+
+        @Override
+        public FileChannel truncate(long size) throws IOException {
+            delegate.truncate(size);
+            return this;
+        }
+
+        @Override
+        public void force(boolean metaData) throws IOException {
+            delegate.force(metaData);
+        }
+
+        @Override
+        public long transferTo(long position, long count, WritableByteChannel target) throws IOException {
+            return delegate.transferTo(position, count, target);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel src, long position, long count) throws IOException {
+            return delegate.transferFrom(src, position, count);
+        }
+
+        @Override
+        public int read(ByteBuffer dst, long position) throws IOException {
+            return delegate.read(dst, position);
+        }
+
+        @Override
+        public int write(ByteBuffer src, long position) throws IOException {
+            return delegate.write(src, position);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode mode, long position, long size) throws IOException {
+            return delegate.map(mode, position, size);
+        }
+
+        @Override
+        public FileLock lock(long position, long size, boolean shared) throws IOException {
+            return delegate.lock(position, size, shared);
+        }
+
+        @Override
+        public FileLock tryLock(long position, long size, boolean shared) throws IOException {
+            return delegate.tryLock(position, size, shared);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            delegate.close();
+        }
+    }
+
+    /**
+     * A failed write stops the journal: the lost records are never reported durable, and later appends
+     * and syncs fail instead of writing past the torn record.
+     */
+    @Test
+    public void testFailedWriteStopsJournal() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        List<FailingChannel> channels = new ArrayList<>();
+        Journal journal = new Journal(dir, Journal.Durability.SYNC, 1) {
+            @Override
+            FileChannel openSegment(long startLsn) throws IOException {
+                FailingChannel channel = new FailingChannel(super.openSegment(startLsn));
+                channels.add(channel);
+                return channel;
+            }
+        };
+        journal.logAddCourse("CS101", 10);
+        journal.sync();
+
+        channels.get(0).failWrites = true;
+        long lost = journal.logAddCourse("CS102", 10);
+        assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(lost));
+
+        channels.get(0).failWrites = false;
+        assertThrows(UncheckedIOException.class, journal::sync);
+        assertThrows(UncheckedIOException.class, () -> journal.awaitDurable(lost));
+        assertThrows(UncheckedIOException.class, () -> journal.logAddCourse("CS103", 10));
+        assertThrows(IOException.class, journal::close);
+
+        // Only the record that was forced survives; the torn one is dropped on replay
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(ResultCode.COURSE_EXISTS, reopened.tryAddCourse("CS101", 10));
+        assertEquals(ResultCode.OK, reopened.tryAddCourse("CS102", 10));
+        reopened.close();
+    }
+
+    /**
+     * A booking whose journal record cannot be written gives back its seat and its booking number, so
+     * booking numbers stay sequential.
+     */
+    @Test
+    public void testFailedBookingLeavesNoGap() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        manager.addCourse("CS101", 10);
+        manager.addExam("CS101", "E1", "Room 1", 2);
+        manager.enrollStudent("S001", "CS101");
+        manager.enrollStudent("S002", "CS101");
+        assertEquals(1, manager.bookExam("S001", "E1"));
+        manager.close();
+
+        // The journal is closed, so the next record cannot be written
+        assertThrows(UncheckedIOException.class, () -> manager.tryBookExam("S002", "E1"));
+        assertEquals(2, manager.getNextBookingNumber());
+        assertEquals(1, manager.getFreeSeats("E1"));
+
+        CourseManager reopened = CourseManager.open(dir, Journal.Durability.SYNC);
+        assertEquals(2, reopened.bookExam("S002", "E1"));
+        assertEquals(0, reopened.getFreeSeats("E1"));
+        reopened.close();
+    }
+
+    /**
+     * A change whose journal record cannot be written publishes no event and leaves no gap in the event
+     * sequence, so subscribers go on to receive later events.
+     */
+    @Test
+    public void testFailedRecordDoesNotStallSubscribers() throws Exception {
+        Path dir = folder.getRoot().toPath();
+        CourseManager manager = CourseManager.open(dir, Journal.Durability.SYNC);
+        manager.addCourse("CS101", 10);
+        EventSubscription subscription = manager.subscribe();
+        // Longer than a journal string can hold, so the record is rejected without stopping the journal
+        String tooLong = "X".repeat(70_000);
+        assertThrows(UncheckedIOException.class, () -> manager.tryEnrollStudent(tooLong, "CS101"));
+        assertThrows(UncheckedIOException.class, () -> manager.tryAddExam("CS101", "E1", tooLong));
+        manager.enrollStudent("S001", "CS101");
+        manager.addExam("CS101", "E1", "Room 1");
+
+        List<ChangeEvent> events = new ArrayList<>();
+        assertEquals(2, subscription.poll(events, 100));
+        assertEquals(ChangeEvent.Type.STUDENT_ENROLLED, events.get(0).getType());
+        assertEquals(ChangeEvent.Type.EXAM_ADDED, events.get(1).getType());
+        assertEquals(Arrays.asList("S001"), manager.getEnrolledStudents("CS101"));
+        subscription.close();
+        manager.close();
+    }
+}
@@ -0,0 +1,71 @@
+package courseManagement;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded, lock-free ring of change events shared by all subscriptions of a CourseManager.
+ * Publishers claim a sequence number while they hold the lock that orders the change, and publish
+ * the event once the change is visible. Publishing never waits: when the ring is full the oldest
+ * events are overwritten, and a subscription that had not read them counts them as missed.
+ */
+class EventRing {
+    private final AtomicReferenceArray<ChangeEvent> slots;
+    private final int mask;
+    private final AtomicLong nextSequence = new AtomicLong();
+    private final AtomicInteger subscribers = new AtomicInteger();
+
+    /**
+     * Constructor for the EventRing class.
+     * @param capacity The number of events kept; rounded up to a power of two.
+     */
+    EventRing(int capacity) {
+        int size = Integer.highestOneBit(Math.max(1, capacity - 1)) << 1;
+        slots = new AtomicReferenceArray<>(size);
+        mask = size - 1;
+    }
+
+    int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Claims the sequence number of the next event. Every claimed number must be published, or subscribers
+     * stop at it, so claim only once the change can no longer fail, after its journal record is written.
+     * @return The sequence number, or -1 if nobody is subscribed and no event should be created.
+     */
+    long claim() {
+        return subscribers.get() > 0 ? nextSequence.getAndIncrement() : -1;
+    }
+
+    /**
+     * Stores an event in the slot of its sequence number.
+     * @param event The event, carrying a sequence number returned by {@link #claim()}.
+     */
+    void publish(ChangeEvent event) {
+        slots.setRelease((int) event.getSequence() & mask, event);
+    }
+
+    /**
+     * @return The sequence number the next claim will return.
+     */
+    long nextSequence() {
+        return nextSequence.get();
+    }
+
+    /**
+     * @return The event in the slot of a sequence number. It may be an older or newer event than the one asked for.
+     */
+    ChangeEvent get(long sequence) {
+        return slots.getAcquire((int) sequence & mask);
+    }
+
+    void addSubscriber() {
+        subscribers.incrementAndGet();
+    }
+
+    void removeSubscriber() {
+        subscribers.decrementAndGet();
+    }
+}
@@ -0,0 +1,108 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Consumer;
+
+/**
+ * A subscriber's position in a CourseManager's change events.
+ * Subscriptions are pull-based: the subscriber reads events in batches at its own pace with
+ * {@link #poll(List, int)}, or {@link CourseManager#subscribe(Consumer)} does so on a dedicated thread.
+ * A subscriber that falls more than the ring capacity behind loses the oldest events instead of slowing
+ * down the manager; {@link #getMissedEvents()} reports how many, so it can resynchronize with the
+ * paged queries.
+ */
+public class EventSubscription implements AutoCloseable {
+    static final int BATCH_SIZE = 256;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+
+    private final EventRing ring;
+    private long cursor;
+    private long missed;
+    private volatile boolean closed;
+    private volatile Thread worker;
+
+    /**
+     * Constructor for the EventSubscription class. The subscription receives events published from now on.
+     * @param ring The ring to read.
+     */
+    EventSubscription(EventRing ring) {
+        this.ring = ring;
+        ring.addSubscriber();
+        this.cursor = ring.nextSequence();
+    }
+
+    /**
+     * Moves up to maxEvents published events into a list, in sequence order. Never blocks.
+     * @param sink The list to add the events to.
+     * @param maxEvents The maximum number of events to move.
+     * @return The number of events added.
+     */
+    public synchronized int poll(List<? super ChangeEvent> sink, int maxEvents) {
+        int count = 0;
+        while (count < maxEvents && !closed) {
+            long oldest = ring.nextSequence() - ring.capacity();
+            if (cursor < oldest) {
+                missed += oldest - cursor;
+                cursor = oldest;
+            }
+            ChangeEvent event = ring.get(cursor);
+            if (event == null || event.getSequence() < cursor) {
+                break; // claimed but not yet published
+            }
+            if (event.getSequence() > cursor) {
+                continue; // overwritten since oldest was read; skip ahead
+            }
+            sink.add(event);
+            cursor++;
+            count++;
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of events that were overwritten before this subscription read them.
+     */
+    public synchronized long getMissedEvents() {
+        return missed;
+    }
+
+    /**
+     * Stops the subscription. A listener thread started by {@link CourseManager#subscribe(Consumer)} exits
+     * after its current batch.
+     */
+    @Override
+    public void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        ring.removeSubscriber();
+        Thread current = worker;
+        if (current != null && current != Thread.currentThread()) {
+            LockSupport.unpark(current);
+        }
+    }
+
+    /**
+     * Starts a daemon thread that delivers batches of events to a listener until the subscription is closed.
+     * @param listener Receives each non-empty batch, in sequence order.
+     */
+    void start(Consumer<List<ChangeEvent>> listener) {
+        worker = new Thread(() -> {
+            List<ChangeEvent> batch = new ArrayList<>();
+            while (!closed) {
+                if (poll(batch, BATCH_SIZE) == 0) {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                } else {
+                    listener.accept(batch);
+                    batch = new ArrayList<>(); // the listener may keep the batch
+                }
+            }
+        }, "event-subscriber");
+        worker.setDaemon(true);
+        worker.start();
+    }
+}
@@ -2,11 +2,18 @@ package courseManagement;
 
 /**
  * Represents an exam for a specific course.
+ * An exam registered with a room capacity has a {@link SeatMap}: bookings reserve seats and confirmed
+ * bookings are given seat numbers. An exam without one accepts any number of bookings.
+ * An exam with a {@link TimeSlot} cannot be booked by a student who has another exam at the same time.
  */
 public class Exam {
     private String examId;
     private String courseId;
     private String location;
+    private final int ordinal;
+    private final int courseOrdinal;
+    private final SeatMap seats; // null when the room has no capacity limit
+    private final TimeSlot timeSlot; // null when the exam is not scheduled
 
     /**
      * Constructor for the Exam class.
@@ -15,20 +22,68 @@ public class Exam {
      * @param location The location where the exam will be held.
      */
     public Exam(String examId, String courseId, String location) {
+        this(examId, courseId, location, 0, 0, 0, null);
+    }
+
+    /**
+     * Constructor for an exam registered with a CourseManager.
+     * @param examId The unique identifier for the exam.
+     * @param courseId The ID of the course this exam belongs to.
+     * @param location The location where the exam will be held.
+     * @param ordinal The interned exam ID.
+     * @param courseOrdinal The interned course ID.
+     * @param seats The room capacity, or 0 for no limit.
+     * @param timeSlot When the exam takes place, or null if it is not scheduled.
+     */
+    Exam(String examId, String courseId, String location, int ordinal, int courseOrdinal, int seats,
+         TimeSlot timeSlot) {
         this.examId = examId;
         this.courseId = courseId;
         this.location = location;
+        this.ordinal = ordinal;
+        this.courseOrdinal = courseOrdinal;
+        this.seats = seats > 0 ? new SeatMap(seats) : null;
+        this.timeSlot = timeSlot;
     }
 
     public String getExamId() {
         return examId;
     }
 
+    int getOrdinal() {
+        return ordinal;
+    }
+
     public String getCourseId() {
         return courseId;
     }
 
+    int getCourseOrdinal() {
+        return courseOrdinal;
+    }
+
     public String getLocation() {
         return location;
     }
-}
\ No newline at end of file
+
+    /**
+     * @return The number of seats in the exam room, or 0 if there is no limit.
+     */
+    public int getSeatCapacity() {
+        return seats != null ? seats.getCapacity() : 0;
+    }
+
+    /**
+     * @return When the exam takes place, or null if it is not scheduled.
+     */
+    public TimeSlot getTimeSlot() {
+        return timeSlot;
+    }
+
+    /**
+     * @return The seat map, or null if the room has no capacity limit.
+     */
+    SeatMap getSeats() {
+        return seats;
+    }
+}
@@ -0,0 +1,114 @@
+package courseManagement;
+
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Computes a {@link GradeReport} from a snapshot in one parallel pass over its COMPLETED bookings.
+ * The booking numbers are split into ranges aligned to status index segments; each range is scanned by a
+ * fork/join task that counts grades per exam, and the partial counts are added up as the tasks join.
+ * Per-student totals are added straight into a shared array. Everything is integer counting,
+ * so the result is the same for any pool size or split.
+ */
+class GradeAnalytics extends RecursiveTask<long[][]> {
+    private static final long serialVersionUID = 1L;
+    private static final int GRADES = GradeStatistics.MAX_GRADE - GradeStatistics.MIN_GRADE + 1;
+    // Each student's total is packed as (number of grades << 32 | sum of grades)
+    private static final long ONE_GRADE = 1L << 32;
+
+    private final StatusIndex.View statuses;
+    private final BookingStore bookings;
+    private final int examCount;
+    private final AtomicLongArray studentTotals;
+    private final int from;
+    private final int to;
+
+    private GradeAnalytics(StatusIndex.View statuses, BookingStore bookings, int examCount,
+                           AtomicLongArray studentTotals, int from, int to) {
+        this.statuses = statuses;
+        this.bookings = bookings;
+        this.examCount = examCount;
+        this.studentTotals = studentTotals;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Runs the analysis.
+     * @param pool The pool to run the scan in; its parallelism decides how many ranges are scanned at once.
+     * @param statuses The frozen status index of the snapshot.
+     * @param bookings The booking store.
+     * @param exams Maps exams to their courses.
+     * @param examOrdinals Resolves exam ordinals.
+     * @param studentOrdinals Resolves student ordinals.
+     * @return The report.
+     */
+    static GradeReport run(ForkJoinPool pool, StatusIndex.View statuses, BookingStore bookings,
+                           Map<String, Exam> exams, IdDictionary examOrdinals,
+                           IdDictionary studentOrdinals) {
+        // Ordinals are only ever added, so every ordinal in the snapshot is below the current sizes
+        int examCount = examOrdinals.size();
+        AtomicLongArray studentTotals = new AtomicLongArray(studentOrdinals.size());
+        long[][] histograms = pool.invoke(new GradeAnalytics(statuses, bookings, examCount, studentTotals,
+                0, statuses.limit(Booking.BookingStatus.COMPLETED)));
+        return new GradeReport(histograms, studentTotals, exams, examOrdinals, studentOrdinals);
+    }
+
+    @Override
+    protected long[][] compute() {
+        int segments = (int) (((long) to - from + StatusIndex.SEGMENT_SIZE - 1) / StatusIndex.SEGMENT_SIZE);
+        if (segments <= 1) {
+            return scan();
+        }
+        int middle = from + (segments / 2) * StatusIndex.SEGMENT_SIZE;
+        GradeAnalytics left = new GradeAnalytics(statuses, bookings, examCount, studentTotals, from, middle);
+        left.fork();
+        long[][] right = new GradeAnalytics(statuses, bookings, examCount, studentTotals, middle, to).compute();
+        return add(left.join(), right);
+    }
+
+    private long[][] scan() {
+        long[][] histograms = new long[examCount][];
+        for (int n = statuses.next(Booking.BookingStatus.COMPLETED, from); n >= 0 && n < to;
+             n = statuses.next(Booking.BookingStatus.COMPLETED, n + 1)) {
+            int grade = bookings.getGrade(n);
+            int exam = bookings.getExamOrdinal(n);
+            if (histograms[exam] == null) {
+                histograms[exam] = new long[GRADES];
+            }
+            histograms[exam][grade - GradeStatistics.MIN_GRADE]++;
+            studentTotals.getAndAdd(bookings.getStudentOrdinal(n), ONE_GRADE + grade);
+        }
+        return histograms;
+    }
+
+    /**
+     * Adds the counts of one partial result into another.
+     * @return The first partial result, now holding both.
+     */
+    private static long[][] add(long[][] into, long[][] from) {
+        for (int exam = 0; exam < into.length; exam++) {
+            if (from[exam] == null) {
+                continue;
+            }
+            if (into[exam] == null) {
+                into[exam] = from[exam];
+                continue;
+            }
+            for (int i = 0; i < GRADES; i++) {
+                into[exam][i] += from[exam][i];
+            }
+        }
+        return into;
+    }
+
+    static int gradeCount(long total) {
+        return (int) (total >>> 32);
+    }
+
+    static long gradeSum(long total) {
+        return total & 0xFFFF_FFFFL;
+    }
+}
@@ -0,0 +1,152 @@
+package courseManagement;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Term-end grade statistics computed from a {@link ReportSnapshot} by {@link ReportSnapshot#analyze()}:
+ * per-course and per-exam distributions, averages and pass rates, and per-student averages.
+ * A report is immutable, and identical for the same snapshot however many threads computed it.
+ */
+public class GradeReport {
+    private final Map<String, GradeStatistics> gradesByCourse = new HashMap<>();
+    private final Map<String, GradeStatistics> gradesByExam = new HashMap<>();
+    private final AtomicLongArray studentTotals;
+    private final IdDictionary studentOrdinals;
+
+    /**
+     * Constructor for the GradeReport class.
+     * @param histograms Grade counts indexed by exam ordinal and grade; null rows for ungraded exams.
+     * @param studentTotals Packed grade counts and sums indexed by student ordinal.
+     * @param exams Maps exams to their courses.
+     * @param examOrdinals Resolves exam ordinals.
+     * @param studentOrdinals Resolves student IDs to ordinals.
+     */
+    GradeReport(long[][] histograms, AtomicLongArray studentTotals, Map<String, Exam> exams,
+                IdDictionary examOrdinals, IdDictionary studentOrdinals) {
+        this.studentTotals = studentTotals;
+        this.studentOrdinals = studentOrdinals;
+        for (int exam = 0; exam < histograms.length; exam++) {
+            if (histograms[exam] == null) {
+                continue;
+            }
+            String examId = examOrdinals.idOf(exam);
+            GradeStatistics examStats = new GradeStatistics();
+            GradeStatistics courseStats = gradesByCourse.computeIfAbsent(exams.get(examId).getCourseId(),
+                    k -> new GradeStatistics());
+            for (int i = 0; i < histograms[exam].length; i++) {
+                examStats.record(i + GradeStatistics.MIN_GRADE, histograms[exam][i]);
+                courseStats.record(i + GradeStatistics.MIN_GRADE, histograms[exam][i]);
+            }
+            gradesByExam.put(examId, examStats);
+        }
+    }
+
+    /**
+     * @param courseId The ID of the course.
+     * @return A copy of the course's grade statistics (distribution, percentiles, pass rates), empty if no
+     *         exam of the course was graded.
+     */
+    public GradeStatistics getCourseStatistics(String courseId) {
+        GradeStatistics stats = gradesByCourse.get(courseId);
+        return stats != null ? new GradeStatistics(stats) : new GradeStatistics();
+    }
+
+    /**
+     * @param examId The ID of the exam.
+     * @return A copy of the exam's grade statistics, empty if it was not graded.
+     */
+    public GradeStatistics getExamStatistics(String examId) {
+        GradeStatistics stats = gradesByExam.get(examId);
+        return stats != null ? new GradeStatistics(stats) : new GradeStatistics();
+    }
+
+    /**
+     * @return A map with courseId as key and the average grade as value, for every graded course.
+     */
+    public Map<String, Double> getCourseAverages() {
+        return averages(gradesByCourse);
+    }
+
+    /**
+     * @return A map with examId as key and the average grade as value, for every graded exam.
+     */
+    public Map<String, Double> getExamAverages() {
+        return averages(gradesByExam);
+    }
+
+    /**
+     * @param passGrade The lowest passing grade (0-100).
+     * @return A map with courseId as key and the fraction of passing grades as value.
+     */
+    public Map<String, Double> getCoursePassRates(int passGrade) {
+        return passRates(gradesByCourse, passGrade);
+    }
+
+    /**
+     * @param passGrade The lowest passing grade (0-100).
+     * @return A map with examId as key and the fraction of passing grades as value.
+     */
+    public Map<String, Double> getExamPassRates(int passGrade) {
+        return passRates(gradesByExam, passGrade);
+    }
+
+    /**
+     * @param studentId The ID of the student.
+     * @return The number of graded exams of the student.
+     */
+    public int getStudentGradeCount(String studentId) {
+        int ordinal = studentOrdinals.ordinalOf(studentId);
+        return ordinal >= 0 && ordinal < studentTotals.length()
+                ? GradeAnalytics.gradeCount(studentTotals.get(ordinal)) : 0;
+    }
+
+    /**
+     * GPA-style rollup: the mean of all of a student's grades.
+     * @param studentId The ID of the student.
+     * @return The student's average grade, or 0.0 if the student has no grades.
+     */
+    public double getStudentAverage(String studentId) {
+        int ordinal = studentOrdinals.ordinalOf(studentId);
+        if (ordinal < 0 || ordinal >= studentTotals.length()) {
+            return 0.0;
+        }
+        return average(studentTotals.get(ordinal));
+    }
+
+    /**
+     * @return A map with studentId as key and the student's average grade as value, for every graded student.
+     */
+    public Map<String, Double> getStudentAverages() {
+        Map<String, Double> averages = new HashMap<>();
+        for (int ordinal = 0; ordinal < studentTotals.length(); ordinal++) {
+            long total = studentTotals.get(ordinal);
+            if (total != 0) {
+                averages.put(studentOrdinals.idOf(ordinal), average(total));
+            }
+        }
+        return averages;
+    }
+
+    private static double average(long total) {
+        int count = GradeAnalytics.gradeCount(total);
+        return count == 0 ? 0.0 : (double) GradeAnalytics.gradeSum(total) / count;
+    }
+
+    private static Map<String, Double> averages(Map<String, GradeStatistics> statistics) {
+        Map<String, Double> averages = new HashMap<>();
+        for (Map.Entry<String, GradeStatistics> e : statistics.entrySet()) {
+            averages.put(e.getKey(), e.getValue().getAverage());
+        }
+        return averages;
+    }
+
+    private static Map<String, Double> passRates(Map<String, GradeStatistics> statistics, int passGrade) {
+        Map<String, Double> rates = new HashMap<>();
+        for (Map.Entry<String, GradeStatistics> e : statistics.entrySet()) {
+            rates.put(e.getKey(), e.getValue().getPassRate(passGrade));
+        }
+        return rates;
+    }
+}
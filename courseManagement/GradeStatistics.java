@@ -0,0 +1,153 @@
+package courseManagement;
+
+/**
+ * Running grade aggregates for a course or an exam.
+ * Grades are bounded (0-100), so a full histogram doubles as an exact percentile sketch.
+ * Methods are synchronized because several exams of a course record into the same instance.
+ */
+public class GradeStatistics {
+    public static final int MIN_GRADE = 0;
+    public static final int MAX_GRADE = 100;
+
+    private long count;
+    private long sum;
+    private int min = Integer.MAX_VALUE;
+    private int max = Integer.MIN_VALUE;
+    private final long[] histogram = new long[MAX_GRADE - MIN_GRADE + 1];
+
+    public GradeStatistics() {
+    }
+
+    /**
+     * Copy constructor, used to hand out a point-in-time view of the aggregates.
+     * @param other The statistics to copy.
+     */
+    public GradeStatistics(GradeStatistics other) {
+        synchronized (other) {
+            copyFrom(other);
+        }
+    }
+
+    private void copyFrom(GradeStatistics other) {
+        this.count = other.count;
+        this.sum = other.sum;
+        this.min = other.min;
+        this.max = other.max;
+        System.arraycopy(other.histogram, 0, this.histogram, 0, histogram.length);
+    }
+
+    /**
+     * Adds a grade to the aggregates.
+     * @param grade The grade (0-100).
+     */
+    void record(int grade) {
+        record(grade, 1);
+    }
+
+    /**
+     * Adds a grade to the aggregates several times.
+     * @param grade The grade (0-100).
+     * @param times How many times to add it.
+     */
+    synchronized void record(int grade, long times) {
+        if (times == 0) {
+            return;
+        }
+        count += times;
+        sum += grade * times;
+        if (grade < min) {
+            min = grade;
+        }
+        if (grade > max) {
+            max = grade;
+        }
+        histogram[grade - MIN_GRADE] += times;
+    }
+
+    public synchronized long getCount() {
+        return count;
+    }
+
+    public synchronized long getSum() {
+        return sum;
+    }
+
+    /**
+     * @return The average grade, or 0.0 if no grades were recorded.
+     */
+    public synchronized double getAverage() {
+        return count == 0 ? 0.0 : (double) sum / count;
+    }
+
+    /**
+     * @return The lowest grade, or -1 if no grades were recorded.
+     */
+    public synchronized int getMin() {
+        return count == 0 ? -1 : min;
+    }
+
+    /**
+     * @return The highest grade, or -1 if no grades were recorded.
+     */
+    public synchronized int getMax() {
+        return count == 0 ? -1 : max;
+    }
+
+    /**
+     * Returns how many times a grade was recorded.
+     * @param grade The grade (0-100).
+     * @return The number of occurrences of the grade.
+     */
+    public synchronized long getFrequency(int grade) {
+        if (grade < MIN_GRADE || grade > MAX_GRADE) {
+            return 0;
+        }
+        return histogram[grade - MIN_GRADE];
+    }
+
+    /**
+     * Returns the grade at the given percentile (nearest-rank method).
+     * @param percentile The percentile (0-100).
+     * @return The grade at that percentile, or -1 if no grades were recorded.
+     */
+    public synchronized int getPercentile(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("Percentile must be between 0 and 100.");
+        }
+        if (count == 0) {
+            return -1;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * count));
+        long seen = 0;
+        for (int i = 0; i < histogram.length; i++) {
+            seen += histogram[i];
+            if (seen >= rank) {
+                return i + MIN_GRADE;
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Returns the fraction of recorded grades at or above a pass mark.
+     * @param passGrade The lowest passing grade (0-100).
+     * @return The pass rate between 0.0 and 1.0, or 0.0 if no grades were recorded.
+     */
+    public synchronized double getPassRate(int passGrade) {
+        if (count == 0) {
+            return 0.0;
+        }
+        long passed = 0;
+        for (int grade = Math.max(passGrade, MIN_GRADE); grade <= MAX_GRADE; grade++) {
+            passed += histogram[grade - MIN_GRADE];
+        }
+        return (double) passed / count;
+    }
+
+    /**
+     * @return The median grade, or -1 if no grades were recorded.
+     */
+    public int getMedian() {
+        return getPercentile(50);
+    }
+}
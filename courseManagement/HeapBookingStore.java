@@ -0,0 +1,146 @@
+package courseManagement;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Arrays;
+
+/**
+ * Keeps bookings on the heap in int columns indexed by booking number: student ordinal, exam ordinal,
+ * and a state word packing the status, grade and seat. The default store.
+ * Uses 12 bytes per booking in a handful of large arrays, instead of a Booking object and a map entry.
+ */
+class HeapBookingStore implements BookingStore {
+    private static final int CHUNK_SHIFT = 14;
+    private static final int CHUNK_MASK = (1 << CHUNK_SHIFT) - 1;
+
+    private static final VarHandle INT = MethodHandles.arrayElementVarHandle(int[].class);
+    private static final Booking.BookingStatus[] STATUSES = Booking.BookingStatus.values();
+
+    private final IdDictionary studentOrdinals;
+    private final IdDictionary examOrdinals;
+    private volatile Chunk[] chunks = new Chunk[0];
+
+    private static final class Chunk {
+        final int[] students = new int[1 << CHUNK_SHIFT];
+        final int[] exams = new int[1 << CHUNK_SHIFT];
+        final int[] states = new int[1 << CHUNK_SHIFT]; // 0 = no booking, else (status ordinal + 1) | (grade + 1) << 8 | seat << 16
+    }
+
+    /**
+     * Constructor for the HeapBookingStore class.
+     * @param studentOrdinals Resolves student ordinals.
+     * @param examOrdinals Resolves exam ordinals.
+     */
+    HeapBookingStore(IdDictionary studentOrdinals, IdDictionary examOrdinals) {
+        this.studentOrdinals = studentOrdinals;
+        this.examOrdinals = examOrdinals;
+    }
+
+    @Override
+    public void add(int bookingNumber, int studentOrdinal, int examOrdinal) {
+        Chunk chunk = chunkFor(bookingNumber);
+        int index = bookingNumber & CHUNK_MASK;
+        chunk.students[index] = studentOrdinal;
+        chunk.exams[index] = examOrdinal;
+        // Released after the other columns, so a reader that sees the state also sees them
+        INT.setRelease(chunk.states, index, state(Booking.BookingStatus.PENDING, -1));
+    }
+
+    @Override
+    public boolean contains(int bookingNumber) {
+        return bookingNumber > 0 && state(bookingNumber) != 0;
+    }
+
+    @Override
+    public String getStudentId(int bookingNumber) {
+        return studentOrdinals.idOf(getStudentOrdinal(bookingNumber));
+    }
+
+    @Override
+    public int getStudentOrdinal(int bookingNumber) {
+        return chunks[bookingNumber >>> CHUNK_SHIFT].students[bookingNumber & CHUNK_MASK];
+    }
+
+    @Override
+    public String getExamId(int bookingNumber) {
+        return examOrdinals.idOf(getExamOrdinal(bookingNumber));
+    }
+
+    @Override
+    public int getExamOrdinal(int bookingNumber) {
+        return chunks[bookingNumber >>> CHUNK_SHIFT].exams[bookingNumber & CHUNK_MASK];
+    }
+
+    @Override
+    public Booking.BookingStatus getStatus(int bookingNumber) {
+        return STATUSES[(state(bookingNumber) & 0xFF) - 1];
+    }
+
+    @Override
+    public int getGrade(int bookingNumber) {
+        return (state(bookingNumber) >>> 8 & 0xFF) - 1;
+    }
+
+    @Override
+    public int getSeat(int bookingNumber) {
+        return state(bookingNumber) >>> 16;
+    }
+
+    @Override
+    public void confirm(int bookingNumber, int seat) {
+        INT.setRelease(chunkFor(bookingNumber).states, bookingNumber & CHUNK_MASK,
+                state(Booking.BookingStatus.CONFIRMED, -1, seat));
+    }
+
+    @Override
+    public void complete(int bookingNumber, int grade) {
+        // Status, grade and seat share one word, so they change together
+        INT.setRelease(chunkFor(bookingNumber).states, bookingNumber & CHUNK_MASK,
+                state(Booking.BookingStatus.COMPLETED, grade, getSeat(bookingNumber)));
+    }
+
+    @Override
+    public void close() {
+    }
+
+    private static int state(Booking.BookingStatus status, int grade) {
+        return state(status, grade, 0);
+    }
+
+    private static int state(Booking.BookingStatus status, int grade, int seat) {
+        return (status.ordinal() + 1) | (grade + 1) << 8 | seat << 16;
+    }
+
+    private int state(int bookingNumber) {
+        Chunk[] current = chunks;
+        int index = bookingNumber >>> CHUNK_SHIFT;
+        if (index >= current.length || current[index] == null) {
+            return 0;
+        }
+        return (int) INT.getAcquire(current[index].states, bookingNumber & CHUNK_MASK);
+    }
+
+    /**
+     * Returns the chunk holding a booking number, allocating it and any chunk before it if needed.
+     */
+    private Chunk chunkFor(int bookingNumber) {
+        int index = bookingNumber >>> CHUNK_SHIFT;
+        Chunk[] current = chunks;
+        if (index < current.length && current[index] != null) {
+            return current[index];
+        }
+        synchronized (this) {
+            current = chunks;
+            if (index >= current.length) {
+                current = Arrays.copyOf(current, Math.max(index + 1, current.length * 2));
+            }
+            for (int i = 0; i <= index; i++) {
+                if (current[i] == null) {
+                    current[i] = new Chunk();
+                }
+            }
+            chunks = current;
+            return current[index];
+        }
+    }
+}
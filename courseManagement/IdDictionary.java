@@ -0,0 +1,61 @@
+package courseManagement;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Maps IDs to dense int ordinals, assigned in registration order starting at 0.
+ * Lets per-booking data refer to a student or exam by a 4-byte ordinal instead of a String reference.
+ */
+class IdDictionary {
+    private final Map<String, Integer> ordinals = new ConcurrentHashMap<>();
+    private volatile String[] ids = new String[16];
+    private int size;
+
+    /**
+     * Returns the ordinal of an ID, assigning the next free one if the ID is new.
+     * @param id The ID to intern.
+     * @return The ordinal of the ID.
+     */
+    synchronized int intern(String id) {
+        Integer existing = ordinals.get(id);
+        if (existing != null) {
+            return existing;
+        }
+        int ordinal = size;
+        String[] current = ids;
+        if (ordinal == current.length) {
+            current = Arrays.copyOf(current, ordinal * 2);
+        }
+        current[ordinal] = id;
+        ids = current; // publish the element before the ordinal can be looked up
+        size++;
+        ordinals.put(id, ordinal);
+        return ordinal;
+    }
+
+    /**
+     * @param id The ID to look up.
+     * @return The ordinal of the ID, or -1 if it has not been interned.
+     */
+    int ordinalOf(String id) {
+        Integer ordinal = ordinals.get(id);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * @return The number of interned IDs; every ordinal handed out so far is below it.
+     */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * @param ordinal An ordinal returned by {@link #intern(String)}.
+     * @return The ID the ordinal was assigned to.
+     */
+    String idOf(int ordinal) {
+        return ids[ordinal];
+    }
+}
@@ -0,0 +1,591 @@
+package courseManagement;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only write-ahead log of CourseManager mutations.
+ * Records get consecutive log sequence numbers (LSNs) and are written to segment files named after
+ * the LSN of their first record, so a checkpoint can drop whole segments once a snapshot covers them.
+ * Each record is framed as [int length][payload][int CRC32 of payload]; replay stops at the first
+ * torn or corrupt record of a segment.
+ * Appends only copy into an in-memory buffer. Durability comes from group commit: the first caller
+ * that needs its record on disk writes and fsyncs everything buffered so far, covering all callers
+ * that queued up behind it with a single fsync. Records leave the buffer only once they are on disk.
+ * If a write or fsync fails, the segment may end in a torn record, so the journal stops: every later
+ * append, sync and close throws instead of reporting records as durable.
+ */
+public class Journal {
+
+    /**
+     * When records reach the disk.
+     */
+    public enum Durability {
+        /** Every mutation waits for an fsync covering its record (shared through group commit). */
+        SYNC,
+        /** Mutations return immediately; a background thread fsyncs every {@value #BATCH_INTERVAL_MILLIS} ms. */
+        BATCHED
+    }
+
+    static final long BATCH_INTERVAL_MILLIS = 10;
+
+    static final byte ADD_COURSE = 1;
+    static final byte ENROLL = 2;
+    static final byte ADD_EXAM = 3;
+    static final byte BOOK = 4;
+    static final byte CONFIRM = 5;
+    static final byte GRADE = 6;
+    static final byte WAITLIST = 7;
+    static final byte DROP = 8;
+    static final byte UNREGISTER = 9;
+
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int MAX_RECORD_LENGTH = 1 << 24;
+
+    /**
+     * Receives replayed records in log order.
+     * Records that change course rosters carry their LSN, so a course restored from a snapshot can skip
+     * the ones it already contains.
+     */
+    interface Replayer {
+        void addCourse(String courseId, int maxStudents);
+
+        void enrollStudent(long lsn, String studentId, String[] courseIds);
+
+        void joinWaitlist(long lsn, String studentId, String courseId);
+
+        void dropCourse(long lsn, String studentId, String courseId);
+
+        void unregisterStudent(String studentId);
+
+        void addExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot);
+
+        void bookExam(int bookingNumber, String studentId, String examId);
+
+        void confirmBooking(int bookingNumber, int seat);
+
+        void setGrade(int bookingNumber, int grade);
+    }
+
+    private final Path directory;
+    private final Durability durability;
+    private final Object flushLock = new Object();
+    private final ScheduledExecutorService flusher;
+
+    // Guarded by this: records appended but not yet written
+    private final RecordBuffer pending = new RecordBuffer();
+    private final RecordBuffer scratch = new RecordBuffer();
+    private final DataOutputStream scratchOut = new DataOutputStream(scratch);
+    private final CRC32 crc = new CRC32();
+    private long lastLsn;
+
+    // Guarded by flushLock
+    private FileChannel channel;
+    private volatile long durableLsn;
+    private volatile boolean closed;
+    private volatile IOException failure; // the write or fsync that failed, after which nothing is durable
+
+    /**
+     * Opens a journal for appending. Records are written to a new segment starting at {@code nextLsn}.
+     * @param directory The directory holding the segment files.
+     * @param durability When records are forced to disk.
+     * @param nextLsn The LSN of the next record, one past the last record replayed.
+     * @throws IOException if the segment cannot be created.
+     */
+    Journal(Path directory, Durability durability, long nextLsn) throws IOException {
+        this.directory = directory;
+        this.durability = durability;
+        this.lastLsn = nextLsn - 1;
+        this.durableLsn = nextLsn - 1;
+        Files.createDirectories(directory);
+        this.channel = openSegment(nextLsn);
+        if (durability == Durability.BATCHED) {
+            flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "journal-flusher");
+                t.setDaemon(true);
+                return t;
+            });
+            flusher.scheduleWithFixedDelay(this::flushQuietly,
+                    BATCH_INTERVAL_MILLIS, BATCH_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    /**
+     * Opens a new segment file. Tests override this to inject a failing channel.
+     * @param startLsn The LSN of the segment's first record.
+     * @return The channel to append to.
+     * @throws IOException if the segment cannot be created.
+     */
+    FileChannel openSegment(long startLsn) throws IOException {
+        // A segment with this start can only exist if it holds no valid record, so it is safe to overwrite
+        return FileChannel.open(segmentPath(startLsn), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+    }
+
+    private Path segmentPath(long startLsn) {
+        return directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, startLsn, SEGMENT_SUFFIX));
+    }
+
+    long logAddCourse(String courseId, int maxStudents) {
+        synchronized (this) {
+            try {
+                begin(ADD_COURSE);
+                scratchOut.writeUTF(courseId);
+                scratchOut.writeInt(maxStudents);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logEnrollStudent(String studentId, List<String> courseIds) {
+        synchronized (this) {
+            try {
+                begin(ENROLL);
+                scratchOut.writeUTF(studentId);
+                scratchOut.writeInt(courseIds.size());
+                for (String courseId : courseIds) {
+                    scratchOut.writeUTF(courseId);
+                }
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logJoinWaitlist(String studentId, String courseId) {
+        synchronized (this) {
+            try {
+                begin(WAITLIST);
+                scratchOut.writeUTF(studentId);
+                scratchOut.writeUTF(courseId);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logDropCourse(String studentId, String courseId) {
+        synchronized (this) {
+            try {
+                begin(DROP);
+                scratchOut.writeUTF(studentId);
+                scratchOut.writeUTF(courseId);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logUnregisterStudent(String studentId) {
+        synchronized (this) {
+            try {
+                begin(UNREGISTER);
+                scratchOut.writeUTF(studentId);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        synchronized (this) {
+            try {
+                begin(ADD_EXAM);
+                scratchOut.writeUTF(courseId);
+                scratchOut.writeUTF(examId);
+                scratchOut.writeUTF(location);
+                scratchOut.writeInt(seats);
+                scratchOut.writeBoolean(timeSlot != null);
+                if (timeSlot != null) {
+                    scratchOut.writeLong(timeSlot.getStart());
+                    scratchOut.writeLong(timeSlot.getEnd());
+                }
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * Takes the next booking number and logs the booking under it. The number is taken only once the record
+     * is written, so a failed record leaves no gap. A manager with a journal takes booking numbers only here.
+     * @param bookingNumbers The manager's next booking number.
+     * @return The booking number.
+     */
+    int logBookExam(AtomicInteger bookingNumbers, String studentId, String examId) {
+        synchronized (this) {
+            try {
+                begin(BOOK);
+                int bookingNumber = bookingNumbers.get();
+                scratchOut.writeInt(bookingNumber);
+                scratchOut.writeUTF(studentId);
+                scratchOut.writeUTF(examId);
+                end();
+                bookingNumbers.set(bookingNumber + 1);
+                return bookingNumber;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logConfirmBooking(int bookingNumber, int seat) {
+        synchronized (this) {
+            try {
+                begin(CONFIRM);
+                scratchOut.writeInt(bookingNumber);
+                scratchOut.writeShort(seat);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    long logSetGrade(int bookingNumber, int grade) {
+        synchronized (this) {
+            try {
+                begin(GRADE);
+                scratchOut.writeInt(bookingNumber);
+                scratchOut.writeByte(grade);
+                return end();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    private void begin(byte type) throws IOException {
+        if (closed) {
+            throw new IOException("Journal is closed.");
+        }
+        checkNotFailed();
+        scratch.reset();
+        scratchOut.writeByte(type);
+    }
+
+    /**
+     * Frames the record in the scratch buffer and moves it to the pending buffer.
+     * @return The record's LSN.
+     */
+    private long end() throws IOException {
+        crc.reset();
+        scratch.updateChecksum(crc);
+        DataOutputStream out = pending.dataOutput();
+        out.writeInt(scratch.size());
+        scratch.writeTo(out);
+        out.writeInt((int) crc.getValue());
+        return ++lastLsn;
+    }
+
+    /**
+     * Waits until every record appended so far is on disk. Returns immediately in BATCHED mode.
+     */
+    void sync() {
+        if (failure != null) {
+            throw new UncheckedIOException(new IOException("Journal stopped after a failed write.", failure));
+        }
+        if (durability == Durability.SYNC) {
+            long target;
+            synchronized (this) {
+                target = lastLsn;
+            }
+            awaitDurable(target);
+        }
+    }
+
+    /**
+     * Waits until the record with the given LSN is on disk, flushing it if no other thread is already doing so.
+     * @param lsn The LSN to wait for.
+     */
+    void awaitDurable(long lsn) {
+        if (durableLsn >= lsn) {
+            return;
+        }
+        synchronized (flushLock) {
+            if (durableLsn >= lsn) {
+                return; // A previous leader's fsync covered this record
+            }
+            try {
+                flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+
+    /**
+     * @throws IOException if an earlier write or fsync failed.
+     */
+    private void checkNotFailed() throws IOException {
+        IOException cause = failure;
+        if (cause != null) {
+            throw new IOException("Journal stopped after a failed write.", cause);
+        }
+    }
+
+    /**
+     * Writes and fsyncs everything buffered so far. The records stay buffered until both succeed;
+     * a failure stops the journal. The caller must hold flushLock.
+     */
+    private void flush() throws IOException {
+        checkNotFailed();
+        byte[] data;
+        long upTo;
+        synchronized (this) {
+            if (pending.size() == 0) {
+                return;
+            }
+            data = pending.toByteArray();
+            upTo = lastLsn;
+        }
+        try {
+            ByteBuffer buffer = ByteBuffer.wrap(data);
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            channel.force(false);
+        } catch (IOException e) {
+            failure = e;
+            throw e;
+        }
+        synchronized (this) {
+            pending.discard(data.length); // Records appended during the write stay buffered
+        }
+        durableLsn = upTo;
+    }
+
+    private void flushQuietly() {
+        synchronized (flushLock) {
+            try {
+                if (!closed) {
+                    flush();
+                }
+            } catch (IOException e) {
+                // The journal has stopped; the next append, sync or close() reports the failure
+            }
+        }
+    }
+
+    /**
+     * Flushes the current segment and starts a new one. Must be called while no mutation is in flight.
+     * @return The LSN of the first record of the new segment.
+     * @throws IOException if the segments cannot be written.
+     */
+    long rollSegment() throws IOException {
+        synchronized (flushLock) {
+            flush();
+            long start;
+            synchronized (this) {
+                start = lastLsn + 1;
+            }
+            channel.close();
+            channel = openSegment(start);
+            return start;
+        }
+    }
+
+    /**
+     * Deletes segments whose records all precede the given LSN.
+     * @param lsn The first LSN that must be kept.
+     * @throws IOException if a segment cannot be deleted.
+     */
+    void deleteSegmentsBefore(long lsn) throws IOException {
+        List<Long> starts = segmentStarts(directory);
+        for (int i = 0; i + 1 < starts.size(); i++) {
+            if (starts.get(i + 1) <= lsn) {
+                Files.deleteIfExists(segmentPath(starts.get(i)));
+            }
+        }
+    }
+
+    /**
+     * Flushes outstanding records and releases the segment file.
+     * @throws IOException if the final flush fails.
+     */
+    void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();
+        }
+        synchronized (flushLock) {
+            if (closed) {
+                return;
+            }
+            try {
+                flush();
+            } finally {
+                closed = true;
+                channel.close();
+            }
+        }
+    }
+
+    /**
+     * Replays the records of every segment in a directory, in LSN order.
+     * @param directory The directory holding the segment files.
+     * @param fromLsn Records before this LSN are skipped (they are covered by a snapshot).
+     * @param replayer Receives the records.
+     * @return The LSN of the last valid record found, or fromLsn - 1 if there is none.
+     * @throws IOException if a segment cannot be read.
+     */
+    static long replay(Path directory, long fromLsn, Replayer replayer) throws IOException {
+        long lastLsn = fromLsn - 1;
+        if (!Files.isDirectory(directory)) {
+            return lastLsn;
+        }
+        for (long start : segmentStarts(directory)) {
+            long lsn = start;
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                    Files.newInputStream(directory.resolve(
+                            String.format("%s%020d%s", SEGMENT_PREFIX, start, SEGMENT_SUFFIX))), 1 << 16))) {
+                byte[] record;
+                while ((record = readRecord(in)) != null) {
+                    if (lsn >= fromLsn) {
+                        apply(record, lsn, replayer);
+                    }
+                    lastLsn = Math.max(lastLsn, lsn);
+                    lsn++;
+                }
+            }
+        }
+        return lastLsn;
+    }
+
+    /**
+     * @return The payload of the next record, or null at the end of the segment or at a torn record.
+     */
+    private static byte[] readRecord(DataInputStream in) throws IOException {
+        try {
+            int length = in.readInt();
+            if (length <= 0 || length > MAX_RECORD_LENGTH) {
+                return null;
+            }
+            byte[] payload = new byte[length];
+            in.readFully(payload);
+            int checksum = in.readInt();
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            return (int) crc.getValue() == checksum ? payload : null;
+        } catch (EOFException e) {
+            return null;
+        }
+    }
+
+    private static void apply(byte[] record, long lsn, Replayer replayer) throws IOException {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(record));
+        byte type = in.readByte();
+        switch (type) {
+            case ADD_COURSE:
+                replayer.addCourse(in.readUTF(), in.readInt());
+                break;
+            case ENROLL: {
+                String studentId = in.readUTF();
+                String[] courseIds = new String[in.readInt()];
+                for (int i = 0; i < courseIds.length; i++) {
+                    courseIds[i] = in.readUTF();
+                }
+                replayer.enrollStudent(lsn, studentId, courseIds);
+                break;
+            }
+            case WAITLIST:
+                replayer.joinWaitlist(lsn, in.readUTF(), in.readUTF());
+                break;
+            case DROP:
+                replayer.dropCourse(lsn, in.readUTF(), in.readUTF());
+                break;
+            case UNREGISTER:
+                replayer.unregisterStudent(in.readUTF());
+                break;
+            case ADD_EXAM: {
+                String courseId = in.readUTF();
+                String examId = in.readUTF();
+                String location = in.readUTF();
+                int seats = in.readInt();
+                TimeSlot timeSlot = in.readBoolean() ? new TimeSlot(in.readLong(), in.readLong()) : null;
+                replayer.addExam(courseId, examId, location, seats, timeSlot);
+                break;
+            }
+            case BOOK:
+                replayer.bookExam(in.readInt(), in.readUTF(), in.readUTF());
+                break;
+            case CONFIRM:
+                replayer.confirmBooking(in.readInt(), in.readUnsignedShort());
+                break;
+            case GRADE:
+                replayer.setGrade(in.readInt(), in.readByte());
+                break;
+            default:
+                throw new IOException("Unknown journal record type " + type + ".");
+        }
+    }
+
+    private static List<Long> segmentStarts(Path directory) throws IOException {
+        List<Long> starts = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, SEGMENT_PREFIX + "*" + SEGMENT_SUFFIX)) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                starts.add(Long.parseLong(name.substring(SEGMENT_PREFIX.length(),
+                        name.length() - SEGMENT_SUFFIX.length())));
+            }
+        }
+        starts.sort(null);
+        return starts;
+    }
+
+    /**
+     * A ByteArrayOutputStream that can checksum its contents in place.
+     */
+    private static class RecordBuffer extends ByteArrayOutputStream {
+        private final DataOutputStream dataOutput = new DataOutputStream(this);
+
+        RecordBuffer() {
+            super(1 << 16);
+        }
+
+        DataOutputStream dataOutput() {
+            return dataOutput;
+        }
+
+        void updateChecksum(CRC32 crc) {
+            crc.update(buf, 0, count);
+        }
+
+        /**
+         * Drops the first bytes, keeping the rest.
+         * @param length The number of bytes to drop.
+         */
+        void discard(int length) {
+            System.arraycopy(buf, length, buf, 0, count - length);
+            count -= length;
+        }
+    }
+}
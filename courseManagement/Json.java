@@ -0,0 +1,239 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes the JSON responses of {@link CourseServer}, and reads them back for {@link RemoteShard}.
+ * Supports the few value types the server returns: strings, numbers, booleans, null, maps with string keys,
+ * collections and int arrays.
+ */
+final class Json {
+
+    private Json() {
+    }
+
+    /**
+     * @param value The value to write.
+     * @return The value as JSON text.
+     */
+    static String write(Object value) {
+        StringBuilder out = new StringBuilder();
+        write(out, value);
+        return out.toString();
+    }
+
+    /**
+     * Parses JSON text. Objects become maps, arrays become lists, and numbers become Long, or Double if
+     * they have a fraction or an exponent.
+     * @param text The JSON text.
+     * @return The value.
+     * @throws IllegalArgumentException if the text is not valid JSON.
+     */
+    static Object read(String text) {
+        int[] position = {0};
+        Object value = read(text, position);
+        skipWhitespace(text, position);
+        if (position[0] != text.length()) {
+            throw new IllegalArgumentException("Unexpected text after JSON value at " + position[0] + ".");
+        }
+        return value;
+    }
+
+    private static Object read(String text, int[] position) {
+        skipWhitespace(text, position);
+        if (position[0] >= text.length()) {
+            throw new IllegalArgumentException("Unexpected end of JSON.");
+        }
+        char c = text.charAt(position[0]);
+        if (c == '{') {
+            Map<String, Object> map = new LinkedHashMap<>();
+            position[0]++;
+            if (!consume(text, position, '}')) {
+                do {
+                    skipWhitespace(text, position);
+                    String key = readString(text, position);
+                    expect(text, position, ':');
+                    map.put(key, read(text, position));
+                } while (consume(text, position, ','));
+                expect(text, position, '}');
+            }
+            return map;
+        }
+        if (c == '[') {
+            List<Object> list = new ArrayList<>();
+            position[0]++;
+            if (!consume(text, position, ']')) {
+                do {
+                    list.add(read(text, position));
+                } while (consume(text, position, ','));
+                expect(text, position, ']');
+            }
+            return list;
+        }
+        if (c == '"') {
+            return readString(text, position);
+        }
+        for (String literal : new String[]{"true", "false", "null"}) {
+            if (text.startsWith(literal, position[0])) {
+                position[0] += literal.length();
+                return literal.equals("null") ? null : Boolean.valueOf(literal);
+            }
+        }
+        int start = position[0];
+        while (position[0] < text.length() && "+-0123456789.eE".indexOf(text.charAt(position[0])) >= 0) {
+            position[0]++;
+        }
+        String number = text.substring(start, position[0]);
+        try {
+            return number.matches("-?\\d+") ? (Object) Long.valueOf(number) : (Object) Double.valueOf(number);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Invalid JSON value at " + start + ".");
+        }
+    }
+
+    private static String readString(String text, int[] position) {
+        expect(text, position, '"');
+        StringBuilder out = new StringBuilder();
+        while (true) {
+            if (position[0] >= text.length()) {
+                throw new IllegalArgumentException("Unterminated JSON string.");
+            }
+            char c = text.charAt(position[0]++);
+            if (c == '"') {
+                return out.toString();
+            }
+            if (c != '\\') {
+                out.append(c);
+                continue;
+            }
+            char escaped = text.charAt(position[0]++);
+            switch (escaped) {
+                case 'n':
+                    out.append('\n');
+                    break;
+                case 'r':
+                    out.append('\r');
+                    break;
+                case 't':
+                    out.append('\t');
+                    break;
+                case 'b':
+                    out.append('\b');
+                    break;
+                case 'f':
+                    out.append('\f');
+                    break;
+                case 'u':
+                    out.append((char) Integer.parseInt(text.substring(position[0], position[0] + 4), 16));
+                    position[0] += 4;
+                    break;
+                default:
+                    out.append(escaped); // quote, backslash and slash stand for themselves
+            }
+        }
+    }
+
+    private static void skipWhitespace(String text, int[] position) {
+        while (position[0] < text.length() && Character.isWhitespace(text.charAt(position[0]))) {
+            position[0]++;
+        }
+    }
+
+    private static boolean consume(String text, int[] position, char c) {
+        skipWhitespace(text, position);
+        if (position[0] < text.length() && text.charAt(position[0]) == c) {
+            position[0]++;
+            return true;
+        }
+        return false;
+    }
+
+    private static void expect(String text, int[] position, char c) {
+        if (!consume(text, position, c)) {
+            throw new IllegalArgumentException("Expected '" + c + "' in JSON at " + position[0] + ".");
+        }
+    }
+
+    private static void write(StringBuilder out, Object value) {
+        if (value == null) {
+            out.append("null");
+        } else if (value instanceof String) {
+            writeString(out, (String) value);
+        } else if (value instanceof Number || value instanceof Boolean) {
+            out.append(value);
+        } else if (value instanceof Enum) {
+            writeString(out, ((Enum<?>) value).name());
+        } else if (value instanceof Map) {
+            out.append('{');
+            boolean first = true;
+            for (Map.Entry<?, ?> e : ((Map<?, ?>) value).entrySet()) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                writeString(out, String.valueOf(e.getKey()));
+                out.append(':');
+                write(out, e.getValue());
+            }
+            out.append('}');
+        } else if (value instanceof Collection) {
+            out.append('[');
+            boolean first = true;
+            for (Object element : (Collection<?>) value) {
+                if (!first) {
+                    out.append(',');
+                }
+                first = false;
+                write(out, element);
+            }
+            out.append(']');
+        } else if (value instanceof int[]) {
+            out.append('[');
+            int[] numbers = (int[]) value;
+            for (int i = 0; i < numbers.length; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append(numbers[i]);
+            }
+            out.append(']');
+        } else {
+            throw new IllegalArgumentException("Cannot write " + value.getClass().getName() + " as JSON.");
+        }
+    }
+
+    private static void writeString(StringBuilder out, String value) {
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"':
+                    out.append("\\\"");
+                    break;
+                case '\\':
+                    out.append("\\\\");
+                    break;
+                case '\n':
+                    out.append("\\n");
+                    break;
+                case '\r':
+                    out.append("\\r");
+                    break;
+                case '\t':
+                    out.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+            }
+        }
+        out.append('"');
+    }
+}
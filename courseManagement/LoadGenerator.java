@@ -0,0 +1,242 @@
+package courseManagement;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A closed-loop load generator for {@link CourseServer}. Each client keeps exactly one request in flight:
+ * it enrolls a new student in its own course, books the course's exam for them, confirms the booking,
+ * sets a grade and reads the student's grades, then starts over. Every request's latency is recorded,
+ * and the run reports throughput and p50/p99/p999 latency per operation.
+ */
+public class LoadGenerator {
+    private static final Pattern BOOKING_NUMBER = Pattern.compile("\"bookingNumber\":(\\d+)");
+
+    /**
+     * The requests a client sends, in the order it sends them.
+     */
+    public enum Operation {
+        ENROLL_STUDENT,
+        BOOK_EXAM,
+        CONFIRM_BOOKING,
+        SET_GRADE,
+        GET_STUDENT_GRADES
+    }
+
+    private final URI baseUri;
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final String runId = Long.toString(System.nanoTime(), 36);
+    private final LatencyHistogram[] histograms = new LatencyHistogram[Operation.values().length];
+    private final AtomicLong errors = new AtomicLong();
+
+    /**
+     * Constructor for the LoadGenerator class.
+     * @param baseUri The server address, e.g. http://localhost:8080.
+     */
+    public LoadGenerator(URI baseUri) {
+        this.baseUri = baseUri;
+        for (int i = 0; i < histograms.length; i++) {
+            histograms[i] = new LatencyHistogram();
+        }
+    }
+
+    /**
+     * Runs the load and waits for it to finish.
+     * @param clients The number of concurrent clients, each with one request in flight.
+     * @param duration How long to apply load, after each client has created its course and exam.
+     * @return The measurements.
+     * @throws Exception if the setup requests fail or a client is interrupted.
+     */
+    public Report run(int clients, Duration duration) throws Exception {
+        for (int c = 0; c < clients; c++) {
+            send(null, "/courses", "courseId", courseId(c),
+                    "maxStudents", String.valueOf(CourseManager.MAX_COURSE_CAPACITY));
+            send(null, "/exams", "courseId", courseId(c), "examId", examId(c), "location", "load");
+        }
+        long start = System.nanoTime();
+        long deadline = start + duration.toNanos();
+        List<Thread> threads = new ArrayList<>();
+        for (int c = 0; c < clients; c++) {
+            int client = c;
+            Thread thread = new Thread(() -> runClient(client, deadline), "load-client-" + c);
+            thread.start();
+            threads.add(thread);
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        return new Report(histograms, errors.get(), System.nanoTime() - start);
+    }
+
+    private void runClient(int client, long deadline) {
+        try {
+            for (int i = 0; System.nanoTime() < deadline; i++) {
+                String studentId = runId + "-S" + client + "-" + i;
+                send(Operation.ENROLL_STUDENT, "/students", "studentId", studentId, "courseId", courseId(client));
+                String booked = send(Operation.BOOK_EXAM, "/bookings", "studentId", studentId,
+                        "examId", examId(client));
+                Matcher matcher = BOOKING_NUMBER.matcher(booked);
+                if (!matcher.find()) {
+                    continue;
+                }
+                String booking = "/bookings/" + matcher.group(1);
+                send(Operation.CONFIRM_BOOKING, booking + "/confirm");
+                send(Operation.SET_GRADE, booking + "/grade", "grade", String.valueOf(i % 101));
+                get(Operation.GET_STUDENT_GRADES, "/students/" + encode(studentId) + "/grades");
+            }
+        } catch (IOException | InterruptedException e) {
+            errors.incrementAndGet();
+        }
+    }
+
+    private String courseId(int client) {
+        return runId + "-C" + client;
+    }
+
+    private String examId(int client) {
+        return runId + "-E" + client;
+    }
+
+    /**
+     * Sends a form-encoded POST and records its latency under operation, unless operation is null.
+     * @param form Alternating parameter names and values.
+     * @return The response body.
+     */
+    private String send(Operation operation, String path, String... form) throws IOException, InterruptedException {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < form.length; i += 2) {
+            if (i > 0) {
+                body.append('&');
+            }
+            body.append(encode(form[i])).append('=').append(encode(form[i + 1]));
+        }
+        return exchange(operation, HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))
+                .build());
+    }
+
+    private String get(Operation operation, String path) throws IOException, InterruptedException {
+        return exchange(operation, HttpRequest.newBuilder(baseUri.resolve(path)).GET().build());
+    }
+
+    private String exchange(Operation operation, HttpRequest request) throws IOException, InterruptedException {
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (operation != null) {
+            histograms[operation.ordinal()].record(System.nanoTime() - start);
+        }
+        if (response.statusCode() != 200) {
+            errors.incrementAndGet();
+        }
+        return response.body();
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * The outcome of a load run.
+     */
+    public static class Report {
+        private final LatencyHistogram[] histograms;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Report(LatencyHistogram[] histograms, long errors, long elapsedNanos) {
+            this.histograms = histograms;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return The number of measured requests.
+         */
+        public long getRequests() {
+            long total = 0;
+            for (LatencyHistogram histogram : histograms) {
+                total += histogram.getCount();
+            }
+            return total;
+        }
+
+        /**
+         * @return The number of requests that did not return status 200, plus clients stopped by an I/O error.
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        /**
+         * @return Measured requests per second.
+         */
+        public double getThroughput() {
+            return getRequests() / (elapsedNanos / 1e9);
+        }
+
+        /**
+         * @param operation The operation.
+         * @return The latencies of the operation's requests.
+         */
+        public LatencyHistogram getLatencies(Operation operation) {
+            return histograms[operation.ordinal()];
+        }
+
+        @Override
+        public String toString() {
+            StringBuilder out = new StringBuilder();
+            out.append(String.format("%d requests in %.1f s: %.0f requests/s, %d errors%n", getRequests(),
+                    elapsedNanos / 1e9, getThroughput(), errors));
+            out.append(String.format("%-20s %10s %10s %10s %10s%n", "operation", "count", "p50 us", "p99 us",
+                    "p999 us"));
+            for (Operation operation : Operation.values()) {
+                LatencyHistogram histogram = getLatencies(operation);
+                out.append(String.format("%-20s %10d %10.1f %10.1f %10.1f%n", operation, histogram.getCount(),
+                        histogram.getPercentile(50) / 1e3, histogram.getPercentile(99) / 1e3,
+                        histogram.getPercentile(99.9) / 1e3));
+            }
+            return out.toString();
+        }
+    }
+
+    /**
+     * Runs a load test and prints the report.
+     * With no URL, starts a local in-memory server on a free loopback port and tests that.
+     * @param args [clients [seconds [url]]], defaulting to 16 clients for 10 seconds.
+     * @throws Exception if the server cannot be started or the setup requests fail.
+     */
+    public static void main(String[] args) throws Exception {
+        CourseServer.enableNoDelay();
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        CourseServer local = null;
+        URI uri;
+        if (args.length > 2) {
+            uri = URI.create(args[2]);
+        } else {
+            local = new CourseServer(new CourseManager(), new InetSocketAddress("127.0.0.1", 0));
+            local.start();
+            uri = URI.create("http://127.0.0.1:" + local.getPort());
+        }
+        try {
+            System.out.print(new LoadGenerator(uri).run(clients, Duration.ofSeconds(seconds)));
+        } finally {
+            if (local != null) {
+                local.close();
+            }
+        }
+    }
+}
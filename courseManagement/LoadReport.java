@@ -0,0 +1,102 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The outcome of a {@link BulkLoader} run: how many rows were loaded and why the others were rejected.
+ * Only the first {@link #MAX_REJECTIONS} rejected rows are kept; the counts cover all of them.
+ */
+public final class LoadReport {
+    /**
+     * The number of rejected rows kept in {@link #getRejections()}.
+     */
+    public static final int MAX_REJECTIONS = 1000;
+
+    /**
+     * A row that was rejected.
+     */
+    public static final class Rejection {
+        private final long line;
+        private final ResultCode result;
+
+        Rejection(long line, ResultCode result) {
+            this.line = line;
+            this.result = result;
+        }
+
+        /**
+         * @return The line number in a CSV file, or the record number in a binary file, from 1.
+         */
+        public long getLine() {
+            return line;
+        }
+
+        public ResultCode getResult() {
+            return result;
+        }
+
+        @Override
+        public String toString() {
+            return "Line " + line + ": " + result;
+        }
+    }
+
+    private long loaded;
+    private final Map<ResultCode, Long> rejectedBy = new EnumMap<>(ResultCode.class);
+    private final List<Rejection> rejections = new ArrayList<>();
+
+    LoadReport() {
+    }
+
+    void loaded() {
+        loaded++;
+    }
+
+    void rejected(long line, ResultCode result) {
+        rejectedBy.merge(result, 1L, Long::sum);
+        if (rejections.size() < MAX_REJECTIONS) {
+            rejections.add(new Rejection(line, result));
+        }
+    }
+
+    /**
+     * @return The number of rows applied.
+     */
+    public long getLoaded() {
+        return loaded;
+    }
+
+    /**
+     * @return The number of rows rejected.
+     */
+    public long getRejected() {
+        long total = 0;
+        for (long count : rejectedBy.values()) {
+            total += count;
+        }
+        return total;
+    }
+
+    /**
+     * @return A read-only map with each rejection reason as key and the number of rows rejected for it as value.
+     */
+    public Map<ResultCode, Long> getRejectedBy() {
+        return Collections.unmodifiableMap(rejectedBy);
+    }
+
+    /**
+     * @return The first rejected rows, in file order.
+     */
+    public List<Rejection> getRejections() {
+        return Collections.unmodifiableList(rejections);
+    }
+
+    @Override
+    public String toString() {
+        return "Loaded " + loaded + " rows, rejected " + getRejected() + " " + rejectedBy;
+    }
+}
@@ -0,0 +1,92 @@
+package courseManagement;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A cluster of CourseManager nodes on one machine behind a {@link ShardedCourseManager}, for tests and
+ * experiments with sharding. {@link #inProcess} routes straight to the managers. {@link #localhost} serves each
+ * manager with its own {@link CourseServer} on a free local port and routes over HTTP, as a real
+ * deployment would.
+ */
+public final class LocalCluster implements AutoCloseable {
+    private final List<CourseManager> nodes;
+    private final List<CourseServer> servers;
+    private final ShardedCourseManager router;
+
+    private LocalCluster(List<CourseManager> nodes, List<CourseServer> servers, List<? extends Shard> shards) {
+        this.nodes = nodes;
+        this.servers = servers;
+        this.router = new ShardedCourseManager(shards);
+    }
+
+    /**
+     * Creates a cluster of in-memory managers called directly by the router.
+     * @param nodeCount The number of nodes.
+     * @return The cluster.
+     */
+    public static LocalCluster inProcess(int nodeCount) {
+        List<CourseManager> nodes = newNodes(nodeCount);
+        return new LocalCluster(nodes, List.of(), nodes);
+    }
+
+    /**
+     * Creates a cluster of in-memory managers, each served over HTTP on a free port of 127.0.0.1.
+     * @param nodeCount The number of nodes.
+     * @return The cluster.
+     * @throws IOException if a server cannot be started.
+     */
+    public static LocalCluster localhost(int nodeCount) throws IOException {
+        List<CourseManager> nodes = newNodes(nodeCount);
+        List<CourseServer> servers = new ArrayList<>();
+        List<RemoteShard> shards = new ArrayList<>();
+        try {
+            for (CourseManager node : nodes) {
+                CourseServer server = new CourseServer(node, new InetSocketAddress("127.0.0.1", 0));
+                servers.add(server);
+                server.start();
+                shards.add(new RemoteShard(URI.create("http://127.0.0.1:" + server.getPort() + "/")));
+            }
+        } catch (IOException e) {
+            servers.forEach(CourseServer::close);
+            throw e;
+        }
+        return new LocalCluster(nodes, servers, shards);
+    }
+
+    private static List<CourseManager> newNodes(int nodeCount) {
+        List<CourseManager> nodes = new ArrayList<>();
+        for (int i = 0; i < nodeCount; i++) {
+            nodes.add(new CourseManager());
+        }
+        return nodes;
+    }
+
+    /**
+     * @return The router in front of the nodes.
+     */
+    public ShardedCourseManager getRouter() {
+        return router;
+    }
+
+    /**
+     * Gets a node's manager, to inspect what it holds.
+     * @param index The node's position, as used by {@link ShardedCourseManager#shardOf}.
+     * @return The node's manager.
+     */
+    public CourseManager getNode(int index) {
+        return nodes.get(index);
+    }
+
+    /**
+     * Stops the router and the servers.
+     */
+    @Override
+    public void close() {
+        router.close();
+        servers.forEach(CourseServer::close);
+    }
+}
@@ -0,0 +1,83 @@
+package courseManagement;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A fixed set of locks shared by hashing keys onto them.
+ * Operations on different keys usually get different locks and can run in parallel,
+ * while operations on the same key are always serialized.
+ */
+class LockStripes {
+    private final ReentrantLock[] locks;
+    private final int mask;
+
+    /**
+     * Constructor for the LockStripes class.
+     * @param stripes The minimum number of locks; rounded up to a power of two.
+     */
+    LockStripes(int stripes) {
+        int size = Integer.highestOneBit(Math.max(1, stripes - 1)) << 1;
+        locks = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            locks[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    /**
+     * Returns the lock guarding a key.
+     * @param key The key to look up.
+     * @return The lock for the key's stripe.
+     */
+    ReentrantLock lockFor(Object key) {
+        return locks[indexFor(key)];
+    }
+
+    private int indexFor(Object key) {
+        int h = key.hashCode();
+        h ^= (h >>> 16); // spread high bits, as HashMap does
+        return h & mask;
+    }
+
+    /**
+     * Acquires the stripes of many keys, each once and in index order, so a batch can run under one
+     * acquisition per stripe. The order is the one {@link #lockAll} uses, so the two cannot deadlock.
+     * @param keys The keys to lock.
+     * @return The stripes taken, to pass to {@link #unlockAll(boolean[])}.
+     */
+    boolean[] lockAll(Iterable<?> keys) {
+        boolean[] held = new boolean[locks.length];
+        for (Object key : keys) {
+            held[indexFor(key)] = true;
+        }
+        for (int i = 0; i < locks.length; i++) {
+            if (held[i]) {
+                locks[i].lock();
+            }
+        }
+        return held;
+    }
+
+    void unlockAll(boolean[] held) {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            if (held[i]) {
+                locks[i].unlock();
+            }
+        }
+    }
+
+    /**
+     * Acquires every stripe, in index order. Used to reach a point where no guarded operation is in flight.
+     */
+    void lockAll() {
+        for (ReentrantLock lock : locks) {
+            lock.lock();
+        }
+    }
+
+    void unlockAll() {
+        for (int i = locks.length - 1; i >= 0; i--) {
+            locks[i].unlock();
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package courseManagement;
+
+import java.util.function.DoubleSupplier;
+
+/**
+ * Receives measurements from a CourseManager. Install one with {@link CourseManager#setMetrics(Metrics)};
+ * {@link OperationMetrics} is the built-in implementation.
+ * Implementations are called on the caller's thread for every operation, so they must be thread-safe and cheap.
+ */
+public interface Metrics {
+
+    /**
+     * The public CourseManager operations that are measured.
+     */
+    enum Operation {
+        ADD_COURSE,
+        ENROLL_STUDENT,
+        ADD_EXAM,
+        BOOK_EXAM,
+        CONFIRM_BOOKING,
+        SET_GRADE,
+        JOIN_WAITLIST,
+        DROP_COURSE,
+        UNREGISTER_STUDENT,
+        GET_ENROLLED_STUDENTS,
+        GET_EXAMS_BY_COURSE,
+        GET_CONFIRMED_BOOKINGS,
+        GET_COMPLETED_BOOKINGS,
+        GET_STUDENT_GRADES,
+        GET_COURSE_AVERAGE
+    }
+
+    /**
+     * Records one completed operation.
+     * @param operation The operation.
+     * @param result OK, or the reason the operation was rejected. Queries always report OK.
+     * @param elapsedNanos The time the operation took, including the journal sync for durable managers.
+     */
+    void record(Operation operation, ResultCode result, long elapsedNanos);
+
+    /**
+     * Registers a value that is read when the metrics are reported, such as a map size or a course's fill ratio.
+     * Registering a name again replaces the previous gauge.
+     * @param name The name of the gauge.
+     * @param value Supplies the current value.
+     */
+    void registerGauge(String name, DoubleSupplier value);
+}
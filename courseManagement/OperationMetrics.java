@@ -0,0 +1,125 @@
+package courseManagement;
+
+import java.lang.management.ManagementFactory;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.DoubleSupplier;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * The built-in {@link Metrics}: a latency histogram per operation and result, plus registered gauges.
+ * Results can be read as a plain-text report or through JMX, so no external service is needed.
+ */
+public class OperationMetrics implements Metrics, OperationMetricsMXBean {
+    private static final Operation[] OPERATIONS = Operation.values();
+    private static final ResultCode[] RESULTS = ResultCode.values();
+
+    // One histogram per (operation, result), created on first use; a histogram also counts its calls
+    private final AtomicReferenceArray<LatencyHistogram> histograms =
+            new AtomicReferenceArray<>(OPERATIONS.length * RESULTS.length);
+    private final Map<String, DoubleSupplier> gauges = new ConcurrentHashMap<>();
+
+    @Override
+    public void record(Operation operation, ResultCode result, long elapsedNanos) {
+        int index = operation.ordinal() * RESULTS.length + result.ordinal();
+        LatencyHistogram histogram = histograms.get(index);
+        if (histogram == null) {
+            histograms.compareAndSet(index, null, new LatencyHistogram());
+            histogram = histograms.get(index);
+        }
+        histogram.record(elapsedNanos);
+    }
+
+    @Override
+    public void registerGauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    /**
+     * @param operation The operation.
+     * @param result The result.
+     * @return The latency histogram of the operation with that result, or null if it has not happened.
+     */
+    public LatencyHistogram getHistogram(Operation operation, ResultCode result) {
+        return histograms.get(operation.ordinal() * RESULTS.length + result.ordinal());
+    }
+
+    @Override
+    public Map<String, Long> getCounts() {
+        Map<String, Long> counts = new TreeMap<>();
+        forEachHistogram((name, histogram) -> counts.put(name, histogram.getCount()));
+        return counts;
+    }
+
+    @Override
+    public Map<String, Long> getLatencies() {
+        Map<String, Long> latencies = new TreeMap<>();
+        forEachHistogram((name, histogram) -> {
+            latencies.put(name + ".p50", histogram.getPercentile(50));
+            latencies.put(name + ".p99", histogram.getPercentile(99));
+            latencies.put(name + ".p999", histogram.getPercentile(99.9));
+            latencies.put(name + ".max", histogram.getMax());
+        });
+        return latencies;
+    }
+
+    @Override
+    public Map<String, Double> getGauges() {
+        Map<String, Double> values = new TreeMap<>();
+        for (Map.Entry<String, DoubleSupplier> e : gauges.entrySet()) {
+            values.put(e.getKey(), e.getValue().getAsDouble());
+        }
+        return values;
+    }
+
+    @Override
+    public String getReport() {
+        return report();
+    }
+
+    /**
+     * Formats every operation that has been called and every gauge as a plain-text table.
+     * @return The report.
+     */
+    public String report() {
+        StringBuilder out = new StringBuilder();
+        out.append(String.format("%-40s %10s %10s %10s %10s %10s%n", "operation.result", "count",
+                "p50 ns", "p99 ns", "p999 ns", "max ns"));
+        forEachHistogram((name, histogram) -> out.append(String.format("%-40s %10d %10d %10d %10d %10d%n", name,
+                histogram.getCount(), histogram.getPercentile(50), histogram.getPercentile(99),
+                histogram.getPercentile(99.9), histogram.getMax())));
+        for (Map.Entry<String, Double> e : getGauges().entrySet()) {
+            out.append(String.format("%-40s %10.3f%n", e.getKey(), e.getValue()));
+        }
+        return out.toString();
+    }
+
+    /**
+     * Registers these metrics with the platform MBean server.
+     * @param name The value of the name key in the object name "courseManagement:type=OperationMetrics,name=...".
+     * @throws JMException if the name is invalid or already registered.
+     */
+    public void registerMBean(String name) throws JMException {
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this,
+                new ObjectName("courseManagement:type=OperationMetrics,name=" + ObjectName.quote(name)));
+    }
+
+    private interface HistogramVisitor {
+        void visit(String name, LatencyHistogram histogram);
+    }
+
+    private void forEachHistogram(HistogramVisitor visitor) {
+        for (Operation operation : OPERATIONS) {
+            for (ResultCode result : RESULTS) {
+                LatencyHistogram histogram = getHistogram(operation, result);
+                if (histogram != null) {
+                    visitor.visit(operation + "." + result, histogram);
+                }
+            }
+        }
+    }
+}
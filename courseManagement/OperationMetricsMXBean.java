@@ -0,0 +1,29 @@
+package courseManagement;
+
+import java.util.Map;
+
+/**
+ * JMX view of an {@link OperationMetrics}, for jconsole, VisualVM or any JMX client.
+ */
+public interface OperationMetricsMXBean {
+
+    /**
+     * @return Call counts keyed by "OPERATION.RESULT", e.g. "BOOK_EXAM.ALREADY_BOOKED".
+     */
+    Map<String, Long> getCounts();
+
+    /**
+     * @return Latency percentiles in nanoseconds keyed by "OPERATION.RESULT.p50" (also p99, p999 and max).
+     */
+    Map<String, Long> getLatencies();
+
+    /**
+     * @return The current value of every registered gauge.
+     */
+    Map<String, Double> getGauges();
+
+    /**
+     * @return The text report, as returned by {@link OperationMetrics#report()}.
+     */
+    String getReport();
+}
@@ -0,0 +1,298 @@
+package courseManagement;
+
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * An immutable sorted list of distinct elements, stored as a balanced binary tree.
+ * Adding or removing an element returns a new list that shares all but O(log n) nodes with the old one,
+ * so a reader can keep the list it was given while writers move on, and nothing is ever copied.
+ * Lookups, {@link #get(int)} and {@link #indexAfter} take O(log n); iterating takes O(n).
+ * @param <E> The element type.
+ */
+final class PersistentSortedList<E extends Comparable<? super E>> extends AbstractList<E> {
+    private static final PersistentSortedList<?> EMPTY = new PersistentSortedList<>(null);
+
+    private static final class Node<E> {
+        final E value;
+        final Node<E> left;
+        final Node<E> right;
+        final int height;
+        final int size;
+
+        Node(E value, Node<E> left, Node<E> right) {
+            this.value = value;
+            this.left = left;
+            this.right = right;
+            this.height = 1 + Math.max(height(left), height(right));
+            this.size = 1 + size(left) + size(right);
+        }
+    }
+
+    private final Node<E> root;
+
+    private PersistentSortedList(Node<E> root) {
+        this.root = root;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <E extends Comparable<? super E>> PersistentSortedList<E> empty() {
+        return (PersistentSortedList<E>) EMPTY;
+    }
+
+    @Override
+    public int size() {
+        return size(root);
+    }
+
+    @Override
+    public E get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for length " + size());
+        }
+        Node<E> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        E value = (E) o;
+        Node<E> node = root;
+        while (node != null) {
+            int c = value.compareTo(node.value);
+            if (c == 0) {
+                return true;
+            }
+            node = c < 0 ? node.left : node.right;
+        }
+        return false;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public int indexOf(Object o) {
+        return contains(o) ? indexAfter((E) o) - 1 : -1;
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return indexOf(o);
+    }
+
+    /**
+     * @param value The value to look for; need not be in the list.
+     * @return The index of the first element greater than value, or size() if there is none.
+     */
+    int indexAfter(E value) {
+        int index = 0;
+        Node<E> node = root;
+        while (node != null) {
+            if (value.compareTo(node.value) < 0) {
+                node = node.left;
+            } else {
+                index += size(node.left) + 1;
+                node = node.right;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param value The value to add.
+     * @return A list that also holds value; this list if it already did.
+     */
+    PersistentSortedList<E> with(E value) {
+        Node<E> added = insert(root, value);
+        return added == root ? this : new PersistentSortedList<>(added);
+    }
+
+    /**
+     * Adds many values in one step. When there are enough of them, the list and the values are merged
+     * and built into a new balanced tree in O(n + k log k), instead of copying O(log n) nodes per value.
+     * @param values The values to add, in any order.
+     * @return A list that also holds every value.
+     */
+    @SuppressWarnings("unchecked")
+    PersistentSortedList<E> withAll(Collection<? extends E> values) {
+        int size = size();
+        // Adding one by one allocates about k log n nodes, a rebuild n + k
+        if ((long) values.size() * (32 - Integer.numberOfLeadingZeros(size)) < size) {
+            PersistentSortedList<E> list = this;
+            for (E value : values) {
+                list = list.with(value);
+            }
+            return list;
+        }
+        Object[] added = values.toArray();
+        Arrays.sort(added);
+        Object[] merged = new Object[size + added.length];
+        int count = 0;
+        Iterator<E> existing = iterator();
+        E next = existing.hasNext() ? existing.next() : null;
+        for (int i = 0; next != null || i < added.length; ) {
+            E value;
+            if (i == added.length || next != null && next.compareTo((E) added[i]) <= 0) {
+                value = next;
+                next = existing.hasNext() ? existing.next() : null;
+            } else {
+                value = (E) added[i++];
+            }
+            if (count == 0 || ((E) merged[count - 1]).compareTo(value) != 0) {
+                merged[count++] = value;
+            }
+        }
+        return count == size ? this : new PersistentSortedList<>(PersistentSortedList.<E>build(merged, 0, count));
+    }
+
+    /**
+     * @param value The value to remove.
+     * @return A list without value; this list if it did not hold it.
+     */
+    PersistentSortedList<E> without(E value) {
+        Node<E> removed = delete(root, value);
+        return removed == root ? this : new PersistentSortedList<>(removed);
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new Iterator<E>() {
+            private final Deque<Node<E>> path = new ArrayDeque<>();
+
+            {
+                descendLeft(root);
+            }
+
+            private void descendLeft(Node<E> node) {
+                for (; node != null; node = node.left) {
+                    path.push(node);
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return !path.isEmpty();
+            }
+
+            @Override
+            public E next() {
+                if (path.isEmpty()) {
+                    throw new NoSuchElementException();
+                }
+                Node<E> node = path.pop();
+                descendLeft(node.right);
+                return node.value;
+            }
+        };
+    }
+
+    private static int height(Node<?> node) {
+        return node == null ? 0 : node.height;
+    }
+
+    private static int size(Node<?> node) {
+        return node == null ? 0 : node.size;
+    }
+
+    /**
+     * Builds a balanced tree from sorted values; the two halves of every node differ in size by at most one.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E> Node<E> build(Object[] values, int from, int to) {
+        if (from == to) {
+            return null;
+        }
+        int mid = (from + to) >>> 1;
+        return new Node<>((E) values[mid], build(values, from, mid), build(values, mid + 1, to));
+    }
+
+    private static <E extends Comparable<? super E>> Node<E> insert(Node<E> node, E value) {
+        if (node == null) {
+            return new Node<>(value, null, null);
+        }
+        int c = value.compareTo(node.value);
+        if (c < 0) {
+            Node<E> left = insert(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        }
+        if (c > 0) {
+            Node<E> right = insert(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        return node;
+    }
+
+    private static <E extends Comparable<? super E>> Node<E> delete(Node<E> node, E value) {
+        if (node == null) {
+            return null;
+        }
+        int c = value.compareTo(node.value);
+        if (c < 0) {
+            Node<E> left = delete(node.left, value);
+            return left == node.left ? node : balance(node.value, left, node.right);
+        }
+        if (c > 0) {
+            Node<E> right = delete(node.right, value);
+            return right == node.right ? node : balance(node.value, node.left, right);
+        }
+        if (node.left == null) {
+            return node.right;
+        }
+        if (node.right == null) {
+            return node.left;
+        }
+        Node<E> first = node.right;
+        while (first.left != null) {
+            first = first.left;
+        }
+        return balance(first.value, node.left, deleteFirst(node.right));
+    }
+
+    private static <E> Node<E> deleteFirst(Node<E> node) {
+        if (node.left == null) {
+            return node.right;
+        }
+        return balance(node.value, deleteFirst(node.left), node.right);
+    }
+
+    /**
+     * Builds a node from subtrees whose heights differ by at most two, rotating to keep them within one.
+     */
+    private static <E> Node<E> balance(E value, Node<E> left, Node<E> right) {
+        if (height(left) > height(right) + 1) {
+            if (height(left.left) >= height(left.right)) {
+                return new Node<>(left.value, left.left, new Node<>(value, left.right, right));
+            }
+            Node<E> pivot = left.right;
+            return new Node<>(pivot.value, new Node<>(left.value, left.left, pivot.left),
+                    new Node<>(value, pivot.right, right));
+        }
+        if (height(right) > height(left) + 1) {
+            if (height(right.right) >= height(right.left)) {
+                return new Node<>(right.value, new Node<>(value, left, right.left), right.right);
+            }
+            Node<E> pivot = right.left;
+            return new Node<>(pivot.value, new Node<>(value, left, pivot.left),
+                    new Node<>(right.value, pivot.right, right.right));
+        }
+        return new Node<>(value, left, right);
+    }
+}
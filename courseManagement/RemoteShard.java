@@ -0,0 +1,223 @@
+package courseManagement;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A {@link Shard} on another node, reached through its {@link CourseServer} over HTTP/JSON.
+ * Rejections come back as ResultCodes like they do in-process. A request the server refuses as invalid throws
+ * IllegalArgumentException, and a failed connection throws UncheckedIOException.
+ */
+public class RemoteShard implements Shard {
+    private final URI baseUri;
+    private final HttpClient client;
+
+    /**
+     * Constructor for the RemoteShard class.
+     * @param baseUri The server's address, e.g. http://127.0.0.1:8080/.
+     */
+    public RemoteShard(URI baseUri) {
+        this.baseUri = baseUri;
+        this.client = HttpClient.newHttpClient();
+    }
+
+    @Override
+    public ResultCode tryAddCourse(String courseId, int maxStudents) {
+        return result(post("courses", "courseId", courseId, "maxStudents", String.valueOf(maxStudents)));
+    }
+
+    @Override
+    public ResultCode tryEnrollStudent(String studentId, String... courseIds) {
+        String[] form = new String[2 + 2 * courseIds.length];
+        form[0] = "studentId";
+        form[1] = studentId;
+        for (int i = 0; i < courseIds.length; i++) {
+            form[2 + 2 * i] = "courseId";
+            form[3 + 2 * i] = courseIds[i];
+        }
+        return result(post("students", form));
+    }
+
+    @Override
+    public ResultCode tryDropCourse(String studentId, String courseId) {
+        return result(post("courses/" + encodePath(courseId) + "/drop", "studentId", studentId));
+    }
+
+    @Override
+    public ResultCode tryUnregisterStudent(String studentId) {
+        return result(post("students/" + encodePath(studentId) + "/unregister"));
+    }
+
+    @Override
+    public ResultCode tryAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        List<String> form = new ArrayList<>(List.of("courseId", courseId, "examId", examId, "location", location,
+                "seats", String.valueOf(seats)));
+        if (timeSlot != null) {
+            form.addAll(List.of("start", Instant.ofEpochMilli(timeSlot.getStart()).toString(),
+                    "end", Instant.ofEpochMilli(timeSlot.getEnd()).toString()));
+        }
+        return result(post("exams", form.toArray(new String[0])));
+    }
+
+    @Override
+    public int tryBookExam(String studentId, String examId) {
+        Map<?, ?> body = (Map<?, ?>) post("bookings", "studentId", studentId, "examId", examId);
+        Object bookingNumber = body.get("bookingNumber");
+        return bookingNumber != null ? ((Number) bookingNumber).intValue() : result(body).encode();
+    }
+
+    @Override
+    public ResultCode tryConfirmBooking(int bookingNumber) {
+        return result(post("bookings/" + bookingNumber + "/confirm"));
+    }
+
+    @Override
+    public ResultCode trySetGrade(int bookingNumber, int grade) {
+        return result(post("bookings/" + bookingNumber + "/grade", "grade", String.valueOf(grade)));
+    }
+
+    @Override
+    public boolean isRegistered(String studentId) {
+        return send(HttpRequest.newBuilder(baseUri.resolve("students/" + encodePath(studentId))).GET()).statusCode()
+                == 200;
+    }
+
+    @Override
+    public List<String> getEnrolledStudents(String courseId) {
+        return strings(get("courses/" + encodePath(courseId) + "/students"));
+    }
+
+    @Override
+    public Map<String, List<String>> getExamsByCourse() {
+        Map<String, List<String>> result = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> course : ((Map<?, ?>) get("exams")).entrySet()) {
+            result.put((String) course.getKey(), strings(course.getValue()));
+        }
+        return result;
+    }
+
+    @Override
+    public List<Integer> getConfirmedBookings() {
+        return integers(get("bookings?status=CONFIRMED"));
+    }
+
+    @Override
+    public List<Integer> getConfirmedBookings(int afterBookingNumber, int limit) {
+        return integers(get("bookings?status=CONFIRMED&after=" + afterBookingNumber + "&limit=" + limit));
+    }
+
+    @Override
+    public List<Integer> getCompletedBookings() {
+        return integers(get("bookings?status=COMPLETED"));
+    }
+
+    @Override
+    public List<Integer> getCompletedBookings(int afterBookingNumber, int limit) {
+        return integers(get("bookings?status=COMPLETED&after=" + afterBookingNumber + "&limit=" + limit));
+    }
+
+    @Override
+    public Map<String, Integer> getStudentGrades(String studentId) {
+        Map<String, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> grade : ((Map<?, ?>) get("students/" + encodePath(studentId) + "/grades")).entrySet()) {
+            result.put((String) grade.getKey(), ((Number) grade.getValue()).intValue());
+        }
+        return result;
+    }
+
+    @Override
+    public Map<String, Double> getCourseAverage() {
+        Map<String, Double> result = new LinkedHashMap<>();
+        for (Map.Entry<?, ?> average : ((Map<?, ?>) get("averages")).entrySet()) {
+            result.put((String) average.getKey(), ((Number) average.getValue()).doubleValue());
+        }
+        return result;
+    }
+
+    /**
+     * Sends a form-encoded POST.
+     * @param form Alternating parameter names and values.
+     * @return The parsed response body.
+     */
+    private Object post(String path, String... form) {
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < form.length; i += 2) {
+            if (i > 0) {
+                body.append('&');
+            }
+            body.append(encode(form[i])).append('=').append(encode(form[i + 1]));
+        }
+        return parse(send(HttpRequest.newBuilder(baseUri.resolve(path))
+                .header("Content-Type", "application/x-www-form-urlencoded")
+                .POST(HttpRequest.BodyPublishers.ofString(body.toString()))));
+    }
+
+    private Object get(String pathAndQuery) {
+        HttpResponse<String> response = send(HttpRequest.newBuilder(baseUri.resolve(pathAndQuery)).GET());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException(baseUri + " answered " + response.statusCode() + " to " + pathAndQuery);
+        }
+        return Json.read(response.body());
+    }
+
+    private HttpResponse<String> send(HttpRequest.Builder request) {
+        try {
+            return client.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for " + baseUri, e);
+        }
+    }
+
+    /**
+     * Turns an operation's response into its body, or throws if the server refused the request as invalid.
+     */
+    private static Object parse(HttpResponse<String> response) {
+        Map<?, ?> body = (Map<?, ?>) Json.read(response.body());
+        if (body.containsKey("error")) {
+            throw new IllegalArgumentException((String) body.get("error"));
+        }
+        return body;
+    }
+
+    private static ResultCode result(Object body) {
+        return ResultCode.valueOf((String) ((Map<?, ?>) body).get("result"));
+    }
+
+    private static List<String> strings(Object list) {
+        List<String> result = new ArrayList<>();
+        for (Object value : (List<?>) list) {
+            result.add((String) value);
+        }
+        return result;
+    }
+
+    private static List<Integer> integers(Object list) {
+        List<Integer> result = new ArrayList<>();
+        for (Object value : (List<?>) list) {
+            result.add(((Number) value).intValue());
+        }
+        return result;
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String encodePath(String segment) {
+        return encode(segment).replace("+", "%20");
+    }
+}
@@ -0,0 +1,182 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * An immutable, consistent point-in-time view of the bookings and grades of a CourseManager, for reporting.
+ * Every query on a snapshot sees exactly the bookings, confirmations and grades made before
+ * {@link CourseManager#snapshot()} returned, however long it runs, and never blocks bookExam or setGrade.
+ * Snapshots share the manager's storage rather than copying it, so they stay valid until the manager is closed.
+ */
+public class ReportSnapshot {
+    private final StatusIndex.View statuses;
+    private final BookingStore bookings;
+    private final Map<String, Student> students;
+    private final Map<String, Exam> exams;
+    private final IdDictionary examOrdinals;
+    private final IdDictionary studentOrdinals;
+    private GradeReport report; // computed on first use
+
+    /**
+     * Constructor for the ReportSnapshot class.
+     * @param statuses The frozen status index that defines which bookings the snapshot contains.
+     * @param bookings The booking store. Grades are written before a booking becomes COMPLETED in the index.
+     * @param students The students; their booking lists are filtered through the frozen index.
+     * @param exams The exams, to map exams to their courses.
+     * @param examOrdinals Resolves exam ordinals.
+     * @param studentOrdinals Resolves student ordinals.
+     */
+    ReportSnapshot(StatusIndex.View statuses, BookingStore bookings, Map<String, Student> students,
+                   Map<String, Exam> exams, IdDictionary examOrdinals, IdDictionary studentOrdinals) {
+        this.statuses = statuses;
+        this.bookings = bookings;
+        this.students = students;
+        this.exams = exams;
+        this.examOrdinals = examOrdinals;
+        this.studentOrdinals = studentOrdinals;
+    }
+
+    /**
+     * @return The number of bookings in the snapshot.
+     */
+    public int getBookingCount() {
+        int total = 0;
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            total += statuses.count(status);
+        }
+        return total;
+    }
+
+    /**
+     * @param bookingNumber The booking number to look up.
+     * @return The status of the booking when the snapshot was taken, or null if it did not exist yet.
+     */
+    public Booking.BookingStatus getStatus(int bookingNumber) {
+        for (Booking.BookingStatus status : Booking.BookingStatus.values()) {
+            if (statuses.contains(status, bookingNumber)) {
+                return status;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * R3: Lists the CONFIRMED booking numbers in the snapshot.
+     * @return A sorted list of integers.
+     */
+    public List<Integer> getConfirmedBookings() {
+        return statuses.list(Booking.BookingStatus.CONFIRMED);
+    }
+
+    /**
+     * R3: Gets one page of the CONFIRMED booking numbers in the snapshot.
+     * @param afterBookingNumber The last booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit booking numbers in ascending order; empty when there are no more.
+     */
+    public List<Integer> getConfirmedBookings(int afterBookingNumber, int limit) {
+        return page(Booking.BookingStatus.CONFIRMED, afterBookingNumber, limit);
+    }
+
+    /**
+     * R4: Lists the COMPLETED booking numbers in the snapshot.
+     * @return A sorted list of integers.
+     */
+    public List<Integer> getCompletedBookings() {
+        return statuses.list(Booking.BookingStatus.COMPLETED);
+    }
+
+    /**
+     * R4: Gets one page of the COMPLETED booking numbers in the snapshot.
+     * @param afterBookingNumber The last booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit booking numbers in ascending order; empty when there are no more.
+     */
+    public List<Integer> getCompletedBookings(int afterBookingNumber, int limit) {
+        return page(Booking.BookingStatus.COMPLETED, afterBookingNumber, limit);
+    }
+
+    /**
+     * R5: Gets the grades a student had when the snapshot was taken.
+     * @param studentId The ID of the student.
+     * @return A map with examId as key and grade as value.
+     */
+    public Map<String, Integer> getStudentGrades(String studentId) {
+        Map<String, Integer> grades = new HashMap<>();
+        Student student = students.get(studentId);
+        if (student == null) {
+            return grades;
+        }
+        for (long entry : student.getBookingEntries()) {
+            int bookingNumber = (int) entry;
+            if (statuses.contains(Booking.BookingStatus.COMPLETED, bookingNumber)) {
+                grades.put(examOrdinals.idOf((int) (entry >>> 32)), bookings.getGrade(bookingNumber));
+            }
+        }
+        return grades;
+    }
+
+    /**
+     * R5: Calculates the average grade for each course in the snapshot.
+     * @return A map with courseId as key and the average grade as value.
+     */
+    public Map<String, Double> getCourseAverage() {
+        return analyze().getCourseAverages();
+    }
+
+    /**
+     * R5: Gets the grade statistics of a course in the snapshot.
+     * @param courseId The ID of the course.
+     * @return A copy of the course's grade statistics, empty if no exam had been graded.
+     */
+    public GradeStatistics getCourseStatistics(String courseId) {
+        return analyze().getCourseStatistics(courseId);
+    }
+
+    /**
+     * R5: Gets the grade statistics of an exam in the snapshot.
+     * @param examId The ID of the exam.
+     * @return A copy of the exam's grade statistics, empty if it had not been graded.
+     */
+    public GradeStatistics getExamStatistics(String examId) {
+        return analyze().getExamStatistics(examId);
+    }
+
+    /**
+     * Computes term-end statistics in one parallel pass over the snapshot's graded bookings, using the
+     * common fork/join pool. The report is computed once and shared by later calls.
+     * @return The report.
+     */
+    public synchronized GradeReport analyze() {
+        if (report == null) {
+            report = analyze(ForkJoinPool.commonPool());
+        }
+        return report;
+    }
+
+    /**
+     * Computes term-end statistics in one parallel pass over the snapshot's graded bookings.
+     * The result does not depend on the pool's parallelism.
+     * @param pool The pool to run the analysis in.
+     * @return A new report.
+     */
+    public GradeReport analyze(ForkJoinPool pool) {
+        return GradeAnalytics.run(pool, statuses, bookings, exams, examOrdinals, studentOrdinals);
+    }
+
+    private List<Integer> page(Booking.BookingStatus status, int afterBookingNumber, int limit) {
+        if (limit <= 0) {
+            throw new IllegalArgumentException("Page limit must be positive.");
+        }
+        int[] numbers = statuses.page(status, afterBookingNumber, limit);
+        List<Integer> page = new ArrayList<>(numbers.length);
+        for (int n : numbers) {
+            page.add(n);
+        }
+        return page;
+    }
+}
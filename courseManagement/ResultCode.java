@@ -0,0 +1,55 @@
+package courseManagement;
+
+/**
+ * Outcome of a CourseManager operation.
+ * Returned by the try* and batch APIs instead of throwing, so rejections cost no exception or message.
+ */
+public enum ResultCode {
+    OK,
+    COURSE_EXISTS,
+    INVALID_CAPACITY,
+    STUDENT_EXISTS,
+    UNKNOWN_COURSE,
+    COURSE_FULL,
+    ALREADY_ENROLLED,
+    EXAM_EXISTS,
+    UNKNOWN_STUDENT,
+    UNKNOWN_EXAM,
+    NOT_ENROLLED,
+    ALREADY_BOOKED,
+    UNKNOWN_BOOKING,
+    NOT_PENDING,
+    NOT_CONFIRMED,
+    INVALID_GRADE,
+    WAITLISTED,
+    EXAM_FULL,
+    TIME_CONFLICT,
+    ROOM_CONFLICT;
+
+    private static final ResultCode[] VALUES = values();
+
+    /**
+     * @return true if the operation succeeded.
+     */
+    public boolean isOk() {
+        return this == OK;
+    }
+
+    /**
+     * Encodes a failure as a negative int, so operations that return a positive number
+     * (such as a booking number) can report errors without allocating.
+     * @return The negative encoding of this code.
+     */
+    int encode() {
+        return -ordinal();
+    }
+
+    /**
+     * Decodes a value returned by an operation that uses {@link #encode()}.
+     * @param value A positive result or an encoded failure.
+     * @return OK for positive values, otherwise the encoded failure.
+     */
+    public static ResultCode decode(int value) {
+        return value > 0 ? OK : VALUES[-value];
+    }
+}
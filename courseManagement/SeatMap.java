@@ -0,0 +1,141 @@
+package courseManagement;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * The seats of an exam room. A booking reserves a seat and confirming it assigns a seat number.
+ * Reservations come from a few counters, each holding a share of the capacity and padded onto its own
+ * cache line; a booking starts at the counter picked by its student, so students booking the same popular
+ * exam rarely contend. Seat numbers are assigned under the exam lock, lowest free seat first.
+ */
+class SeatMap {
+    private static final int MAX_STRIPES = 8;
+    private static final int STRIPE_SPACING = 16; // ints between counters, so each sits on its own 64-byte line
+
+    private final int capacity;
+    private final int stripes;
+    private final AtomicIntegerArray unreserved;
+    // Guarded by the exam lock: booking number per seat (index seat - 1), 0 for a free seat
+    private int[] bookingBySeat = new int[0];
+    private int firstFree; // no seat below this index is free
+
+    /**
+     * Constructor for the SeatMap class.
+     * @param capacity The number of seats in the room.
+     */
+    SeatMap(int capacity) {
+        this.capacity = capacity;
+        this.stripes = Math.min(MAX_STRIPES, capacity);
+        this.unreserved = new AtomicIntegerArray(stripes * STRIPE_SPACING);
+        for (int s = 0; s < stripes; s++) {
+            unreserved.set(s * STRIPE_SPACING, capacity / stripes + (s < capacity % stripes ? 1 : 0));
+        }
+    }
+
+    int getCapacity() {
+        return capacity;
+    }
+
+    /**
+     * Reserves a seat without locking.
+     * @param hint Spreads callers over the counters, e.g. the student ordinal.
+     * @return true if a seat was reserved, false if the room is full.
+     */
+    boolean reserve(int hint) {
+        int first = Math.floorMod(hint, stripes);
+        for (int i = 0; i < stripes; i++) {
+            int index = ((first + i) % stripes) * STRIPE_SPACING;
+            for (int left = unreserved.get(index); left > 0; left = unreserved.get(index)) {
+                if (unreserved.compareAndSet(index, left, left - 1)) {
+                    return true;
+                }
+            }
+        }
+        // Reservations are only returned by a booking that could not be journaled, so a counter seen empty
+        // almost always stays empty and the room is full
+        return false;
+    }
+
+    /**
+     * Returns a reservation whose booking could not be made.
+     * @param hint The hint the reservation was made with.
+     */
+    void release(int hint) {
+        unreserved.incrementAndGet(Math.floorMod(hint, stripes) * STRIPE_SPACING);
+    }
+
+    /**
+     * @return The number of seats not yet reserved.
+     */
+    int getUnreserved() {
+        int total = 0;
+        for (int s = 0; s < stripes; s++) {
+            total += unreserved.get(s * STRIPE_SPACING);
+        }
+        return total;
+    }
+
+    /**
+     * Assigns the lowest free seat to a booking that holds a reservation. The caller must hold the exam lock.
+     * @param bookingNumber The booking.
+     * @return The seat number, from 1.
+     */
+    int assign(int bookingNumber) {
+        while (firstFree < bookingBySeat.length && bookingBySeat[firstFree] != 0) {
+            firstFree++;
+        }
+        grow(firstFree + 1);
+        bookingBySeat[firstFree] = bookingNumber;
+        return ++firstFree;
+    }
+
+    /**
+     * Marks a given seat as taken, for recovery. The caller must hold the exam lock.
+     * @param seat The seat number, from 1.
+     * @param bookingNumber The booking holding it.
+     */
+    void take(int seat, int bookingNumber) {
+        grow(seat);
+        bookingBySeat[seat - 1] = bookingNumber;
+    }
+
+    /**
+     * Grows the seat array to hold at least the given number of seats, doubling up to the capacity.
+     */
+    private void grow(int seats) {
+        if (seats > bookingBySeat.length) {
+            int length = Math.max(seats, Math.max(16, bookingBySeat.length * 2));
+            bookingBySeat = Arrays.copyOf(bookingBySeat, Math.min(capacity, length));
+        }
+    }
+
+    /**
+     * Uses up one reservation without checking the capacity, for a booking being recovered.
+     */
+    void restoreReservation() {
+        for (int s = 0; s < stripes; s++) {
+            int index = s * STRIPE_SPACING;
+            if (unreserved.get(index) > 0) {
+                unreserved.decrementAndGet(index);
+                return;
+            }
+        }
+    }
+
+    /**
+     * Returns the assigned seats. The caller must hold the exam lock.
+     * @return A map with the seat number as key and the booking number as value, in seat order.
+     */
+    Map<Integer, Integer> getAssignments() {
+        Map<Integer, Integer> assignments = new LinkedHashMap<>();
+        for (int i = 0; i < bookingBySeat.length; i++) {
+            if (bookingBySeat[i] != 0) {
+                assignments.put(i + 1, bookingBySeat[i]);
+            }
+        }
+        return assignments;
+    }
+}
@@ -0,0 +1,51 @@
+package courseManagement;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One node of a {@link ShardedCourseManager}: the operations the router sends to the shard that owns a course,
+ * and the queries it gathers from every shard. A {@link CourseManager} is an in-process shard; a
+ * {@link RemoteShard} reaches a {@link CourseServer} over HTTP. Each method behaves like its CourseManager
+ * namesake, and booking numbers are the shard's own.
+ */
+public interface Shard {
+
+    ResultCode tryAddCourse(String courseId, int maxStudents);
+
+    ResultCode tryEnrollStudent(String studentId, String... courseIds);
+
+    ResultCode tryDropCourse(String studentId, String courseId);
+
+    ResultCode tryUnregisterStudent(String studentId);
+
+    ResultCode tryAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot);
+
+    int tryBookExam(String studentId, String examId);
+
+    ResultCode tryConfirmBooking(int bookingNumber);
+
+    ResultCode trySetGrade(int bookingNumber, int grade);
+
+    /**
+     * @param studentId The ID of the student.
+     * @return true if the student is registered on this shard.
+     */
+    boolean isRegistered(String studentId);
+
+    List<String> getEnrolledStudents(String courseId);
+
+    Map<String, List<String>> getExamsByCourse();
+
+    List<Integer> getConfirmedBookings();
+
+    List<Integer> getConfirmedBookings(int afterBookingNumber, int limit);
+
+    List<Integer> getCompletedBookings();
+
+    List<Integer> getCompletedBookings(int afterBookingNumber, int limit);
+
+    Map<String, Integer> getStudentGrades(String studentId);
+
+    Map<String, Double> getCourseAverage();
+}
@@ -0,0 +1,400 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Routes CourseManager operations to a set of {@link Shard}s partitioned by course.
+ * A course, its roster, its exams and their bookings all live on the shard that owns the course ID, so
+ * enrollStudent, addExam, bookExam, confirmBooking and setGrade each run on one shard. Queries that span
+ * courses (getCourseAverage, getStudentGrades, getConfirmedBookings) are sent to every shard in parallel and
+ * their results merged.
+ * <p>
+ * A student is registered on their home shard, picked by student ID, and on every shard that owns one of
+ * their courses. The home shard makes student IDs unique across the cluster. Booking numbers are the shards'
+ * own numbers interleaved: local booking n of shard s is global booking (n - 1) * shards + s + 1. So they are
+ * unique across the cluster, and each shard keeps its numbers dense.
+ * <p>
+ * One router must front the cluster: it keeps the exam-to-shard directory, loaded from the shards when it
+ * starts. Unlike a single manager, an enrollment that spans shards is not atomic. If a later shard rejects it,
+ * the shards that already accepted drop the courses again and unregister the student, so the enrollment can
+ * be retried. Until then, readers of those shards can see the partial enrollment.
+ */
+public class ShardedCourseManager implements AutoCloseable {
+    private final List<Shard> shards;
+    private final Map<String, Integer> examShards = new ConcurrentHashMap<>();
+    private final ExecutorService scatterPool;
+
+    /**
+     * Constructor for the ShardedCourseManager class. Loads the exam directory from the shards.
+     * @param shards The shards, in a fixed order: a shard's position decides which courses it owns.
+     */
+    public ShardedCourseManager(List<? extends Shard> shards) {
+        this.shards = List.copyOf(shards);
+        this.scatterPool = Executors.newFixedThreadPool(this.shards.size(), task -> {
+            Thread thread = new Thread(task, "shard-scatter");
+            thread.setDaemon(true);
+            return thread;
+        });
+        List<Map<String, List<String>>> examsByShard = scatter(Shard::getExamsByCourse);
+        for (int s = 0; s < examsByShard.size(); s++) {
+            for (List<String> examIds : examsByShard.get(s).values()) {
+                for (String examId : examIds) {
+                    examShards.put(examId, s);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.size();
+    }
+
+    /**
+     * Gets the shard that owns a course.
+     * @param courseId The ID of the course.
+     * @return The shard's position.
+     */
+    public int shardOf(String courseId) {
+        return Math.floorMod(courseId.hashCode(), shards.size());
+    }
+
+    private int homeOf(String studentId) {
+        return Math.floorMod(studentId.hashCode(), shards.size());
+    }
+
+    /**
+     * R1: Adds a course on the shard that owns it.
+     * @param courseId The unique ID for the course.
+     * @param maxStudents The maximum number of students allowed.
+     * @return OK, COURSE_EXISTS or INVALID_CAPACITY.
+     */
+    public ResultCode tryAddCourse(String courseId, int maxStudents) {
+        return shards.get(shardOf(courseId)).tryAddCourse(courseId, maxStudents);
+    }
+
+    /**
+     * R1: Registers a student and enrolls them in courses, one shard at a time, starting with their home shard.
+     * If a shard rejects its courses, the shards that accepted drop the courses again and unregister the
+     * student, so a failed enrollment can be retried with the same student ID.
+     * @param studentId The unique ID for the student.
+     * @param courseIds The IDs of the courses.
+     * @return OK or the first rejection (STUDENT_EXISTS, UNKNOWN_COURSE, COURSE_FULL or ALREADY_ENROLLED).
+     */
+    public ResultCode tryEnrollStudent(String studentId, String... courseIds) {
+        Map<Integer, List<String>> coursesByShard = new LinkedHashMap<>();
+        coursesByShard.put(homeOf(studentId), new ArrayList<>());
+        for (String courseId : courseIds) {
+            coursesByShard.computeIfAbsent(shardOf(courseId), s -> new ArrayList<>()).add(courseId);
+        }
+        List<Map.Entry<Integer, List<String>>> enrolled = new ArrayList<>();
+        for (Map.Entry<Integer, List<String>> entry : coursesByShard.entrySet()) {
+            ResultCode result = shards.get(entry.getKey()).tryEnrollStudent(studentId,
+                    entry.getValue().toArray(new String[0]));
+            if (!result.isOk()) {
+                for (Map.Entry<Integer, List<String>> done : enrolled) {
+                    Shard shard = shards.get(done.getKey());
+                    for (String courseId : done.getValue()) {
+                        shard.tryDropCourse(studentId, courseId);
+                    }
+                    shard.tryUnregisterStudent(studentId);
+                }
+                return result;
+            }
+            enrolled.add(entry);
+        }
+        return ResultCode.OK;
+    }
+
+    /**
+     * R2: Adds an exam on the shard that owns its course.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @return OK, UNKNOWN_COURSE or EXAM_EXISTS.
+     */
+    public ResultCode tryAddExam(String courseId, String examId, String location) {
+        return tryAddExam(courseId, examId, location, 0, null);
+    }
+
+    /**
+     * R2: Adds an exam with a room capacity and a time slot on the shard that owns its course.
+     * Time slot clashes are checked within that shard only.
+     * @param courseId The ID of the course.
+     * @param examId The unique ID for the exam.
+     * @param location The location of the exam.
+     * @param seats The number of seats in the room, or 0 for no limit.
+     * @param timeSlot When the exam takes place, or null if it is not scheduled.
+     * @return OK, UNKNOWN_COURSE, EXAM_EXISTS, INVALID_CAPACITY or ROOM_CONFLICT.
+     */
+    public ResultCode tryAddExam(String courseId, String examId, String location, int seats, TimeSlot timeSlot) {
+        int shard = shardOf(courseId);
+        // Claimed in the directory first, so the same exam ID cannot be added on two shards
+        if (examShards.putIfAbsent(examId, shard) != null) {
+            return ResultCode.EXAM_EXISTS;
+        }
+        ResultCode result = shards.get(shard).tryAddExam(courseId, examId, location, seats, timeSlot);
+        if (!result.isOk()) {
+            examShards.remove(examId, shard);
+        }
+        return result;
+    }
+
+    /**
+     * R3: Books a student for an exam on the shard that owns the exam.
+     * @param studentId The ID of the student.
+     * @param examId The ID of the exam.
+     * @return The global booking number (positive) or a negative failure code; see
+     *         {@link CourseManager#tryBookExam}.
+     */
+    public int tryBookExam(String studentId, String examId) {
+        Integer shard = examShards.get(examId);
+        if (shard == null) {
+            return (isRegistered(studentId) ? ResultCode.UNKNOWN_EXAM : ResultCode.UNKNOWN_STUDENT).encode();
+        }
+        int result = shards.get(shard).tryBookExam(studentId, examId);
+        if (result > 0) {
+            return globalBookingNumber(shard, result);
+        }
+        // A student who takes no course on the exam's shard is not registered there
+        if (ResultCode.decode(result) == ResultCode.UNKNOWN_STUDENT && isRegistered(studentId)) {
+            return ResultCode.NOT_ENROLLED.encode();
+        }
+        return result;
+    }
+
+    /**
+     * R3: Confirms a PENDING booking on the shard that holds it.
+     * @param bookingNumber The global booking number.
+     * @return OK, UNKNOWN_BOOKING or NOT_PENDING.
+     */
+    public ResultCode tryConfirmBooking(int bookingNumber) {
+        if (bookingNumber <= 0) {
+            return ResultCode.UNKNOWN_BOOKING;
+        }
+        return shards.get(shardOfBooking(bookingNumber)).tryConfirmBooking(localBookingNumber(bookingNumber));
+    }
+
+    /**
+     * R4: Sets the grade of a CONFIRMED booking on the shard that holds it.
+     * @param bookingNumber The global booking number.
+     * @param grade The grade (0-100).
+     * @return OK, UNKNOWN_BOOKING, NOT_CONFIRMED or INVALID_GRADE.
+     */
+    public ResultCode trySetGrade(int bookingNumber, int grade) {
+        if (bookingNumber <= 0) {
+            return ResultCode.UNKNOWN_BOOKING;
+        }
+        return shards.get(shardOfBooking(bookingNumber)).trySetGrade(localBookingNumber(bookingNumber), grade);
+    }
+
+    /**
+     * Checks if a student is registered, on their home shard.
+     * @param studentId The ID of the student.
+     * @return true if the student is registered.
+     */
+    public boolean isRegistered(String studentId) {
+        return shards.get(homeOf(studentId)).isRegistered(studentId);
+    }
+
+    /**
+     * R1: Gets the sorted student IDs of a course from the shard that owns it.
+     * @param courseId The ID of the course.
+     * @return A sorted list of student IDs.
+     */
+    public List<String> getEnrolledStudents(String courseId) {
+        return shards.get(shardOf(courseId)).getEnrolledStudents(courseId);
+    }
+
+    /**
+     * R2: Gathers the exams of every course from all shards.
+     * @return A map with courseId as key and a sorted list of examIds as value, sorted by course.
+     */
+    public Map<String, List<String>> getExamsByCourse() {
+        Map<String, List<String>> result = new TreeMap<>();
+        for (Map<String, List<String>> exams : scatter(Shard::getExamsByCourse)) {
+            result.putAll(exams);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * R3: Gathers the CONFIRMED bookings from all shards.
+     * @return The global booking numbers in ascending order.
+     */
+    public List<Integer> getConfirmedBookings() {
+        return merge(scatter(Shard::getConfirmedBookings), Integer.MAX_VALUE);
+    }
+
+    /**
+     * R3: Gathers one page of the CONFIRMED bookings from all shards. Each shard returns at most limit
+     * bookings after the cursor, and the pages are merged.
+     * @param afterBookingNumber The last global booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit global booking numbers in ascending order.
+     */
+    public List<Integer> getConfirmedBookings(int afterBookingNumber, int limit) {
+        return merge(scatterPages((shard, after) -> shard.getConfirmedBookings(after, limit), afterBookingNumber),
+                limit);
+    }
+
+    /**
+     * R4: Gathers the COMPLETED bookings from all shards.
+     * @return The global booking numbers in ascending order.
+     */
+    public List<Integer> getCompletedBookings() {
+        return merge(scatter(Shard::getCompletedBookings), Integer.MAX_VALUE);
+    }
+
+    /**
+     * R4: Gathers one page of the COMPLETED bookings from all shards.
+     * @param afterBookingNumber The last global booking number of the previous page, or 0 for the first page.
+     * @param limit The maximum number of booking numbers to return.
+     * @return Up to limit global booking numbers in ascending order.
+     */
+    public List<Integer> getCompletedBookings(int afterBookingNumber, int limit) {
+        return merge(scatterPages((shard, after) -> shard.getCompletedBookings(after, limit), afterBookingNumber),
+                limit);
+    }
+
+    /**
+     * R5: Gathers a student's grades from every shard.
+     * @param studentId The ID of the student.
+     * @return A map with examId as key and grade as value.
+     */
+    public Map<String, Integer> getStudentGrades(String studentId) {
+        Map<String, Integer> result = new HashMap<>();
+        for (Map<String, Integer> grades : scatter(shard -> shard.getStudentGrades(studentId))) {
+            result.putAll(grades);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * R5: Gathers the course averages from every shard. Each course is averaged on the shard that owns it.
+     * @return A map with courseId as key and average grade as value.
+     */
+    public Map<String, Double> getCourseAverage() {
+        Map<String, Double> result = new HashMap<>();
+        for (Map<String, Double> averages : scatter(Shard::getCourseAverage)) {
+            result.putAll(averages);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Stops the threads that query the shards. The shards are left open.
+     */
+    @Override
+    public void close() {
+        scatterPool.shutdown();
+    }
+
+    int globalBookingNumber(int shard, int localBookingNumber) {
+        return (localBookingNumber - 1) * shards.size() + shard + 1;
+    }
+
+    private int shardOfBooking(int bookingNumber) {
+        return (bookingNumber - 1) % shards.size();
+    }
+
+    private int localBookingNumber(int bookingNumber) {
+        return (bookingNumber - 1) / shards.size() + 1;
+    }
+
+    /**
+     * Runs a call on every shard in parallel.
+     * @return The results, in shard order.
+     */
+    private <T> List<T> scatter(Function<Shard, T> call) {
+        List<Future<T>> futures = new ArrayList<>();
+        for (Shard shard : shards) {
+            futures.add(scatterPool.submit(() -> call.apply(shard)));
+        }
+        List<T> results = new ArrayList<>();
+        for (Future<T> future : futures) {
+            results.add(await(future));
+        }
+        return results;
+    }
+
+    private interface PageCall {
+        List<Integer> page(Shard shard, int afterLocalBookingNumber);
+    }
+
+    /**
+     * Fetches a page from every shard, translating a global cursor into each shard's own booking numbers.
+     * @return The pages in local booking numbers, in shard order.
+     */
+    private List<List<Integer>> scatterPages(PageCall call, int afterBookingNumber) {
+        List<Future<List<Integer>>> futures = new ArrayList<>();
+        for (int s = 0; s < shards.size(); s++) {
+            // The last local booking of shard s whose global number is at most the cursor
+            int after = Math.max(0, Math.floorDiv(afterBookingNumber - s - 1, shards.size()) + 1);
+            Shard shard = shards.get(s);
+            futures.add(scatterPool.submit(() -> call.page(shard, after)));
+        }
+        List<List<Integer>> pages = new ArrayList<>();
+        for (Future<List<Integer>> future : futures) {
+            pages.add(await(future));
+        }
+        return pages;
+    }
+
+    /**
+     * Waits for a shard's answer, rethrowing the shard's exception.
+     */
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the shards.", e);
+        }
+    }
+
+    /**
+     * Translates each shard's booking numbers to global ones and merges them in ascending order.
+     * @param localBookings Sorted local booking numbers, in shard order.
+     * @param limit The maximum number of booking numbers to return.
+     */
+    private List<Integer> merge(List<List<Integer>> localBookings, int limit) {
+        int total = 0;
+        for (List<Integer> bookings : localBookings) {
+            total += bookings.size();
+        }
+        int[] merged = new int[total];
+        int size = 0;
+        for (int s = 0; s < localBookings.size(); s++) {
+            for (int local : localBookings.get(s)) {
+                merged[size++] = globalBookingNumber(s, local);
+            }
+        }
+        Arrays.sort(merged);
+        List<Integer> result = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < size && i < limit; i++) {
+            result.add(merged[i]);
+        }
+        return Collections.unmodifiableList(result);
+    }
+}
@@ -0,0 +1,156 @@
+package courseManagement;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+
+/**
+ * Tests of the course-partitioned router against clusters of in-process and localhost nodes.
+ */
+public class ShardedCourseManagerTest {
+
+    /**
+     * Runs one term on a cluster and on a single manager, and checks the gathered results match.
+     */
+    private void checkMatchesSingleManager(LocalCluster cluster, int nodeCount) throws Exception {
+        ShardedCourseManager router = cluster.getRouter();
+        CourseManager single = new CourseManager();
+        int courses = 12;
+        for (int c = 0; c < courses; c++) {
+            assertEquals(ResultCode.OK, router.tryAddCourse("C" + c, 50));
+            assertEquals(ResultCode.OK, router.tryAddExam("C" + c, "E" + c, "Room " + c));
+            single.addCourse("C" + c, 50);
+            single.addExam("C" + c, "E" + c, "Room " + c);
+        }
+        List<Integer> bookings = new ArrayList<>();
+        for (int s = 0; s < 40; s++) {
+            String[] courseIds = {"C" + s % courses, "C" + (s * 5 + 1) % courses, "C" + (s * 7 + 2) % courses};
+            if (courseIds[1].equals(courseIds[0]) || courseIds[2].equals(courseIds[0])
+                    || courseIds[2].equals(courseIds[1])) {
+                courseIds = new String[]{courseIds[0]};
+            }
+            assertEquals(ResultCode.OK, router.tryEnrollStudent("S" + s, courseIds));
+            single.enrollStudent("S" + s, courseIds);
+            for (String courseId : courseIds) {
+                String examId = "E" + courseId.substring(1);
+                int bookingNumber = router.tryBookExam("S" + s, examId);
+                assertTrue(bookingNumber > 0);
+                bookings.add(bookingNumber);
+                int expected = single.bookExam("S" + s, examId);
+                if (s % 3 != 0) {
+                    assertEquals(ResultCode.OK, router.tryConfirmBooking(bookingNumber));
+                    single.confirmBooking(expected);
+                    if (s % 3 == 1) {
+                        assertEquals(ResultCode.OK, router.trySetGrade(bookingNumber, (s * 13 + expected) % 101));
+                        single.setGrade(expected, (s * 13 + expected) % 101);
+                    }
+                }
+            }
+        }
+
+        // Global booking numbers are unique and each node's own numbers stay dense
+        assertEquals(bookings.size(), new HashSet<>(bookings).size());
+        int local = 0;
+        for (int n = 0; n < nodeCount; n++) {
+            local += cluster.getNode(n).getNextBookingNumber() - 1;
+        }
+        assertEquals(bookings.size(), local);
+
+        assertEquals(single.getCourseAverage(), router.getCourseAverage());
+        assertEquals(single.getExamsByCourse(), router.getExamsByCourse());
+        for (int s = 0; s < 40; s++) {
+            assertEquals(single.getStudentGrades("S" + s), router.getStudentGrades("S" + s));
+        }
+        assertEquals(single.getConfirmedBookings().size(), router.getConfirmedBookings().size());
+        assertEquals(single.getCompletedBookings().size(), router.getCompletedBookings().size());
+        assertEquals(single.getEnrolledStudents("C3"), router.getEnrolledStudents("C3"));
+
+        // Paging through the merged pages visits every confirmed booking once, in order
+        List<Integer> paged = new ArrayList<>();
+        for (List<Integer> page = router.getConfirmedBookings(0, 7); !page.isEmpty();
+             page = router.getConfirmedBookings(page.get(page.size() - 1), 7)) {
+            assertTrue(page.size() <= 7);
+            paged.addAll(page);
+        }
+        assertEquals(router.getConfirmedBookings(), paged);
+    }
+
+    /**
+     * Sharding Test: Verifies an in-process cluster gives the same results as a single manager.
+     */
+    @Test
+    public void testInProcessClusterMatchesSingleManager() throws Exception {
+        try (LocalCluster cluster = LocalCluster.inProcess(3)) {
+            checkMatchesSingleManager(cluster, 3);
+        }
+    }
+
+    /**
+     * Sharding Test: Verifies a cluster of localhost nodes reached over HTTP gives the same results.
+     */
+    @Test
+    public void testLocalhostClusterMatchesSingleManager() throws Exception {
+        try (LocalCluster cluster = LocalCluster.localhost(2)) {
+            checkMatchesSingleManager(cluster, 2);
+        }
+    }
+
+    /**
+     * Sharding Test: Verifies IDs stay unique across shards, a student outside an exam's course is reported
+     * as not enrolled, and an enrollment rejected by one shard is undone on the others.
+     */
+    @Test
+    public void testCrossShardRules() throws Exception {
+        try (LocalCluster cluster = LocalCluster.inProcess(3)) {
+            ShardedCourseManager router = cluster.getRouter();
+            // Two courses owned by different shards
+            String first = "A";
+            String second = "B";
+            for (int i = 0; router.shardOf(second) == router.shardOf(first); i++) {
+                second = "B" + i;
+            }
+            assertEquals(ResultCode.OK, router.tryAddCourse(first, 10));
+            assertEquals(ResultCode.OK, router.tryAddCourse(second, 10));
+            assertEquals(ResultCode.OK, router.tryAddExam(first, "X1", "Hall"));
+            assertEquals(ResultCode.EXAM_EXISTS, router.tryAddExam(second, "X1", "Hall"));
+            assertEquals(ResultCode.UNKNOWN_COURSE, router.tryAddExam("NOPE", "X2", "Hall"));
+            assertEquals(ResultCode.OK, router.tryAddExam(second, "X2", "Hall")); // freed by the rejection
+
+            assertEquals(ResultCode.OK, router.tryEnrollStudent("S1", second));
+            assertEquals(ResultCode.STUDENT_EXISTS, router.tryEnrollStudent("S1", first));
+            assertEquals(ResultCode.NOT_ENROLLED, ResultCode.decode(router.tryBookExam("S1", "X1")));
+            assertEquals(ResultCode.UNKNOWN_STUDENT, ResultCode.decode(router.tryBookExam("S9", "X1")));
+            assertEquals(ResultCode.UNKNOWN_EXAM, ResultCode.decode(router.tryBookExam("S1", "X9")));
+            assertEquals(ResultCode.UNKNOWN_BOOKING, router.tryConfirmBooking(0));
+
+            for (int i = 0; i < 10; i++) {
+                assertEquals(ResultCode.OK, router.tryEnrollStudent("F" + i, first));
+            }
+            assertEquals(ResultCode.COURSE_FULL, router.tryEnrollStudent("S2", second, first));
+            assertEquals(List.of("S1"), router.getEnrolledStudents(second));
+            assertFalse(router.isRegistered("S2"));
+            for (int n = 0; n < 3; n++) {
+                assertFalse(cluster.getNode(n).isRegistered("S2"));
+            }
+            // The failed enrollment left nothing behind, so it can be retried
+            assertEquals(ResultCode.OK, router.tryEnrollStudent("S2", second));
+            assertEquals(List.of("S1", "S2"), router.getEnrolledStudents(second));
+
+            // A new router rebuilds the exam directory from the shards
+            List<Shard> shards = new ArrayList<>();
+            for (int n = 0; n < 3; n++) {
+                shards.add(cluster.getNode(n));
+            }
+            try (ShardedCourseManager restarted = new ShardedCourseManager(shards)) {
+                assertEquals(ResultCode.EXAM_EXISTS, restarted.tryAddExam(first, "X2", "Hall"));
+                int bookingNumber = restarted.tryBookExam("S1", "X2");
+                assertEquals(ResultCode.OK, restarted.tryConfirmBooking(bookingNumber));
+                assertEquals(List.of(bookingNumber), restarted.getConfirmedBookings());
+            }
+        }
+    }
+}
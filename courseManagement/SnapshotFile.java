@@ -0,0 +1,217 @@
+package courseManagement;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads and writes CourseManager snapshots.
+ * IDs are written once and referenced by index, so each booking takes a fixed 15 bytes.
+ * A snapshot may be taken while mutations continue: an entry whose dependencies were not
+ * captured is left out, and the journal replay from the snapshot's LSN restores it.
+ * Each course's roster and waitlist are captured together under the course lock, with the LSN of the
+ * last journal record they contain.
+ */
+final class SnapshotFile {
+    private static final int MAGIC = 0x434D5331; // "CMS" followed by the format version, 1
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes a snapshot of a manager and forces it to disk.
+     * @param file The file to write.
+     * @param lsn The first journal LSN not covered by the snapshot.
+     * @param manager The manager to capture.
+     * @throws IOException if the file cannot be written.
+     */
+    static void write(Path file, long lsn, CourseManager manager) throws IOException {
+        try (FileOutputStream fileOut = new FileOutputStream(file.toFile());
+             DataOutputStream out = new DataOutputStream(new BufferedOutputStream(fileOut, 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeLong(lsn);
+            out.writeInt(manager.getNextBookingNumber());
+
+            List<Course> courses = new ArrayList<>(manager.courseValues());
+            Map<String, Integer> courseIndex = new HashMap<>();
+            out.writeInt(courses.size());
+            for (Course course : courses) {
+                courseIndex.put(course.getCourseId(), courseIndex.size());
+                out.writeUTF(course.getCourseId());
+                out.writeInt(course.getMaxStudents());
+            }
+
+            List<Exam> exams = new ArrayList<>();
+            for (Exam exam : manager.examValues()) {
+                if (courseIndex.containsKey(exam.getCourseId())) {
+                    exams.add(exam);
+                }
+            }
+            Map<String, Integer> examIndex = new HashMap<>();
+            out.writeInt(exams.size());
+            for (Exam exam : exams) {
+                examIndex.put(exam.getExamId(), examIndex.size());
+                out.writeUTF(exam.getExamId());
+                out.writeInt(courseIndex.get(exam.getCourseId()));
+                out.writeUTF(exam.getLocation());
+                out.writeInt(exam.getSeatCapacity());
+                TimeSlot timeSlot = exam.getTimeSlot();
+                out.writeBoolean(timeSlot != null);
+                if (timeSlot != null) {
+                    out.writeLong(timeSlot.getStart());
+                    out.writeLong(timeSlot.getEnd());
+                }
+            }
+
+            // Rosters are captured before the students. A student on them may be unregistered in between, as when
+            // a cross-shard enrollment is rolled back; writeStudents leaves them out, and the replay of the drop
+            // and unregistration records, which come after the snapshot's LSN, ends in the same state
+            long[] rosterLsns = new long[courses.size()];
+            List<List<String>> rosters = new ArrayList<>();
+            List<List<String>> waitlists = new ArrayList<>();
+            for (int i = 0; i < courses.size(); i++) {
+                Course course = courses.get(i);
+                course.lock();
+                try {
+                    rosterLsns[i] = course.getRosterLsn();
+                    rosters.add(course.getEnrolledStudents());
+                    waitlists.add(course.getWaitlist());
+                } finally {
+                    course.unlock();
+                }
+            }
+
+            Map<String, Integer> studentIndex = new HashMap<>();
+            List<Student> students = new ArrayList<>(manager.studentValues());
+            out.writeInt(students.size());
+            for (Student student : students) {
+                studentIndex.put(student.getStudentId(), studentIndex.size());
+                out.writeUTF(student.getStudentId());
+            }
+
+            for (int i = 0; i < courses.size(); i++) {
+                out.writeLong(rosterLsns[i]);
+                writeStudents(out, rosters.get(i), studentIndex);
+                writeStudents(out, waitlists.get(i), studentIndex);
+            }
+
+            // Bookings are streamed in one pass and terminated by booking number 0, so no count is needed
+            BookingStore store = manager.bookingStore();
+            int end = manager.getNextBookingNumber();
+            for (int n = 1; n < end; n++) {
+                if (!store.contains(n)) {
+                    continue;
+                }
+                String studentId = store.getStudentId(n);
+                String examId = store.getExamId(n);
+                if (!studentIndex.containsKey(studentId) || !examIndex.containsKey(examId)) {
+                    continue;
+                }
+                // Status before grade: a booking is only seen as COMPLETED once its grade is set
+                Booking.BookingStatus status = store.getStatus(n);
+                out.writeInt(n);
+                out.writeInt(studentIndex.get(studentId));
+                out.writeInt(examIndex.get(examId));
+                out.writeByte(status.ordinal());
+                out.writeByte(status == Booking.BookingStatus.COMPLETED ? store.getGrade(n) : -1);
+                out.writeShort(status != Booking.BookingStatus.PENDING ? store.getSeat(n) : 0);
+            }
+            out.writeInt(0);
+            out.flush();
+            fileOut.getFD().sync();
+        }
+    }
+
+    /**
+     * Writes the indexes of the students in a roster or waitlist, leaving out students no longer registered.
+     */
+    private static void writeStudents(DataOutputStream out, List<String> studentIds, Map<String, Integer> studentIndex)
+            throws IOException {
+        int[] indexes = new int[studentIds.size()];
+        int count = 0;
+        for (String studentId : studentIds) {
+            Integer index = studentIndex.get(studentId);
+            if (index != null) {
+                indexes[count++] = index;
+            }
+        }
+        out.writeInt(count);
+        for (int i = 0; i < count; i++) {
+            out.writeInt(indexes[i]);
+        }
+    }
+
+    private static List<String> readStudents(DataInputStream in, String[] studentIds) throws IOException {
+        String[] result = new String[in.readInt()];
+        for (int k = 0; k < result.length; k++) {
+            result[k] = studentIds[in.readInt()];
+        }
+        return Arrays.asList(result);
+    }
+
+    /**
+     * Loads a snapshot into an empty manager.
+     * @param file The file to read.
+     * @param manager The manager to restore into.
+     * @return The first journal LSN not covered by the snapshot.
+     * @throws IOException if the file cannot be read or is not a snapshot.
+     */
+    static long read(Path file, CourseManager manager) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file), 1 << 16))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a snapshot file.");
+            }
+            long lsn = in.readLong();
+            manager.restoreNextBookingNumber(in.readInt());
+
+            String[] courseIds = new String[in.readInt()];
+            for (int i = 0; i < courseIds.length; i++) {
+                courseIds[i] = in.readUTF();
+                manager.restoreCourse(courseIds[i], in.readInt());
+            }
+
+            String[] examIds = new String[in.readInt()];
+            for (int i = 0; i < examIds.length; i++) {
+                examIds[i] = in.readUTF();
+                String courseId = courseIds[in.readInt()];
+                String location = in.readUTF();
+                int seats = in.readInt();
+                TimeSlot timeSlot = in.readBoolean() ? new TimeSlot(in.readLong(), in.readLong()) : null;
+                manager.restoreExam(courseId, examIds[i], location, seats, timeSlot);
+            }
+
+            String[] studentIds = new String[in.readInt()];
+            for (int i = 0; i < studentIds.length; i++) {
+                studentIds[i] = in.readUTF();
+                manager.restoreStudent(studentIds[i]);
+            }
+            for (String courseId : courseIds) {
+                long rosterLsn = in.readLong();
+                List<String> roster = readStudents(in, studentIds);
+                manager.restoreRoster(courseId, rosterLsn, roster, readStudents(in, studentIds));
+            }
+
+            Booking.BookingStatus[] statuses = Booking.BookingStatus.values();
+            int bookingNumber;
+            while ((bookingNumber = in.readInt()) != 0) {
+                String studentId = studentIds[in.readInt()];
+                String examId = examIds[in.readInt()];
+                Booking.BookingStatus status = statuses[in.readByte()];
+                int grade = in.readByte();
+                int seat = in.readUnsignedShort();
+                manager.restoreBooking(bookingNumber, studentId, examId, status, grade, seat);
+            }
+            return lsn;
+        }
+    }
+}
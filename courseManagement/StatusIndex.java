@@ -0,0 +1,246 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The booking numbers in each status, kept as bitmaps split into fixed-size segments.
+ * Segments are copy-on-write: {@link #snapshot()} shares every segment with an immutable {@link View}
+ * in time proportional to the number of segments, and the first write to a shared segment copies it.
+ * Writers and live readers synchronize on the index; views are read without locking.
+ */
+class StatusIndex {
+    private static final int SEGMENT_SHIFT = 16; // 65,536 booking numbers (8 KB) per segment
+    static final int SEGMENT_SIZE = 1 << SEGMENT_SHIFT;
+    private static final int SEGMENT_MASK = (1 << SEGMENT_SHIFT) - 1;
+    private static final int SEGMENT_WORDS = 1 << (SEGMENT_SHIFT - 6);
+    private static final int STATUSES = Booking.BookingStatus.values().length;
+
+    private long[][][] segments = new long[STATUSES][0][]; // [status][segment][word]
+    // The epoch each segment was allocated or copied in; segments from an earlier epoch are shared with a view
+    private int[][] segmentEpochs = new int[STATUSES][0];
+    private int epoch;
+    private final int[] counts = new int[STATUSES];
+
+    /**
+     * Adds a booking number to a status.
+     * @param status The status.
+     * @param bookingNumber The booking number, not yet in any status.
+     */
+    synchronized void add(Booking.BookingStatus status, int bookingNumber) {
+        set(status.ordinal(), bookingNumber);
+    }
+
+    /**
+     * Moves a booking number between statuses in one step, so a snapshot never sees it in neither.
+     * @param bookingNumber The booking number.
+     * @param from The current status.
+     * @param to The new status.
+     */
+    synchronized void move(int bookingNumber, Booking.BookingStatus from, Booking.BookingStatus to) {
+        clear(from.ordinal(), bookingNumber);
+        set(to.ordinal(), bookingNumber);
+    }
+
+    /**
+     * Adds many booking numbers to a status under one acquisition of the lock.
+     * @param status The status.
+     * @param bookingNumbers The booking numbers, none of them in any status yet.
+     * @param count How many of bookingNumbers to add, from the first.
+     */
+    synchronized void addAll(Booking.BookingStatus status, int[] bookingNumbers, int count) {
+        for (int i = 0; i < count; i++) {
+            set(status.ordinal(), bookingNumbers[i]);
+        }
+    }
+
+    /**
+     * Moves many booking numbers between statuses under one acquisition of the lock.
+     * @param bookingNumbers The booking numbers.
+     * @param count How many of bookingNumbers to move, from the first.
+     * @param from Their current status.
+     * @param to The new status.
+     */
+    synchronized void moveAll(int[] bookingNumbers, int count, Booking.BookingStatus from, Booking.BookingStatus to) {
+        for (int i = 0; i < count; i++) {
+            clear(from.ordinal(), bookingNumbers[i]);
+            set(to.ordinal(), bookingNumbers[i]);
+        }
+    }
+
+    /**
+     * @param status The status.
+     * @return The number of bookings in the status.
+     */
+    synchronized int count(Booking.BookingStatus status) {
+        return counts[status.ordinal()];
+    }
+
+    /**
+     * Lists up to limit booking numbers in a status that are greater than afterBookingNumber.
+     * Runs under the lock, so it is meant for bounded pages; use a snapshot for full scans.
+     * @return The booking numbers in ascending order; the array is exactly as long as the result.
+     */
+    synchronized int[] page(Booking.BookingStatus status, int afterBookingNumber, int limit) {
+        return page(segments[status.ordinal()], counts[status.ordinal()], afterBookingNumber, limit);
+    }
+
+    /**
+     * Takes an immutable view of every status. Later writes copy the segments they touch.
+     * @return The view.
+     */
+    synchronized View snapshot() {
+        long[][][] shared = new long[STATUSES][][];
+        for (int s = 0; s < STATUSES; s++) {
+            shared[s] = segments[s].clone();
+        }
+        epoch++;
+        return new View(shared, counts.clone());
+    }
+
+    private void set(int status, int bookingNumber) {
+        long[] words = writableSegment(status, bookingNumber >>> SEGMENT_SHIFT);
+        int bit = bookingNumber & SEGMENT_MASK;
+        long mask = 1L << bit;
+        if ((words[bit >>> 6] & mask) == 0) {
+            words[bit >>> 6] |= mask;
+            counts[status]++;
+        }
+    }
+
+    private void clear(int status, int bookingNumber) {
+        int segment = bookingNumber >>> SEGMENT_SHIFT;
+        if (segment >= segments[status].length || segments[status][segment] == null) {
+            return;
+        }
+        long[] words = writableSegment(status, segment);
+        int bit = bookingNumber & SEGMENT_MASK;
+        long mask = 1L << bit;
+        if ((words[bit >>> 6] & mask) != 0) {
+            words[bit >>> 6] &= ~mask;
+            counts[status]--;
+        }
+    }
+
+    /**
+     * Returns a segment that no view shares, allocating or copying it if needed.
+     */
+    private long[] writableSegment(int status, int segment) {
+        if (segment >= segments[status].length) {
+            int length = Math.max(segment + 1, segments[status].length * 2);
+            segments[status] = Arrays.copyOf(segments[status], length);
+            segmentEpochs[status] = Arrays.copyOf(segmentEpochs[status], length);
+        }
+        long[] words = segments[status][segment];
+        if (words == null) {
+            words = new long[SEGMENT_WORDS];
+        } else if (segmentEpochs[status][segment] != epoch) {
+            words = words.clone();
+        } else {
+            return words;
+        }
+        segments[status][segment] = words;
+        segmentEpochs[status][segment] = epoch;
+        return words;
+    }
+
+    private static int[] page(long[][] segments, int count, int afterBookingNumber, int limit) {
+        int[] page = new int[Math.min(limit, count)];
+        int size = 0;
+        if (afterBookingNumber < Integer.MAX_VALUE) {
+            for (int n = nextSetBit(segments, Math.max(0, afterBookingNumber + 1)); n >= 0 && size < page.length;
+                 n = nextSetBit(segments, n + 1)) {
+                page[size++] = n;
+            }
+        }
+        return size == page.length ? page : Arrays.copyOf(page, size);
+    }
+
+    /**
+     * @return The first booking number at or after from, or -1 if there is none.
+     */
+    private static int nextSetBit(long[][] segments, int from) {
+        if (from < 0) {
+            return -1; // overflowed past Integer.MAX_VALUE
+        }
+        for (int segment = from >>> SEGMENT_SHIFT; segment < segments.length; segment++) {
+            long[] words = segments[segment];
+            if (words == null) {
+                continue;
+            }
+            int bit = segment == from >>> SEGMENT_SHIFT ? from & SEGMENT_MASK : 0;
+            int word = bit >>> 6;
+            long bits = words[word] & (-1L << bit);
+            while (true) {
+                if (bits != 0) {
+                    return (segment << SEGMENT_SHIFT) | (word << 6) | Long.numberOfTrailingZeros(bits);
+                }
+                if (++word == SEGMENT_WORDS) {
+                    break;
+                }
+                bits = words[word];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * An immutable point-in-time view of a StatusIndex.
+     */
+    static final class View {
+        private final long[][][] segments;
+        private final int[] counts;
+
+        private View(long[][][] segments, int[] counts) {
+            this.segments = segments;
+            this.counts = counts;
+        }
+
+        /**
+         * @return true if the booking number was in the status when the view was taken.
+         */
+        boolean contains(Booking.BookingStatus status, int bookingNumber) {
+            long[][] statusSegments = segments[status.ordinal()];
+            int segment = bookingNumber >>> SEGMENT_SHIFT;
+            if (bookingNumber < 0 || segment >= statusSegments.length || statusSegments[segment] == null) {
+                return false;
+            }
+            int bit = bookingNumber & SEGMENT_MASK;
+            return (statusSegments[segment][bit >>> 6] & (1L << bit)) != 0;
+        }
+
+        int count(Booking.BookingStatus status) {
+            return counts[status.ordinal()];
+        }
+
+        /**
+         * @return A booking number above every booking number in the status.
+         */
+        int limit(Booking.BookingStatus status) {
+            return (int) Math.min(Integer.MAX_VALUE, (long) segments[status.ordinal()].length << SEGMENT_SHIFT);
+        }
+
+        /**
+         * @return The first booking number in the status at or after from, or -1 if there is none.
+         */
+        int next(Booking.BookingStatus status, int from) {
+            return nextSetBit(segments[status.ordinal()], from);
+        }
+
+        int[] page(Booking.BookingStatus status, int afterBookingNumber, int limit) {
+            return StatusIndex.page(segments[status.ordinal()], counts[status.ordinal()], afterBookingNumber, limit);
+        }
+
+        /**
+         * @return Every booking number in the status, in ascending order.
+         */
+        List<Integer> list(Booking.BookingStatus status) {
+            List<Integer> result = new ArrayList<>(count(status));
+            for (int n = next(status, 0); n >= 0; n = next(status, n + 1)) {
+                result.add(n);
+            }
+            return result;
+        }
+    }
+}
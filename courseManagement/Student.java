@@ -1,34 +1,99 @@
 package courseManagement;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
  * Represents a student in the system.
- * It stores the student's ID and the courses they are enrolled in.
+ * It stores the student's ID, the courses they are enrolled in and the exams they have booked.
+ * Courses and exams are held by their interned ordinals, so membership checks do not hash strings.
  */
 public class Student {
     private String studentId;
-    private Set<String> courseIds = new HashSet<>();
+    private final int ordinal;
+    private final IdDictionary courseOrdinals;
+    private final IdDictionary examOrdinals;
+    // Course ordinals, sorted. Replaced on every change (a promotion from a waitlist can change a published
+    // student), so readers never need a lock
+    private volatile int[] courses = new int[0];
+    // Bookings as (exam ordinal << 32 | booking number), sorted by exam ordinal.
+    // Replaced on every booking, so readers never need a lock.
+    private volatile long[] bookings = new long[0];
+    // The number of course waitlists the student is on. Changed under the course lock, read without one
+    private volatile int waitlists;
+    // Booked exams that have a time slot, created on the first one. Guarded by the manager's student lock
+    private Timetable timetable;
 
     /**
      * Constructor for the Student class.
      * @param studentId The unique identifier for the student.
      */
     public Student(String studentId) {
+        this(studentId, 0, new IdDictionary(), new IdDictionary());
+    }
+
+    /**
+     * Constructor for a student registered with a CourseManager.
+     * @param studentId The unique identifier for the student.
+     * @param ordinal The interned student ID.
+     * @param courseOrdinals The manager's course dictionary.
+     * @param examOrdinals The manager's exam dictionary.
+     */
+    Student(String studentId, int ordinal, IdDictionary courseOrdinals, IdDictionary examOrdinals) {
         this.studentId = studentId;
+        this.ordinal = ordinal;
+        this.courseOrdinals = courseOrdinals;
+        this.examOrdinals = examOrdinals;
     }
 
     public String getStudentId() {
         return studentId;
     }
 
+    int getOrdinal() {
+        return ordinal;
+    }
+
     /**
      * Adds a course to the student's set of enrolled courses.
      * @param courseId The ID of the course to add.
      */
     public void addCourse(String courseId) {
-        courseIds.add(courseId);
+        addCourse(courseOrdinals.intern(courseId));
+    }
+
+    synchronized void addCourse(int courseOrdinal) {
+        int[] current = courses;
+        int index = Arrays.binarySearch(current, courseOrdinal);
+        if (index >= 0) {
+            return;
+        }
+        int insertAt = -index - 1;
+        int[] updated = new int[current.length + 1];
+        System.arraycopy(current, 0, updated, 0, insertAt);
+        updated[insertAt] = courseOrdinal;
+        System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        courses = updated;
+    }
+
+    /**
+     * Removes a course from the student's set of enrolled courses.
+     * @param courseOrdinal The interned course ID.
+     */
+    synchronized void removeCourse(int courseOrdinal) {
+        int[] current = courses;
+        int index = Arrays.binarySearch(current, courseOrdinal);
+        if (index < 0) {
+            return;
+        }
+        int[] updated = new int[current.length - 1];
+        System.arraycopy(current, 0, updated, 0, index);
+        System.arraycopy(current, index + 1, updated, index, updated.length - index);
+        courses = updated;
     }
 
     /**
@@ -37,6 +102,147 @@ public class Student {
      * @return true if the student is enrolled, false otherwise.
      */
     public boolean isEnrolledIn(String courseId) {
-        return courseIds.contains(courseId);
+        int courseOrdinal = courseOrdinals.ordinalOf(courseId);
+        return courseOrdinal >= 0 && isEnrolledIn(courseOrdinal);
+    }
+
+    boolean isEnrolledIn(int courseOrdinal) {
+        return Arrays.binarySearch(courses, courseOrdinal) >= 0;
+    }
+
+    /**
+     * Records that the student joined a course's waitlist. The caller must hold the course lock.
+     */
+    synchronized void joinedWaitlist() {
+        waitlists++;
+    }
+
+    /**
+     * Records that the student left a course's waitlist, or was promoted from it. A promotion must add the
+     * course first, so a reader that sees the student off every waitlist also sees the course.
+     */
+    synchronized void leftWaitlist() {
+        waitlists--;
+    }
+
+    /**
+     * @return true if the student is on any course's waitlist.
+     */
+    boolean isWaitlisted() {
+        return waitlists > 0;
+    }
+
+    /**
+     * Records that the student has booked an exam.
+     * @param examId The ID of the booked exam.
+     * @param bookingNumber The booking number assigned to the booking.
+     */
+    public void addBooking(String examId, int bookingNumber) {
+        addBooking(examOrdinals.intern(examId), bookingNumber);
+    }
+
+    synchronized void addBooking(int examOrdinal, int bookingNumber) {
+        long[] current = bookings;
+        long entry = (long) examOrdinal << 32 | bookingNumber;
+        int index = indexOf(current, examOrdinal);
+        long[] updated;
+        if (index >= 0) {
+            updated = current.clone();
+            updated[index] = entry;
+        } else {
+            int insertAt = -index - 1;
+            updated = new long[current.length + 1];
+            System.arraycopy(current, 0, updated, 0, insertAt);
+            updated[insertAt] = entry;
+            System.arraycopy(current, insertAt, updated, insertAt + 1, current.length - insertAt);
+        }
+        bookings = updated;
+    }
+
+    /**
+     * Checks if the student has already booked a specific exam.
+     * @param examId The ID of the exam to check.
+     * @return true if the exam has been booked, false otherwise.
+     */
+    public boolean hasBooked(String examId) {
+        int examOrdinal = examOrdinals.ordinalOf(examId);
+        return examOrdinal >= 0 && hasBooked(examOrdinal);
+    }
+
+    boolean hasBooked(int examOrdinal) {
+        return indexOf(bookings, examOrdinal) >= 0;
+    }
+
+    /**
+     * Finds a booked exam that clashes with a time slot. The caller must hold the student lock.
+     * @param slot The time slot to check.
+     * @return The clashing exam, or null if the student is free at that time.
+     */
+    Exam getClash(TimeSlot slot) {
+        return timetable != null ? timetable.conflictWith(slot) : null;
+    }
+
+    /**
+     * Adds a booked exam with a time slot to the student's timetable. The caller must hold the student lock.
+     * @param exam The booked exam.
+     */
+    void addToTimetable(Exam exam) {
+        if (timetable == null) {
+            timetable = new Timetable();
+        }
+        timetable.add(exam);
+    }
+
+    /**
+     * @return The interned IDs of the student's courses, sorted. Must not be modified.
+     */
+    int[] getCourseOrdinals() {
+        return courses;
+    }
+
+    /**
+     * Returns the student's bookings.
+     * @return A read-only map with examId as key and booking number as value.
+     */
+    public Map<String, Integer> getBookings() {
+        long[] current = bookings;
+        Map<String, Integer> result = new HashMap<>();
+        for (long entry : current) {
+            result.put(examOrdinals.idOf((int) (entry >>> 32)), (int) entry);
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * @return The bookings as (exam ordinal << 32 | booking number), sorted by exam ordinal. Must not be modified.
+     */
+    long[] getBookingEntries() {
+        return bookings;
+    }
+
+    /**
+     * @return A read-only set of the IDs of the courses the student is enrolled in.
+     */
+    public Set<String> getCourseIds() {
+        Set<String> result = new HashSet<>();
+        for (int courseOrdinal : courses) {
+            result.add(courseOrdinals.idOf(courseOrdinal));
+        }
+        return Collections.unmodifiableSet(result);
+    }
+
+    /**
+     * @return The index of the entry for an exam, or (-(insertion point) - 1) if there is none.
+     */
+    private static int indexOf(long[] entries, int examOrdinal) {
+        // Entries of one exam sort at or after (examOrdinal << 32), so that is where to look
+        int insertAt = Arrays.binarySearch(entries, (long) examOrdinal << 32);
+        if (insertAt < 0) {
+            insertAt = -insertAt - 1;
+        }
+        if (insertAt < entries.length && (int) (entries[insertAt] >>> 32) == examOrdinal) {
+            return insertAt;
+        }
+        return -insertAt - 1;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,74 @@
+package courseManagement;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * The time an exam takes place, from its start up to but not including its end.
+ * Times are milliseconds since the epoch. Slots that only touch, such as 9:00-11:00 and 11:00-13:00,
+ * do not overlap.
+ */
+public final class TimeSlot {
+    private final long start;
+    private final long end;
+
+    /**
+     * Constructor for the TimeSlot class.
+     * @param start The start time, in milliseconds since the epoch.
+     * @param end The end time, in milliseconds since the epoch.
+     * @throws IllegalArgumentException if end is not after start.
+     */
+    public TimeSlot(long start, long end) {
+        if (end <= start) {
+            throw new IllegalArgumentException("A time slot must end after it starts.");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Creates a time slot from a start time and a length.
+     * @param start The start time.
+     * @param length How long the slot lasts.
+     * @return The time slot.
+     */
+    public static TimeSlot of(Instant start, Duration length) {
+        return new TimeSlot(start.toEpochMilli(), start.plus(length).toEpochMilli());
+    }
+
+    public long getStart() {
+        return start;
+    }
+
+    public long getEnd() {
+        return end;
+    }
+
+    /**
+     * Checks if two time slots share any moment.
+     * @param other The other time slot.
+     * @return true if the slots overlap.
+     */
+    public boolean overlaps(TimeSlot other) {
+        return start < other.end && other.start < end;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (!(o instanceof TimeSlot)) {
+            return false;
+        }
+        TimeSlot other = (TimeSlot) o;
+        return start == other.start && end == other.end;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(start) * 31 + Long.hashCode(end);
+    }
+
+    @Override
+    public String toString() {
+        return Instant.ofEpochMilli(start) + "/" + Instant.ofEpochMilli(end);
+    }
+}
@@ -0,0 +1,36 @@
+package courseManagement;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The timed exams of one student or one room, indexed by start time.
+ * No two exams in a timetable overlap, so the only one that can clash with a new slot is the last one
+ * starting before the slot ends. A conflict check is therefore a single lookup in a sorted map,
+ * O(log n), and needs no general interval tree.
+ * Not thread-safe: the owner guards it.
+ */
+class Timetable {
+    private final TreeMap<Long, Exam> byStart = new TreeMap<>();
+
+    /**
+     * Finds the exam that clashes with a time slot.
+     * @param slot The time slot to check.
+     * @return The exam whose slot overlaps it, or null if the slot is free.
+     */
+    Exam conflictWith(TimeSlot slot) {
+        Map.Entry<Long, Exam> before = byStart.lowerEntry(slot.getEnd());
+        if (before != null && before.getValue().getTimeSlot().getEnd() > slot.getStart()) {
+            return before.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Adds a timed exam. The caller must have checked it does not clash.
+     * @param exam The exam, which has a time slot.
+     */
+    void add(Exam exam) {
+        byStart.put(exam.getTimeSlot().getStart(), exam);
+    }
+}
@@ -0,0 +1,175 @@
+package courseManagement;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the clashes in a term timetable for {@link CourseManager#checkTimetable}.
+ * The scheduled exams are ranked by start time once. Each room's exams and each student's exams are then a
+ * short list of ranks, swept in start order while keeping the exams still running: every exam still running
+ * when the next one starts clashes with it. The cost is O(n log n) in the number of exams and enrollments,
+ * plus the number of clashes found.
+ */
+final class TimetableCheck {
+    private final Exam[] examByRank;
+    private final TimeSlot[] slotByRank;
+    private int[] running = new int[16];
+
+    /**
+     * Ranks the scheduled exams by start time.
+     * @param exams The exams.
+     * @param changes Proposed time slots by exam ID, replacing the exams' own.
+     */
+    TimetableCheck(Collection<Exam> exams, Map<String, TimeSlot> changes) {
+        List<Exam> scheduledExams = new ArrayList<>();
+        List<TimeSlot> scheduledSlots = new ArrayList<>();
+        for (Exam exam : exams) {
+            TimeSlot slot = changes.getOrDefault(exam.getExamId(), exam.getTimeSlot());
+            if (slot != null) {
+                scheduledExams.add(exam);
+                scheduledSlots.add(slot);
+            }
+        }
+        Integer[] order = new Integer[scheduledExams.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingLong((Integer i) -> scheduledSlots.get(i).getStart())
+                .thenComparingInt(i -> scheduledExams.get(i).getOrdinal()));
+        examByRank = new Exam[order.length];
+        slotByRank = new TimeSlot[order.length];
+        for (int rank = 0; rank < order.length; rank++) {
+            examByRank[rank] = scheduledExams.get(order[rank]);
+            slotByRank[rank] = scheduledSlots.get(order[rank]);
+        }
+    }
+
+    private interface ClashSink {
+        void clash(int earlierRank, int laterRank);
+    }
+
+    /**
+     * A growable list of exam ranks.
+     */
+    private static final class Ranks {
+        int[] values = new int[4];
+        int size;
+
+        void add(int rank) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = rank;
+        }
+
+        void addAll(Ranks other) {
+            if (size + other.size > values.length) {
+                values = Arrays.copyOf(values, Math.max(values.length * 2, size + other.size));
+            }
+            System.arraycopy(other.values, 0, values, size, other.size);
+            size += other.size;
+        }
+    }
+
+    /**
+     * Finds the exams in the same room at overlapping times.
+     * @return The room conflicts.
+     */
+    List<TimetableConflict> findRoomConflicts() {
+        // Ranks are visited in order, so each room's list comes out sorted by start time
+        Map<String, Ranks> rooms = new LinkedHashMap<>();
+        for (int rank = 0; rank < examByRank.length; rank++) {
+            rooms.computeIfAbsent(examByRank[rank].getLocation(), key -> new Ranks()).add(rank);
+        }
+        List<TimetableConflict> conflicts = new ArrayList<>();
+        for (Map.Entry<String, Ranks> room : rooms.entrySet()) {
+            String location = room.getKey();
+            sweep(room.getValue().values, room.getValue().size, (earlier, later) ->
+                    conflicts.add(conflict(TimetableConflict.Type.ROOM, earlier, later, location, 0)));
+        }
+        return conflicts;
+    }
+
+    /**
+     * Finds the exams at overlapping times whose courses share enrolled students.
+     * @param students The students.
+     * @return The student conflicts, with the number of students affected by each.
+     */
+    List<TimetableConflict> findStudentConflicts(Collection<Student> students) {
+        // Scheduled exams per course ordinal, each list sorted by start time
+        int courseCount = 0;
+        for (Exam exam : examByRank) {
+            courseCount = Math.max(courseCount, exam.getCourseOrdinal() + 1);
+        }
+        Ranks[] courseRanks = new Ranks[courseCount];
+        for (int rank = 0; rank < examByRank.length; rank++) {
+            int course = examByRank[rank].getCourseOrdinal();
+            if (courseRanks[course] == null) {
+                courseRanks[course] = new Ranks();
+            }
+            courseRanks[course].add(rank);
+        }
+
+        // Students affected per clashing pair, keyed by (earlier rank << 32 | later rank)
+        Map<Long, Integer> pairs = new HashMap<>();
+        ClashSink sink = (earlier, later) -> pairs.merge((long) earlier << 32 | later, 1, Integer::sum);
+        Ranks ranks = new Ranks();
+        for (Student student : students) {
+            ranks.size = 0;
+            for (int course : student.getCourseOrdinals()) {
+                if (course < courseCount && courseRanks[course] != null) {
+                    ranks.addAll(courseRanks[course]);
+                }
+            }
+            if (ranks.size > 1) {
+                Arrays.sort(ranks.values, 0, ranks.size);
+                sweep(ranks.values, ranks.size, sink);
+            }
+        }
+        List<TimetableConflict> conflicts = new ArrayList<>();
+        for (Map.Entry<Long, Integer> pair : pairs.entrySet()) {
+            long key = pair.getKey();
+            conflicts.add(conflict(TimetableConflict.Type.STUDENT, (int) (key >>> 32), (int) key, null,
+                    pair.getValue()));
+        }
+        return conflicts;
+    }
+
+    /**
+     * Reports every pair of overlapping exams in a list of ranks sorted by start time.
+     */
+    private void sweep(int[] ranks, int length, ClashSink sink) {
+        int runningCount = 0;
+        for (int i = 0; i < length; i++) {
+            int rank = ranks[i];
+            long start = slotByRank[rank].getStart();
+            int kept = 0;
+            for (int k = 0; k < runningCount; k++) {
+                if (slotByRank[running[k]].getEnd() > start) {
+                    sink.clash(running[k], rank);
+                    running[kept++] = running[k];
+                }
+            }
+            if (kept == running.length) {
+                running = Arrays.copyOf(running, running.length * 2);
+            }
+            running[kept++] = rank;
+            runningCount = kept;
+        }
+    }
+
+    private TimetableConflict conflict(TimetableConflict.Type type, int rank, int otherRank, String location,
+                                       int students) {
+        String examId = examByRank[rank].getExamId();
+        String otherExamId = examByRank[otherRank].getExamId();
+        return examId.compareTo(otherExamId) < 0
+                ? new TimetableConflict(type, examId, otherExamId, location, students)
+                : new TimetableConflict(type, otherExamId, examId, location, students);
+    }
+}
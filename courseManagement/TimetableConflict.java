@@ -0,0 +1,71 @@
+package courseManagement;
+
+/**
+ * A clash found by {@link CourseManager#checkTimetable}: two exams at overlapping times that are in the
+ * same room or share students.
+ */
+public final class TimetableConflict {
+
+    /**
+     * What the two exams compete for.
+     */
+    public enum Type {
+        ROOM,
+        STUDENT
+    }
+
+    private final Type type;
+    private final String firstExamId;
+    private final String secondExamId;
+    private final String location;
+    private final int students;
+
+    /**
+     * Constructor for the TimetableConflict class.
+     * @param type What the exams compete for.
+     * @param firstExamId The exam ID that sorts first.
+     * @param secondExamId The other exam ID.
+     * @param location The shared room, or null for a student conflict.
+     * @param students The number of students who would have to sit both exams, or 0 for a room conflict.
+     */
+    TimetableConflict(Type type, String firstExamId, String secondExamId, String location, int students) {
+        this.type = type;
+        this.firstExamId = firstExamId;
+        this.secondExamId = secondExamId;
+        this.location = location;
+        this.students = students;
+    }
+
+    public Type getType() {
+        return type;
+    }
+
+    public String getFirstExamId() {
+        return firstExamId;
+    }
+
+    public String getSecondExamId() {
+        return secondExamId;
+    }
+
+    /**
+     * @return The room both exams are in, or null for a student conflict.
+     */
+    public String getLocation() {
+        return location;
+    }
+
+    /**
+     * @return The number of students enrolled in both exams' courses, or 0 for a room conflict.
+     */
+    public int getStudents() {
+        return students;
+    }
+
+    @Override
+    public String toString() {
+        return type == Type.ROOM
+                ? firstExamId + " and " + secondExamId + " are both in " + location + " at the same time"
+                : firstExamId + " and " + secondExamId + " clash for " + students + " students";
+    }
+}